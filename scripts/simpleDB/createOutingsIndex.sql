@@ -0,0 +1,27 @@
+#
+#    This file is part of simple rowLog: the open rowing logbook.
+#    Copyright (C) 2026  Andrzej JR Hunt
+#    
+#    simple rowLog is free software: you can redistribute it and/or modify
+#    it under the terms of the GNU General Public License as published by
+#    the Free Software Foundation, either version 3 of the License, or
+#    (at your option) any later version.
+#
+#    simple rowLog is distributed in the hope that it will be useful,
+#    but WITHOUT ANY WARRANTY; without even the implied warranty of
+#    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+#    GNU General Public License for more details.
+#
+#    You should have received a copy of the GNU General Public License
+#    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+#
+#
+#	Changelog:
+#	19/10/2026:	Created.
+#
+#
+# Script: createOutingsIndex
+# Requires: createOutings
+# note: must be called using MessageFormat.format(loadFile(), year), as for
+# createOutings.
+CREATE INDEX outings{0}_day_idx ON outings_{0} (day, time_out)
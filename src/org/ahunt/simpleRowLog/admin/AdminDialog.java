@@ -20,6 +20,9 @@
  *	21/09/2009:	Created.
  *  06/08/2010: Moved to separate package, renamed AdminDialog, started real
  *  			work.
+ *  19/10/2026: Added the optional diagnostics panel.
+ *  19/10/2026: Added the maintenance panel.
+ *  19/10/2026: Uses the typed configuration getters.
  */
 package org.ahunt.simpleRowLog.admin;
 
@@ -42,6 +45,7 @@ import javax.swing.event.ChangeListener;
 import org.ahunt.simpleRowLog.common.ErrorHandler;
 import org.ahunt.simpleRowLog.conf.Configuration;
 import org.ahunt.simpleRowLog.interfaces.Database;
+import org.ahunt.simpleRowLog.interfaces.Maintainable;
 
 /**
  * @author Andrzej JR Hunt
@@ -93,6 +97,10 @@ public class AdminDialog extends JDialog implements ActionListener {
 		} catch (FileNotFoundException e) {
 			ErrorHandler.handleError(e);
 		}
+		if (db instanceof Maintainable
+				&& admin.getPermissionList().isPermissionSet("config_main")) {
+			configPanels.add(new MaintenancePanel((Maintainable) db));
+		}
 		// TODO: the rest of the dialog.
 
 		applyButton.addActionListener(this);
@@ -136,6 +144,14 @@ public class AdminDialog extends JDialog implements ActionListener {
 		if (admin.getPermissionList().isPermissionSet("admin_list")) {
 			configPanels.add(new AdminManagementPanel(db, admin));
 		}
+		try {
+			if (Configuration.getConf("admin").getBoolean("diagnostics",
+					false)) {
+				configPanels.add(new DiagnosticsPanel());
+			}
+		} catch (FileNotFoundException e) {
+			ErrorHandler.handleError(e);
+		}
 
 		// Add the panels to the dialog
 		for (ConfigPanelInterface c : configPanels) {
@@ -17,16 +17,20 @@
  *
  *
  *	Changelog:
+ *  19/10/2026: Permissions are stored as a BitSet indexed by the registry.
  *  10/03/2010: Created.
  */
 package org.ahunt.simpleRowLog.admin;
 
-import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 
 /**
  * A list of permissions for an administrator, listing what they can do. Note
  * that if an admin is also root, they automatically gain all permissions,
- * regardless of what their permission list states.
+ * regardless of what their permission list states. Only permissions in the
+ * registry {@link #permissions} can be set; each is stored as a bit at its
+ * index in the registry.
  * 
  * @author Andrzej JR Hunt
  * 
@@ -44,7 +48,20 @@ public abstract class AdminPermissionList {
 			"boat_list.remove", "outings_list", "outings_list.add",
 			"outings_list.modify", "outings_list.remove"};
 
-	private ArrayList<String> permissionsList = new ArrayList<String>();
+	/** The index of each permission in {@link #permissions}. */
+	private static final HashMap<String, Integer> indices = new HashMap<String, Integer>();
+
+	static {
+		for (int i = 0; i < permissions.length; i++) {
+			indices.put(permissions[i], i);
+		}
+	}
+
+	/** The permissions set, by index. */
+	private BitSet permissionBits = new BitSet(permissions.length);
+
+	/** The permissions as last stored in the database. */
+	private BitSet storedBits = new BitSet(permissions.length);
 
 	private String username;
 
@@ -198,7 +215,7 @@ public abstract class AdminPermissionList {
 	 * Clear (remove) all the permissions in the list.
 	 */
 	public void clearAllPermissions() {
-		permissionsList.clear();
+		permissionBits.clear();
 		if (autoStore)
 			storePermissions();
 	}
@@ -211,9 +228,12 @@ public abstract class AdminPermissionList {
 	 *            within the list then nothing is done.
 	 */
 	public void addPermission(String permission) {
-		if (!isPermissionSet(permission)) {
-			permissionsList.add(permission);
+		int index = getPermissionIndex(permission);
+		if (index < 0) {
+			throw new IllegalArgumentException("Unknown permission "
+					+ permission);
 		}
+		permissionBits.set(index);
 		if (autoStore) // Store if wanted
 			storePermissions();
 	}
@@ -222,12 +242,50 @@ public abstract class AdminPermissionList {
 	 * Check whether a specific permission is set in the list.
 	 * 
 	 * @param permission
-	 * @return
+	 *            The name of the permission.
+	 * @return Whether the permission is set. Unknown permissions are never
+	 *         set, except for root.
 	 */
 	public boolean isPermissionSet(String permission) {
 		if (isRoot)
 			return true;
-		return permissionsList.contains(permission);
+		Integer index = indices.get(permission);
+		return index != null && permissionBits.get(index);
+	}
+
+	/**
+	 * Check whether a specific permission is set in the list.
+	 * 
+	 * @param index
+	 *            The index of the permission, as returned by
+	 *            {@link #getPermissionIndex(String)}.
+	 * @return Whether the permission is set.
+	 */
+	public boolean isPermissionSet(int index) {
+		return isRoot || permissionBits.get(index);
+	}
+
+	/**
+	 * Get the index of a permission in the registry.
+	 * 
+	 * @param permission
+	 *            The name of the permission.
+	 * @return The index, or -1 if there is no such permission.
+	 */
+	public static int getPermissionIndex(String permission) {
+		Integer index = indices.get(permission);
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * Get the name of a permission in the registry.
+	 * 
+	 * @param index
+	 *            The index of the permission.
+	 * @return The name of the permission.
+	 */
+	public static String getPermissionName(int index) {
+		return permissions[index];
 	}
 
 	/**
@@ -239,7 +297,11 @@ public abstract class AdminPermissionList {
 	 * @return Whether or not the permission was removed.
 	 */
 	public boolean removePermission(String permission) {
-		boolean result = permissionsList.remove(permission);
+		int index = getPermissionIndex(permission);
+		boolean result = index >= 0 && permissionBits.get(index);
+		if (result) {
+			permissionBits.clear(index);
+		}
 		if (autoStore && result) // Only if storing and something was removed.
 			storePermissions();
 		return result;
@@ -251,7 +313,46 @@ public abstract class AdminPermissionList {
 	 * @return An array of all the permissions stored in the list.
 	 */
 	public String[] getAllPermissions() {
-		return permissionsList.toArray(new String[permissionsList.size()]);
+		String[] result = new String[permissionBits.cardinality()];
+		int j = 0;
+		for (int i = permissionBits.nextSetBit(0); i >= 0; i = permissionBits
+				.nextSetBit(i + 1)) {
+			result[j++] = permissions[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Get the permissions which have been set since the list was last
+	 * stored.
+	 * 
+	 * @return The indices of the added permissions.
+	 */
+	public BitSet getAddedPermissions() {
+		BitSet added = (BitSet) permissionBits.clone();
+		added.andNot(storedBits);
+		return added;
+	}
+
+	/**
+	 * Get the permissions which have been removed since the list was last
+	 * stored.
+	 * 
+	 * @return The indices of the removed permissions.
+	 */
+	public BitSet getRemovedPermissions() {
+		BitSet removed = (BitSet) storedBits.clone();
+		removed.andNot(permissionBits);
+		return removed;
+	}
+
+	/**
+	 * Mark the current permissions as stored, i.e. as matching the database.
+	 * To be called by {@link #storePermissions()} once successful, and when
+	 * the list has been loaded from the database.
+	 */
+	public void markStored() {
+		storedBits = (BitSet) permissionBits.clone();
 	}
 
 	/**
@@ -0,0 +1,243 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.admin;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ResourceBundle;
+
+import javax.swing.GroupLayout;
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.LayoutStyle;
+import javax.swing.table.AbstractTableModel;
+
+import org.ahunt.simpleRowLog.metrics.Metrics;
+import org.ahunt.simpleRowLog.metrics.Timer;
+
+/**
+ * Panel showing the timings of database calls and outing statements, as
+ * recorded by {@link Metrics}. Is only shown if <code>diagnostics</code> is
+ * set in admin.conf.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class DiagnosticsPanel extends AbstractTableModel implements
+		ConfigPanelInterface, ActionListener {
+
+	/** serialVersionUID */
+	private static final long serialVersionUID = 1L;
+
+	/** The language files for use. */
+	private ResourceBundle loc = ResourceBundle.getBundle("admin");
+
+	/** The panel containing all the graphical components. */
+	private JPanel displayPanel = new JPanel();
+
+	private JButton refreshButton = new JButton();
+	private JButton resetButton = new JButton();
+
+	/** The timers being displayed. */
+	private Timer[] timers;
+
+	/**
+	 * Create the panel.
+	 */
+	public DiagnosticsPanel() {
+		JTable table = new JTable(this);
+		table.setAutoCreateRowSorter(true);
+		JScrollPane tablePane = new JScrollPane(table);
+
+		refreshButton.setText(loc.getString("diagnostics.refresh"));
+		resetButton.setText(loc.getString("diagnostics.reset"));
+		refreshButton.addActionListener(this);
+		resetButton.addActionListener(this);
+
+		// Layouting
+		GroupLayout l = new GroupLayout(displayPanel);
+		displayPanel.setLayout(l);
+		l.setAutoCreateGaps(true);
+		l.setAutoCreateContainerGaps(true);
+		l.setVerticalGroup(l.createSequentialGroup().addComponent(tablePane)
+				.addGroup(
+						l.createParallelGroup().addComponent(refreshButton)
+								.addComponent(resetButton)));
+		l.setHorizontalGroup(l.createParallelGroup().addComponent(tablePane)
+				.addGroup(
+						l.createSequentialGroup().addPreferredGap(
+								LayoutStyle.ComponentPlacement.RELATED,
+								GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+								.addComponent(refreshButton).addComponent(
+										resetButton)));
+		updateTimers();
+	}
+
+	/**
+	 * The columns in the table.
+	 */
+	private String[] columnNames = { loc.getString("diagnostics.name"),
+			loc.getString("diagnostics.count"),
+			loc.getString("diagnostics.errors"),
+			loc.getString("diagnostics.mean"),
+			loc.getString("diagnostics.max"),
+			loc.getString("diagnostics.total"),
+			loc.getString("diagnostics.histogram") };
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int getColumnCount() {
+		return columnNames.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getColumnName(int col) {
+		return columnNames[col];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Class<?> getColumnClass(int col) {
+		switch (col) {
+		case 1:
+		case 2:
+			return Long.class;
+		case 3:
+		case 4:
+		case 5:
+			return Double.class;
+		default:
+			return String.class;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int getRowCount() {
+		return timers.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Object getValueAt(int row, int col) {
+		Timer t = timers[row];
+		switch (col) {
+		case 0:
+			return t.getName();
+		case 1:
+			return t.getCount();
+		case 2:
+			return t.getErrors();
+		case 3:
+			return round(t.getMeanMillis());
+		case 4:
+			return round(t.getMaxMillis());
+		case 5:
+			return round(t.getTotalMillis());
+		case 6:
+			return formatHistogram(t);
+		default:
+			return null;
+		}
+	}
+
+	private static double round(double millis) {
+		return Math.round(millis * 100) / 100.0;
+	}
+
+	/**
+	 * Format the histogram as e.g. "&lt;1:10 &lt;2:3 &gt;=5000:1", leaving
+	 * out empty buckets.
+	 */
+	private static String formatHistogram(Timer t) {
+		long[] h = t.getHistogram();
+		long[] bounds = t.getHistogramBounds();
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < h.length; i++) {
+			if (h[i] == 0) {
+				continue;
+			}
+			if (s.length() > 0) {
+				s.append(' ');
+			}
+			if (i < bounds.length) {
+				s.append('<').append(bounds[i]);
+			} else {
+				s.append(">=").append(bounds[bounds.length - 1]);
+			}
+			s.append(':').append(h[i]);
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Reload the list of timers.
+	 */
+	public void updateTimers() {
+		timers = Metrics.getTimers();
+		fireTableDataChanged();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		if (e.getSource() == resetButton) {
+			Metrics.resetAll();
+		}
+		updateTimers();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void apply() {
+		// Nothing to save.
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JPanel getPanel() {
+		return displayPanel;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return loc.getString("diagnostics.title");
+	}
+
+}
@@ -17,6 +17,7 @@
  *
  *
  *	Changelog:
+ *	19/10/2026:	Names are formatted by NameFormatter.
  *	06/08/2010:	Created on the basis of AddMemberDialog.
  */
 package org.ahunt.simpleRowLog.admin;
@@ -51,6 +52,7 @@ import org.ahunt.simpleRowLog.common.InvalidDataException;
 import org.ahunt.simpleRowLog.common.ErrorHandler;
 import org.ahunt.simpleRowLog.common.GroupInfo;
 import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.NameFormatter;
 import org.ahunt.simpleRowLog.common.Util;
 import org.ahunt.simpleRowLog.conf.Configuration;
 import org.ahunt.simpleRowLog.interfaces.Database;
@@ -329,14 +331,9 @@ public class EditMemberDialog extends JDialog {
 									.format(
 											loc.getString("member.add.exists"),
 											"<i>"
-													+ MessageFormat
-															.format(
-																	conf
-																			.getProperty("srl.name_format"),
-																	surnameEntry
-																			.getText(),
-																	forenameEntry
-																			.getText())
+													+ NameFormatter.getInstance().format(
+															surnameEntry.getText(),
+															forenameEntry.getText())
 													+ "</i>",
 											"<i>"
 													+ new SimpleDateFormat(
@@ -368,14 +365,9 @@ public class EditMemberDialog extends JDialog {
 									.format(
 											loc.getString("member.add.exists"),
 											"<i>"
-													+ MessageFormat
-															.format(
-																	conf
-																			.getProperty("srl.name_format"),
-																	surnameEntry
-																			.getText(),
-																	forenameEntry
-																			.getText())
+													+ NameFormatter.getInstance().format(
+															surnameEntry.getText(),
+															forenameEntry.getText())
 													+ "</i>",
 											"<i>"
 													+ new SimpleDateFormat(
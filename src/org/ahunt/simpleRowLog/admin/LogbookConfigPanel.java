@@ -17,6 +17,10 @@
  *
  *
  *	Changelog:
+ *	19/10/2026:	Uses the typed configuration getters.
+ *	19/10/2026:	A new look and feel is applied without restarting.
+ *	19/10/2026:	NameFormatter follows the configuration by itself.
+ *	19/10/2026:	A changed name format is passed to NameFormatter.
  *	08/08/2010:	Created.
  */
 package org.ahunt.simpleRowLog.admin;
@@ -35,7 +39,6 @@ import javax.swing.ButtonGroup;
 import javax.swing.GroupLayout;
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
-import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JTextField;
@@ -113,7 +116,7 @@ public class LogbookConfigPanel implements ConfigPanelInterface, ActionListener
 
 		main_nameFormatEdit.setText(configMain.getProperty("srl.name_format"));
 		main_dateFormatEdit.setText(configMain.getProperty("srl.date_format"));
-		if (configMain.getProperty("authenticate_for_exit").equals("true")) {
+		if (configMain.getBoolean("authenticate_for_exit", true)) {
 			main_exitAuthentication.setSelected(true);
 		}
 
@@ -214,17 +217,7 @@ public class LogbookConfigPanel implements ConfigPanelInterface, ActionListener
 				}
 				for (LAFRadioButton b : main_lafSelectionButtons) {
 					if (b.isSelected()) {
-						if (!b.getClassName().equals(
-								configMain.getProperty("gui.toolkit"))) {
-							JOptionPane
-									.showMessageDialog(
-											null,
-											loc
-													.getString("dialog.conf.main.laf.restart_required"),
-											loc
-													.getString("dialog.conf.main.laf.restart_required.title"),
-											JOptionPane.WARNING_MESSAGE);
-						}
+						// Applied by the launcher when it is told of the change.
 						configMain.setProperty("gui.toolkit", b.getClassName());
 					}
 				}
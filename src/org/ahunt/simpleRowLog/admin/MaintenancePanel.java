@@ -0,0 +1,249 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.admin;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.text.MessageFormat;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.GroupLayout;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.LayoutStyle;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+
+import org.ahunt.simpleRowLog.common.ErrorHandler;
+import org.ahunt.simpleRowLog.common.MaintenanceReport;
+import org.ahunt.simpleRowLog.interfaces.Maintainable;
+
+/**
+ * Panel showing the results of the last storage maintenance, i.e. the sizes
+ * of the tables before and after and whether their query plans changed, and
+ * allowing maintenance to be run now. Only shown if the database is
+ * {@link Maintainable}.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class MaintenancePanel extends AbstractTableModel implements
+		ConfigPanelInterface, ActionListener {
+
+	/** serialVersionUID */
+	private static final long serialVersionUID = 1L;
+
+	/** The language files for use. */
+	private ResourceBundle loc = ResourceBundle.getBundle("admin");
+
+	/** The panel containing all the graphical components. */
+	private JPanel displayPanel = new JPanel();
+
+	private JLabel summaryLabel = new JLabel();
+	private JButton runButton = new JButton();
+
+	/** The database being maintained. */
+	private Maintainable db;
+
+	/** The tables of the report shown. */
+	private MaintenanceReport.TableReport[] tables = new MaintenanceReport.TableReport[0];
+
+	/**
+	 * Create the panel.
+	 *
+	 * @param db
+	 *            The database.
+	 */
+	public MaintenancePanel(Maintainable db) {
+		this.db = db;
+		JTable table = new JTable(this);
+		table.setAutoCreateRowSorter(true);
+		JScrollPane tablePane = new JScrollPane(table);
+
+		runButton.setText(loc.getString("maintenance.run"));
+		runButton.addActionListener(this);
+
+		// Layouting
+		GroupLayout l = new GroupLayout(displayPanel);
+		displayPanel.setLayout(l);
+		l.setAutoCreateGaps(true);
+		l.setAutoCreateContainerGaps(true);
+		l.setVerticalGroup(l.createSequentialGroup()
+				.addComponent(summaryLabel).addComponent(tablePane).addGroup(
+						l.createParallelGroup().addComponent(runButton)));
+		l.setHorizontalGroup(l.createParallelGroup().addComponent(
+				summaryLabel).addComponent(tablePane).addGroup(
+				l.createSequentialGroup().addPreferredGap(
+						LayoutStyle.ComponentPlacement.RELATED,
+						GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+						.addComponent(runButton)));
+		MaintenanceReport[] reports = db.getMaintenanceReports();
+		showReport(reports.length > 0 ? reports[0] : null);
+	}
+
+	/**
+	 * The columns in the table.
+	 */
+	private String[] columnNames = { loc.getString("maintenance.table"),
+			loc.getString("maintenance.before"),
+			loc.getString("maintenance.after"),
+			loc.getString("maintenance.plan_changed"),
+			loc.getString("maintenance.plan") };
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int getColumnCount() {
+		return columnNames.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public String getColumnName(int col) {
+		return columnNames[col];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Class<?> getColumnClass(int col) {
+		switch (col) {
+		case 1:
+		case 2:
+			return Long.class;
+		case 3:
+			return Boolean.class;
+		default:
+			return String.class;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public int getRowCount() {
+		return tables.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Object getValueAt(int row, int col) {
+		MaintenanceReport.TableReport t = tables[row];
+		switch (col) {
+		case 0:
+			return t.getTable();
+		case 1:
+			return t.getSizeBefore() / 1024;
+		case 2:
+			return t.getSizeAfter() / 1024;
+		case 3:
+			return t.isPlanChanged();
+		case 4:
+			if (t.isPlanChanged()) {
+				return t.getPlanBefore() + " -> " + t.getPlanAfter();
+			}
+			return t.getPlanAfter();
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Show a report.
+	 *
+	 * @param report
+	 *            The report, or null if maintenance hasn't run.
+	 */
+	private void showReport(MaintenanceReport report) {
+		if (report == null) {
+			summaryLabel.setText(loc.getString("maintenance.none"));
+			tables = new MaintenanceReport.TableReport[0];
+		} else {
+			summaryLabel.setText(MessageFormat.format(loc.getString(report
+					.isInterrupted() ? "maintenance.summary_interrupted"
+					: "maintenance.summary"), report.getEnd(), report
+					.getSpaceReclaimed() / 1024, (report.getEnd().getTime() - report
+					.getStart().getTime()) / 1000.0));
+			tables = report.getTables();
+		}
+		fireTableDataChanged();
+	}
+
+	/**
+	 * {@inheritDoc} Runs the maintenance in the background.
+	 */
+	@Override
+	public void actionPerformed(ActionEvent e) {
+		runButton.setEnabled(false);
+		summaryLabel.setText(loc.getString("maintenance.running"));
+		new SwingWorker<MaintenanceReport, Object>() {
+			@Override
+			protected MaintenanceReport doInBackground() {
+				return db.runMaintenance();
+			}
+
+			@Override
+			protected void done() {
+				runButton.setEnabled(true);
+				try {
+					showReport(get());
+				} catch (InterruptedException e) {
+					showReport(null);
+				} catch (ExecutionException e) {
+					showReport(null);
+					ErrorHandler.handleError(e.getCause());
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void apply() {
+		// Nothing to save.
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public JPanel getPanel() {
+		return displayPanel;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return loc.getString("maintenance.title");
+	}
+
+}
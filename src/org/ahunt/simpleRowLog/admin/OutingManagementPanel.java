@@ -17,6 +17,7 @@
  *
  *
  *	Changelog:
+ *	19/10/2026: Crews drawn by CrewRenderer, formats only created once.
  *	06/01/2011: Actually did the work on it.
  *	23/12/2010:	Created from MemberManagementPanel.
  */
@@ -49,6 +50,7 @@ import javax.swing.ScrollPaneConstants;
 import javax.swing.table.AbstractTableModel;
 
 import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.CrewRenderer;
 import org.ahunt.simpleRowLog.common.ErrorHandler;
 import org.ahunt.simpleRowLog.common.MemberInfo;
 import org.ahunt.simpleRowLog.common.OutingInfo;
@@ -86,6 +88,12 @@ public class OutingManagementPanel extends AbstractTableModel implements
 	private ResourceBundle locGUI = ResourceBundle.getBundle("gui");
 	private Configuration conf;
 
+	/** The format of the day column. */
+	private SimpleDateFormat dayFormat;
+
+	/** The format of the time columns. */
+	private SimpleDateFormat timeFormat;
+
 	/** The database we are working upon. */
 	private Database db;
 
@@ -162,6 +170,8 @@ public class OutingManagementPanel extends AbstractTableModel implements
 		outingTable.getColumnModel().getColumn(1).setPreferredWidth(50); // Dat
 		outingTable.getColumnModel().getColumn(2).setPreferredWidth(50); // Boat
 		outingTable.getColumnModel().getColumn(3).setPreferredWidth(200); // Crew
+		outingTable.getColumnModel().getColumn(3).setCellRenderer(
+				new CrewRenderer());
 		outingTable.getColumnModel().getColumn(4).setPreferredWidth(20); // Time
 		outingTable.getColumnModel().getColumn(5).setPreferredWidth(20); // Time
 		outingTable.getColumnModel().getColumn(6).setPreferredWidth(10); // Distance
@@ -189,6 +199,11 @@ public class OutingManagementPanel extends AbstractTableModel implements
 
 		try {
 			conf = Configuration.getConf("simpleGUI");
+			// The day format is a general setting.
+			dayFormat = new SimpleDateFormat(Configuration.getConf("main")
+					.getProperty("srl.date_format"));
+			timeFormat = new SimpleDateFormat(conf
+					.getProperty("time_format_outings"));
 		} catch (FileNotFoundException e) {
 			ErrorHandler.handleError(e);
 		}
@@ -441,48 +456,18 @@ public class OutingManagementPanel extends AbstractTableModel implements
 		case 0:
 			return outings[row].getId();
 		case 1:
-			SimpleDateFormat df = new SimpleDateFormat(conf
-					.getProperty("srl.date_format"));
-			return df.format(outings[row].getDay());
+			return dayFormat.format(outings[row].getDay());
 		case 2:
 			return outings[row].getBoat().getName();
-		case 3: // rowers could be null...
-			StringBuffer buff = new StringBuffer();
-			// TODO: check whether alignment is correct.
-			buff.append("<html><table align=top>");
-			MemberInfo[] rowers = outings[row].getRowers();
-			// Go through four rows.
-			for (short i = 0; i < 4; i++) {
-				// Get rower 1 - 4 if existant.
-				if (i < rowers.length && rowers[i] != null) {
-					buff.append("<tr><td>");
-					buff.append(rowers[i].getName());
-					buff.append("</td>");
-					// Get rower 5-8 if existant. (1 and 5 in same row.)
-					if (i < rowers.length + 4 && rowers[i + 4] != null) {
-						buff.append("<td>");
-						buff.append(rowers[i + 4].getName());
-						buff.append("</td>");
-					}
-					buff.append("</tr>");
-				}
-			}
-			if (outings[row].getCox() != null) {
-				buff.append("<tr><td><i>" + outings[row].getCox().getName()
-						+ "</i></td</tr");
-			}
-			buff.append("</table></html>");
-			return buff.toString();
+		case 3:
+			return CrewRenderer.getNames(outings[row]);
 		case 4:
-			SimpleDateFormat df1 = new SimpleDateFormat(conf
-					.getProperty("time_format_outings"));
-			return df1.format(outings[row].getOut());
+			return timeFormat.format(outings[row].getOut());
 		case 5:
 			if (outings[row].getIn() != null) {
-				SimpleDateFormat df2 = new SimpleDateFormat(conf
-						.getProperty("time_format_outings"));
-				return df2.format(outings[row].getIn());
+				return timeFormat.format(outings[row].getIn());
 			}
+			return null;
 		case 6:
 			return outings[row].getDistance();
 		case 7:
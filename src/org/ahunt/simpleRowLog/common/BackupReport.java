@@ -0,0 +1,157 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.io.File;
+import java.util.Date;
+
+/**
+ * The results of one full backup of the database and the configuration: where
+ * it was placed, how large it is and how long it took.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class BackupReport {
+
+	/** When the backup started. */
+	private Date start;
+
+	/** When the backup finished. */
+	private Date end;
+
+	/** The directory containing the backup. */
+	private File location;
+
+	/** The size of the copy of the database, in bytes. */
+	private long databaseSize;
+
+	/** The size of the copy of the configuration, in bytes. */
+	private long confSize;
+
+	/**
+	 * Create a report.
+	 *
+	 * @param start
+	 *            When the backup started.
+	 * @param end
+	 *            When the backup finished.
+	 * @param location
+	 *            The directory containing the backup.
+	 * @param databaseSize
+	 *            The size of the copy of the database, in bytes.
+	 * @param confSize
+	 *            The size of the copy of the configuration, in bytes.
+	 */
+	public BackupReport(Date start, Date end, File location,
+			long databaseSize, long confSize) {
+		this.start = start;
+		this.end = end;
+		this.location = location;
+		this.databaseSize = databaseSize;
+		this.confSize = confSize;
+	}
+
+	/**
+	 * Get the time the backup started. The backup contains the database as it
+	 * was at this time.
+	 *
+	 * @return The start.
+	 */
+	public Date getStart() {
+		return start;
+	}
+
+	/**
+	 * Get the time the backup finished.
+	 *
+	 * @return The end.
+	 */
+	public Date getEnd() {
+		return end;
+	}
+
+	/**
+	 * Get the directory containing the backup.
+	 *
+	 * @return The directory.
+	 */
+	public File getLocation() {
+		return location;
+	}
+
+	/**
+	 * Get the size of the copy of the database.
+	 *
+	 * @return The size in bytes.
+	 */
+	public long getDatabaseSize() {
+		return databaseSize;
+	}
+
+	/**
+	 * Get the size of the copy of the configuration.
+	 *
+	 * @return The size in bytes.
+	 */
+	public long getConfSize() {
+		return confSize;
+	}
+
+	/**
+	 * Get the size of the whole backup.
+	 *
+	 * @return The size in bytes.
+	 */
+	public long getSize() {
+		return databaseSize + confSize;
+	}
+
+	/**
+	 * Get the time the backup took.
+	 *
+	 * @return The duration in milliseconds.
+	 */
+	public long getDuration() {
+		return end.getTime() - start.getTime();
+	}
+
+	/**
+	 * Get the speed at which the backup was written.
+	 *
+	 * @return The throughput in bytes per second, 0 if too fast to measure.
+	 */
+	public double getThroughput() {
+		long duration = getDuration();
+		return duration > 0 ? getSize() * 1000.0 / duration : 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s: %d bytes (database %d, configuration %d)"
+				+ " in %d ms, %.1f kB/s", location, getSize(), databaseSize,
+				confSize, getDuration(), getThroughput() / 1024);
+	}
+}
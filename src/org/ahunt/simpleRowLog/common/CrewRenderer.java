@@ -0,0 +1,189 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+
+import javax.swing.JComponent;
+import javax.swing.JTable;
+import javax.swing.border.Border;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * Renders the crew of an outing in a table cell: rowers 1-4 in the first
+ * column, 5-8 next to them, and the cox in italics below. The names are drawn
+ * directly, which is much cheaper than having a JLabel lay out an html table
+ * on every repaint. The value of the cell must be the array returned by
+ * {@link #getNames(OutingInfo)}.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class CrewRenderer extends JComponent implements TableCellRenderer {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Space around the names. */
+	private static final Border BORDER = new EmptyBorder(2, 4, 2, 4);
+
+	/** The names being rendered. */
+	private String[] names;
+
+	/** The font for the cox, derived from the current font. */
+	private Font coxFont;
+
+	/**
+	 * Create a renderer.
+	 */
+	public CrewRenderer() {
+		setOpaque(true);
+		setBorder(BORDER);
+	}
+
+	/**
+	 * Get the names to show for a crew.
+	 *
+	 * @param outing
+	 *            The outing.
+	 * @return The names of the rowers 1-8 and the cox, null for empty seats.
+	 */
+	public static String[] getNames(OutingInfo outing) {
+		String[] names = new String[9];
+		MemberInfo[] rowers = outing.getRowers();
+		for (int i = 0; i < 8 && i < rowers.length; i++) {
+			if (rowers[i] != null) {
+				names[i] = rowers[i].getName();
+			}
+		}
+		if (outing.getCox() != null) {
+			names[8] = outing.getCox().getName();
+		}
+		return names;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public Component getTableCellRendererComponent(JTable table, Object value,
+			boolean isSelected, boolean hasFocus, int row, int column) {
+		names = (String[]) value;
+		if (isSelected) {
+			setForeground(table.getSelectionForeground());
+			setBackground(table.getSelectionBackground());
+		} else {
+			setForeground(table.getForeground());
+			setBackground(table.getBackground());
+		}
+		if (getFont() != table.getFont()) {
+			setFont(table.getFont());
+			coxFont = table.getFont().deriveFont(Font.ITALIC);
+		}
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void paintComponent(Graphics g) {
+		if (isOpaque()) {
+			g.setColor(getBackground());
+			g.fillRect(0, 0, getWidth(), getHeight());
+		}
+		if (names == null) {
+			return;
+		}
+		Rectangle r = new Rectangle(0, 0, getWidth(), getHeight());
+		r.x += getInsets().left;
+		r.y += getInsets().top;
+		r.width -= getInsets().left + getInsets().right;
+		int half = r.width / 2;
+		g.setColor(getForeground());
+		g.setFont(getFont());
+		FontMetrics fm = g.getFontMetrics();
+		int y = r.y + fm.getAscent();
+		// As before, a line is only used if the first rower of it is set.
+		for (int i = 0; i < 4; i++) {
+			if (names[i] != null) {
+				drawName(g, names[i], r.x, y, half);
+				if (names[i + 4] != null) {
+					drawName(g, names[i + 4], r.x + half, y, r.width - half);
+				}
+				y += fm.getHeight();
+			}
+		}
+		if (names[8] != null) {
+			g.setFont(coxFont != null ? coxFont : getFont());
+			drawName(g, names[8], r.x, y, r.width);
+		}
+	}
+
+	/**
+	 * Draw a name, cut off at the given width.
+	 */
+	private static void drawName(Graphics g, String name, int x, int y,
+			int width) {
+		Graphics c = g.create();
+		try {
+			c.clipRect(x, 0, width - 4, Integer.MAX_VALUE);
+			c.drawString(name, x, y);
+		} finally {
+			c.dispose();
+		}
+	}
+
+	/*
+	 * As with DefaultTableCellRenderer, none of these are needed for a
+	 * renderer, and they are called for every cell.
+	 */
+
+	@Override
+	public void validate() {
+	}
+
+	@Override
+	public void revalidate() {
+	}
+
+	@Override
+	public void repaint(long tm, int x, int y, int width, int height) {
+	}
+
+	@Override
+	public void repaint(Rectangle r) {
+	}
+
+	@Override
+	protected void firePropertyChange(String propertyName, Object oldValue,
+			Object newValue) {
+	}
+
+	@Override
+	public void firePropertyChange(String propertyName, boolean oldValue,
+			boolean newValue) {
+	}
+}
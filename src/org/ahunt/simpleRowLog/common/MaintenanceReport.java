@@ -0,0 +1,218 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.util.Date;
+
+/**
+ * The results of one run of the database maintenance, i.e. the sizes of the
+ * tables before and after, and whether the plans of their queries changed.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class MaintenanceReport {
+
+	/**
+	 * The results for one table.
+	 */
+	public static class TableReport {
+
+		/** The name of the table. */
+		private String table;
+
+		/** The size before, in bytes. */
+		private long sizeBefore;
+
+		/** The size after, in bytes. */
+		private long sizeAfter;
+
+		/** The plan of the table's typical query before, null if none. */
+		private String planBefore;
+
+		/** The plan of the table's typical query after, null if none. */
+		private String planAfter;
+
+		/**
+		 * Create the results for one table.
+		 *
+		 * @param table
+		 *            The name of the table.
+		 * @param sizeBefore
+		 *            The size before maintenance, in bytes.
+		 * @param sizeAfter
+		 *            The size after maintenance, in bytes.
+		 * @param planBefore
+		 *            A summary of the plan of the table's typical query
+		 *            before maintenance, null if there is no such query.
+		 * @param planAfter
+		 *            A summary of the plan after maintenance.
+		 */
+		public TableReport(String table, long sizeBefore, long sizeAfter,
+				String planBefore, String planAfter) {
+			this.table = table;
+			this.sizeBefore = sizeBefore;
+			this.sizeAfter = sizeAfter;
+			this.planBefore = planBefore;
+			this.planAfter = planAfter;
+		}
+
+		/**
+		 * Get the name of the table.
+		 *
+		 * @return The name.
+		 */
+		public String getTable() {
+			return table;
+		}
+
+		/**
+		 * Get the size of the table before maintenance.
+		 *
+		 * @return The size in bytes.
+		 */
+		public long getSizeBefore() {
+			return sizeBefore;
+		}
+
+		/**
+		 * Get the size of the table after maintenance.
+		 *
+		 * @return The size in bytes.
+		 */
+		public long getSizeAfter() {
+			return sizeAfter;
+		}
+
+		/**
+		 * Get a summary of the plan of the table's typical query before
+		 * maintenance.
+		 *
+		 * @return The plan, null if not known.
+		 */
+		public String getPlanBefore() {
+			return planBefore;
+		}
+
+		/**
+		 * Get a summary of the plan of the table's typical query after
+		 * maintenance.
+		 *
+		 * @return The plan, null if not known.
+		 */
+		public String getPlanAfter() {
+			return planAfter;
+		}
+
+		/**
+		 * Check whether maintenance changed the plan.
+		 *
+		 * @return Whether both plans are known and differ.
+		 */
+		public boolean isPlanChanged() {
+			return planBefore != null && planAfter != null
+					&& !planBefore.equals(planAfter);
+		}
+	}
+
+	/** When the maintenance started. */
+	private Date start;
+
+	/** When the maintenance finished. */
+	private Date end;
+
+	/** The tables maintained. */
+	private TableReport[] tables;
+
+	/** Whether maintenance stopped early because the logbook was used. */
+	private boolean interrupted;
+
+	/**
+	 * Create a report.
+	 *
+	 * @param start
+	 *            When the maintenance started.
+	 * @param end
+	 *            When the maintenance finished.
+	 * @param tables
+	 *            The tables maintained.
+	 * @param interrupted
+	 *            Whether maintenance stopped before all tables were done.
+	 */
+	public MaintenanceReport(Date start, Date end, TableReport[] tables,
+			boolean interrupted) {
+		this.start = start;
+		this.end = end;
+		this.tables = tables;
+		this.interrupted = interrupted;
+	}
+
+	/**
+	 * Get the time the maintenance started.
+	 *
+	 * @return The start.
+	 */
+	public Date getStart() {
+		return start;
+	}
+
+	/**
+	 * Get the time the maintenance finished.
+	 *
+	 * @return The end.
+	 */
+	public Date getEnd() {
+		return end;
+	}
+
+	/**
+	 * Get the results for each table.
+	 *
+	 * @return The tables.
+	 */
+	public TableReport[] getTables() {
+		return tables.clone();
+	}
+
+	/**
+	 * Check whether the maintenance stopped early, because the logbook was
+	 * being used.
+	 *
+	 * @return Whether some tables weren't maintained.
+	 */
+	public boolean isInterrupted() {
+		return interrupted;
+	}
+
+	/**
+	 * Get the space reclaimed in all tables.
+	 *
+	 * @return The space reclaimed in bytes.
+	 */
+	public long getSpaceReclaimed() {
+		long saved = 0;
+		for (TableReport t : tables) {
+			saved += t.getSizeBefore() - t.getSizeAfter();
+		}
+		return saved;
+	}
+}
@@ -17,17 +17,15 @@
  *
  *
  *	Changelog:
+ *	19/10/2026:	The name is formatted by NameFormatter and kept.
  *  29/11/2009: Cleaned up. Not yet completed (formatting of name).
  *	23/08/2009:	Changelog added.
  */
 
 package org.ahunt.simpleRowLog.common;
 
-import java.text.MessageFormat;
 import java.util.Date;
 
-import org.ahunt.simpleRowLog.conf.Configuration;
-
 /**
  * All the information for a member. One of the possible uses is showing members
  * in the gui.
@@ -52,6 +50,12 @@ public class MemberInfo {
 	/** Stores the members group. */
 	private GroupInfo groupInfo;
 
+	/** The formatted name, valid if formatted in the current generation. */
+	private String name;
+
+	/** The NameFormatter generation in which the name was formatted. */
+	private volatile int nameGeneration;
+
 	/**
 	 * Create the information for a member
 	 * 
@@ -139,23 +143,19 @@ public class MemberInfo {
 
 	/**
 	 * Get the member's name. The name is formatted according to the format
-	 * string in main.conf[srl.name_format].
+	 * string in main.conf[srl.name_format], and kept until the format changes.
 	 * 
 	 * @return The member's name
+	 * @see NameFormatter
 	 */
 	public String getName() {
-		if (forename.length() == 0) { // If only a surname (e.g. Guest)
-			return surname;
-		} else {
-			try {
-				Configuration c = Configuration.getConf("main"); // Get the conf.
-				return MessageFormat.format(c.getProperty("srl.name_format"), surname,
-						forename);
-			} catch (Exception e) {
-				// TODO: error checking
-			}
-			return surname + "," + forename;
+		NameFormatter f = NameFormatter.getInstance();
+		int generation = f.getGeneration();
+		if (nameGeneration != generation) {
+			name = f.format(surname, forename);
+			nameGeneration = generation;
 		}
+		return name;
 	}
 
 }
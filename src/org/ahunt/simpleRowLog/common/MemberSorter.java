@@ -0,0 +1,161 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+
+import org.ahunt.simpleRowLog.interfaces.Database;
+
+/**
+ * Sorts a snapshot of the members according to the <code>SORT*</code>
+ * constants of {@link Database}, using the collation rules of a locale (so
+ * that e.g. "&#321;" sorts after "L" rather than after "Z"). The collation
+ * keys of all names are computed once, and each sort order is only computed
+ * once, so the sorter should be kept until the members change.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class MemberSorter {
+
+	/** The members, in their original order. */
+	private final MemberInfo[] members;
+
+	/** The collation keys of the members' surnames. */
+	private final CollationKey[] surnames;
+
+	/** The collation keys of the members' forenames. */
+	private final CollationKey[] forenames;
+
+	/** The collation keys of the names of the members' groups. */
+	private final CollationKey[] groups;
+
+	/** The positions in members, sorted, for each sort order used. */
+	private final HashMap<Integer, Integer[]> orders = new HashMap<Integer, Integer[]>();
+
+	/**
+	 * Create a sorter for the default locale.
+	 *
+	 * @param members
+	 *            The members to be sorted.
+	 */
+	public MemberSorter(MemberInfo[] members) {
+		this(members, Locale.getDefault());
+	}
+
+	/**
+	 * Create a sorter.
+	 *
+	 * @param members
+	 *            The members to be sorted.
+	 * @param locale
+	 *            The locale whose collation rules are used.
+	 */
+	public MemberSorter(MemberInfo[] members, Locale locale) {
+		this.members = members.clone();
+		Collator collator = Collator.getInstance(locale);
+		surnames = new CollationKey[members.length];
+		forenames = new CollationKey[members.length];
+		groups = new CollationKey[members.length];
+		// Groups are shared by many members, so only create their keys once.
+		HashMap<Integer, CollationKey> groupKeys = new HashMap<Integer, CollationKey>();
+		for (int i = 0; i < members.length; i++) {
+			MemberInfo m = members[i];
+			surnames[i] = collator.getCollationKey(m.getSurname());
+			forenames[i] = collator.getCollationKey(m.getForename());
+			GroupInfo g = m.getGroupInfo();
+			if (g != null) {
+				groups[i] = groupKeys.get(g.getId());
+				if (groups[i] == null) {
+					groups[i] = collator.getCollationKey(g.getName());
+					groupKeys.put(g.getId(), groups[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the members in the requested order.
+	 *
+	 * @param sorting
+	 *            The sort order, a combination of the <code>SORT*</code>
+	 *            constants in {@link Database}.
+	 * @return The sorted members. The array may be modified by the caller.
+	 */
+	public MemberInfo[] getSorted(int sorting) {
+		Integer[] order = getOrder(sorting);
+		MemberInfo[] sorted = new MemberInfo[order.length];
+		for (int i = 0; i < order.length; i++) {
+			sorted[i] = members[order[i]];
+		}
+		return sorted;
+	}
+
+	/**
+	 * Get (and cache) the positions of the members in the requested order.
+	 */
+	private synchronized Integer[] getOrder(int sorting) {
+		Integer[] order = orders.get(sorting);
+		if (order == null) {
+			order = new Integer[members.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			final boolean byGroup = (sorting & Database.SORTED_GROUP) != 0;
+			final boolean bySurname = (sorting & Database.SORTED_ALPHABETICALLY_SURNAME) != 0;
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					int c = 0;
+					if (byGroup) {
+						c = compareKeys(groups[a], groups[b]);
+					}
+					if (c == 0) {
+						c = bySurname ? surnames[a].compareTo(surnames[b])
+								: forenames[a].compareTo(forenames[b]);
+					}
+					if (c == 0) {
+						c = bySurname ? forenames[a].compareTo(forenames[b])
+								: surnames[a].compareTo(surnames[b]);
+					}
+					return c;
+				}
+			});
+			orders.put(sorting, order);
+		}
+		return order;
+	}
+
+	/**
+	 * Compare two keys, either of which may be null (sorted last).
+	 */
+	private static int compareKeys(CollationKey a, CollationKey b) {
+		if (a == null || b == null) {
+			return a == b ? 0 : (a == null ? 1 : -1);
+		}
+		return a.compareTo(b);
+	}
+}
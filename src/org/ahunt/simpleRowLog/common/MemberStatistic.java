@@ -17,6 +17,7 @@
  *
  *
  *	Changelog:
+ *  19/10/2026: Fixed lastYearOutings being set to thisYearOutings.
  *  29/11/2009: Cleaned up.
  *	23/08/2009:	Changelog added.
  */
@@ -77,7 +78,7 @@ public class MemberStatistic extends MemberInfo implements RowingStatistic {
 		super(key, surname, forename, dob, groupInfo);
 		this.thisYearOutings = thisYearOutings;
 		this.thisYearKM = thisYearKM;
-		this.lastYearOutings = thisYearOutings;
+		this.lastYearOutings = lastYearOutings;
 		this.lastYearKM = lastYearKM;
 	}
 
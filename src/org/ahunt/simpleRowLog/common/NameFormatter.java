@@ -0,0 +1,160 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Follows changes of the configuration.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.io.FileNotFoundException;
+import java.text.MessageFormat;
+
+import org.ahunt.simpleRowLog.conf.Configuration;
+import org.ahunt.simpleRowLog.conf.ConfigurationListener;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Formats the names of members according to main.conf[srl.name_format], where
+ * {0} is the surname and {1} the forename. The pattern is only read and
+ * compiled once; MemberInfo keeps the name it was given until the pattern
+ * changes, which is noted by increasing the generation. Changes of the
+ * configuration are followed.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class NameFormatter {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(
+			NameFormatter.class);
+
+	/** The instance. */
+	private static final NameFormatter instance = new NameFormatter();
+
+	/** The compiled pattern, null if it hasn't been read yet. */
+	private MessageFormat format;
+
+	/** Whether the pattern has been read, even if it was invalid. */
+	private boolean compiled;
+
+	/** Increased whenever the pattern changes. */
+	private volatile int generation = 1;
+
+	/** Whether the formatter listens to the configuration. */
+	private boolean listening;
+
+	private NameFormatter() {
+	}
+
+	/**
+	 * Get the name formatter.
+	 *
+	 * @return The formatter.
+	 */
+	public static NameFormatter getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Format a name.
+	 *
+	 * @param surname
+	 *            The surname.
+	 * @param forename
+	 *            The forename. If null or empty only the surname is used (e.g.
+	 *            for the guest).
+	 * @return The formatted name.
+	 */
+	public synchronized String format(String surname, String forename) {
+		if (forename == null || forename.length() == 0) {
+			return surname;
+		}
+		if (!compiled) {
+			String pattern = null;
+			try {
+				Configuration conf = Configuration.getConf("main");
+				pattern = conf.getProperty("srl.name_format");
+				if (!listening) {
+					conf.addListener(new ConfigurationListener() {
+						public void propertyChanged(Configuration conf,
+								String key, String value) {
+							if (key == null || key.equals("srl.name_format")) {
+								invalidate();
+							}
+						}
+					});
+					listening = true;
+				}
+			} catch (FileNotFoundException e) {
+				// Already reported, use the fallback.
+			}
+			compile(pattern);
+		}
+		if (format == null) {
+			return surname + "," + forename;
+		}
+		return format.format(new Object[] { surname, forename });
+	}
+
+	/**
+	 * Set the pattern, e.g. when it has been changed in the configuration.
+	 * Names formatted with the previous pattern are discarded.
+	 *
+	 * @param pattern
+	 *            The new pattern. If null or invalid surname,forename is
+	 *            used.
+	 */
+	public synchronized void setPattern(String pattern) {
+		compile(pattern);
+		generation++;
+	}
+
+	/**
+	 * Discard the pattern and all names formatted with it: the pattern is
+	 * read from the configuration again when next needed.
+	 */
+	public synchronized void invalidate() {
+		compiled = false;
+		format = null;
+		generation++;
+	}
+
+	/**
+	 * Get the generation of the pattern. Names formatted in an earlier
+	 * generation are out of date.
+	 *
+	 * @return The generation.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	private void compile(String pattern) {
+		compiled = true;
+		format = null;
+		if (pattern != null) {
+			try {
+				format = new MessageFormat(pattern);
+			} catch (IllegalArgumentException e) {
+				log.warn("Invalid srl.name_format: " + pattern);
+			}
+		}
+	}
+}
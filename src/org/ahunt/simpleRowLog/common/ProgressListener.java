@@ -0,0 +1,46 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+/**
+ * Receives progress information from long running tasks, e.g. exports. The
+ * listener may be called from any thread, so implementations that touch the
+ * gui should hand the work over to the event dispatch thread themselves.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public interface ProgressListener {
+
+	/**
+	 * Called whenever the task has made some progress.
+	 *
+	 * @param task
+	 *            A short description of what is currently being done.
+	 * @param done
+	 *            The number of units of work done so far.
+	 * @param total
+	 *            The total number of units of work, or -1 if unknown.
+	 */
+	public void progressUpdate(String task, long done, long total);
+
+}
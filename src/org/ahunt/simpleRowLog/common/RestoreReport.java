@@ -0,0 +1,263 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.io.File;
+import java.util.Date;
+
+/**
+ * The results of restoring a backup: which backup was used, up to when the
+ * logs were applied, how long it took, and the state of each restored table.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class RestoreReport {
+
+	/**
+	 * The state of one restored table.
+	 */
+	public static class TableReport {
+
+		/** The name of the table. */
+		private String table;
+
+		/** Whether SYSCS_CHECK_TABLE found the table consistent. */
+		private boolean consistent;
+
+		/** The number of rows. */
+		private long rows;
+
+		/** The checksum of the rows. */
+		private long checksum;
+
+		/**
+		 * Create the results for one table.
+		 *
+		 * @param table
+		 *            The name of the table.
+		 * @param consistent
+		 *            Whether the table and its indexes are consistent.
+		 * @param rows
+		 *            The number of rows.
+		 * @param checksum
+		 *            The checksum of the rows, which doesn't depend on their
+		 *            order.
+		 */
+		public TableReport(String table, boolean consistent, long rows,
+				long checksum) {
+			this.table = table;
+			this.consistent = consistent;
+			this.rows = rows;
+			this.checksum = checksum;
+		}
+
+		/**
+		 * Get the name of the table.
+		 *
+		 * @return The name.
+		 */
+		public String getTable() {
+			return table;
+		}
+
+		/**
+		 * Check whether the table and its indexes are consistent.
+		 *
+		 * @return Whether SYSCS_CHECK_TABLE found no problems.
+		 */
+		public boolean isConsistent() {
+			return consistent;
+		}
+
+		/**
+		 * Get the number of rows in the table.
+		 *
+		 * @return The number of rows.
+		 */
+		public long getRows() {
+			return rows;
+		}
+
+		/**
+		 * Get the checksum of the rows, which is the same for two tables
+		 * holding the same rows in any order.
+		 *
+		 * @return The checksum.
+		 */
+		public long getChecksum() {
+			return checksum;
+		}
+	}
+
+	/** The backup restored. */
+	private File backup;
+
+	/** The time the backup was started. */
+	private Date backupTime;
+
+	/** The time of the last log applied, null if none was applied. */
+	private Date restoredTo;
+
+	/** The number of archived log files applied. */
+	private int logs;
+
+	/** When the restore started. */
+	private Date start;
+
+	/** When the restore finished. */
+	private Date end;
+
+	/** The restored tables. */
+	private TableReport[] tables;
+
+	/** The problems found when verifying. */
+	private String[] problems;
+
+	/**
+	 * Create a report.
+	 *
+	 * @param backup
+	 *            The directory of the backup restored.
+	 * @param backupTime
+	 *            The time the backup was started.
+	 * @param restoredTo
+	 *            The time the last log applied was written, null if the
+	 *            backup was restored without logs.
+	 * @param logs
+	 *            The number of archived log files applied.
+	 * @param start
+	 *            When the restore started.
+	 * @param end
+	 *            When the restore finished.
+	 * @param tables
+	 *            The restored tables.
+	 * @param problems
+	 *            The problems found when verifying the backup and the
+	 *            restored database.
+	 */
+	public RestoreReport(File backup, Date backupTime, Date restoredTo,
+			int logs, Date start, Date end, TableReport[] tables,
+			String[] problems) {
+		this.backup = backup;
+		this.backupTime = backupTime;
+		this.restoredTo = restoredTo;
+		this.logs = logs;
+		this.start = start;
+		this.end = end;
+		this.tables = tables;
+		this.problems = problems;
+	}
+
+	/**
+	 * Get the directory of the backup that was restored.
+	 *
+	 * @return The backup.
+	 */
+	public File getBackup() {
+		return backup;
+	}
+
+	/**
+	 * Get the time the restored backup was started.
+	 *
+	 * @return The time of the backup.
+	 */
+	public Date getBackupTime() {
+		return backupTime;
+	}
+
+	/**
+	 * Get the time up to which the logs were applied. Changes made after the
+	 * backup and up to this time are contained in the restored database.
+	 *
+	 * @return The time the last log applied was written, null if only the
+	 *         backup was restored.
+	 */
+	public Date getRestoredTo() {
+		return restoredTo;
+	}
+
+	/**
+	 * Get the number of archived log files applied to the backup.
+	 *
+	 * @return The number of files.
+	 */
+	public int getLogs() {
+		return logs;
+	}
+
+	/**
+	 * Get the time the restore started.
+	 *
+	 * @return The start.
+	 */
+	public Date getStart() {
+		return start;
+	}
+
+	/**
+	 * Get the time the restore finished, including the verification.
+	 *
+	 * @return The end.
+	 */
+	public Date getEnd() {
+		return end;
+	}
+
+	/**
+	 * Get the time the restore took.
+	 *
+	 * @return The duration in milliseconds.
+	 */
+	public long getDuration() {
+		return end.getTime() - start.getTime();
+	}
+
+	/**
+	 * Get the state of each restored table.
+	 *
+	 * @return The tables.
+	 */
+	public TableReport[] getTables() {
+		return tables.clone();
+	}
+
+	/**
+	 * Get the problems found when verifying, e.g. damaged files in the backup,
+	 * inconsistent tables or tables differing from those compared with.
+	 *
+	 * @return The problems, empty if the restored database is fine.
+	 */
+	public String[] getProblems() {
+		return problems.clone();
+	}
+
+	/**
+	 * Check whether the restored database was verified without problems.
+	 *
+	 * @return Whether there were no problems.
+	 */
+	public boolean isVerified() {
+		return problems.length == 0;
+	}
+}
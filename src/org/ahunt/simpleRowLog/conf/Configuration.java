@@ -17,6 +17,16 @@
  *
  *
  *	Changelog:
+ *  19/10/2026: Whether a value is a number is kept explicitly rather than
+ *  			with a sentinel.
+ *  19/10/2026: Each key caches its text and its parsed values together;
+ *  			values read during a change are no longer cached.
+ *  19/10/2026: Files can be watched for changes made outside the program.
+ *  19/10/2026: Saving is delayed to batch changes, and writes a temporary
+ *  			file which replaces the old one; typed and cached getters;
+ *  			listeners. Fixed setProperty for keys of main, and closed the
+ *  			files.
+ *  19/10/2026: getProperty no longer fails before main is loaded.
  *  08/08/2010: Added checking of autosaving.
  *  30/11/2009: Added the error throwing to constructor.
  *	08/10/2009:	Changelog added.
@@ -25,12 +35,24 @@ package org.ahunt.simpleRowLog.conf;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.grlea.log.SimpleLogger;
 
 /**
  * A wrapper class for properties, which deals with the chores such as finding
@@ -39,12 +61,28 @@ import java.util.Properties;
  * requested will include the main configuration files contents, i.e. it is
  * possible to request configuration parameters from the main config
  * transparently through any config.
+ * <p>
+ * Modifications are saved shortly after the last one, so that several changes
+ * are written at once, and {@link #flush()} (also run when exiting) saves any
+ * pending changes. Files are written to a temporary file first, which then
+ * replaces the old file, so a crash never leaves a half written
+ * configuration. The values read, and those converted by the typed getters,
+ * are cached until they change: each key has one {@link Value} holding its
+ * text and the values parsed from it.
+ * <p>
+ * Once {@link #startWatching(long)} has been called, the files of the cached
+ * configurations are checked for changes made outside the program (e.g. by
+ * deployment scripts), which are then loaded and passed to the listeners like
+ * any other change.
  * 
  * @author Andrzej JR Hunt
  * 
  */
 public class Configuration {
 
+	private static final SimpleLogger log = new SimpleLogger(
+			Configuration.class);
+
 	/** The properties file. */
 	private Properties prop;
 	/** Whether the properties should be saved on modification. */
@@ -52,10 +90,43 @@ public class Configuration {
 
 	private static final String SUFFIX = ".conf";
 
+	/** How long to wait for further changes before saving, in ms. */
+	private static final long SAVE_DELAY = 1000;
+
+	/**
+	 * Increased by every change, before the cached values are removed. A value
+	 * read while it changes isn't kept in the cache.
+	 */
+	private static final AtomicInteger generation = new AtomicInteger();
+
 	/** Cache storing opened configurations. */
 	private static Hashtable<String, Configuration> cache = new Hashtable<String, Configuration>();
 	private static Configuration mainConfiguration;
 
+	/** Runs the delayed saves. Created when first needed. */
+	private static Timer saver;
+
+	/** The configurations with changes not yet saved. */
+	private static final HashSet<Configuration> unsaved = new HashSet<Configuration>();
+
+	/** The pending delayed save, null if none. */
+	private static TimerTask pendingSave;
+
+	/** Checks the files for changes, null if not watching. */
+	private static Timer watcher;
+
+	/** The file the properties were loaded from. */
+	private File loadedFrom;
+
+	/** When the file was last modified when it was loaded or saved. */
+	private long lastModified;
+
+	/** The cached values, including those from main, by key. */
+	private final ConcurrentHashMap<String, Value> values = new ConcurrentHashMap<String, Value>();
+
+	/** The listeners. */
+	private final CopyOnWriteArrayList<ConfigurationListener> listeners = new CopyOnWriteArrayList<ConfigurationListener>();
+
 	/**
 	 * Get the desired configuration.
 	 * 
@@ -71,17 +142,18 @@ public class Configuration {
 			throws FileNotFoundException {
 		prop = new Properties();
 		try {
-			prop.load(new BufferedReader(new FileReader("conf/" + desired
-					+ SUFFIX)));
+			loadedFrom = new File("conf/" + desired + SUFFIX);
+			load(prop, loadedFrom.getPath());
 		} catch (Exception e) {
 			try {
-				prop.load(new BufferedReader(new FileReader("conf/default/"
-						+ desired + SUFFIX)));
+				loadedFrom = new File("conf/default/" + desired + SUFFIX);
+				load(prop, loadedFrom.getPath());
 			} catch (Exception f) {
 				throw new FileNotFoundException("Configuration file " + desired
 						+ " could not be found.");
 			}
 		}
+		lastModified = loadedFrom.lastModified();
 		if (doCache) {
 			cache.put(prop.getProperty("FILENAME"), this);
 		}
@@ -90,6 +162,18 @@ public class Configuration {
 		}
 	}
 
+	/**
+	 * Load properties from a file, closing it afterwards.
+	 */
+	private static void load(Properties prop, String file) throws IOException {
+		Reader r = new BufferedReader(new FileReader(file));
+		try {
+			prop.load(r);
+		} finally {
+			r.close();
+		}
+	}
+
 	/**
 	 * Get the configuration file of specified name. The configuration will be
 	 * cached.
@@ -137,13 +221,112 @@ public class Configuration {
 	 * @return The property's value.
 	 */
 	public String getProperty(String key) {
-		String value = prop.getProperty(key);
-		if (value == null && this != mainConfiguration) { // No property
-			value = mainConfiguration.getProperty(key);
+		return getValue(key).text;
+	}
+
+	/**
+	 * Get the cached value of a key, reading it if necessary.
+	 */
+	private Value getValue(String key) {
+		Value cached = values.get(key);
+		if (cached != null) {
+			return cached;
+		}
+		int readIn = generation.get();
+		String text = prop.getProperty(key);
+		if (text == null && mainConfiguration != null
+				&& this != mainConfiguration) { // No property
+			text = mainConfiguration.getProperty(key);
+		}
+		Value value = new Value(text);
+		// Only cache values read before main was loaded once it is.
+		if (mainConfiguration != null || this == mainConfiguration) {
+			values.put(key, value);
+			// Changed meanwhile: what was read may be stale, and the change
+			// may have cleared the cache before the put.
+			if (generation.get() != readIn) {
+				values.remove(key, value);
+			}
 		}
 		return value;
 	}
 
+	/**
+	 * Get a property as a boolean.
+	 * 
+	 * @param key
+	 *            The property's key.
+	 * @param def
+	 *            The value if the property isn't set.
+	 * @return Whether the property is "true" (ignoring the case), or def.
+	 */
+	public boolean getBoolean(String key, boolean def) {
+		Value value = getValue(key);
+		if (value.text == null) {
+			return def;
+		}
+		if (value.bool == null) {
+			value.bool = Boolean.valueOf(value.text.trim());
+		}
+		return value.bool;
+	}
+
+	/**
+	 * Get a property as an int.
+	 * 
+	 * @param key
+	 *            The property's key.
+	 * @param def
+	 *            The value if the property isn't set, is empty or isn't a
+	 *            number.
+	 * @return The value of the property, or def.
+	 */
+	public int getInt(String key, int def) {
+		Value value = getValue(key);
+		value.parseNumber(key);
+		if (!value.isNumber || value.number != (int) value.number) {
+			return def;
+		}
+		return (int) value.number;
+	}
+
+	/**
+	 * Get a property as a long.
+	 * 
+	 * @param key
+	 *            The property's key.
+	 * @param def
+	 *            The value if the property isn't set, is empty or isn't a
+	 *            number.
+	 * @return The value of the property, or def.
+	 */
+	public long getLong(String key, long def) {
+		Value value = getValue(key);
+		value.parseNumber(key);
+		return value.isNumber ? value.number : def;
+	}
+
+	/**
+	 * Add a listener, informed whenever a property of this configuration,
+	 * including those of main, changes.
+	 * 
+	 * @param l
+	 *            The listener.
+	 */
+	public void addListener(ConfigurationListener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * Remove a listener.
+	 * 
+	 * @param l
+	 *            The listener.
+	 */
+	public void removeListener(ConfigurationListener l) {
+		listeners.remove(l);
+	}
+
 	/**
 	 * Select whether the properties file should automatically be saved on
 	 * modification. By default this is on.
@@ -166,49 +349,281 @@ public class Configuration {
 	/**
 	 * Set the property with key <code>key</code> to value <code>value</value>.
 	 * A simple wrapper for {@link java.util.Properties#setProperty(String)}.
-	 * The file will be automatically saved if <code>storeOnModify</code> is
-	 * set.
+	 * If <code>storeOnModify</code> is set the file will be saved shortly
+	 * afterwards, together with any further changes.
 	 * 
 	 * @param key
 	 *            The property's key.
 	 * @param value
 	 *            The property's new value.
 	 */
-	public synchronized void setProperty(String key, String value)
-			throws IOException {
-		// Determine whether this property is for this config or for main.
-		String previousValue = prop.getProperty(key);
-		if (previousValue == null) { // Not previously stored here
-			// But it is stored in the main config
-			if (mainConfiguration.getProperty(key) != null) {
-				mainConfiguration.setProperty(key, previousValue);
-				return;
+	public void setProperty(String key, String value) throws IOException {
+		synchronized (this) {
+			// Determine whether this property is for this config or for main.
+			String previousValue = prop.getProperty(key);
+			if (previousValue == null && mainConfiguration != null
+					&& this != mainConfiguration) { // Not previously stored here
+				// But it is stored in the main config
+				if (mainConfiguration.getProperty(key) != null) {
+					mainConfiguration.setProperty(key, value);
+					return;
+				}
+				// If not stored in neither, we just treat it as normal.
 			}
-			// If not stored in neither, we just treat it as normal.
-		}
 
-		// Don't do modify the Filename, since that would cause chaos.
-		if (!key.equals("FILENAME")) {
+			// Don't do modify the Filename, since that would cause chaos.
+			if (key.equals("FILENAME") || value.equals(previousValue)) {
+				return;
+			}
 			prop.setProperty(key, value);
 			if (storeOnModify) {
-				save();
+				scheduleSave(this);
 			}
 		}
+		changed(key, value);
 	}
 
 	/**
-	 * Save the configuration file to it's default location.
+	 * Save the configuration file to it's default location now. The file is
+	 * first written to a temporary file, which then replaces it.
 	 */
 	public synchronized void save() throws IOException {
-		prop.store(new BufferedWriter(new PrintWriter("conf/"
-				+ prop.getProperty("FILENAME"))), "Auto stored file");
+		synchronized (unsaved) {
+			unsaved.remove(this);
+		}
+		File file = new File("conf/" + prop.getProperty("FILENAME"));
+		File tmp = new File(file.getPath() + ".tmp");
+		Writer w = new BufferedWriter(new FileWriter(tmp));
+		try {
+			prop.store(w, "Auto stored file");
+		} finally {
+			w.close();
+		}
+		// Windows can't rename onto an existing file.
+		if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+			throw new IOException("Couldn't replace " + file);
+		}
+		// Our own changes needn't be loaded by the watcher.
+		loadedFrom = file;
+		lastModified = file.lastModified();
+	}
+
+	/**
+	 * Start checking the files of the cached configurations for changes
+	 * every so often. Does nothing if already watching.
+	 * 
+	 * @param interval
+	 *            The time between checks, in ms.
+	 */
+	public static synchronized void startWatching(long interval) {
+		if (watcher != null) {
+			return;
+		}
+		watcher = new Timer("Configuration watcher", true);
+		watcher.schedule(new TimerTask() {
+			public void run() {
+				for (Configuration c : cache.values().toArray(
+						new Configuration[0])) {
+					try {
+						c.reloadIfModified();
+					} catch (IOException e) {
+						log.warn("Couldn't reload " + c.loadedFrom + ": "
+								+ e.getMessage());
+					}
+				}
+			}
+		}, interval, interval);
+		log.info("Watching the configuration files.");
+	}
+
+	/**
+	 * Load the file again if it has been modified (or a user configuration
+	 * has been created in place of the default one) since it was loaded or
+	 * saved, and inform the listeners of each changed property. Properties
+	 * changed in the program but not yet saved are kept: the file is then
+	 * loaded after the next change following the save.
+	 */
+	private void reloadIfModified() throws IOException {
+		HashSet<String> keys = new HashSet<String>();
+		Properties loaded = new Properties();
+		synchronized (this) {
+			File file = new File("conf/" + prop.getProperty("FILENAME"));
+			if (!file.exists()) {
+				file = loadedFrom;
+			}
+			if (file.equals(loadedFrom)
+					&& file.lastModified() == lastModified) {
+				return;
+			}
+			synchronized (unsaved) {
+				if (unsaved.contains(this)) {
+					return;
+				}
+			}
+			long modified = file.lastModified();
+			load(loaded, file.getPath());
+			loadedFrom = file;
+			lastModified = modified;
+			for (Map.Entry<Object, Object> e : loaded.entrySet()) {
+				if (!e.getValue().equals(prop.get(e.getKey()))) {
+					keys.add((String) e.getKey());
+				}
+			}
+			for (Object key : prop.keySet()) {
+				if (!loaded.containsKey(key)) {
+					keys.add((String) key);
+				}
+			}
+			keys.remove("FILENAME");
+			for (String key : keys) {
+				if (loaded.containsKey(key)) {
+					prop.put(key, loaded.get(key));
+				} else {
+					prop.remove(key);
+				}
+			}
+		}
+		if (!keys.isEmpty()) {
+			log.info("Reloaded " + loadedFrom + ", changed: " + keys);
+		}
+		for (String key : keys) {
+			changed(key, loaded.getProperty(key));
+		}
+	}
+
+	/**
+	 * Save all configurations with changes that haven't been saved yet.
+	 */
+	public static void flush() {
+		Configuration[] pending;
+		synchronized (unsaved) {
+			if (pendingSave != null) {
+				pendingSave.cancel();
+				pendingSave = null;
+			}
+			pending = unsaved.toArray(new Configuration[unsaved.size()]);
+		}
+		for (Configuration c : pending) {
+			try {
+				c.save();
+			} catch (IOException e) {
+				log.error("Couldn't save " + c.prop.getProperty("FILENAME"));
+				log.errorException(e);
+			}
+		}
+	}
+
+	/**
+	 * Save a configuration once there have been no changes for SAVE_DELAY.
+	 */
+	private static void scheduleSave(Configuration c) {
+		synchronized (unsaved) {
+			unsaved.add(c);
+			if (pendingSave != null) {
+				pendingSave.cancel();
+			}
+			if (saver == null) {
+				saver = new Timer("Configuration saver", true);
+				// The timer is a daemon, so save what is left when exiting.
+				Runtime.getRuntime().addShutdownHook(new Thread() {
+					public void run() {
+						flush();
+					}
+				});
+			}
+			pendingSave = new TimerTask() {
+				public void run() {
+					flush();
+				}
+			};
+			saver.schedule(pendingSave, SAVE_DELAY);
+		}
+	}
+
+	/**
+	 * Clear the cached values and inform the listeners of a change. Changes
+	 * of main are seen by all configurations.
+	 * 
+	 * @param key
+	 *            The key changed, null for all.
+	 */
+	private void changed(String key, String value) {
+		HashSet<Configuration> affected = new HashSet<Configuration>();
+		affected.add(this);
+		if (this == mainConfiguration) {
+			affected.addAll(cache.values());
+		}
+		generation.incrementAndGet();
+		for (Configuration c : affected) {
+			if (key != null) {
+				c.values.remove(key);
+			} else {
+				c.values.clear();
+			}
+		}
+		for (Configuration c : affected) {
+			for (ConfigurationListener l : c.listeners) {
+				l.propertyChanged(c, key, value);
+			}
+		}
 	}
 
 	/**
 	 * Force the config file to reload the default configuration.
 	 */
 	public void loadDefault() throws IOException {
-		prop.load(new BufferedReader(new FileReader("conf/default/"
-				+ prop.getProperty("FILENAME"))));
+		synchronized (this) {
+			load(prop, "conf/default/" + prop.getProperty("FILENAME"));
+		}
+		changed(null, null);
+	}
+
+	/**
+	 * The cached value of a key: its text and the values parsed from it by
+	 * the typed getters, which are parsed when first needed. Replaced as a
+	 * whole when the key changes.
+	 */
+	private static class Value {
+
+		/** The text, null if not set. */
+		private final String text;
+
+		/** The text as a boolean, null until needed. */
+		private volatile Boolean bool;
+
+		/**
+		 * Whether isNumber and number have been set. Written after them, so
+		 * that a thread seeing it set also sees them.
+		 */
+		private volatile boolean parsed;
+
+		/** Whether the text is a number. */
+		private boolean isNumber;
+
+		/** The text as a number, if it is one. */
+		private long number;
+
+		private Value(String text) {
+			this.text = text;
+		}
+
+		/**
+		 * Parse the text as a number, unless it has been parsed already.
+		 * Threads parsing at the same time reach the same result.
+		 */
+		private void parseNumber(String key) {
+			if (parsed) {
+				return;
+			}
+			if (text != null && text.trim().length() > 0) {
+				try {
+					number = Long.parseLong(text.trim());
+					isNumber = true;
+				} catch (NumberFormatException e) {
+					log.warn("Invalid number for " + key + ": " + text);
+				}
+			}
+			parsed = true;
+		}
 	}
 }
@@ -0,0 +1,48 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Properties can be removed when the file is reloaded.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.conf;
+
+/**
+ * Informed when properties of a {@link Configuration} change, in the program
+ * or in the file, e.g. so that values derived from them can be kept in fields.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public interface ConfigurationListener {
+
+	/**
+	 * A property has changed. Called in the thread which changed it, or in the
+	 * thread watching the files.
+	 *
+	 * @param conf
+	 *            The configuration the listener was added to.
+	 * @param key
+	 *            The property's key, null if the whole configuration has been
+	 *            reloaded.
+	 * @param value
+	 *            The new value, null if the property was removed or the key
+	 *            is null. If removed, main's value may apply now.
+	 */
+	public void propertyChanged(Configuration conf, String key, String value);
+}
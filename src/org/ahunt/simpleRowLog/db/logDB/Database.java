@@ -0,0 +1,460 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.logDB;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.ResourceBundle;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.DatabaseError;
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.MemberStatistic;
+import org.ahunt.simpleRowLog.common.OutingInfo;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * A database storing the outings in a log of fixed size records, one memory
+ * mapped {@link Segment} file per season, and everything else in a small
+ * snapshot file, which is rewritten after every change. This suits the
+ * outings, which are added when the crew goes out, changed once when it
+ * returns, and hardly ever afterwards: each change only appends a record.
+ * Dead records are reclaimed by a compaction run every hour.
+ * <p>
+ * The directory contains <code>registry.srlm</code>, the snapshot of the
+ * members, boats, groups and admins (see the memoryDB database), and
+ * <code>outings-<i>year</i>.seg</code> for each season with outings.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class Database extends org.ahunt.simpleRowLog.db.memoryDB.Database {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(Database.class);
+
+	/** How often the segments are checked for compaction, in ms. */
+	private static final long COMPACTION_INTERVAL = 3600000;
+
+	/** The names of the segment files. */
+	private static final Pattern SEGMENT_NAME = Pattern
+			.compile("outings-(\\d{4})\\.seg");
+
+	/** Resource bundle for databases texts. */
+	private ResourceBundle rb = ResourceBundle.getBundle("db");
+
+	/** The directory the files are in. */
+	private final File dir;
+
+	/** The segments opened, by year. */
+	private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+
+	/** The id of the next outing, unique over all seasons. */
+	private long nextOutingId = 1;
+
+	/** Runs the compaction. */
+	private final Timer compactor;
+
+	/**
+	 * Open the database in a directory, creating it if necessary.
+	 *
+	 * @param dir
+	 *            The directory.
+	 * @throws DatabaseError
+	 *             If the files couldn't be read.
+	 */
+	public Database(File dir) throws DatabaseError {
+		super(getRegistry(dir));
+		log.entry("Database(File)");
+		this.dir = dir;
+		setAutoSave(true);
+		try {
+			if (!getRegistry(dir).exists()) {
+				saveSnapshot(getRegistry(dir));
+			}
+			File[] files = dir.listFiles();
+			for (File f : files != null ? files : new File[0]) {
+				Matcher m = SEGMENT_NAME.matcher(f.getName());
+				if (m.matches()) {
+					Segment s = new Segment(f, Integer.parseInt(m.group(1)));
+					segments.put(s.getYear(), s);
+					nextOutingId = Math.max(nextOutingId, s.getMaxId() + 1);
+				}
+			}
+		} catch (IOException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("connectionError"), e);
+		}
+		compactor = new Timer("logDB compaction", true);
+		compactor.schedule(new TimerTask() {
+			public void run() {
+				compact(false);
+			}
+		}, COMPACTION_INTERVAL, COMPACTION_INTERVAL);
+		log.exit("Database(File)");
+	}
+
+	/**
+	 * Get the snapshot file of a directory, creating the directory.
+	 */
+	private static File getRegistry(File dir) {
+		dir.mkdirs();
+		return new File(dir, "registry.srlm");
+	}
+
+	/**
+	 * Get the segment of a year.
+	 *
+	 * @param create
+	 *            Whether to create the segment if it doesn't exist.
+	 * @return The segment, null if it doesn't exist and isn't to be created.
+	 */
+	private Segment getSegment(int year, boolean create) throws DatabaseError {
+		Segment s = segments.get(year);
+		if (s == null && create) {
+			try {
+				s = new Segment(new File(dir, "outings-" + year + ".seg"),
+						year);
+			} catch (IOException e) {
+				log.errorException(e);
+				throw new DatabaseError(rb.getString("commandError"), e);
+			}
+			segments.put(year, s);
+		}
+		return s;
+	}
+
+	/**
+	 * Find the segment containing an outing.
+	 *
+	 * @return The segment, null if none.
+	 */
+	private Segment findSegment(OutingInfo outing) throws DatabaseError {
+		int year = dayKey(outing.getDay()) / 10000;
+		Segment s = getSegment(year, false);
+		if (s != null && s.find(outing.getId()) >= 0) {
+			return s;
+		}
+		// The day may have been given in another time zone.
+		for (Segment other : segments.values()) {
+			if (other.find(outing.getId()) >= 0) {
+				return other;
+			}
+		}
+		return null;
+	}
+
+	/* -------------------- OUTINGS ------------------- */
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized long addOuting(Date date, int[] rowers, int cox,
+			Date timeOut, Date timeIn, String comment, String dest, int boat,
+			int distance) throws DatabaseError {
+		if (date == null) {
+			throw new IllegalArgumentException("Date cannot be null");
+		}
+		checkOuting(rowers, timeOut, boat);
+		int day = dayKey(date);
+		long id = nextOutingId++;
+		write(getSegment(day / 10000, true), id, day, rowers, cox, timeOut,
+				timeIn, comment, dest, boat, distance);
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc} The day of the outing can't be changed. The new version
+	 * of the outing is appended to the segment.
+	 */
+	@Override
+	public synchronized void modifyOuting(OutingInfo outing, long day,
+			int[] rowers, int cox, Date out, Date in, String comment,
+			String destination, int boat, int distance) throws DatabaseError {
+		Segment s = findSegment(outing);
+		if (s == null) {
+			throw new IllegalArgumentException(
+					"Specified outing doesn't exist, and therefore can't be modified.");
+		}
+		checkOuting(rowers, out, boat);
+		write(s, outing.getId(), s.getDay(s.find(outing.getId())), rowers,
+				cox, out, in, comment, destination, boat, distance);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeOuting(OutingInfo outing)
+			throws DatabaseError {
+		Segment s = findSegment(outing);
+		if (s == null) {
+			throw new IllegalArgumentException(
+					"Specified outing doesn't exist, and therefore can't be deleted.");
+		}
+		s.remove(outing.getId());
+	}
+
+	/**
+	 * Check the data of an outing, as the other databases do.
+	 */
+	private void checkOuting(int[] rowers, Date timeOut, int boat) {
+		if (getMember(rowers[0]) == null) {
+			throw new IllegalArgumentException("rowers[0] must be a valid"
+					+ " member");
+		}
+		if (timeOut == null) {
+			throw new IllegalArgumentException("timeOut cannot be null");
+		}
+		if (getBoat(boat) == null) {
+			throw new IllegalArgumentException("boat must be a valid "
+					+ "boat, cannot be null");
+		}
+	}
+
+	/**
+	 * Append a version of an outing to a segment.
+	 */
+	private void write(Segment s, long id, int day, int[] rowers, int cox,
+			Date out, Date in, String comment, String destination, int boat,
+			int distance) throws DatabaseError {
+		try {
+			int n = s.allocate();
+			s.setDay(n, day);
+			for (int i = 0; i < Math.min(rowers.length, 8); i++) {
+				s.setRower(n, i, rowers[i]);
+			}
+			s.setCox(n, cox);
+			s.setOut(n, out.getTime());
+			s.setIn(n, in != null ? in.getTime() : 0);
+			s.setComment(n, comment);
+			s.setDestination(n, destination);
+			s.setBoat(n, boat);
+			s.setDistance(n, distance);
+			s.commit(n, id);
+		} catch (IOException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} Reads the outings straight from the mapped segments.
+	 */
+	@Override
+	protected OutingInfo[] getOutings(int member, int boat, Date startDate,
+			Date endDate) {
+		int start = dayKey(startDate);
+		int end = dayKey(endDate);
+		ArrayList<OutingInfo> a = new ArrayList<OutingInfo>();
+		// Members and boats are looked up once for all outings.
+		HashMap<Integer, MemberInfo> members = new HashMap<Integer, MemberInfo>();
+		HashMap<Integer, BoatInfo> boats = new HashMap<Integer, BoatInfo>();
+		for (Segment s : segments.subMap(start / 10000, true, end / 10000,
+				true).values()) {
+			for (int n : s.getRecords(start, end)) {
+				if ((boat == 0 || s.getBoat(n) == boat)
+						&& (member == 0 || isInOuting(s, n, member))) {
+					a.add(toOutingInfo(s, n, members, boats));
+				}
+			}
+		}
+		return a.toArray(new OutingInfo[a.size()]);
+	}
+
+	/**
+	 * Check whether a member rowed or coxed in an outing.
+	 */
+	private static boolean isInOuting(Segment s, int n, int member) {
+		if (s.getCox(n) == member) {
+			return true;
+		}
+		for (int i = 0; i < 8; i++) {
+			if (s.getRower(n, i) == member) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create the OutingInfo of a record.
+	 */
+	private OutingInfo toOutingInfo(Segment s, int n,
+			HashMap<Integer, MemberInfo> members,
+			HashMap<Integer, BoatInfo> boats) {
+		MemberInfo[] seats = new MemberInfo[8];
+		for (int i = 0; i < 8; i++) {
+			seats[i] = lookupMember(s.getRower(n, i), members);
+		}
+		BoatInfo boat = boats.get(s.getBoat(n));
+		if (boat == null) {
+			boat = getBoat(s.getBoat(n));
+			boats.put(s.getBoat(n), boat);
+		}
+		long in = s.getIn(n);
+		return new OutingInfo(s.getId(n), dayDate(s.getDay(n)), seats,
+				lookupMember(s.getCox(n), members), new Date(s.getOut(n)),
+				in != 0 ? new Date(in) : null, s.getComment(n), s
+						.getDestination(n), boat, s.getDistance(n));
+	}
+
+	private MemberInfo lookupMember(int id, HashMap<Integer, MemberInfo> members) {
+		if (id == 0) {
+			return null;
+		}
+		MemberInfo m = members.get(id);
+		if (m == null) {
+			m = getMember(id);
+			members.put(id, m);
+		}
+		return m;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected MemberStatistic[] getMembersStatistics(MemberInfo[] list) {
+		int thisYear = new GregorianCalendar().get(Calendar.YEAR);
+		// Outings and distance this and last year, by member id.
+		HashMap<Integer, int[]> totals = new HashMap<Integer, int[]>();
+		for (int year = thisYear - 1; year <= thisYear; year++) {
+			Segment s = segments.get(year);
+			if (s == null) {
+				continue;
+			}
+			int offset = year == thisYear ? 0 : 2;
+			for (int n : s.getRecords()) {
+				for (int i = 0; i <= 8; i++) {
+					int id = i < 8 ? s.getRower(n, i) : s.getCox(n);
+					if (id == 0) {
+						continue;
+					}
+					int[] t = totals.get(id);
+					if (t == null) {
+						t = new int[4];
+						totals.put(id, t);
+					}
+					t[offset]++;
+					t[offset + 1] += s.getDistance(n);
+				}
+			}
+		}
+		MemberStatistic[] stats = new MemberStatistic[list.length];
+		for (int i = 0; i < list.length; i++) {
+			MemberInfo m = list[i];
+			int[] t = totals.get(m.getId());
+			if (t == null) {
+				t = new int[4];
+			}
+			stats[i] = new MemberStatistic(m.getId(), m.getSurname(), m
+					.getForename(), m.getDob(), m.getGroupInfo(), t[0], t[1],
+					t[2], t[3]);
+		}
+		return stats;
+	}
+
+	/* -------------------- MEMBERS AND BOATS ------------------- */
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeMember(MemberInfo member,
+			MemberInfo replacement) {
+		if (member.getId() == GUEST_MEMBER_ID
+				|| member.getId() == DELETED_MEMBER_ID) {
+			return;
+		}
+		for (Segment s : segments.values()) {
+			s.replaceMember(member.getId(), replacement.getId());
+		}
+		super.removeMember(member, replacement);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeBoat(BoatInfo boat, BoatInfo replacement) {
+		if (boat.getId() == OTHER_BOAT_ID) {
+			return;
+		}
+		for (Segment s : segments.values()) {
+			s.replaceBoat(boat.getId(), replacement.getId());
+		}
+		super.removeBoat(boat, replacement);
+	}
+
+	/* -------------------- MAINTENANCE ------------------- */
+
+	/**
+	 * Compact the segments with enough dead records.
+	 *
+	 * @param all
+	 *            Whether to compact all segments with any dead records.
+	 * @return The number of records reclaimed.
+	 */
+	public synchronized int compact(boolean all) {
+		int reclaimed = 0;
+		for (Segment s : segments.values()) {
+			if (s.needsCompaction() || all) {
+				int r = s.compact();
+				log.info("Compacted outings of " + s.getYear() + ": " + r
+						+ " records reclaimed.");
+				reclaimed += r;
+			}
+		}
+		return reclaimed;
+	}
+
+	/**
+	 * {@inheritDoc} Also closes the segments: the database can't be used
+	 * afterwards.
+	 */
+	@Override
+	public synchronized void shutdown() {
+		compactor.cancel();
+		super.shutdown();
+		for (Segment s : segments.values()) {
+			try {
+				s.close();
+			} catch (IOException e) {
+				log.error("Couldn't close the outings of " + s.getYear());
+				log.errorException(e);
+			}
+		}
+		segments.clear();
+	}
+}
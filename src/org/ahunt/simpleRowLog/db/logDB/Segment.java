@@ -0,0 +1,587 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	The largest id ever written is kept in the header.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.logDB;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.TreeMap;
+
+/**
+ * The outings of one season (calendar year), stored as fixed size records in a
+ * memory mapped file. Records are only appended: a modified outing is
+ * appended again and the old record marked dead, as is a removed outing. The
+ * space of dead records is reclaimed by {@link #compact()}.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: magic number,
+ * version, year, the number of records written and the largest id ever
+ * written, so that ids aren't reused once their records have been compacted
+ * away. Records beyond that number
+ * are ignored, so a record only counts once it has been written completely.
+ * Should a crash leave two live records with the same id, the later one is
+ * used.
+ * <p>
+ * The records are indexed by id and by day in memory; everything else is read
+ * from the mapped file when needed. Not thread safe.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class Segment {
+
+	/** The first bytes of a segment file ("SRLS"). */
+	private static final int MAGIC = 0x53524C53;
+
+	/** The version of the file format. */
+	private static final int VERSION = 1;
+
+	/** The size of the header. */
+	static final int HEADER_SIZE = 64;
+
+	/** The size of each record. */
+	static final int RECORD_SIZE = 512;
+
+	/** The number of records the file is grown by when full. */
+	private static final int GROW = 256;
+
+	/* Header fields. */
+	private static final int H_MAGIC = 0;
+	private static final int H_VERSION = 4;
+	private static final int H_YEAR = 8;
+	private static final int H_COUNT = 12;
+	private static final int H_MAX_ID = 16;
+
+	/* Record fields, by offset within the record. */
+	private static final int R_ID = 0;
+	private static final int R_FLAGS = 8;
+	private static final int R_DAY = 12;
+	private static final int R_ROWERS = 16;
+	private static final int R_COX = 48;
+	private static final int R_OUT = 52;
+	private static final int R_IN = 60;
+	private static final int R_BOAT = 68;
+	private static final int R_DISTANCE = 72;
+	private static final int R_COMMENT = 76;
+	private static final int R_DESTINATION = 334;
+
+	/** Maximum length of the comment, in bytes of UTF-8. */
+	static final int COMMENT_BYTES = 256;
+
+	/** Maximum length of the destination, in bytes of UTF-8. */
+	static final int DESTINATION_BYTES = 128;
+
+	/** Flag marking a record as dead. */
+	private static final int DEAD = 1;
+
+	private final int year;
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private MappedByteBuffer buf;
+
+	/** The number of records which fit in the mapped file. */
+	private int capacity;
+
+	/** The number of records written. */
+	private int count;
+
+	/** The number of dead records. */
+	private int dead;
+
+	/** The live record of each id. */
+	private HashMap<Long, Integer> ids = new HashMap<Long, Integer>();
+
+	/** The live records of each day (yyyymmdd), ordered by time out. */
+	private TreeMap<Integer, ArrayList<Integer>> days = new TreeMap<Integer, ArrayList<Integer>>();
+
+	/**
+	 * Open a segment, creating it if necessary.
+	 *
+	 * @param f
+	 *            The file.
+	 * @param year
+	 *            The season stored.
+	 * @throws IOException
+	 *             If the file couldn't be opened or isn't a segment of the
+	 *             year.
+	 */
+	Segment(File f, int year) throws IOException {
+		this.year = year;
+		boolean created = !f.exists() || f.length() < HEADER_SIZE;
+		file = new RandomAccessFile(f, "rw");
+		channel = file.getChannel();
+		try {
+			capacity = created ? GROW : (int) ((f.length() - HEADER_SIZE) / RECORD_SIZE);
+			map();
+			if (created) {
+				buf.putInt(H_MAGIC, MAGIC);
+				buf.putInt(H_VERSION, VERSION);
+				buf.putInt(H_YEAR, year);
+				buf.putInt(H_COUNT, 0);
+				buf.force();
+			} else if (buf.getInt(H_MAGIC) != MAGIC
+					|| buf.getInt(H_VERSION) != VERSION
+					|| buf.getInt(H_YEAR) != year) {
+				throw new IOException(f + " isn't a segment for " + year);
+			}
+			count = Math.min(buf.getInt(H_COUNT), capacity);
+			load();
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Map the whole file, growing it to the capacity if necessary.
+	 */
+	private void map() throws IOException {
+		buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE
+				+ (long) capacity * RECORD_SIZE);
+	}
+
+	/**
+	 * Build the indexes from the records.
+	 */
+	private void load() {
+		ids.clear();
+		days.clear();
+		dead = 0;
+		for (int n = 0; n < count; n++) {
+			if ((buf.getInt(offset(n) + R_FLAGS) & DEAD) != 0) {
+				dead++;
+				continue;
+			}
+			Integer old = ids.put(getId(n), n);
+			if (old != null) { // Left by a crash: the later one is newer.
+				markDead(old);
+			}
+		}
+		for (int n : ids.values()) {
+			addToDay(n);
+		}
+	}
+
+	/**
+	 * Get the position of a record in the file.
+	 */
+	private static int offset(int n) {
+		return HEADER_SIZE + n * RECORD_SIZE;
+	}
+
+	/**
+	 * Get the season stored.
+	 *
+	 * @return The year.
+	 */
+	int getYear() {
+		return year;
+	}
+
+	/**
+	 * Append a record. The time out, rowers, etc. are then set with the
+	 * setters, and the record committed with {@link #commit(int, long)}.
+	 *
+	 * @return The record number.
+	 */
+	int allocate() throws IOException {
+		if (count == capacity) {
+			capacity += GROW;
+			map();
+		}
+		int n = count;
+		// Clear whatever is left from before a compaction.
+		int o = offset(n);
+		for (int i = 0; i < RECORD_SIZE; i += 8) {
+			buf.putLong(o + i, 0);
+		}
+		return n;
+	}
+
+	/**
+	 * Make an allocated record part of the segment, replacing the live record
+	 * with the same id, if any.
+	 *
+	 * @param n
+	 *            The record, from {@link #allocate()}.
+	 * @param id
+	 *            The id of the outing.
+	 */
+	void commit(int n, long id) {
+		buf.putLong(offset(n) + R_ID, id);
+		if (id > buf.getLong(H_MAX_ID)) {
+			buf.putLong(H_MAX_ID, id);
+		}
+		// The record must be on disk before it is counted.
+		buf.force();
+		count++;
+		buf.putInt(H_COUNT, count);
+		Integer old = ids.put(id, n);
+		if (old != null) {
+			removeFromDay(old);
+			markDead(old);
+		}
+		addToDay(n);
+		buf.force();
+	}
+
+	/**
+	 * Remove an outing.
+	 *
+	 * @param id
+	 *            The outing's id.
+	 * @return Whether the outing was in this segment.
+	 */
+	boolean remove(long id) {
+		Integer n = ids.remove(id);
+		if (n == null) {
+			return false;
+		}
+		removeFromDay(n);
+		markDead(n);
+		buf.force();
+		return true;
+	}
+
+	private void markDead(int n) {
+		int o = offset(n) + R_FLAGS;
+		buf.putInt(o, buf.getInt(o) | DEAD);
+		dead++;
+	}
+
+	/**
+	 * Add a record to its day, after any with the same or an earlier time out.
+	 */
+	private void addToDay(int n) {
+		int day = getDay(n);
+		ArrayList<Integer> list = days.get(day);
+		if (list == null) {
+			list = new ArrayList<Integer>();
+			days.put(day, list);
+		}
+		long out = getOut(n);
+		int i = list.size();
+		while (i > 0 && getOut(list.get(i - 1)) > out) {
+			i--;
+		}
+		list.add(i, n);
+	}
+
+	private void removeFromDay(int n) {
+		ArrayList<Integer> list = days.get(getDay(n));
+		list.remove((Integer) n);
+		if (list.isEmpty()) {
+			days.remove(getDay(n));
+		}
+	}
+
+	/**
+	 * Get the record of an outing.
+	 *
+	 * @param id
+	 *            The outing's id.
+	 * @return The record number, -1 if the outing isn't in this segment.
+	 */
+	int find(long id) {
+		Integer n = ids.get(id);
+		return n != null ? n : -1;
+	}
+
+	/**
+	 * Get the live records of some days.
+	 *
+	 * @param start
+	 *            The first day (yyyymmdd).
+	 * @param end
+	 *            The last day.
+	 * @return The records, ordered by day and time out.
+	 */
+	ArrayList<Integer> getRecords(int start, int end) {
+		ArrayList<Integer> a = new ArrayList<Integer>();
+		if (start <= end) {
+			for (ArrayList<Integer> day : days.subMap(start, true, end, true)
+					.values()) {
+				a.addAll(day);
+			}
+		}
+		return a;
+	}
+
+	/**
+	 * Get all live records.
+	 *
+	 * @return The records, in no particular order.
+	 */
+	Collection<Integer> getRecords() {
+		return ids.values();
+	}
+
+	/**
+	 * Get the largest id of the outings ever written, including those
+	 * removed since.
+	 *
+	 * @return The id, 0 if there are none.
+	 */
+	long getMaxId() {
+		// Segments written before the header held the id have 0 there.
+		long max = buf.getLong(H_MAX_ID);
+		for (int n = 0; n < count; n++) {
+			max = Math.max(max, getId(n));
+		}
+		return max;
+	}
+
+	/**
+	 * Check whether enough space would be reclaimed by compaction.
+	 *
+	 * @return Whether at least a quarter of the records, and at least one
+	 *         growth of the file, are dead.
+	 */
+	boolean needsCompaction() {
+		return dead >= GROW && dead * 4 >= count;
+	}
+
+	/**
+	 * Move the live records to the start of the file, in place, so that the
+	 * space of the dead records is reused by later outings. The file isn't
+	 * shrunk, since a mapped file can't be truncated on all systems.
+	 * <p>
+	 * If interrupted, some records are left twice, which is resolved when the
+	 * segment is next opened.
+	 *
+	 * @return The number of records reclaimed.
+	 */
+	int compact() {
+		int reclaimed = dead;
+		int j = 0;
+		for (int n = 0; n < count; n++) {
+			if ((buf.getInt(offset(n) + R_FLAGS) & DEAD) != 0) {
+				continue;
+			}
+			if (n != j) {
+				ByteBuffer src = buf.duplicate();
+				src.limit(offset(n) + RECORD_SIZE).position(offset(n));
+				ByteBuffer dst = buf.duplicate();
+				dst.position(offset(j));
+				dst.put(src);
+			}
+			j++;
+		}
+		buf.force();
+		count = j;
+		buf.putInt(H_COUNT, count);
+		buf.force();
+		load();
+		return reclaimed;
+	}
+
+	/**
+	 * Write everything to disk and close the file.
+	 */
+	void close() throws IOException {
+		buf.force();
+		channel.close();
+		file.close();
+	}
+
+	/* -------------------- Fields ------------------- */
+
+	long getId(int n) {
+		return buf.getLong(offset(n) + R_ID);
+	}
+
+	int getDay(int n) {
+		return buf.getInt(offset(n) + R_DAY);
+	}
+
+	void setDay(int n, int day) {
+		buf.putInt(offset(n) + R_DAY, day);
+	}
+
+	/**
+	 * Get the id of the member in a seat.
+	 *
+	 * @param seat
+	 *            The seat, from 0.
+	 * @return The member's id, 0 if the seat is empty.
+	 */
+	int getRower(int n, int seat) {
+		return buf.getInt(offset(n) + R_ROWERS + seat * 4);
+	}
+
+	void setRower(int n, int seat, int member) {
+		buf.putInt(offset(n) + R_ROWERS + seat * 4, member);
+	}
+
+	int getCox(int n) {
+		return buf.getInt(offset(n) + R_COX);
+	}
+
+	void setCox(int n, int member) {
+		buf.putInt(offset(n) + R_COX, member);
+	}
+
+	long getOut(int n) {
+		return buf.getLong(offset(n) + R_OUT);
+	}
+
+	void setOut(int n, long out) {
+		buf.putLong(offset(n) + R_OUT, out);
+	}
+
+	/**
+	 * @return The time in, 0 if not known.
+	 */
+	long getIn(int n) {
+		return buf.getLong(offset(n) + R_IN);
+	}
+
+	void setIn(int n, long in) {
+		buf.putLong(offset(n) + R_IN, in);
+	}
+
+	int getBoat(int n) {
+		return buf.getInt(offset(n) + R_BOAT);
+	}
+
+	void setBoat(int n, int boat) {
+		buf.putInt(offset(n) + R_BOAT, boat);
+	}
+
+	int getDistance(int n) {
+		return buf.getInt(offset(n) + R_DISTANCE);
+	}
+
+	void setDistance(int n, int distance) {
+		buf.putInt(offset(n) + R_DISTANCE, distance);
+	}
+
+	String getComment(int n) {
+		return getString(offset(n) + R_COMMENT);
+	}
+
+	void setComment(int n, String comment) {
+		putString(offset(n) + R_COMMENT, comment, COMMENT_BYTES);
+	}
+
+	String getDestination(int n) {
+		return getString(offset(n) + R_DESTINATION);
+	}
+
+	void setDestination(int n, String destination) {
+		putString(offset(n) + R_DESTINATION, destination, DESTINATION_BYTES);
+	}
+
+	/**
+	 * Replace a member in all live records, in place.
+	 *
+	 * @return Whether any record was changed.
+	 */
+	boolean replaceMember(int member, int replacement) {
+		boolean changed = false;
+		for (int n : ids.values()) {
+			for (int i = 0; i < 8; i++) {
+				if (getRower(n, i) == member) {
+					setRower(n, i, replacement);
+					changed = true;
+				}
+			}
+			if (getCox(n) == member) {
+				setCox(n, replacement);
+				changed = true;
+			}
+		}
+		if (changed) {
+			buf.force();
+		}
+		return changed;
+	}
+
+	/**
+	 * Replace a boat in all live records, in place.
+	 *
+	 * @return Whether any record was changed.
+	 */
+	boolean replaceBoat(int boat, int replacement) {
+		boolean changed = false;
+		for (int n : ids.values()) {
+			if (getBoat(n) == boat) {
+				setBoat(n, replacement);
+				changed = true;
+			}
+		}
+		if (changed) {
+			buf.force();
+		}
+		return changed;
+	}
+
+	/**
+	 * Read a string stored as its length in bytes (-1 for null) followed by
+	 * the UTF-8 bytes.
+	 */
+	private String getString(int o) {
+		int length = buf.getShort(o);
+		if (length < 0) {
+			return null;
+		}
+		byte[] b = new byte[length];
+		ByteBuffer src = buf.duplicate();
+		src.position(o + 2);
+		src.get(b);
+		try {
+			return new String(b, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Store a string, cut to the given number of bytes.
+	 */
+	private void putString(int o, String s, int max) {
+		if (s == null) {
+			buf.putShort(o, (short) -1);
+			return;
+		}
+		try {
+			byte[] b = s.getBytes("UTF-8");
+			while (b.length > max) { // Cut whole characters only.
+				s = s.substring(0, s.length() - 1);
+				b = s.getBytes("UTF-8");
+			}
+			buf.putShort(o, (short) b.length);
+			ByteBuffer dst = buf.duplicate();
+			dst.position(o + 2);
+			dst.put(b);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
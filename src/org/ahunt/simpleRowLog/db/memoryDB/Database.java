@@ -0,0 +1,1373 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Added auto saving; outings can be stored by subclasses.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.memoryDB;
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.ahunt.simpleRowLog.admin.AdminInfo;
+import org.ahunt.simpleRowLog.admin.AdminPermissionList;
+import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.BoatStatistic;
+import org.ahunt.simpleRowLog.common.DatabaseError;
+import org.ahunt.simpleRowLog.common.GroupInfo;
+import org.ahunt.simpleRowLog.common.GroupStatistic;
+import org.ahunt.simpleRowLog.common.InvalidDataException;
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.MemberSorter;
+import org.ahunt.simpleRowLog.common.MemberStatistic;
+import org.ahunt.simpleRowLog.common.OutingInfo;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * An implementation of the Database interface keeping all data in memory, for
+ * tests, demonstrations and training sessions. It behaves like the simpleDB
+ * database, including the default groups, members and boat, but nothing is
+ * written to disk unless a snapshot file is given: the data is then read from
+ * the snapshot when created, and written back to it by {@link #shutdown()} or
+ * {@link #saveSnapshot(File)}.
+ * <p>
+ * Records are kept by id in {@link LongMap}s, and the outings additionally by
+ * day, each day's outings sorted by the time out. All methods are
+ * synchronized. Subclasses can store the outings elsewhere by overriding the
+ * outing methods, {@link #getOutings(int, int, Date, Date)} and
+ * {@link #getMembersStatistics(MemberInfo[])}.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(Database.class);
+
+	/** The first bytes of a snapshot file ("SRLM"). */
+	private static final int SNAPSHOT_MAGIC = 0x53524C4D;
+
+	/** The version of the snapshot format. */
+	private static final int SNAPSHOT_VERSION = 1;
+
+	/** Resource bundle for databases texts. */
+	private ResourceBundle rb = ResourceBundle.getBundle("db");
+
+	/** The file the data is kept in between runs, null if none. */
+	private File snapshot;
+
+	/** Whether the snapshot is saved after every change. */
+	private boolean autoSave;
+
+	private LongMap<GroupInfo> groups = new LongMap<GroupInfo>();
+	private LongMap<MemberInfo> members = new LongMap<MemberInfo>();
+	private LongMap<BoatInfo> boats = new LongMap<BoatInfo>();
+	private TreeMap<String, MemoryAdminInfo> admins = new TreeMap<String, MemoryAdminInfo>();
+
+	/** The outings by id. */
+	private LongMap<Outing> outings = new LongMap<Outing>();
+
+	/**
+	 * The outings by day (see {@link #dayKey(Date)}), each day's sorted by the
+	 * time out.
+	 */
+	private TreeMap<Integer, ArrayList<Outing>> outingDays = new TreeMap<Integer, ArrayList<Outing>>();
+
+	private int nextGroupId = 1;
+	private int nextMemberId = 1;
+	private int nextBoatId = 1;
+	private long nextOutingId = 1;
+
+	/** Sorts the current members, null if they have changed since. */
+	private MemberSorter memberSorter;
+
+	/** Used for converting between dates and days. */
+	private final Calendar cal = new GregorianCalendar();
+
+	/**
+	 * An outing, referring to the members and boat by id so that changes to
+	 * them are seen.
+	 */
+	private static class Outing {
+		long id;
+		int day;
+		/** The ids of the rowers, 0 for empty seats. */
+		int[] rowers = new int[8];
+		int cox;
+		long out;
+		/** The time in, 0 if not known. */
+		long in;
+		String comment;
+		String destination;
+		int boat;
+		int distance;
+	}
+
+	/** Orders outings by the time out. */
+	private static final Comparator<Outing> BY_TIME_OUT = new Comparator<Outing>() {
+		public int compare(Outing a, Outing b) {
+			return a.out < b.out ? -1 : (a.out == b.out ? 0 : 1);
+		}
+	};
+
+	/**
+	 * Create an empty database, containing only the default groups, members
+	 * and boat. Nothing is saved.
+	 */
+	public Database() {
+		this(null);
+	}
+
+	/**
+	 * Create a database kept in a snapshot file.
+	 *
+	 * @param snapshot
+	 *            The file the data is read from, if it exists, and saved to
+	 *            by {@link #shutdown()}. If null, or the file doesn't exist,
+	 *            the database only contains the default data.
+	 * @throws DatabaseError
+	 *             If the snapshot couldn't be read.
+	 */
+	public Database(File snapshot) throws DatabaseError {
+		log.entry("Database(File)");
+		this.snapshot = snapshot;
+		if (snapshot != null && snapshot.exists()) {
+			try {
+				loadSnapshot(snapshot);
+				log.info("Loaded snapshot " + snapshot);
+			} catch (IOException e) {
+				log.errorException(e);
+				throw new DatabaseError(rb.getString("dbError"), e);
+			}
+		} else {
+			createDefaultData();
+		}
+		log.exit("Database(File)");
+	}
+
+	/**
+	 * Create the default groups, members and boat, with the same ids as
+	 * simpleDB.
+	 */
+	private void createDefaultData() {
+		int guestGroup = addGroup(rb.getString("guestGroupName"), rb
+				.getString("guestGroupDescription"), Color.BLUE, true);
+		int deletedGroup = addGroup(rb.getString("deletedGroupName"), rb
+				.getString("deletedGroupDescription"), Color.GRAY, false);
+		addGroup(rb.getString("memberGroupName"), rb
+				.getString("memberGroupDescription"), Color.BLACK, false);
+		try {
+			addMember(rb.getString("guestMemberName"), "", new Date(0),
+					guestGroup);
+			addMember(rb.getString("deletedMemberName"), "", new Date(0),
+					deletedGroup);
+			addBoat(rb.getString("otherBoat"), "", true);
+		} catch (InvalidDataException e) {
+			// Can't happen in an empty database.
+		}
+	}
+
+	/**
+	 * Get the key of a day in {@link #outingDays}, i.e. yyyymmdd.
+	 */
+	protected int dayKey(Date date) {
+		cal.setTime(date);
+		return cal.get(Calendar.YEAR) * 10000 + (cal.get(Calendar.MONTH) + 1)
+				* 100 + cal.get(Calendar.DAY_OF_MONTH);
+	}
+
+	/**
+	 * Get the date of a day key.
+	 */
+	protected Date dayDate(int day) {
+		cal.clear();
+		cal.set(day / 10000, (day / 100) % 100 - 1, day % 100);
+		return cal.getTime();
+	}
+
+	/* -------------------- BOATS ------------------- */
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int addBoat(String name, String type, boolean inHouse)
+			throws InvalidDataException {
+		if (name == null || name.length() == 0) {
+			throw new IllegalArgumentException("Boat name cannot be null or "
+					+ "empty");
+		}
+		checkBoatName(name, 0);
+		int id = nextBoatId++;
+		boats.put(id, new BoatInfo(id, name, type, inHouse));
+		changed();
+		return id;
+	}
+
+	/**
+	 * Check that no other boat has a name.
+	 *
+	 * @param id
+	 *            The id of the boat which may have the name, 0 if none.
+	 */
+	private void checkBoatName(String name, int id)
+			throws InvalidDataException {
+		for (BoatInfo b : boats.values()) {
+			if (b.getId() != id && b.getName().equals(name)) {
+				throw new InvalidDataException("A boat named " + name
+						+ " already is in the database.", null);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized BoatInfo getBoat(int id) {
+		return boats.get(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void modifyBoat(BoatInfo old, String name,
+			String type, boolean inHouse) throws InvalidDataException {
+		if (old == null || boats.get(old.getId()) == null) {
+			throw new IllegalArgumentException("old must be an existing boat");
+		}
+		if (name == null || name.length() == 0) {
+			throw new IllegalArgumentException("Boat name cannot be null or "
+					+ "empty");
+		}
+		checkBoatName(name, old.getId());
+		boats.put(old.getId(), new BoatInfo(old.getId(), name, type, inHouse));
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeBoat(BoatInfo boat, BoatInfo replacement) {
+		if (boat.getId() == OTHER_BOAT_ID) {
+			return;
+		}
+		for (Outing o : outings.values()) {
+			if (o.boat == boat.getId()) {
+				o.boat = replacement.getId();
+			}
+		}
+		boats.remove(boat.getId());
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized BoatInfo[] getBoats() {
+		ArrayList<BoatInfo> a = boats.values();
+		sortBoats(a);
+		return a.toArray(new BoatInfo[a.size()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized BoatInfo[] getBoats(boolean inHouse) {
+		ArrayList<BoatInfo> a = new ArrayList<BoatInfo>();
+		for (BoatInfo b : boats.values()) {
+			if (b.inHouse() == inHouse) {
+				a.add(b);
+			}
+		}
+		sortBoats(a);
+		return a.toArray(new BoatInfo[a.size()]);
+	}
+
+	/**
+	 * Sort boats by name.
+	 */
+	private static void sortBoats(ArrayList<BoatInfo> a) {
+		Collections.sort(a, new Comparator<BoatInfo>() {
+			public int compare(BoatInfo a, BoatInfo b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+	}
+
+	/**
+	 * Not yet implemented, as in simpleDB.
+	 */
+	@Override
+	public BoatStatistic getBoatStatistic(BoatInfo boat) {
+		return null;
+	}
+
+	/**
+	 * Not yet implemented, as in simpleDB.
+	 */
+	@Override
+	public BoatStatistic[] getBoatsStatistics() {
+		return null;
+	}
+
+	/* -------------------- MEMBERS ------------------- */
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int addMember(String surname, String forename,
+			Date dob, int group) throws InvalidDataException {
+		if (surname == null || surname.length() == 0) {
+			throw new IllegalArgumentException("Surname cannot be null or"
+					+ " zero length");
+		}
+		if (dob == null) {
+			throw new IllegalArgumentException("dob cannot be null");
+		}
+		GroupInfo g = groups.get(group);
+		if (g == null) {
+			throw new IllegalArgumentException(
+					"group must correspond to an existing group.");
+		}
+		checkMemberName(surname, forename, dob, 0);
+		int id = nextMemberId++;
+		members.put(id, new MemberInfo(id, surname, forename, dob, g));
+		memberSorter = null;
+		changed();
+		return id;
+	}
+
+	/**
+	 * Check that no other member has the same name and date of birth.
+	 *
+	 * @param id
+	 *            The id of the member who may have them, 0 if none.
+	 */
+	private void checkMemberName(String surname, String forename, Date dob,
+			int id) throws InvalidDataException {
+		int day = dayKey(dob);
+		for (MemberInfo m : members.values()) {
+			if (m.getId() != id
+					&& m.getSurname().equals(surname)
+					&& (m.getForename() == null ? forename == null : m
+							.getForename().equals(forename))
+					&& dayKey(m.getDob()) == day) {
+				throw new InvalidDataException("A member named " + surname
+						+ ":" + forename + " with dob " + dob
+						+ " already is in the database.", null);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized MemberInfo getMember(int id) {
+		return members.get(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void modifyMember(MemberInfo member, String surname,
+			String forename, Date dob, int group) throws InvalidDataException {
+		if (members.get(member.getId()) == null) {
+			throw new IllegalArgumentException(
+					"member must already exist in order to modify");
+		}
+		if (surname == null || surname.length() == 0) {
+			throw new IllegalArgumentException("surname cannot be null or"
+					+ " zero length");
+		}
+		if (dob == null) {
+			throw new IllegalArgumentException("dob cannot be null");
+		}
+		GroupInfo g = groups.get(group);
+		if (g == null) {
+			throw new IllegalArgumentException(
+					"group must correspond to an existing group.");
+		}
+		checkMemberName(surname, forename, dob, member.getId());
+		members.put(member.getId(), new MemberInfo(member.getId(), surname,
+				forename, dob, g));
+		memberSorter = null;
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeMember(MemberInfo member,
+			MemberInfo replacement) {
+		if (member.getId() == GUEST_MEMBER_ID
+				|| member.getId() == DELETED_MEMBER_ID) {
+			return;
+		}
+		for (Outing o : outings.values()) {
+			for (int i = 0; i < 8; i++) {
+				if (o.rowers[i] == member.getId()) {
+					o.rowers[i] = replacement.getId();
+				}
+			}
+			if (o.cox == member.getId()) {
+				o.cox = replacement.getId();
+			}
+		}
+		members.remove(member.getId());
+		memberSorter = null;
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized MemberInfo[] getMembers() {
+		ArrayList<MemberInfo> a = members.values();
+		Collections.sort(a, new Comparator<MemberInfo>() {
+			public int compare(MemberInfo a, MemberInfo b) {
+				return a.getId() - b.getId();
+			}
+		});
+		return a.toArray(new MemberInfo[a.size()]);
+	}
+
+	/**
+	 * {@inheritDoc} Names are compared for the default locale.
+	 */
+	@Override
+	public synchronized MemberInfo[] getMembers(int sorting) {
+		if (memberSorter == null) {
+			memberSorter = new MemberSorter(getMembers(), Locale.getDefault());
+		}
+		return memberSorter.getSorted(sorting);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized MemberStatistic getMemberStatistics(MemberInfo member) {
+		return getMembersStatistics(new MemberInfo[] { member })[0];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized MemberStatistic[] getMembersStatistics() {
+		return getMembersStatistics(getMembers());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized MemberStatistic[] getMembersStatistics(int sorting) {
+		return getMembersStatistics(getMembers(sorting));
+	}
+
+	/**
+	 * Get the statistics for this and last year of several members.
+	 *
+	 * @param list
+	 *            The members.
+	 * @return The statistics, in the same order as the members.
+	 */
+	protected MemberStatistic[] getMembersStatistics(MemberInfo[] list) {
+		int thisYear = new GregorianCalendar().get(Calendar.YEAR);
+		// Outings and distance this and last year, by member id.
+		LongMap<int[]> totals = new LongMap<int[]>();
+		for (int year = thisYear - 1; year <= thisYear; year++) {
+			int offset = year == thisYear ? 0 : 2;
+			for (ArrayList<Outing> day : outingDays.subMap(year * 10000, true,
+					year * 10000 + 1231, true).values()) {
+				for (Outing o : day) {
+					for (int i = 0; i <= 8; i++) {
+						int id = i < 8 ? o.rowers[i] : o.cox;
+						if (id == 0) {
+							continue;
+						}
+						int[] t = totals.get(id);
+						if (t == null) {
+							t = new int[4];
+							totals.put(id, t);
+						}
+						t[offset]++;
+						t[offset + 1] += o.distance;
+					}
+				}
+			}
+		}
+		MemberStatistic[] stats = new MemberStatistic[list.length];
+		for (int i = 0; i < list.length; i++) {
+			MemberInfo m = list[i];
+			int[] t = totals.get(m.getId());
+			if (t == null) {
+				t = new int[4];
+			}
+			stats[i] = new MemberStatistic(m.getId(), m.getSurname(), m
+					.getForename(), m.getDob(), m.getGroupInfo(), t[0], t[1],
+					t[2], t[3]);
+		}
+		return stats;
+	}
+
+	/* -------------------- GROUPS ------------------- */
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int addGroup(String name, String description,
+			Color colour, boolean isDefault) {
+		if (name == null || name.length() == 0) {
+			throw new IllegalArgumentException("name cannot be null when "
+					+ "adding a group");
+		}
+		if (colour == null) {
+			throw new IllegalArgumentException("colour cannot be null when "
+					+ "adding a group");
+		}
+		int id = nextGroupId++;
+		putGroup(new GroupInfo(id, name, description, colour, isDefault));
+		return id;
+	}
+
+	/**
+	 * Store a group, updating its members. If it is the default group the
+	 * other groups are no longer default.
+	 */
+	private void putGroup(GroupInfo group) {
+		groups.put(group.getId(), group);
+		if (group.isDefault()) {
+			for (GroupInfo g : groups.values()) {
+				if (g.isDefault() && g.getId() != group.getId()) {
+					groups.put(g.getId(), new GroupInfo(g.getId(), g.getName(),
+							g.getDescription(), g.getDisplayColour(), false));
+				}
+			}
+		}
+		for (MemberInfo m : members.values()) {
+			if (m.getGroupInfo().getId() == group.getId()) {
+				members.put(m.getId(), new MemberInfo(m.getId(),
+						m.getSurname(), m.getForename(), m.getDob(), group));
+			}
+		}
+		memberSorter = null;
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized GroupInfo getGroup(int id) {
+		return groups.get(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void modifyGroup(GroupInfo group, String name,
+			String description, Color colour, boolean isDefault) {
+		if (groups.get(group.getId()) == null) {
+			throw new IllegalArgumentException("id must be a valid group");
+		}
+		if (name == null || name.length() == 0) {
+			throw new IllegalArgumentException("name cannot be null or zero"
+					+ " length");
+		}
+		if (colour == null) {
+			throw new IllegalArgumentException("colour cannot be null");
+		}
+		putGroup(new GroupInfo(group.getId(), name, description, colour,
+				isDefault));
+	}
+
+	/**
+	 * Not yet implemented, as in simpleDB.
+	 */
+	@Override
+	public void removeGroup(GroupInfo group, GroupInfo replacement) {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized GroupInfo[] getGroups() {
+		ArrayList<GroupInfo> a = groups.values();
+		Collections.sort(a, new Comparator<GroupInfo>() {
+			public int compare(GroupInfo a, GroupInfo b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+		return a.toArray(new GroupInfo[a.size()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized GroupInfo getDefaultGroup() throws DatabaseError {
+		for (GroupInfo g : groups.values()) {
+			if (g.isDefault()) {
+				return g;
+			}
+		}
+		throw new DatabaseError("No default group. Major error.", null);
+	}
+
+	/**
+	 * Not yet implemented, as in simpleDB.
+	 */
+	@Override
+	public GroupStatistic getGroupStatistic(int id) {
+		return null;
+	}
+
+	/**
+	 * Not yet implemented, as in simpleDB.
+	 */
+	@Override
+	public GroupStatistic[] getGroupsStatistics() {
+		return null;
+	}
+
+	/* -------------------- OUTINGS ------------------- */
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized long addOuting(Date date, int[] rowers, int cox,
+			Date timeOut, Date timeIn, String comment, String dest, int boat,
+			int distance) {
+		if (date == null) {
+			throw new IllegalArgumentException("Date cannot be null");
+		}
+		Outing o = new Outing();
+		o.id = nextOutingId++;
+		o.day = dayKey(date);
+		setOuting(o, rowers, cox, timeOut, timeIn, comment, dest, boat,
+				distance);
+		outings.put(o.id, o);
+		addToDay(o);
+		changed();
+		return o.id;
+	}
+
+	/**
+	 * Check and set the fields of an outing other than the id and day.
+	 */
+	private void setOuting(Outing o, int[] rowers, int cox, Date timeOut,
+			Date timeIn, String comment, String dest, int boat, int distance) {
+		if (members.get(rowers[0]) == null) {
+			throw new IllegalArgumentException("rowers[0] must be a valid"
+					+ " member");
+		}
+		if (timeOut == null) {
+			throw new IllegalArgumentException("timeOut cannot be null");
+		}
+		if (boats.get(boat) == null) {
+			throw new IllegalArgumentException("boat must be a valid "
+					+ "boat, cannot be null");
+		}
+		Arrays.fill(o.rowers, 0);
+		System.arraycopy(rowers, 0, o.rowers, 0, Math.min(rowers.length, 8));
+		o.cox = cox;
+		o.out = timeOut.getTime();
+		o.in = timeIn != null ? timeIn.getTime() : 0;
+		o.comment = comment;
+		o.destination = dest;
+		o.boat = boat;
+		o.distance = distance;
+	}
+
+	/**
+	 * Add an outing to its day, keeping the day sorted by the time out.
+	 */
+	private void addToDay(Outing o) {
+		ArrayList<Outing> day = outingDays.get(o.day);
+		if (day == null) {
+			day = new ArrayList<Outing>();
+			outingDays.put(o.day, day);
+		}
+		int i = Collections.binarySearch(day, o, BY_TIME_OUT);
+		// After any outings with the same time out.
+		if (i < 0) {
+			i = -i - 1;
+		}
+		while (i < day.size() && day.get(i).out == o.out) {
+			i++;
+		}
+		day.add(i, o);
+	}
+
+	/**
+	 * Remove an outing from its day.
+	 */
+	private void removeFromDay(Outing o) {
+		ArrayList<Outing> day = outingDays.get(o.day);
+		day.remove(o);
+		if (day.isEmpty()) {
+			outingDays.remove(o.day);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized OutingInfo[] getOutings(Date date) {
+		return getOutings(0, 0, date, date);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized OutingInfo[] getOutings(Date startDate, Date endDate) {
+		return getOutings(0, 0, startDate, endDate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized OutingInfo[] getOutings(MemberInfo member,
+			Date startDate, Date endDate) {
+		return getOutings(member.getId(), 0, startDate, endDate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized OutingInfo[] getOutings(BoatInfo boat, Date startDate,
+			Date endDate) {
+		return getOutings(0, boat.getId(), startDate, endDate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized OutingInfo[] getOutings(MemberInfo member,
+			BoatInfo boat, Date startDate, Date endDate) {
+		return getOutings(member.getId(), boat.getId(), startDate, endDate);
+	}
+
+	/**
+	 * Get the outings of the days from start to end, ordered by day and time
+	 * out.
+	 *
+	 * @param member
+	 *            The id of a member who rowed or coxed in the outings, 0 for
+	 *            any.
+	 * @param boat
+	 *            The id of the boat used, 0 for any.
+	 */
+	protected OutingInfo[] getOutings(int member, int boat, Date startDate,
+			Date endDate) {
+		int start = dayKey(startDate);
+		int end = dayKey(endDate);
+		ArrayList<OutingInfo> a = new ArrayList<OutingInfo>();
+		if (start > end) {
+			return new OutingInfo[0];
+		}
+		for (ArrayList<Outing> day : outingDays.subMap(start, true, end, true)
+				.values()) {
+			for (Outing o : day) {
+				if ((boat == 0 || o.boat == boat)
+						&& (member == 0 || isInOuting(o, member))) {
+					a.add(toOutingInfo(o));
+				}
+			}
+		}
+		return a.toArray(new OutingInfo[a.size()]);
+	}
+
+	/**
+	 * Check whether a member rowed or coxed in an outing.
+	 */
+	private static boolean isInOuting(Outing o, int member) {
+		if (o.cox == member) {
+			return true;
+		}
+		for (int r : o.rowers) {
+			if (r == member) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create the OutingInfo for an outing.
+	 */
+	private OutingInfo toOutingInfo(Outing o) {
+		MemberInfo[] seats = new MemberInfo[8];
+		for (int i = 0; i < 8; i++) {
+			if (o.rowers[i] != 0) {
+				seats[i] = members.get(o.rowers[i]);
+			}
+		}
+		return new OutingInfo(o.id, dayDate(o.day), seats,
+				o.cox != 0 ? members.get(o.cox) : null, new Date(o.out),
+				o.in != 0 ? new Date(o.in) : null, o.comment, o.destination,
+				boats.get(o.boat), o.distance);
+	}
+
+	/**
+	 * {@inheritDoc} The day of the outing can't be changed.
+	 */
+	@Override
+	public synchronized void modifyOuting(OutingInfo outing, long day,
+			int[] rowers, int cox, Date out, Date in, String comment,
+			String destination, int boat, int distance) {
+		Outing o = outings.get(outing.getId());
+		if (o == null) {
+			throw new IllegalArgumentException(
+					"Specified outing doesn't exist, and therefore can't be modified.");
+		}
+		removeFromDay(o);
+		try {
+			setOuting(o, rowers, cox, out, in, comment, destination, boat,
+					distance);
+		} finally {
+			addToDay(o);
+		}
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeOuting(OutingInfo outing) {
+		Outing o = outings.remove(outing.getId());
+		if (o == null) {
+			throw new IllegalArgumentException(
+					"Specified outing doesn't exist, and therefore can't be deleted.");
+		}
+		removeFromDay(o);
+		changed();
+	}
+
+	/* -------------------- ADMINS ------------------- */
+
+	/**
+	 * An administrator, with the same salted hash of the password as in
+	 * simpleDB.
+	 */
+	private class MemoryAdminInfo implements AdminInfo {
+
+		private String name;
+		private String username;
+		private byte[] hash;
+		private byte[] salt;
+		private boolean isRoot;
+		private String comment;
+		private AdminPermissionList permissionList;
+
+		MemoryAdminInfo(String name, String username, byte[] hash,
+				byte[] salt, boolean isRoot, String comment,
+				String[] permissions) {
+			this.name = name;
+			this.username = username;
+			this.hash = hash;
+			this.salt = salt;
+			this.isRoot = isRoot;
+			this.comment = comment;
+			// The list is all the storage there is.
+			permissionList = new AdminPermissionList(username, isRoot,
+					permissions, false) {
+				public void storePermissions() {
+					markStored();
+					changed();
+				}
+			};
+			permissionList.markStored();
+			permissionList.setAutoStore(true);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public String getUsername() {
+			return username;
+		}
+
+		@Override
+		public boolean validatePassword(char[] password) {
+			try {
+				return Arrays.equals(hash(salt, password), hash);
+			} catch (Exception e) {
+				return false; // If there are errors we won't authenticate.
+			}
+		}
+
+		@Override
+		public boolean isRoot() {
+			return isRoot;
+		}
+
+		@Override
+		public String getComment() {
+			return comment;
+		}
+
+		@Override
+		public AdminPermissionList getPermissionList() {
+			return permissionList;
+		}
+	}
+
+	/**
+	 * Hash a password.
+	 */
+	private static byte[] hash(byte[] salt, char[] password) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		digest.update(salt);
+		return digest.digest(new String(password).getBytes("UTF-16BE"));
+	}
+
+	/**
+	 * Generate a salt and the hash of a password, nulling the password.
+	 *
+	 * @return The salt and the hash.
+	 */
+	private byte[][] saltAndHash(char[] password) throws DatabaseError {
+		byte[] salt = new byte[64];
+		new Random().nextBytes(salt);
+		try {
+			return new byte[][] { salt, hash(salt, password) };
+		} catch (Exception e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		} finally {
+			Arrays.fill(password, '\0');
+		}
+	}
+
+	/**
+	 * Store an admin. If it is root the other admins are no longer root.
+	 */
+	private void putAdmin(MemoryAdminInfo admin) {
+		admins.put(admin.getUsername(), admin);
+		if (admin.isRoot()) {
+			for (MemoryAdminInfo a : new ArrayList<MemoryAdminInfo>(admins
+					.values())) {
+				if (a.isRoot() && a != admin) {
+					admins.put(a.getUsername(), new MemoryAdminInfo(a.name,
+							a.username, a.hash, a.salt, false, a.comment,
+							a.permissionList.getAllPermissions()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void addAdmin(String username, char[] password,
+			String name, boolean isRoot, String comment)
+			throws DatabaseError, InvalidDataException {
+		if (admins.containsKey(username)) {
+			log.error("Admin " + username + " already exists.");
+			throw new InvalidDataException("Admin already exists.", null);
+		}
+		byte[][] saltAndHash = saltAndHash(password);
+		putAdmin(new MemoryAdminInfo(name, username, saltAndHash[1],
+				saltAndHash[0], isRoot, comment, new String[0]));
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized AdminInfo getAdmin(String username) {
+		return admins.get(username);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized AdminInfo[] getAdmins() {
+		return admins.values().toArray(new AdminInfo[admins.size()]);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void modifyAdmin(AdminInfo admin, String username,
+			String name, boolean isRoot, String comment)
+			throws InvalidDataException {
+		if (admin == null || !admins.containsKey(admin.getUsername())) {
+			throw new InvalidDataException("Cannot modify null admin.", null);
+		} else if (username == null || username.length() == 0) {
+			throw new InvalidDataException(
+					"Username cannot be null or zero length.", null);
+		} else if (!username.equals(admin.getUsername())
+				&& admins.containsKey(username)) {
+			throw new InvalidDataException(
+					"Admin with this username already exists.", null);
+		}
+		MemoryAdminInfo a = admins.remove(admin.getUsername());
+		putAdmin(new MemoryAdminInfo(name, username, a.hash, a.salt, isRoot,
+				comment, a.permissionList.getAllPermissions()));
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void setNewAdminPassword(AdminInfo admin,
+			char[] password) throws DatabaseError {
+		MemoryAdminInfo a = admins.get(admin.getUsername());
+		if (a == null) {
+			throw new IllegalArgumentException("No such admin "
+					+ admin.getUsername());
+		}
+		byte[][] saltAndHash = saltAndHash(password);
+		admins.put(a.username, new MemoryAdminInfo(a.name, a.username,
+				saltAndHash[1], saltAndHash[0], a.isRoot, a.comment,
+				a.permissionList.getAllPermissions()));
+		changed();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void removeAdmin(String username)
+			throws InvalidDataException {
+		MemoryAdminInfo a = admins.get(username);
+		if (a == null) {
+			return;
+		}
+		if (a.isRoot()) {
+			throw new InvalidDataException("Admin " + username
+					+ " is root and cannot be removed.", null);
+		}
+		admins.remove(username);
+		changed();
+	}
+
+	/* -------------------- SNAPSHOTS ------------------- */
+
+	/**
+	 * Set whether the snapshot is saved after every change, rather than only
+	 * by {@link #shutdown()}. Only useful if the changes are few, e.g. if the
+	 * outings are stored elsewhere.
+	 *
+	 * @param autoSave
+	 *            Whether to save after every change.
+	 */
+	public synchronized void setAutoSave(boolean autoSave) {
+		this.autoSave = autoSave;
+	}
+
+	/**
+	 * Called after every change of the data.
+	 *
+	 * @throws DatabaseError
+	 *             If the snapshot is saved after every change and couldn't
+	 *             be.
+	 */
+	private synchronized void changed() throws DatabaseError {
+		if (autoSave && snapshot != null) {
+			try {
+				saveSnapshot(snapshot);
+			} catch (IOException e) {
+				log.errorException(e);
+				throw new DatabaseError(rb.getString("commandError"), e);
+			}
+		}
+	}
+
+	/**
+	 * Save the data to the snapshot file given when creating the database, if
+	 * any. The data is kept, so the database can still be used.
+	 */
+	public void shutdown() {
+		log.entry("shutdown()");
+		if (snapshot != null) {
+			try {
+				saveSnapshot(snapshot);
+				log.info("Saved snapshot " + snapshot);
+			} catch (IOException e) {
+				log.error("Couldn't save the snapshot " + snapshot);
+				log.errorException(e);
+			}
+		}
+		log.exit("shutdown()");
+	}
+
+	/**
+	 * Write all data to a snapshot file, replacing it only once the snapshot
+	 * is complete.
+	 *
+	 * @param file
+	 *            The file.
+	 * @throws IOException
+	 *             If the file couldn't be written.
+	 */
+	public synchronized void saveSnapshot(File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new GZIPOutputStream(new FileOutputStream(tmp))));
+		try {
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeInt(SNAPSHOT_VERSION);
+			ArrayList<GroupInfo> g = groups.values();
+			out.writeInt(g.size());
+			for (GroupInfo group : g) {
+				out.writeInt(group.getId());
+				out.writeUTF(group.getName());
+				writeString(out, group.getDescription());
+				out.writeInt(group.getDisplayColour().getRGB());
+				out.writeBoolean(group.isDefault());
+			}
+			MemberInfo[] m = getMembers();
+			out.writeInt(m.length);
+			for (MemberInfo member : m) {
+				out.writeInt(member.getId());
+				out.writeUTF(member.getSurname());
+				writeString(out, member.getForename());
+				out.writeLong(member.getDob().getTime());
+				out.writeInt(member.getGroupInfo().getId());
+			}
+			ArrayList<BoatInfo> b = boats.values();
+			out.writeInt(b.size());
+			for (BoatInfo boat : b) {
+				out.writeInt(boat.getId());
+				out.writeUTF(boat.getName());
+				// BoatInfo stores an empty type as null.
+				out.writeUTF(boat.getType() != null ? boat.getType() : "");
+				out.writeBoolean(boat.inHouse());
+			}
+			out.writeInt(admins.size());
+			for (MemoryAdminInfo a : admins.values()) {
+				out.writeUTF(a.username);
+				writeString(out, a.name);
+				writeBytes(out, a.hash);
+				writeBytes(out, a.salt);
+				out.writeBoolean(a.isRoot);
+				writeString(out, a.comment);
+				String[] permissions = a.permissionList.getAllPermissions();
+				out.writeInt(permissions.length);
+				for (String p : permissions) {
+					out.writeUTF(p);
+				}
+			}
+			out.writeInt(outings.size());
+			for (ArrayList<Outing> day : outingDays.values()) {
+				for (Outing o : day) {
+					writeOuting(out, o);
+				}
+			}
+		} finally {
+			out.close();
+		}
+		// Windows can't rename onto an existing file.
+		if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+			throw new IOException("Couldn't replace " + file);
+		}
+	}
+
+	/**
+	 * Write an outing. Only the seats used are written, after a byte marking
+	 * which are.
+	 */
+	private static void writeOuting(DataOutputStream out, Outing o)
+			throws IOException {
+		out.writeLong(o.id);
+		out.writeInt(o.day);
+		int used = 0;
+		for (int i = 0; i < 8; i++) {
+			if (o.rowers[i] != 0) {
+				used |= 1 << i;
+			}
+		}
+		out.writeByte(used);
+		for (int i = 0; i < 8; i++) {
+			if (o.rowers[i] != 0) {
+				out.writeInt(o.rowers[i]);
+			}
+		}
+		out.writeInt(o.cox);
+		out.writeLong(o.out);
+		out.writeLong(o.in);
+		writeString(out, o.comment);
+		writeString(out, o.destination);
+		out.writeInt(o.boat);
+		out.writeInt(o.distance);
+	}
+
+	/**
+	 * Read a snapshot written by {@link #saveSnapshot(File)}.
+	 */
+	private void loadSnapshot(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new GZIPInputStream(new FileInputStream(file))));
+		try {
+			if (in.readInt() != SNAPSHOT_MAGIC) {
+				throw new IOException(file + " isn't a snapshot.");
+			}
+			int version = in.readInt();
+			if (version != SNAPSHOT_VERSION) {
+				throw new IOException("Unknown snapshot version " + version);
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				GroupInfo g = new GroupInfo(in.readInt(), in.readUTF(),
+						readString(in), new Color(in.readInt()), in
+								.readBoolean());
+				groups.put(g.getId(), g);
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				int id = in.readInt();
+				String surname = in.readUTF();
+				String forename = readString(in);
+				Date dob = new Date(in.readLong());
+				members.put(id, new MemberInfo(id, surname, forename, dob,
+						groups.get(in.readInt())));
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				BoatInfo b = new BoatInfo(in.readInt(), in.readUTF(), in
+						.readUTF(), in.readBoolean());
+				boats.put(b.getId(), b);
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				String username = in.readUTF();
+				String name = readString(in);
+				byte[] hash = readBytes(in);
+				byte[] salt = readBytes(in);
+				boolean isRoot = in.readBoolean();
+				String comment = readString(in);
+				String[] permissions = new String[in.readInt()];
+				for (int i = 0; i < permissions.length; i++) {
+					permissions[i] = in.readUTF();
+				}
+				admins.put(username, new MemoryAdminInfo(name, username, hash,
+						salt, isRoot, comment, permissions));
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				Outing o = readOuting(in);
+				outings.put(o.id, o);
+				addToDay(o);
+			}
+		} finally {
+			in.close();
+		}
+		nextGroupId = (int) groups.maxKey() + 1;
+		nextMemberId = (int) members.maxKey() + 1;
+		nextBoatId = (int) boats.maxKey() + 1;
+		nextOutingId = outings.maxKey() + 1;
+	}
+
+	/**
+	 * Read an outing written by {@link #writeOuting(DataOutputStream, Outing)}.
+	 */
+	private static Outing readOuting(DataInputStream in) throws IOException {
+		Outing o = new Outing();
+		o.id = in.readLong();
+		o.day = in.readInt();
+		int used = in.readUnsignedByte();
+		for (int i = 0; i < 8; i++) {
+			if ((used & (1 << i)) != 0) {
+				o.rowers[i] = in.readInt();
+			}
+		}
+		o.cox = in.readInt();
+		o.out = in.readLong();
+		o.in = in.readLong();
+		o.comment = readString(in);
+		o.destination = readString(in);
+		o.boat = in.readInt();
+		o.distance = in.readInt();
+		return o;
+	}
+
+	private static void writeString(DataOutputStream out, String s)
+			throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] b)
+			throws IOException {
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] b = new byte[in.readInt()];
+		in.readFully(b);
+		return b;
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.memoryDB;
+
+import java.util.ArrayList;
+
+/**
+ * A map with primitive <code>long</code> keys, used for the ids of the
+ * records. Uses open addressing with linear probing, so no objects are created
+ * for the keys or the entries. Not thread safe.
+ *
+ * @author Andrzej JR Hunt
+ *
+ * @param <V>
+ *            The type of the values.
+ */
+class LongMap<V> {
+
+	/** The keys. Only valid where the value isn't null. */
+	private long[] keys;
+
+	/** The values, null for free slots. */
+	private Object[] values;
+
+	/** The number of entries. */
+	private int size;
+
+	/**
+	 * Create an empty map.
+	 */
+	LongMap() {
+		keys = new long[16];
+		values = new Object[16];
+	}
+
+	/**
+	 * Get the number of entries.
+	 *
+	 * @return The size.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Get the value for a key.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return The value, null if none.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(long key) {
+		int i = find(key);
+		return i >= 0 ? (V) values[i] : null;
+	}
+
+	/**
+	 * Set the value for a key.
+	 *
+	 * @param key
+	 *            The key.
+	 * @param value
+	 *            The value, cannot be null.
+	 * @return The previous value, null if none.
+	 */
+	@SuppressWarnings("unchecked")
+	V put(long key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("value cannot be null");
+		}
+		int i = find(key);
+		if (i >= 0) {
+			V old = (V) values[i];
+			values[i] = value;
+			return old;
+		}
+		// Keep the table at most half full.
+		if ((size + 1) * 2 > values.length) {
+			resize(values.length * 2);
+		}
+		i = slot(key, values.length);
+		while (values[i] != null) {
+			i = (i + 1) & (values.length - 1);
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		return null;
+	}
+
+	/**
+	 * Remove the value for a key.
+	 *
+	 * @param key
+	 *            The key.
+	 * @return The value removed, null if none.
+	 */
+	@SuppressWarnings("unchecked")
+	V remove(long key) {
+		int i = find(key);
+		if (i < 0) {
+			return null;
+		}
+		V old = (V) values[i];
+		values[i] = null;
+		size--;
+		// Reinsert the following entries of the cluster, so that find() still
+		// reaches them.
+		int mask = values.length - 1;
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			long k = keys[j];
+			Object v = values[j];
+			values[j] = null;
+			int s = slot(k, values.length);
+			while (values[s] != null) {
+				s = (s + 1) & mask;
+			}
+			keys[s] = k;
+			values[s] = v;
+		}
+		return old;
+	}
+
+	/**
+	 * Get all the values, in no particular order.
+	 *
+	 * @return A new list of the values.
+	 */
+	@SuppressWarnings("unchecked")
+	ArrayList<V> values() {
+		ArrayList<V> a = new ArrayList<V>(size);
+		for (Object v : values) {
+			if (v != null) {
+				a.add((V) v);
+			}
+		}
+		return a;
+	}
+
+	/**
+	 * Get the largest key.
+	 *
+	 * @return The largest key, 0 if the map is empty.
+	 */
+	long maxKey() {
+		long max = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && keys[i] > max) {
+				max = keys[i];
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Find the slot of a key.
+	 *
+	 * @return The slot, -1 if the key isn't in the map.
+	 */
+	private int find(long key) {
+		int mask = values.length - 1;
+		for (int i = slot(key, values.length); values[i] != null; i = (i + 1)
+				& mask) {
+			if (keys[i] == key) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Get the first slot to try for a key.
+	 */
+	private static int slot(long key, int length) {
+		// Spread the bits, since ids are mostly sequential.
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & (length - 1);
+	}
+
+	/**
+	 * Move the entries to a table of a new size.
+	 */
+	private void resize(int length) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[length];
+		values = new Object[length];
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int s = slot(oldKeys[i], length);
+				while (values[s] != null) {
+					s = (s + 1) & (length - 1);
+				}
+				keys[s] = oldKeys[i];
+				values[s] = oldValues[i];
+			}
+		}
+	}
+}
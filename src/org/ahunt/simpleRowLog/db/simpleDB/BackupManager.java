@@ -0,0 +1,659 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Added requestBackup, which backs up in the background.
+ *	19/10/2026:	Added hasBackup, so that the archives can be backed up when
+ *				they change.
+ *	19/10/2026:	Archive mode is only disabled when asked to, and the archived
+ *				logs are kept; logs are archived without scheduled backups.
+ *	19/10/2026:	The archived seasons are backed up with the database.
+ *	19/10/2026:	The manifest contains a checksum of each file.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.ahunt.simpleRowLog.common.BackupReport;
+import org.ahunt.simpleRowLog.conf.Configuration;
+import org.grlea.log.DebugLevel;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Backs up the database while it is running. Full backups are made with
+ * SYSCS_BACKUP_DATABASE_AND_ENABLE_LOG_ARCHIVE_MODE_NOWAIT, which copies the
+ * database without stopping outings from being entered, and keeps derby's
+ * transaction logs from then on. Between full backups these logs are copied
+ * next to the backups, so that a backup can be rolled forward to a later
+ * time. The configuration files are copied with each full backup.
+ * <p>
+ * The backup directory (<code>backup.dir</code> in simpleDB.conf) contains a
+ * directory <code>full-yyyyMMdd-HHmmss</code> for each full backup, holding
+ * the copy of the database, the archived seasons in <code>archive</code>,
+ * the configuration in <code>conf</code> and a
+ * manifest with the CRC-32 of every file, and the archived logs in <code>logs</code>. A full backup is
+ * written to a <code>.part</code> directory which is only renamed once it is
+ * complete. Full backups are made every <code>backup.interval</code> hours,
+ * the logs archived every <code>backup.log_interval</code> minutes, and the
+ * last <code>backup.keep</code> full backups are kept along with the logs
+ * needed to roll them forward.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class BackupManager {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(
+			BackupManager.class);
+
+	/** The number of reports kept. */
+	private static final int REPORTS_KEPT = 10;
+
+	/** The prefix of the directories of full backups. */
+	static final String FULL_PREFIX = "full-";
+
+	/** The suffix of a full backup which is still being written. */
+	private static final String PARTIAL_SUFFIX = ".part";
+
+	/** The directory containing the archived logs. */
+	static final String LOGS = "logs";
+
+	/** The directory containing the configuration in a full backup. */
+	static final String CONF = "conf";
+
+	/** The directory containing the archived seasons in a full backup. */
+	static final String ARCHIVE = "archive";
+
+	/** The manifest of a full backup, only written once it is complete. */
+	static final String MANIFEST = "backup.properties";
+
+	/** The format of the time in the names of full backups. */
+	private static final String NAME_FORMAT = "yyyyMMdd-HHmmss";
+
+	/** The url used to open the connection. */
+	private final String connectionURL;
+
+	/** The directory of the database, e.g. database/srl. */
+	private final File database;
+
+	/** The directory of the archived seasons. */
+	private final File archive;
+
+	/** The directory of the configuration. */
+	private final File conf;
+
+	/** The directory the backups are placed in. */
+	private final File dir;
+
+	/** The time between full backups, in milliseconds. 0 if not scheduled. */
+	private final long interval;
+
+	/** The time between archiving the logs, in milliseconds. */
+	private final long logInterval;
+
+	/** The number of full backups kept. */
+	private final int keep;
+
+	/** The start of the newest full backup, 0 if there is none. */
+	private long lastFull;
+
+	/** When the logs were last archived. */
+	private long lastLogs;
+
+	/** The last reports, newest first. */
+	private final LinkedList<BackupReport> reports = new LinkedList<BackupReport>();
+
+	/** Runs the scheduled backups, null if not started. */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Set up the backups.
+	 *
+	 * @param connectionURL
+	 *            The url used to open the connection.
+	 * @param database
+	 *            The directory of the database.
+	 * @param archive
+	 *            The directory of the archived seasons.
+	 * @param conf
+	 *            The directory of the configuration.
+	 * @param dir
+	 *            The directory the backups are placed in.
+	 * @param intervalHours
+	 *            The time between full backups, 0 to only back up on
+	 *            demand.
+	 * @param logIntervalMinutes
+	 *            The time between archiving the logs, 0 to only archive them
+	 *            with full backups and at shutdown.
+	 * @param keep
+	 *            The number of full backups kept, at least 1.
+	 */
+	BackupManager(String connectionURL, File database, File archive,
+			File conf, File dir, long intervalHours, long logIntervalMinutes,
+			int keep) {
+		this.connectionURL = connectionURL;
+		this.database = database;
+		this.archive = archive;
+		this.conf = conf;
+		this.dir = dir;
+		this.interval = TimeUnit.HOURS.toMillis(intervalHours);
+		this.logInterval = TimeUnit.MINUTES.toMillis(logIntervalMinutes);
+		this.keep = Math.max(1, keep);
+		File[] backups = getBackups(dir);
+		if (backups.length > 0) {
+			Date time = getTime(backups[backups.length - 1]);
+			lastFull = time != null ? time.getTime() : 0;
+		}
+		lastLogs = System.currentTimeMillis();
+	}
+
+	/**
+	 * Start checking once a minute whether a full backup or archiving the
+	 * logs is due. Without scheduled backups the logs are still archived if
+	 * there is a backup (e.g. made from the command line) to roll forward.
+	 */
+	synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		if (interval <= 0 && (logInterval <= 0 || lastFull == 0)) {
+			return;
+		}
+		createScheduler();
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				long now = System.currentTimeMillis();
+				try {
+					if (interval > 0 && now - lastFull >= interval) {
+						backup();
+					} else if (logInterval > 0 && lastFull != 0
+							&& now - lastLogs >= logInterval) {
+						archiveLogs();
+					}
+				} catch (SQLException e) {
+					log.error("Scheduled backup failed.");
+					log.errorException(e);
+				} catch (IOException e) {
+					log.error("Scheduled backup failed.");
+					log.errorException(e);
+				}
+			}
+		}, 1, 1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * Create the thread the backups are made on.
+	 */
+	private void createScheduler() {
+		scheduler = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "simple rowLog backup");
+						t.setDaemon(true);
+						t.setPriority(Thread.MIN_PRIORITY);
+						return t;
+					}
+				});
+	}
+
+	/**
+	 * Make a full backup in the background as soon as possible, after any
+	 * backup in progress. The thread of the scheduled backups is used, and
+	 * created if they aren't running.
+	 */
+	synchronized void requestBackup() {
+		if (scheduler == null) {
+			createScheduler();
+		}
+		scheduler.execute(new Runnable() {
+			public void run() {
+				try {
+					backup();
+				} catch (SQLException e) {
+					log.error("Requested backup failed.");
+					log.errorException(e);
+				} catch (IOException e) {
+					log.error("Requested backup failed.");
+					log.errorException(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stop the scheduled backups and archive the logs one last time, so that
+	 * everything up to now can be restored. A backup in progress is
+	 * finished first, as interrupting derby while it writes could damage the
+	 * database.
+	 */
+	void stop() {
+		ScheduledExecutorService s;
+		synchronized (this) {
+			s = scheduler;
+			scheduler = null;
+		}
+		if (s == null) {
+			return;
+		}
+		s.shutdown();
+		try {
+			if (!s.awaitTermination(1, TimeUnit.SECONDS)) {
+				log.info("Waiting for the backup to finish.");
+				s.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if (lastFull != 0) {
+			try {
+				archiveLogs();
+			} catch (IOException e) {
+				log.error("Couldn't archive the logs at shutdown.");
+				log.errorException(e);
+			}
+		}
+	}
+
+	/**
+	 * Check whether there is a full backup which could be rolled forward.
+	 *
+	 * @return Whether a full backup has been made.
+	 */
+	synchronized boolean hasBackup() {
+		return lastFull != 0;
+	}
+
+	/**
+	 * Get the reports of the backups made since the database was opened.
+	 *
+	 * @return The reports, newest first.
+	 */
+	BackupReport[] getReports() {
+		synchronized (reports) {
+			return reports.toArray(new BackupReport[reports.size()]);
+		}
+	}
+
+	/**
+	 * Make a full backup of the database and the configuration, then archive
+	 * the logs and remove the backups no longer kept.
+	 *
+	 * @return The report.
+	 */
+	synchronized BackupReport backup() throws SQLException, IOException {
+		log.entry("backup()");
+		Date start = new Date();
+		String name = FULL_PREFIX
+				+ new SimpleDateFormat(NAME_FORMAT).format(start);
+		File partial = new File(dir, name + PARTIAL_SUFFIX);
+		File target = new File(dir, name);
+		if (!partial.mkdirs()) {
+			throw new IOException("Couldn't create " + partial);
+		}
+		boolean complete = false;
+		try {
+			Connection con = DriverManager.getConnection(connectionURL);
+			try {
+				// Doesn't wait for transactions in progress, and only blocks
+				// writes while the log is switched.
+				CallableStatement cs = con.prepareCall("CALL SYSCS_UTIL."
+						+ "SYSCS_BACKUP_DATABASE_AND_ENABLE_LOG_ARCHIVE_MODE"
+						+ "_NOWAIT(?, 1)");
+				cs.setString(1, partial.getAbsolutePath());
+				cs.execute();
+				cs.close();
+			} finally {
+				con.close();
+			}
+			long databaseSize = getSize(new File(partial, database.getName()));
+			// Archives are replaced by renaming a complete file, so copying
+			// them while the database is used is safe. A change to them is
+			// followed by another full backup.
+			databaseSize += copyFiles(archive, new File(partial, ARCHIVE));
+			Configuration.flush();
+			long confSize = copyFiles(conf, new File(partial, CONF));
+			Date end = new Date();
+
+			Properties manifest = new Properties();
+			manifest.setProperty("start", Long.toString(start.getTime()));
+			manifest.setProperty("end", Long.toString(end.getTime()));
+			manifest.setProperty("database.size", Long.toString(databaseSize));
+			manifest.setProperty("conf.size", Long.toString(confSize));
+			addChecksums(manifest, partial, "");
+			OutputStream out = new FileOutputStream(new File(partial,
+					MANIFEST));
+			try {
+				manifest.store(out, "simple rowLog backup");
+			} finally {
+				out.close();
+			}
+			if (!partial.renameTo(target)) {
+				throw new IOException("Couldn't rename " + partial + " to "
+						+ target);
+			}
+			complete = true;
+			lastFull = start.getTime();
+
+			BackupReport report = new BackupReport(start, end, target,
+					databaseSize, confSize);
+			synchronized (reports) {
+				reports.addFirst(report);
+				if (reports.size() > REPORTS_KEPT) {
+					reports.removeLast();
+				}
+			}
+			log.info("Backed up " + report);
+			// The logs written while copying are needed to restore it.
+			archiveLogs();
+			prune();
+			log.exit("backup()");
+			return report;
+		} finally {
+			if (!complete) {
+				delete(partial);
+			}
+		}
+	}
+
+	/**
+	 * Copy the logs written since they were last archived.
+	 *
+	 * @return The number of log files copied.
+	 */
+	synchronized int archiveLogs() throws IOException {
+		File[] files = new File(database, "log").listFiles(new FileFilter() {
+			public boolean accept(File f) {
+				return f.isFile() && f.getName().matches("log\\d+\\.dat");
+			}
+		});
+		lastLogs = System.currentTimeMillis();
+		if (files == null) {
+			return 0;
+		}
+		File logs = new File(dir, LOGS);
+		if (!logs.isDirectory() && !logs.mkdirs()) {
+			throw new IOException("Couldn't create " + logs);
+		}
+		int copied = 0;
+		long bytes = 0;
+		for (File f : files) {
+			File copy = new File(logs, f.getName());
+			// Only the current log is still written to, but derby preallocates
+			// the files, so the time is compared as well as the length.
+			if (copy.length() == f.length()
+					&& copy.lastModified() == f.lastModified()) {
+				continue;
+			}
+			bytes += copy(f, copy);
+			copied++;
+		}
+		if (copied > 0 && log.wouldLog(DebugLevel.L4_INFO)) {
+			log.info("Archived " + copied + " log files, " + bytes
+					+ " bytes.");
+		}
+		return copied;
+	}
+
+	/**
+	 * Tell derby to stop keeping the logs for us. The logs it kept, and those
+	 * archived already, are left alone: backups made so far can still be
+	 * rolled forward up to now.
+	 */
+	void disableLogArchive() {
+		try {
+			Connection con = DriverManager.getConnection(connectionURL);
+			try {
+				CallableStatement cs = con.prepareCall("CALL SYSCS_UTIL."
+						+ "SYSCS_DISABLE_LOG_ARCHIVE_MODE(0)");
+				cs.execute();
+				cs.close();
+			} finally {
+				con.close();
+			}
+			log.info("No longer archiving the logs (backup.archive_logs).");
+		} catch (SQLException e) {
+			log.warn("Couldn't disable archiving the logs.");
+			log.errorException(e);
+		}
+	}
+
+	/**
+	 * Remove the full backups no longer kept, the remains of failed backups,
+	 * and the logs which are older than all kept backups.
+	 */
+	private void prune() {
+		File[] backups = getBackups(dir);
+		if (backups.length == 0) {
+			return;
+		}
+		for (int i = 0; i < backups.length - keep; i++) {
+			log.info("Removing old backup " + backups[i]);
+			delete(backups[i]);
+		}
+		File[] partial = dir.listFiles(new FileFilter() {
+			public boolean accept(File f) {
+				return f.isDirectory() && f.getName().endsWith(PARTIAL_SUFFIX);
+			}
+		});
+		if (partial != null) {
+			for (File f : partial) {
+				delete(f);
+			}
+		}
+		Date oldest = getTime(backups[Math.max(0, backups.length - keep)]);
+		File[] logs = new File(dir, LOGS).listFiles();
+		if (oldest == null || logs == null) {
+			return;
+		}
+		for (File f : logs) {
+			// Last written before the backup was started.
+			if (f.lastModified() < oldest.getTime()) {
+				f.delete();
+			}
+		}
+	}
+
+	/**
+	 * Copy the files in a directory, but not its subdirectories (e.g. the
+	 * default configuration) or unfinished files.
+	 *
+	 * @return The number of bytes copied.
+	 */
+	static long copyFiles(File from, File to) throws IOException {
+		if (!to.mkdirs()) {
+			throw new IOException("Couldn't create " + to);
+		}
+		File[] files = from.listFiles(new FileFilter() {
+			public boolean accept(File f) {
+				return f.isFile() && !f.getName().endsWith(".tmp");
+			}
+		});
+		long bytes = 0;
+		if (files != null) {
+			for (File f : files) {
+				bytes += copy(f, new File(to, f.getName()));
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Get the complete full backups in a directory.
+	 *
+	 * @param dir
+	 *            The backup directory.
+	 * @return The backups, oldest first.
+	 */
+	static File[] getBackups(File dir) {
+		File[] backups = dir.listFiles(new FileFilter() {
+			public boolean accept(File f) {
+				return f.isDirectory() && f.getName().startsWith(FULL_PREFIX)
+						&& getTime(f) != null
+						&& new File(f, MANIFEST).isFile();
+			}
+		});
+		if (backups == null) {
+			return new File[0];
+		}
+		// The names sort by time.
+		Arrays.sort(backups);
+		return backups;
+	}
+
+	/**
+	 * Get the time a full backup was started, from its name.
+	 *
+	 * @param backup
+	 *            The directory of the backup.
+	 * @return The time, null if it isn't named like a full backup.
+	 */
+	static Date getTime(File backup) {
+		String name = backup.getName();
+		if (!name.startsWith(FULL_PREFIX)) {
+			return null;
+		}
+		SimpleDateFormat format = new SimpleDateFormat(NAME_FORMAT);
+		format.setLenient(false);
+		try {
+			return format.parse(name.substring(FULL_PREFIX.length()));
+		} catch (ParseException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Copy a file, keeping its time.
+	 *
+	 * @return The number of bytes copied.
+	 */
+	static long copy(File from, File to) throws IOException {
+		long bytes = 0;
+		InputStream in = new FileInputStream(from);
+		try {
+			OutputStream out = new FileOutputStream(to);
+			try {
+				byte[] buffer = new byte[65536];
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					out.write(buffer, 0, read);
+					bytes += read;
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+		to.setLastModified(from.lastModified());
+		return bytes;
+	}
+
+	/**
+	 * Add the checksums of all files in a directory to a manifest, as
+	 * crc.PATH, where the path is relative to the backup and uses /.
+	 */
+	private static void addChecksums(Properties manifest, File dir,
+			String path) throws IOException {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File f : files) {
+			if (f.isDirectory()) {
+				addChecksums(manifest, f, path + f.getName() + "/");
+			} else {
+				manifest.setProperty("crc." + path + f.getName(), Long
+						.toString(getChecksum(f)));
+			}
+		}
+	}
+
+	/**
+	 * Get the CRC-32 of a file.
+	 */
+	static long getChecksum(File f) throws IOException {
+		CRC32 crc = new CRC32();
+		InputStream in = new FileInputStream(f);
+		try {
+			byte[] buffer = new byte[65536];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				crc.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Get the size of a file, or of all files in a directory.
+	 */
+	static long getSize(File f) {
+		if (!f.isDirectory()) {
+			return f.length();
+		}
+		long size = 0;
+		File[] files = f.listFiles();
+		if (files != null) {
+			for (File c : files) {
+				size += getSize(c);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Delete a file, or a directory and everything in it.
+	 */
+	static void delete(File f) {
+		File[] files = f.listFiles();
+		if (files != null) {
+			for (File c : files) {
+				delete(c);
+			}
+		}
+		if (!f.delete() && f.exists()) {
+			log.warn("Couldn't delete " + f);
+		}
+	}
+}
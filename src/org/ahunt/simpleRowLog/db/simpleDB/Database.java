@@ -17,6 +17,39 @@
  *
  *
  *	Changelog:
+ *  19/10/2026: The backup after changing the archives is made in the
+ *  			background, except when headless.
+ *  19/10/2026: A full backup is made after archiving a season or changing an
+ *  			archive; archives are never removed at startup.
+ *  19/10/2026: Derby only stops keeping the logs if backup.archive_logs is
+ *  			false.
+ *  19/10/2026: Uses the typed configuration getters.
+ *  19/10/2026: The slow query log is closed on shutdown.
+ *  19/10/2026: Past seasons can be archived into read-only columnar files,
+ *  			which are read transparently.
+ *  19/10/2026: Added scheduled online backups with archived logs.
+ *  19/10/2026: Next year's outings table and statements are created in the
+ *  			background before the year ends.
+ *  19/10/2026: Added the warm-up run at startup.
+ *  19/10/2026: OutingStatementSets are now actually cached.
+ *  19/10/2026: The schema is versioned and migrated at startup.
+ *  19/10/2026: Added scheduled storage maintenance.
+ *  19/10/2026: Outings over several years are read from the year tables at
+ *  			the same time; fixed the first and last days used for whole
+ *  			years.
+ *  19/10/2026: Members are sorted by locale with cached collation keys;
+ *  			implemented getMembersStatistics().
+ *  19/10/2026: Groups and members (joined with their group) are each read
+ *  			in one query; implemented getMembers(int).
+ *  19/10/2026: Admins are cached and read with their permissions in one
+ *  			query; permission changes are stored as a batched diff.
+ *  19/10/2026: Log messages are only built if they will be logged.
+ *  19/10/2026: Slow statements are logged.
+ *  19/10/2026: Outing statements are now timed.
+ *  19/10/2026: Added headless mode, backup(), checkTables(), countOutings()
+ *  			and shutdown(); getMemberStatistics now uses the correct
+ *  			statement.
+ *  19/10/2026: Exposed the connection and years to the Exporter.
  *  11/02/2011: Added HashMap for getOutings, added delete().
  *  27/04/2010: Implemented getMemberStatistics.
  *	23/08/2009:	Changelog added.
@@ -32,6 +65,8 @@ import java.awt.Color;
 import java.io.File;
 import java.io.IOException;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -42,27 +77,44 @@ import java.sql.Statement;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.Enumeration;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
 import java.util.Random;
 import java.util.ResourceBundle;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.ahunt.simpleRowLog.common.BackupReport;
 import org.ahunt.simpleRowLog.common.BoatInfo;
 import org.ahunt.simpleRowLog.common.BoatStatistic;
 import org.ahunt.simpleRowLog.common.DatabaseError;
 import org.ahunt.simpleRowLog.common.InvalidDataException;
+import org.ahunt.simpleRowLog.common.MaintenanceReport;
 import org.ahunt.simpleRowLog.common.GroupInfo;
 import org.ahunt.simpleRowLog.common.GroupStatistic;
 import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.MemberSorter;
 import org.ahunt.simpleRowLog.common.MemberStatistic;
 import org.ahunt.simpleRowLog.common.OutingInfo;
+import org.ahunt.simpleRowLog.common.ProgressListener;
 import org.ahunt.simpleRowLog.admin.AdminInfo;
 import org.ahunt.simpleRowLog.admin.AdminPermissionList;
+import org.ahunt.simpleRowLog.conf.Configuration;
+import org.ahunt.simpleRowLog.interfaces.Maintainable;
+import org.ahunt.simpleRowLog.metrics.Metrics;
+import org.ahunt.simpleRowLog.metrics.Timer;
 
+import org.grlea.log.DebugLevel;
 import org.grlea.log.SimpleLogger;
 
 /**
@@ -72,11 +124,20 @@ import org.grlea.log.SimpleLogger;
  * @author Andrzej JR Hunt
  * 
  */
-public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
+public class Database implements org.ahunt.simpleRowLog.interfaces.Database,
+		Maintainable {
 
 	/** The opened instance. null if none. */
 	private static Database db;
 
+	/**
+	 * Whether we are running without a gui, i.e. no dialogs may be shown.
+	 */
+	private static boolean headless = false;
+
+	/** Receives the progress of starting the database, null if none. */
+	private static ProgressListener startupListener;
+
 	/** Logging mechanism. */
 	private static final SimpleLogger log = new SimpleLogger(Database.class);
 
@@ -94,6 +155,27 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	/** Connection url in use. */
 	private String connectionURL = "jdbc:derby:" + dbName + ";create=true";
 
+	/**
+	 * Runs queries over several years at once, null if they are run one year
+	 * after the other.
+	 */
+	private volatile YearQueryPool yearQueryPool;
+
+	/** Maintains the storage. */
+	private Maintenance maintenance;
+
+	/** Backs up the database and the configuration. */
+	private BackupManager backups;
+
+	/** The directory containing the archived seasons. */
+	private static final File ARCHIVE_DIR = new File("database/archive");
+
+	/** The archived seasons read so far, by year. */
+	private final ConcurrentHashMap<Integer, SeasonArchive> archives = new ConcurrentHashMap<Integer, SeasonArchive>();
+
+	/** The years whose outings have been archived, in order. */
+	private volatile int[] archivedYears = new int[0];
+
 	/** The connection the db is using. null if none. */
 	private Connection con;
 
@@ -130,6 +212,11 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	private PreparedStatement psGetMembers;
 	/** TO get some members (e.g. group) */
 	private PreparedStatement psGetMembersSelection;
+	/**
+	 * Sorts the current members, null if the members have changed since it
+	 * was created.
+	 */
+	private volatile MemberSorter memberSorter;
 
 	private PreparedStatement psAddGroup;
 	private PreparedStatement psGetGroup;
@@ -141,14 +228,19 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	private PreparedStatement psAddAdmin;
 	private PreparedStatement psGetAdmin;
 	private PreparedStatement psGetAdmins;
-	private PreparedStatement psGetAdminPermissionList;
-	private PreparedStatement psGetRoot;
 	private PreparedStatement psModifyAdmin;
 	private PreparedStatement psSetAdminPassword;
 	private PreparedStatement psRemoveAllPermissions;
 	private PreparedStatement psAddPermission;
+	private PreparedStatement psRemovePermission;
 	private PreparedStatement psRemoveAdmin;
 
+	/** The admins read so far, by username. */
+	private TreeMap<String, SimpleDBAdminInfo> adminCache = new TreeMap<String, SimpleDBAdminInfo>();
+
+	/** Whether adminCache contains all admins. */
+	private boolean adminCacheComplete = false;
+
 	/**
 	 * Get an instance of the database.
 	 * 
@@ -163,6 +255,30 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 
 	}
 
+	/**
+	 * Set whether the database is being run without a gui, e.g. from the
+	 * command line. If set no dialogs will be shown, which means that a newly
+	 * created database will not have an administrator until the gui is first
+	 * started. Must be called before {@link #getInstance()}.
+	 * 
+	 * @param headless
+	 *            Whether no gui is available.
+	 */
+	public static void setHeadless(boolean headless) {
+		Database.headless = headless;
+	}
+
+	/**
+	 * Set the listener receiving the progress of starting the database, e.g.
+	 * of updating the schema. Must be called before {@link #getInstance()}.
+	 * 
+	 * @param listener
+	 *            The listener, or null.
+	 */
+	public static void setStartupListener(ProgressListener listener) {
+		startupListener = listener;
+	}
+
 	/**
 	 * Start the database.
 	 */
@@ -203,6 +319,13 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			} else {
 				log.info("Database previously existed and will be used.");
 			}
+			// Bring the schema up to date.
+			new Migrations(con, startupListener != null ? startupListener
+					: new ProgressListener() {
+						public void progressUpdate(String task, long done,
+								long total) {
+						}
+					}).migrate();
 		} catch (SQLException e) {
 			log.errorException(e);
 			throw new DatabaseError(rb.getString("setupError"), e);
@@ -211,6 +334,57 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			throw new DatabaseError(rb.getString("scriptError"), e);
 		}
 
+		// Log slow statements from now on.
+		con = QueryLog.wrap(con);
+
+		setQueryThreads(getConfInt("parallel_years", 0));
+
+		// Maintain the storage while the logbook isn't used. Batch jobs only
+		// run on demand, so that they finish promptly.
+		try {
+			maintenance = new Maintenance(connectionURL,
+					parseConfLong("maintenance.interval", 24), parseConfLong(
+							"maintenance.idle", 30), getConfBoolean(
+							"maintenance.compress", true),
+					new File("database/last-maintenance"));
+		} catch (NumberFormatException e) {
+			log.warn("Invalid maintenance settings, maintenance disabled.");
+			maintenance = new Maintenance(connectionURL, 0, 0, true, new File(
+					"database/last-maintenance"));
+		}
+		if (!headless) {
+			maintenance.start();
+		}
+
+		// Back up while the logbook is used, batch jobs only back up on
+		// demand.
+		String dirName = getConfProperty("backup.dir");
+		File backupDir = new File(dirName != null
+				&& dirName.trim().length() > 0 ? dirName.trim() : "backups");
+		try {
+			backups = new BackupManager(connectionURL, new File("database/"
+					+ dbName), ARCHIVE_DIR, new File("conf"), backupDir,
+					parseConfLong("backup.interval", 24), parseConfLong(
+							"backup.log_interval", 15), (int) parseConfLong(
+							"backup.keep", 7));
+		} catch (NumberFormatException e) {
+			log.warn("Invalid backup settings, scheduled backups disabled.");
+			backups = new BackupManager(connectionURL, new File("database/"
+					+ dbName), ARCHIVE_DIR, new File("conf"), backupDir, 0, 0,
+					7);
+		}
+		if (!headless) {
+			// Only turned off when asked to, since the backups made from the
+			// command line need the logs to be rolled forward.
+			if (getConfBoolean("backup.archive_logs", true)) {
+				backups.start();
+			} else {
+				backups.disableLogArchive();
+			}
+		}
+
+		findArchivedYears();
+
 		// Set up the outing manager.
 		try {
 			log.info("Creating OutingManager.");
@@ -225,11 +399,90 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			throw new DatabaseError(rb.getString("scriptError"), e);
 		}
 
+		// Prepare everything the first actions in the gui need while the
+		// splash screen is still shown.
+		if (!headless && getConfBoolean("warmup", true)) {
+			try {
+				warmUp();
+			} catch (DatabaseError e) {
+				log.warn("Warm-up failed, continuing without.");
+				log.errorException(e);
+			}
+		}
+
 		// Store this database as the running db.
 		db = this;
 		log.exit("Database()");
 	}
 
+	/**
+	 * Prepare the statements and read the data used by the first actions in
+	 * the gui: the reference data, the outings of today and yesterday, and
+	 * the current year's outings by day, member and boat, so that Derby has
+	 * the indexes of the current year in its page cache. Progress is reported
+	 * to the startup listener.
+	 * 
+	 * @throws DatabaseError
+	 *             If there is a problem reading from the database.
+	 */
+	private void warmUp() throws DatabaseError {
+		log.entry("warmUp()");
+		long start = System.currentTimeMillis();
+		Calendar today = new GregorianCalendar();
+		Calendar yesterday = (Calendar) today.clone();
+		yesterday.add(Calendar.DAY_OF_MONTH, -1);
+		Date yearStart = new GregorianCalendar(today.get(Calendar.YEAR),
+				Calendar.JANUARY, 1).getTime();
+		final int steps = 6;
+		int step = 0;
+		// Reference data, as needed by the outing dialog.
+		getGroup(getDefaultGroup().getId());
+		getGroups();
+		getMember(GUEST_MEMBER_ID);
+		getMembers();
+		warmUpProgress(++step, steps);
+		getBoat(OTHER_BOAT_ID);
+		getBoats();
+		getBoats(true);
+		warmUpProgress(++step, steps);
+		// The admin login.
+		getAdmins();
+		try {
+			MessageDigest.getInstance("SHA-256").digest(new byte[0]);
+		} catch (NoSuchAlgorithmException e) {
+			// Admins can't log in then either, nothing to warm up.
+		}
+		warmUpProgress(++step, steps);
+		// The days first shown, and the current year's indexes.
+		getOutings(today.getTime());
+		getOutings(yesterday.getTime());
+		warmUpProgress(++step, steps);
+		getOutings(yearStart, today.getTime());
+		warmUpProgress(++step, steps);
+		getOutings(getMember(GUEST_MEMBER_ID), yearStart, today.getTime());
+		getOutings(getBoat(OTHER_BOAT_ID), yearStart, today.getTime());
+		warmUpProgress(++step, steps);
+		log.info("Warm-up took " + (System.currentTimeMillis() - start)
+				+ " ms.");
+		log.exit("warmUp()");
+	}
+
+	private static void warmUpProgress(int done, int total) {
+		if (startupListener != null) {
+			startupListener.progressUpdate("warmup", done, total);
+		}
+	}
+
+	/**
+	 * Get the connection in use, for use by the helper classes within this
+	 * package, e.g. the {@link Exporter}.
+	 * 
+	 * @return The connection to the database.
+	 */
+	Connection getConnection() {
+		return con;
+	}
+
 	/**
 	 * Run the scripts setting up the database.
 	 * 
@@ -300,7 +553,11 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		}
 		addBoat(rb.getString("otherBoat"), "", true);
 		// Ask the user to set up srl.
-		new SetupDialog(this);
+		if (headless) {
+			log.warn("Running headless: no administrator has been set up.");
+		} else {
+			new SetupDialog(this);
+		}
 		log.exit("createDefaultData()");
 	}
 
@@ -545,6 +802,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			psAddMember.setDate(3, new java.sql.Date(dob.getTime()));
 			psAddMember.setInt(4, group);
 			psAddMember.execute();
+			clearMemberSorter();
 			ResultSet rs = psAddMember.getGeneratedKeys();
 			if (rs.next()) {
 				int ret = rs.getInt(1);
@@ -572,15 +830,13 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		log.verbose("getMember(int)");
 		try {
 			if (psGetMember == null) { // Ensure the ps is available
-				psGetMember = con
-						.prepareStatement("SELECT * FROM members WHERE id = ?");
+				psGetMember = con.prepareStatement(MEMBERS_QUERY
+						+ " WHERE m.id = ?");
 			}
 			psGetMember.setInt(1, id);
 			ResultSet res = psGetMember.executeQuery();
 			if (res.next()) { // Check whether there are results
-				MemberInfo m = new MemberInfo(id, res.getString("surname"), res
-						.getString("forename"), res.getDate("dob"),
-						getGroup(res.getInt("usergroup")));
+				MemberInfo m = readMember(res, null);
 				res.close();
 				return m;
 			} else { // No such member
@@ -630,6 +886,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			psModifyMember.setInt(4, group);
 			psModifyMember.setInt(5, member.getId());
 			psModifyMember.execute();
+			clearMemberSorter();
 		} catch (SQLIntegrityConstraintViolationException e) {
 			throw new InvalidDataException("A member named " + surname + ":"
 					+ forename + " with dob " + dob
@@ -644,6 +901,56 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 
 	/* -------------------- MEMBERS (GROUP) [G+] ----------------- */
 
+	/**
+	 * Query for members joined with their groups, to be read by
+	 * {@link #readMember(ResultSet, HashMap)}.
+	 */
+	private static final String MEMBERS_QUERY = "SELECT m.id, m.surname,"
+			+ " m.forename, m.dob, m.usergroup, g.name, g.description,"
+			+ " g.colour, g.isDefault FROM members m JOIN groups g"
+			+ " ON m.usergroup = g.id";
+
+	/**
+	 * Read a member from a result of {@link #MEMBERS_QUERY}.
+	 * 
+	 * @param rs
+	 *            The result set, positioned on the member.
+	 * @param groups
+	 *            Groups already read, by id, so that members share their
+	 *            GroupInfo. Can be null.
+	 * @return The member.
+	 */
+	private static MemberInfo readMember(ResultSet rs,
+			HashMap<Integer, GroupInfo> groups) throws SQLException {
+		int groupId = rs.getInt("usergroup");
+		GroupInfo group = groups != null ? groups.get(groupId) : null;
+		if (group == null) {
+			group = new GroupInfo(groupId, rs.getString("name"), rs
+					.getString("description"), new Color(rs.getInt("colour")),
+					rs.getBoolean("isDefault"));
+			if (groups != null) {
+				groups.put(groupId, group);
+			}
+		}
+		return new MemberInfo(rs.getInt("id"), rs.getString("surname"), rs
+				.getString("forename"), rs.getDate("dob"), group);
+	}
+
+	/**
+	 * Read all the members from the result of a {@link #MEMBERS_QUERY}
+	 * statement.
+	 */
+	private MemberInfo[] readMembers(PreparedStatement ps) throws SQLException {
+		ResultSet rs = ps.executeQuery();
+		ArrayList<MemberInfo> a = new ArrayList<MemberInfo>();
+		HashMap<Integer, GroupInfo> groupMap = new HashMap<Integer, GroupInfo>();
+		while (rs.next()) {
+			a.add(readMember(rs, groupMap));
+		}
+		rs.close();
+		return a.toArray(new MemberInfo[a.size()]);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -652,26 +959,9 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		log.verbose("getMembers()");
 		try {
 			if (psGetMembers == null) {
-				psGetMembers = con.prepareStatement("SELECT * from members");
-			}
-			psGetMembers.execute();
-			ResultSet rs = psGetMembers.getResultSet();
-			ArrayList<MemberInfo> a = new ArrayList<MemberInfo>();
-			GroupInfo[] groups = getGroups();
-			HashMap<Integer, GroupInfo> groupMap = new HashMap<Integer, GroupInfo>();
-			for (GroupInfo g : groups) {
-				groupMap.put(g.getId(), g);
-			}
-			while (rs.next()) {
-				a.add(new MemberInfo(rs.getInt("id"), rs.getString("surname"),
-						rs.getString("forename"), rs.getDate("dob"), groupMap
-								.get(rs.getInt("usergroup"))));
+				psGetMembers = con.prepareStatement(MEMBERS_QUERY);
 			}
-			rs.close();
-			// if (a.size() == 0) {
-			// return null;
-			// }
-			return a.toArray(new MemberInfo[a.size()]);
+			return readMembers(psGetMembers);
 		} catch (SQLException e) {
 			log.errorException(e);
 			throw new DatabaseError(rb.getString("commandError"), e);
@@ -679,18 +969,113 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	}
 
 	/**
-	 * Not yet implemented
+	 * {@inheritDoc} Sorting is done in java rather than by derby, which only
+	 * compares the characters' codes.
 	 */
 	@Override
 	public MemberInfo[] getMembers(int sorting) throws DatabaseError {
-		// TODO: implement (medium).
-		return null;
+		log.verbose("getMembers(int)");
+		return getMemberSorter().getSorted(sorting);
+	}
+
+	/**
+	 * Get the sorter for the current members, creating it if the members have
+	 * changed. The locale used is set by <code>collation_locale</code> in
+	 * simpleDB.conf (e.g. "de_DE"), or the default locale if that is empty.
+	 */
+	private MemberSorter getMemberSorter() throws DatabaseError {
+		MemberSorter sorter = memberSorter;
+		if (sorter == null) {
+			sorter = new MemberSorter(getMembers(), getCollationLocale());
+			memberSorter = sorter;
+		}
+		return sorter;
+	}
+
+	/**
+	 * Forget the sorted members, e.g. after a member has been modified.
+	 */
+	private void clearMemberSorter() {
+		memberSorter = null;
+	}
+
+	/**
+	 * Get a number from simpleDB.conf.
+	 * 
+	 * @throws NumberFormatException
+	 *             If the property isn't a number.
+	 */
+	private static long parseConfLong(String name, long def) {
+		String value = getConfProperty(name);
+		return value != null ? Long.parseLong(value.trim()) : def;
+	}
+
+	/**
+	 * Get the locale used for sorting names.
+	 */
+	private static Locale getCollationLocale() {
+		String name = getConfProperty("collation_locale");
+		if (name == null || name.trim().length() == 0) {
+			return Locale.getDefault();
+		}
+		String[] parts = name.trim().split("_", 3);
+		if (parts.length == 1) {
+			return new Locale(parts[0]);
+		} else if (parts.length == 2) {
+			return new Locale(parts[0], parts[1]);
+		}
+		return new Locale(parts[0], parts[1], parts[2]);
+	}
+
+	/**
+	 * Get a property from simpleDB.conf.
+	 * 
+	 * @param name
+	 *            The name of the property.
+	 * @return The value, null if not set or there is no configuration.
+	 */
+	private static String getConfProperty(String name) {
+		Configuration conf = getConf();
+		return conf != null ? conf.getProperty(name) : null;
+	}
+
+	/**
+	 * Get a boolean from simpleDB.conf.
+	 * 
+	 * @return The value, def if not set or there is no configuration.
+	 */
+	private static boolean getConfBoolean(String name, boolean def) {
+		Configuration conf = getConf();
+		return conf != null ? conf.getBoolean(name, def) : def;
+	}
+
+	/**
+	 * Get an int from simpleDB.conf.
+	 * 
+	 * @return The value, def if not set, invalid or there is no
+	 *         configuration.
+	 */
+	private static int getConfInt(String name, int def) {
+		Configuration conf = getConf();
+		return conf != null ? conf.getInt(name, def) : def;
+	}
+
+	/**
+	 * Get simpleDB.conf, null if there is none.
+	 */
+	private static Configuration getConf() {
+		try {
+			return Configuration.getConf("simpleDB");
+		} catch (IOException e) {
+			log.dbe(DebugLevel.L6_VERBOSE, e);
+			return null;
+		}
 	}
 
 	/* -------------------- MEMBERS - STATISTICS [G,G+] ----------------- */
 
 	/**
-	 * Not yet implemented.
+	 * {@inheritDoc}
 	 */
 	@Override
 	public MemberStatistic getMemberStatistics(MemberInfo member)
@@ -699,21 +1084,22 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	}
 
 	/**
-	 * Not yet implemented.
+	 * {@inheritDoc}
 	 */
 	@Override
-	public MemberStatistic[] getMembersStatistics() {
-		// TODO: implement (low priority)
-		return null;
+	public MemberStatistic[] getMembersStatistics() throws DatabaseError {
+		log.verbose("getMembersStatistics()");
+		return outingManager.getMembersStatistics(getMembers());
 	}
 
 	/**
-	 * Not yet implemented.
+	 * {@inheritDoc}
 	 */
 	@Override
-	public MemberStatistic[] getMembersStatistics(int sorting) {
-		// TODO: implement (low priority)
-		return null;
+	public MemberStatistic[] getMembersStatistics(int sorting)
+			throws DatabaseError {
+		log.verbose("getMembersStatistics(int)");
+		return outingManager.getMembersStatistics(getMembers(sorting));
 	}
 
 	/* -------------------- GROUPS [AGM,G+] ----------------- */
@@ -769,7 +1155,9 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	 */
 	@Override
 	public GroupInfo getGroup(int id) throws DatabaseError {
-		log.verbose("getGroup(" + id + ")");
+		if (log.wouldLog(DebugLevel.L6_VERBOSE)) {
+			log.verbose("getGroup(" + id + ")");
+		}
 		try {
 			// Check whether prepared statement exists. Create if necessary.
 			if (psGetGroup == null) {
@@ -835,6 +1223,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			psModifyGroup.setInt(5, group.getId());
 			// Process
 			psModifyGroup.execute();
+			clearMemberSorter();
 		} catch (SQLException e) {
 			log.error("Error modifying group " + group.getId());
 			log.errorException(e);
@@ -851,24 +1240,22 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		try {
 			// Check whether prepared statement exists. Create if necessary.
 			if (psGetGroups == null) {
-				psGetGroups = con.prepareStatement("SELECT id FROM groups");
+				psGetGroups = con.prepareStatement("SELECT * FROM groups"
+						+ " ORDER BY name");
 			}
 			// Get the data.
 			psGetGroups.execute();
 			// Get results.
 			ResultSet rs = psGetGroups.getResultSet();
-			// Check that there are any groups
 			ArrayList<GroupInfo> a = new ArrayList<GroupInfo>();
 			// Go through the groups.
 			while (rs.next()) {
-				a.add(getGroup(rs.getInt("id")));
+				a.add(new GroupInfo(rs.getInt("id"), rs.getString("name"), rs
+						.getString("description"), new Color(rs
+						.getInt("colour")), rs.getBoolean("isDefault")));
 			}
 			log.verbose("Data gotten, returning groups");
-			// Return a GroupInfo.
 			rs.close();
-			// if (a.size() == 0) {
-			// return null; // If there are no groups.
-			// }
 			return a.toArray(new GroupInfo[a.size()]);
 		} catch (SQLException e) {
 			log.error("Error getting groups");
@@ -1047,9 +1434,10 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 
 			psAddAdmin.execute();
 			psAddAdmin.clearParameters(); // So that data isn't kept in mem.
+			clearAdminCache();
 		} catch (java.sql.SQLIntegrityConstraintViolationException e) {
 			log.error("Admin " + username + " already exists.");
-			log.dbe(org.grlea.log.DebugLevel.L6_VERBOSE, e);
+			log.dbe(DebugLevel.L6_VERBOSE, e);
 			throw new InvalidDataException("Admin already exists.", e);
 		} catch (SQLException e) {
 			log.error("Error adding new admin.");
@@ -1134,118 +1522,156 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	 */
 	@Override
 	public AdminInfo getAdmin(String username) throws DatabaseError {
-		log.entry("getAdmin(" + username + ")");
-
+		if (log.isTracing()) {
+			log.entry("getAdmin(" + username + ")");
+		}
+		synchronized (adminCache) {
+			SimpleDBAdminInfo admin = adminCache.get(username);
+			if (admin != null || adminCacheComplete) {
+				return admin;
+			}
+		}
 		try {
 			// Check whether prepared statement exists. Create if necessary.
 			if (psGetAdmin == null) {
-				psGetAdmin = con.prepareStatement("SELECT * FROM admins "
-						+ "WHERE username = ?");
+				psGetAdmin = con.prepareStatement("SELECT a.*, p.permission"
+						+ " FROM admins a LEFT OUTER JOIN admins_permissions p"
+						+ " ON a.username = p.username WHERE a.username = ?");
 			}
 			// Set the data
 			psGetAdmin.setString(1, username);
 			psGetAdmin.execute();
 			// Get results.
 			ResultSet rs = psGetAdmin.getResultSet();
-			if (!rs.next()) {
-				// No such admin
-				rs.close();
+			ArrayList<SimpleDBAdminInfo> admins = readAdmins(rs);
+			rs.close();
+			if (admins.isEmpty()) { // No such admin
 				return null;
 			}
-			String name = rs.getString("name");
-
-			byte[] salt = rs.getBytes("salt");
-			byte[] hash = rs.getBytes("password");
-			boolean isRoot = rs.getBoolean("isRoot");
-			String comment = rs.getString("comment");
-			rs.close();
-			return new SimpleDBAdminInfo(name, username, hash, salt, isRoot,
-					comment, getAdminPermissionList(username));
-
+			synchronized (adminCache) {
+				adminCache.put(username, admins.get(0));
+			}
+			return admins.get(0);
 		} catch (SQLException e) {
 			log.error("Error getting the admin.");
 			log.errorException(e);
 			throw new DatabaseError(rb.getString("commandError"), e);
-		} catch (Exception e) {
-			// TODO: deal with the no encoding / algorithm exceptions.
 		}
-		return null;
-
 	}
 
-	private AdminPermissionList getAdminPermissionList(String username)
-			throws DatabaseError {
-		log.entry("getAdminPermissionList(" + username + ")");
-		ArrayList<String> permissions = new ArrayList<String>();
-		boolean isRoot = false;
-		try {
-			// Check whether prepared statement exists. Create if necessary.
-			if (psGetAdminPermissionList == null) {
-				psGetAdminPermissionList = con
-						.prepareStatement("SELECT * FROM admins_permissions "
-								+ "WHERE username = ?");
-			}
-			if (psGetRoot == null) {
-				psGetRoot = con.prepareStatement("SELECT * FROM admins "
-						+ "WHERE isRoot = 1");
-			}
-			// Set the data
-			psGetAdminPermissionList.setString(1, username);
-			psGetAdminPermissionList.execute();
-			// Get results.
-			ResultSet rs = psGetAdminPermissionList.getResultSet();
-			while (rs.next()) {
-				permissions.add(rs.getString("permission"));
+	/**
+	 * Read admins, with their permissions, from the join of admins and
+	 * admins_permissions, which must be ordered by username.
+	 */
+	private ArrayList<SimpleDBAdminInfo> readAdmins(ResultSet rs)
+			throws SQLException {
+		ArrayList<SimpleDBAdminInfo> admins = new ArrayList<SimpleDBAdminInfo>();
+		SimpleDBAdminInfo current = null;
+		while (rs.next()) {
+			String username = rs.getString("username");
+			if (current == null || !current.getUsername().equals(username)) {
+				boolean isRoot = rs.getBoolean("isRoot");
+				AdminPermissionList permissionList = new AdminPermissionList(
+						username, isRoot, false) {
+					public void storePermissions() {
+						storeAdminPermissionList(this);
+					}
+				};
+				current = new SimpleDBAdminInfo(rs.getString("name"),
+						username, rs.getBytes("password"),
+						rs.getBytes("salt"), isRoot, rs.getString("comment"),
+						permissionList);
+				admins.add(current);
+			}
+			String permission = rs.getString("permission");
+			if (permission != null) {
+				if (AdminPermissionList.getPermissionIndex(permission) >= 0) {
+					current.getPermissionList().addPermission(permission);
+				} else {
+					log.warn("Ignoring unknown permission " + permission
+							+ " of " + username);
+				}
 			}
-			psGetRoot.execute();
-			rs = psGetRoot.getResultSet();
-			rs.next();
-			if (rs.getString("username").equals(username))
-				isRoot = true;
-			rs.close();
-		} catch (SQLException e) {
-			log.error("Error getting the admin.");
-			log.errorException(e);
-			throw new DatabaseError(rb.getString("commandError"), e);
 		}
+		for (SimpleDBAdminInfo admin : admins) {
+			admin.getPermissionList().markStored();
+			admin.getPermissionList().setAutoStore(true);
+		}
+		return admins;
+	}
 
-		return new AdminPermissionList(username, isRoot, permissions
-				.toArray(new String[permissions.size()])) {
-			public void storePermissions() {
-				storeAdminPermissionList(this);
-			}
-
-		};
-
+	/**
+	 * Forget all cached admins, e.g. after an admin has been modified. Since
+	 * making an admin root changes the other admins too, all are discarded.
+	 */
+	private void clearAdminCache() {
+		synchronized (adminCache) {
+			adminCache.clear();
+			adminCacheComplete = false;
+		}
 	}
 
+	/**
+	 * Store the changes made to a list of permissions since it was last
+	 * stored, in one transaction.
+	 * 
+	 * @param permissions
+	 *            The permissions to be stored.
+	 * @throws DatabaseError
+	 *             If the permissions couldn't be stored.
+	 */
 	public void storeAdminPermissionList(AdminPermissionList permissions)
 			throws DatabaseError {
-		log
-				.entry("storeAdminPermissionList(" + permissions.getUsername()
-						+ ")");
+		if (log.isTracing()) {
+			log.entry("storeAdminPermissionList(" + permissions.getUsername()
+					+ ")");
+		}
+		BitSet added = permissions.getAddedPermissions();
+		BitSet removed = permissions.getRemovedPermissions();
+		if (added.isEmpty() && removed.isEmpty()) {
+			return;
+		}
 		try {
 			// Check whether prepared statements exist. Create if necessary.
-			if (psRemoveAllPermissions == null) {
-				psRemoveAllPermissions = con
+			if (psRemovePermission == null) {
+				psRemovePermission = con
 						.prepareStatement("DELETE FROM admins_permissions"
-								+ " WHERE username = ?");
+								+ " WHERE username = ? AND permission = ?");
 			}
 			if (psAddPermission == null) {
 				psAddPermission = con
 						.prepareStatement("INSERT INTO admins_permissions "
 								+ "(username, permission) VALUES (?,?)");
 			}
-
-			// Remove all previous permissions
-			psRemoveAllPermissions.setString(1, permissions.getUsername());
-			psRemoveAllPermissions.execute();
-			// Add the new
-			psAddPermission.setString(1, permissions.getUsername());
-			for (int i = 0; i < permissions.getAllPermissions().length; i++) {
-				psAddPermission
-						.setString(2, permissions.getAllPermissions()[i]);
-				psAddPermission.execute();
+			con.setAutoCommit(false);
+			try {
+				psRemovePermission.setString(1, permissions.getUsername());
+				for (int i = removed.nextSetBit(0); i >= 0; i = removed
+						.nextSetBit(i + 1)) {
+					psRemovePermission.setString(2, AdminPermissionList
+							.getPermissionName(i));
+					psRemovePermission.addBatch();
+				}
+				psAddPermission.setString(1, permissions.getUsername());
+				for (int i = added.nextSetBit(0); i >= 0; i = added
+						.nextSetBit(i + 1)) {
+					psAddPermission.setString(2, AdminPermissionList
+							.getPermissionName(i));
+					psAddPermission.addBatch();
+				}
+				if (!removed.isEmpty()) {
+					psRemovePermission.executeBatch();
+				}
+				if (!added.isEmpty()) {
+					psAddPermission.executeBatch();
+				}
+				con.commit();
+				permissions.markStored();
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			} finally {
+				con.setAutoCommit(true);
 			}
 		} catch (SQLException e) {
 			log.error("Error settting the permissions.");
@@ -1261,38 +1687,38 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 	@Override
 	public AdminInfo[] getAdmins() throws DatabaseError {
 		log.entry("getAdmins()");
-		ArrayList<AdminInfo> admins = new ArrayList<AdminInfo>();
-
+		synchronized (adminCache) {
+			if (adminCacheComplete) {
+				return adminCache.values().toArray(
+						new AdminInfo[adminCache.size()]);
+			}
+		}
 		try {
 			// Check whether prepared statement exists. Create if necessary.
 			if (psGetAdmins == null) {
-				psGetAdmins = con.prepareStatement("SELECT * FROM admins");
+				psGetAdmins = con.prepareStatement("SELECT a.*, p.permission"
+						+ " FROM admins a LEFT OUTER JOIN admins_permissions p"
+						+ " ON a.username = p.username ORDER BY a.username");
 			}
 			// Run
 			psGetAdmins.execute();
 			// Get results.
 			ResultSet rs = psGetAdmins.getResultSet();
-			while (rs.next()) {
-				String name = rs.getString("name");
-				String username = rs.getString("username");
-				byte[] salt = rs.getBytes("salt");
-				byte[] hash = rs.getBytes("password");
-				boolean isRoot = rs.getBoolean("isRoot");
-				String comment = rs.getString("comment");
-				admins.add(new SimpleDBAdminInfo(name, username, hash, salt,
-						isRoot, comment, getAdminPermissionList(username)));
-			}
+			ArrayList<SimpleDBAdminInfo> admins = readAdmins(rs);
 			rs.close();
+			synchronized (adminCache) {
+				adminCache.clear();
+				for (SimpleDBAdminInfo admin : admins) {
+					adminCache.put(admin.getUsername(), admin);
+				}
+				adminCacheComplete = true;
+			}
 			return admins.toArray(new AdminInfo[admins.size()]);
-
 		} catch (SQLException e) {
 			log.error("Error getting the admin.");
 			log.errorException(e);
 			throw new DatabaseError(rb.getString("commandError"), e);
-		} catch (Exception e) {
-			// TODO: deal with the no encoding / algorithm exceptions.
 		}
-		return null;
 	}
 
 	/* -------------------- OutingManager (INTERNAL) ----------------- */
@@ -1321,6 +1747,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			log.entry("OutingManager.getOutings(...)");
 			Calendar cal = new GregorianCalendar();
 			cal.setTime(outing.getDay());
+			checkNotArchived(cal.get(Calendar.YEAR));
 			int[] years = getYears();
 			boolean isValidYear = false;
 			for (int i = 0; i < years.length; i++) {
@@ -1332,6 +1759,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 						"Specified outing doesn't exist, and therefore can't be deleted.");
 			}
 			try {
+				Maintenance.recordActivity();
 				Statement s = con.createStatement();
 				s.execute("DELETE FROM outings_" + cal.get(Calendar.YEAR)
 						+ " WHERE id = " + outing.getId());
@@ -1345,9 +1773,20 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 
 		public OutingInfo[] getOutings(Date date) throws DatabaseError {
 			log.entry("OutingManager.getOutings()");
-			log.info("Getting outings for " + date.toString());
+			if (log.wouldLog(DebugLevel.L4_INFO)) {
+				log.info("Getting outings for " + date.toString());
+			}
 			Calendar cal = new GregorianCalendar();
 			cal.setTime(date);
+			SeasonArchive archive = getArchive(cal.get(Calendar.YEAR));
+			if (archive != null) {
+				ArrayList<OutingInfo> outings = new ArrayList<OutingInfo>();
+				archive.getOutings(archive.indexOf(date, false), archive
+						.indexOf(date, true), 0, 0, getMemberMap(),
+						getBoatMap(), outings);
+				log.exit("OutingManager.getOutings()");
+				return outings.toArray(new OutingInfo[outings.size()]);
+			}
 			// Return null if we don't yet have a table for this year, meaning
 			// there are no outings for that year.
 			int[] years = getYears();
@@ -1365,7 +1804,8 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 						cal.get(Calendar.YEAR)).getPreparedStatement(
 						OutingStatementType.GET_OUTINGS);
 				ps.setDate(1, new java.sql.Date(date.getTime()));
-				ResultSet res = ps.executeQuery();
+				ResultSet res = executeQuery(
+						OutingStatementType.GET_OUTINGS, ps);
 				log.info("Got ResultSet for that date, now processing.");
 
 				// Reuse a hashmap of members
@@ -1375,7 +1815,9 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 				// Note that for fields which can be null, the data is checked.
 				while (res.next()) {
 					long out_id = res.getLong("id");
-					log.verbose("Processing outing with id=" + out_id);
+					if (log.wouldLog(DebugLevel.L6_VERBOSE)) {
+						log.verbose("Processing outing with id=" + out_id);
+					}
 					MemberInfo[] seats = new MemberInfo[8];
 					// Check whether member in hashmap, add if necessary.
 					for (int i = 0; i < 8; i++) {
@@ -1423,512 +1865,196 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		}
 
 		public OutingInfo[] getOutings(Date startDate, Date endDate) {
-			log.entry("OutingManager.getOutings(" + startDate.getTime() + ","
-					+ endDate.getTime() + ")");
-			Calendar startCal = new GregorianCalendar();
-			Calendar endCal = new GregorianCalendar();
+			if (log.isTracing()) {
+				log.entry("OutingManager.getOutings(" + startDate.getTime() + ","
+						+ endDate.getTime() + ")");
+			}
+			OutingInfo[] outings = getOutingsInRange(
+					OutingStatementType.GET_OUTINGS_DATE_CONSTRAINED, null,
+					null, startDate, endDate);
+			log.exit("OutingManager.getOutings(Date startDate, Date endDate)");
+			return outings;
+		}
+
+		public OutingInfo[] getOutings(MemberInfo member, Date startDate,
+				Date endDate) {
+			if (log.isTracing()) {
+				log.entry("OutingManager.getOutings(" + member.getName() + ","
+						+ startDate.getTime() + "," + endDate.getTime() + ")");
+			}
+			OutingInfo[] outings = getOutingsInRange(
+					OutingStatementType.GET_OUTINGS_DATE_MEMBER_CONSTRAINED,
+					member, null, startDate, endDate);
+			log
+					.exit("OutingManager.getOutings(MemberInfo member, Date startDate, Date endDate)");
+			return outings;
+		}
+
+		public OutingInfo[] getOutings(MemberInfo member, BoatInfo boat,
+				Date startDate, Date endDate) {
+			if (log.isTracing()) {
+				log.entry("OutingManager.getOutings(" + member.getName() + ","
+						+ boat.getName() + "," + startDate.getTime() + ","
+						+ endDate.getTime() + ")");
+			}
+			OutingInfo[] outings = getOutingsInRange(
+					OutingStatementType.GET_OUTINGS_DATE_MEMBER_BOAT_CONSTRAINED,
+					member, boat, startDate, endDate);
+			log
+					.exit("OutingManager.getOutings(MemberInfo member, BoatInfo boat, Date startDate, Date endDate)");
+			return outings;
+		}
+
+		public OutingInfo[] getOutings(BoatInfo boat, Date startDate,
+				Date endDate) {
+			if (log.isTracing()) {
+				log.entry("OutingManager.getOutings(" + boat.getName() + ","
+						+ startDate.getTime() + "," + endDate.getTime() + ")");
+			}
+			OutingInfo[] outings = getOutingsInRange(
+					OutingStatementType.GET_OUTINGS_DATE_BOAT_CONSTRAINED,
+					null, boat, startDate, endDate);
+			log
+					.exit("OutingManager.getOutings(BoatInfo boat, Date startDate, Date endDate)");
+			return outings;
+		}
+
+		/**
+		 * Get the outings between two days (inclusive), optionally only those
+		 * of a member and/or boat. If several years are needed, and a
+		 * yearQueryPool is available, the years are queried at the same time.
+		 * 
+		 * @param typ
+		 *            One of the GET_OUTINGS_DATE_*_CONSTRAINED types, matching
+		 *            the member and boat given.
+		 * @param member
+		 *            The member, or null.
+		 * @param boat
+		 *            The boat, or null.
+		 * @param startDate
+		 *            The first day.
+		 * @param endDate
+		 *            The last day.
+		 * @return The outings, ordered by day and time out.
+		 */
+		private OutingInfo[] getOutingsInRange(final OutingStatementType typ,
+				final MemberInfo member, final BoatInfo boat,
+				final Date startDate, final Date endDate) throws DatabaseError {
+			final Calendar startCal = new GregorianCalendar();
+			final Calendar endCal = new GregorianCalendar();
 			startCal.setTime(startDate);
 			endCal.setTime(endDate);
+			int startYear = startCal.get(Calendar.YEAR);
+			int endYear = endCal.get(Calendar.YEAR);
 			// Test whether or not endDate < startDate
-			if ((startCal.get(Calendar.YEAR) > endCal.get(Calendar.YEAR))
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) > endCal
-							.get(Calendar.MONTH)
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) == endCal
-							.get(Calendar.MONTH)
-					&& startCal.get(Calendar.DAY_OF_MONTH) > endCal
-							.get(Calendar.DAY_OF_MONTH)) {
+			if (startYear > endYear
+					|| startYear == endYear
+					&& startCal.get(Calendar.DAY_OF_YEAR) > endCal
+							.get(Calendar.DAY_OF_YEAR)) {
 				return new OutingInfo[0];
 				// TODO: error or something like that.
 			}
-			int[] years;
-			if (startCal.get(Calendar.YEAR) < endCal.get(Calendar.YEAR)) {
-				ArrayList<Integer> yearsList = new ArrayList<Integer>();
-				int y = startCal.get(Calendar.YEAR);
-				yearsList.add(startCal.get(Calendar.YEAR));
-				while (y < endCal.get(Calendar.YEAR)) {
-					yearsList.add(++y);
-				}
-				// Convert to int array.
-				years = new int[yearsList.size()];
-				int i = 0;
-				for (Integer yInteger : yearsList) {
-					years[i++] = yInteger.intValue();
+			// Only the years which are wanted and have a table or archive,
+			// since there are no outings in the others.
+			ArrayList<Integer> validYears = new ArrayList<Integer>();
+			for (int y : getYears()) {
+				if (y >= startYear && y <= endYear) {
+					validYears.add(y);
 				}
-			} else {
-				years = new int[1];
-				years[0] = startCal.get(Calendar.YEAR);
 			}
-			// Return null if we don't yet have a table for any of these years,
-			// meaning there are no outings for that year.
-			int[] dbYears = getYears();
-			// Is a list of all the years we want and that are in the db.
-			ArrayList<Integer> validYears = new ArrayList<Integer>();
-			for (int i = 0; i < dbYears.length; i++) {
-				for (int j : years) {
-					if (j == dbYears[i]) {
-						validYears.add(dbYears[i]);
-					}
+			ArrayList<Integer> archivedYears = new ArrayList<Integer>();
+			for (int y : getArchivedYears()) {
+				if (y >= startYear && y <= endYear) {
+					archivedYears.add(y);
 				}
 			}
-			if (validYears.size() == 0)
+			if (validYears.size() == 0 && archivedYears.size() == 0) {
 				return new OutingInfo[0];
-			// Continue
-			ArrayList<OutingInfo> array = new ArrayList<OutingInfo>();
+			}
+			Collections.sort(validYears);
+			// Look up names in memory rather than querying for every seat.
+			final HashMap<Integer, MemberInfo> members = getMemberMap();
+			final HashMap<Integer, BoatInfo> boats = getBoatMap();
+			// Each table or archive only holds its own year, and each year is
+			// ordered by day and time out, so merging the ordered results is
+			// simply appending them in order of year.
+			TreeMap<Integer, List<OutingInfo>> byYear = new TreeMap<Integer, List<OutingInfo>>();
+			for (int y : archivedYears) {
+				SeasonArchive archive = getArchive(y);
+				ArrayList<OutingInfo> a = new ArrayList<OutingInfo>();
+				archive.getOutings(archive.indexOf(startDate, false), archive
+						.indexOf(endDate, true), member != null ? member
+						.getId() : 0, boat != null ? boat.getId() : 0,
+						members, boats, a);
+				byYear.put(y, a);
+			}
 			try {
-
-				// start
-				for (Integer y : validYears) {
-					PreparedStatement ps = getOutingStatementSet(y.intValue())
-							.getPreparedStatement(
-									OutingStatementType.GET_OUTINGS_DATE_CONSTRAINED);
-
-					// startDate...
-					if (startCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(1, new java.sql.Date(startDate.getTime()));
-					} else {
-						ps.setDate(1, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 1, 1).getTimeInMillis()));
+				YearQueryPool pool = yearQueryPool;
+				if (pool == null || validYears.size() == 1) {
+					for (int y : validYears) {
+						PreparedStatement ps = getOutingStatementSet(y)
+								.getPreparedStatement(typ);
+						bindRange(ps, y, startCal, endCal, member, boat);
+						ArrayList<OutingInfo> a = new ArrayList<OutingInfo>();
+						readOutings(executeQuery(typ, ps), members, boats, a);
+						byYear.put(y, a);
 					}
-					if (endCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(2, new java.sql.Date(endDate.getTime()));
-					} else {
-						ps.setDate(2, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 12, 31).getTimeInMillis()));
+				} else if (validYears.size() > 1) {
+					ArrayList<YearQueryPool.YearQuery<ArrayList<OutingInfo>>> queries = new ArrayList<YearQueryPool.YearQuery<ArrayList<OutingInfo>>>();
+					for (final int y : validYears) {
+						queries
+								.add(new YearQueryPool.YearQuery<ArrayList<OutingInfo>>() {
+									public ArrayList<OutingInfo> run(
+											YearQueryPool.Worker worker)
+											throws SQLException {
+										PreparedStatement ps = worker
+												.prepare(getRangeQuery(typ, y));
+										bindRange(ps, y, startCal, endCal,
+												member, boat);
+										ArrayList<OutingInfo> a = new ArrayList<OutingInfo>();
+										readOutings(executeQuery(typ, ps),
+												members, boats, a);
+										return a;
+									}
+								});
 					}
-					ResultSet res = ps.executeQuery();
-					// Process each Outing into an object.
-					// Note that for fields which can be null, the data is
-					// checked.
-					while (res.next()) {
-						long out_id = res.getLong("id");
-						log.verbose("Processing outing with id=" + out_id);
-						MemberInfo[] seats = new MemberInfo[8];
-						for (int i = 0; i < 8; i++) {
-							int member_id = res.getInt("rower" + (i + 1));
-							if (member_id != 0) {
-								seats[i] = getMember(member_id);
-							}
-						}
-						Date day = res.getDate("day");
-						MemberInfo cox = null;
-						int coxID = res.getInt("cox");
-						if (coxID != 0) {
-							cox = getMember(coxID);
-						}
-						Date timeOut = new Date(res.getLong("time_out"));
-						Date timeIn = null;
-						long timeInL = res.getLong("time_in");
-						if (timeInL != 0) {
-							timeIn = new Date(timeInL);
-						}
-						String comment = res.getString("comment");
-						String destination = res.getString("destination");
-						BoatInfo boat = getBoat(res.getInt("boat"));
-						int distance = res.getInt("distance");
-						array.add(new OutingInfo(out_id, day, seats, cox,
-								timeOut, timeIn, comment, destination, boat,
-								distance));
-
+					int i = 0;
+					for (ArrayList<OutingInfo> a : pool.runAll(queries)) {
+						byYear.put(validYears.get(i++), a);
 					}
-					// end
-					res.close();
 				}
 			} catch (SQLException e) {
 				log.errorException(e);
 				throw new DatabaseError(rb.getString("commandError"), e);
 			}
-			log.exit("OutingManager.getOutings(Date startDate, Date endDate)");
-			return array.toArray(new OutingInfo[0]);
-		}
-
-		public OutingInfo[] getOutings(MemberInfo member, Date startDate,
-				Date endDate) {
-			log.entry("OutingManager.getOutings(" + member.getName() + ","
-					+ startDate.getTime() + "," + endDate.getTime() + ")");
-			Calendar startCal = new GregorianCalendar();
-			Calendar endCal = new GregorianCalendar();
-			startCal.setTime(startDate);
-			endCal.setTime(endDate);
-			// Test whether or not endDate < startDate
-			if ((startCal.get(Calendar.YEAR) > endCal.get(Calendar.YEAR))
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) > endCal
-							.get(Calendar.MONTH)
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) == endCal
-							.get(Calendar.MONTH)
-					&& startCal.get(Calendar.DAY_OF_MONTH) > endCal
-							.get(Calendar.DAY_OF_MONTH)) {
-				return new OutingInfo[0];
-				// TODO: error or something like that.
-			}
-			int[] years;
-			if (startCal.get(Calendar.YEAR) < endCal.get(Calendar.YEAR)) {
-				ArrayList<Integer> yearsList = new ArrayList<Integer>();
-				int y = startCal.get(Calendar.YEAR);
-				yearsList.add(startCal.get(Calendar.YEAR));
-				while (y < endCal.get(Calendar.YEAR)) {
-					yearsList.add(++y);
-				}
-				// Convert to int array.
-				years = new int[yearsList.size()];
-				int i = 0;
-				for (Integer yInteger : yearsList) {
-					years[i++] = yInteger.intValue();
-				}
-			} else {
-				years = new int[1];
-				years[0] = startCal.get(Calendar.YEAR);
-			}
-			// Return null if we don't yet have a table for any of these years,
-			// meaning there are no outings for that year.
-			int[] dbYears = getYears();
-			// Is a list of all the years we want and that are in the db.
-			ArrayList<Integer> validYears = new ArrayList<Integer>();
-			for (int i = 0; i < dbYears.length; i++) {
-				for (int j : years) {
-					if (j == dbYears[i]) {
-						validYears.add(dbYears[i]);
-					}
-				}
-			}
-			if (validYears.size() == 0)
-				return new OutingInfo[0];
-			// Continue
 			ArrayList<OutingInfo> array = new ArrayList<OutingInfo>();
-			try {
-
-				// start
-				for (Integer y : validYears) {
-					PreparedStatement ps = getOutingStatementSet(y.intValue())
-							.getPreparedStatement(
-									OutingStatementType.GET_OUTINGS_DATE_MEMBER_CONSTRAINED);
-
-					// startDate...
-					if (startCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(1, new java.sql.Date(startDate.getTime()));
-					} else {
-						ps.setDate(1, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 1, 1).getTimeInMillis()));
-					}
-					if (endCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(2, new java.sql.Date(endDate.getTime()));
-					} else {
-						ps.setDate(2, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 12, 31).getTimeInMillis()));
-					}
-					// ps.setInt(3, boat.getId());
-					ps.setInt(3, member.getId());
-					ps.setInt(4, member.getId());
-					ps.setInt(5, member.getId());
-					ps.setInt(6, member.getId());
-					ps.setInt(7, member.getId());
-					ps.setInt(8, member.getId());
-					ps.setInt(9, member.getId());
-					ps.setInt(10, member.getId());
-					ps.setInt(11, member.getId());
-					ResultSet res = ps.executeQuery();
-					// Process each Outing into an object.
-					// Note that for fields which can be null, the data is
-					// checked.
-					while (res.next()) {
-						long out_id = res.getLong("id");
-						log.verbose("Processing outing with id=" + out_id);
-						MemberInfo[] seats = new MemberInfo[8];
-						for (int i = 0; i < 8; i++) {
-							int member_id = res.getInt("rower" + (i + 1));
-							if (member_id != 0) {
-								seats[i] = getMember(member_id);
-							}
-						}
-						Date day = res.getDate("day");
-						BoatInfo boat = getBoat(res.getInt("boat"));
-						MemberInfo cox = null;
-						int coxID = res.getInt("cox");
-						if (coxID != 0) {
-							cox = getMember(coxID);
-						}
-						Date timeOut = new Date(res.getLong("time_out"));
-						Date timeIn = null;
-						long timeInL = res.getLong("time_in");
-						if (timeInL != 0) {
-							timeIn = new Date(timeInL);
-						}
-						String comment = res.getString("comment");
-						String destination = res.getString("destination");
-						int distance = res.getInt("distance");
-						array.add(new OutingInfo(out_id, day, seats, cox,
-								timeOut, timeIn, comment, destination, boat,
-								distance));
-
-					}
-					// end
-					res.close();
-				}
-			} catch (SQLException e) {
-				log.errorException(e);
-				throw new DatabaseError(rb.getString("commandError"), e);
+			for (List<OutingInfo> a : byYear.values()) {
+				array.addAll(a);
 			}
-			log
-					.exit("OutingManager.getOutings(MemberInfo member, Date startDate, Date endDate)");
-			return array.toArray(new OutingInfo[0]);
+			return array.toArray(new OutingInfo[array.size()]);
 		}
 
-		public OutingInfo[] getOutings(MemberInfo member, BoatInfo boat,
-				Date startDate, Date endDate) {
-			log.entry("OutingManager.getOutings(" + member.getName() + ","
-					+ boat.getName() + "," + startDate.getTime() + ","
-					+ endDate.getTime() + ")");
-			Calendar startCal = new GregorianCalendar();
-			Calendar endCal = new GregorianCalendar();
-			startCal.setTime(startDate);
-			endCal.setTime(endDate);
-			// Test whether or not endDate < startDate
-			if ((startCal.get(Calendar.YEAR) > endCal.get(Calendar.YEAR))
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) > endCal
-							.get(Calendar.MONTH)
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) == endCal
-							.get(Calendar.MONTH)
-					&& startCal.get(Calendar.DAY_OF_MONTH) > endCal
-							.get(Calendar.DAY_OF_MONTH)) {
-				return new OutingInfo[0];
-				// TODO: error or something like that.
-			}
-			int[] years;
-			if (startCal.get(Calendar.YEAR) < endCal.get(Calendar.YEAR)) {
-				ArrayList<Integer> yearsList = new ArrayList<Integer>();
-				int y = startCal.get(Calendar.YEAR);
-				yearsList.add(startCal.get(Calendar.YEAR));
-				while (y < endCal.get(Calendar.YEAR)) {
-					yearsList.add(++y);
-				}
-				// Convert to int array.
-				years = new int[yearsList.size()];
-				int i = 0;
-				for (Integer yInteger : yearsList) {
-					years[i++] = yInteger.intValue();
-				}
-			} else {
-				years = new int[1];
-				years[0] = startCal.get(Calendar.YEAR);
-			}
-			// Return null if we don't yet have a table for any of these years,
-			// meaning there are no outings for that year.
-			int[] dbYears = getYears();
-			// Is a list of all the years we want and that are in the db.
-			ArrayList<Integer> validYears = new ArrayList<Integer>();
-			for (int i = 0; i < dbYears.length; i++) {
-				for (int j : years) {
-					if (j == dbYears[i]) {
-						validYears.add(dbYears[i]);
-					}
-				}
-			}
-			if (validYears.size() == 0)
-				return new OutingInfo[0];
-			// Continue
-			ArrayList<OutingInfo> array = new ArrayList<OutingInfo>();
-			try {
-
-				// start
-				for (Integer y : validYears) {
-					PreparedStatement ps = getOutingStatementSet(y.intValue())
-							.getPreparedStatement(
-									OutingStatementType.GET_OUTINGS_DATE_MEMBER_BOAT_CONSTRAINED);
-
-					// startDate...
-					if (startCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(1, new java.sql.Date(startDate.getTime()));
-					} else {
-						ps.setDate(1, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 1, 1).getTimeInMillis()));
-					}
-					if (endCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(2, new java.sql.Date(endDate.getTime()));
-					} else {
-						ps.setDate(2, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 12, 31).getTimeInMillis()));
-					}
-					ps.setInt(3, boat.getId());
-					ps.setInt(4, member.getId());
-					ps.setInt(5, member.getId());
-					ps.setInt(6, member.getId());
-					ps.setInt(7, member.getId());
-					ps.setInt(8, member.getId());
-					ps.setInt(9, member.getId());
-					ps.setInt(10, member.getId());
-					ps.setInt(11, member.getId());
-					ps.setInt(12, member.getId());
-					ResultSet res = ps.executeQuery();
-					// Process each Outing into an object.
-					// Note that for fields which can be null, the data is
-					// checked.
-					while (res.next()) {
-						long out_id = res.getLong("id");
-						log.verbose("Processing outing with id=" + out_id);
-						MemberInfo[] seats = new MemberInfo[8];
-						for (int i = 0; i < 8; i++) {
-							int member_id = res.getInt("rower" + (i + 1));
-							if (member_id != 0) {
-								seats[i] = getMember(member_id);
-							}
-						}
-						Date day = res.getDate("day");
-						MemberInfo cox = null;
-						int coxID = res.getInt("cox");
-						if (coxID != 0) {
-							cox = getMember(coxID);
-						}
-						Date timeOut = new Date(res.getLong("time_out"));
-						Date timeIn = null;
-						long timeInL = res.getLong("time_in");
-						if (timeInL != 0) {
-							timeIn = new Date(timeInL);
-						}
-						String comment = res.getString("comment");
-						String destination = res.getString("destination");
-						int distance = res.getInt("distance");
-						array.add(new OutingInfo(out_id, day, seats, cox,
-								timeOut, timeIn, comment, destination, boat,
-								distance));
-
-					}
-					// end
-					res.close();
-				}
-			} catch (SQLException e) {
-				log.errorException(e);
-				throw new DatabaseError(rb.getString("commandError"), e);
+		/**
+		 * Get all members by id, to look up the crews in memory.
+		 */
+		private HashMap<Integer, MemberInfo> getMemberMap()
+				throws DatabaseError {
+			HashMap<Integer, MemberInfo> members = new HashMap<Integer, MemberInfo>();
+			for (MemberInfo m : getMembers()) {
+				members.put(m.getId(), m);
 			}
-			log
-					.exit("OutingManager.getOutings(MemberInfo member, BoatInfo boat, Date startDate, Date endDate)");
-			return array.toArray(new OutingInfo[0]);
+			return members;
 		}
 
-		public OutingInfo[] getOutings(BoatInfo boat, Date startDate,
-				Date endDate) {
-			log.entry("OutingManager.getOutings(" + startDate.getTime() + ","
-					+ endDate.getTime() + ")");
-			Calendar startCal = new GregorianCalendar();
-			Calendar endCal = new GregorianCalendar();
-			startCal.setTime(startDate);
-			endCal.setTime(endDate);
-			// Test whether or not endDate < startDate
-			if ((startCal.get(Calendar.YEAR) > endCal.get(Calendar.YEAR))
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) > endCal
-							.get(Calendar.MONTH)
-					|| startCal.get(Calendar.YEAR) == endCal.get(Calendar.YEAR)
-					&& startCal.get(Calendar.MONTH) == endCal
-							.get(Calendar.MONTH)
-					&& startCal.get(Calendar.DAY_OF_MONTH) > endCal
-							.get(Calendar.DAY_OF_MONTH)) {
-				return new OutingInfo[0];
-				// TODO: error or something like that.
-			}
-			int[] years;
-			if (startCal.get(Calendar.YEAR) < endCal.get(Calendar.YEAR)) {
-				ArrayList<Integer> yearsList = new ArrayList<Integer>();
-				int y = startCal.get(Calendar.YEAR);
-				yearsList.add(startCal.get(Calendar.YEAR));
-				while (y < endCal.get(Calendar.YEAR)) {
-					yearsList.add(++y);
-				}
-				// Convert to int array.
-				years = new int[yearsList.size()];
-				int i = 0;
-				for (Integer yInteger : yearsList) {
-					years[i++] = yInteger.intValue();
-				}
-			} else {
-				years = new int[1];
-				years[0] = startCal.get(Calendar.YEAR);
-			}
-			// Return null if we don't yet have a table for any of these years,
-			// meaning there are no outings for that year.
-			int[] dbYears = getYears();
-			// Is a list of all the years we want and that are in the db.
-			ArrayList<Integer> validYears = new ArrayList<Integer>();
-			for (int i = 0; i < dbYears.length; i++) {
-				for (int j : years) {
-					if (j == dbYears[i]) {
-						validYears.add(dbYears[i]);
-					}
-				}
-			}
-			if (validYears.size() == 0)
-				return new OutingInfo[0];
-			// Continue
-			ArrayList<OutingInfo> array = new ArrayList<OutingInfo>();
-			try {
-
-				// start
-				for (Integer y : validYears) {
-					PreparedStatement ps = getOutingStatementSet(y.intValue())
-							.getPreparedStatement(
-									OutingStatementType.GET_OUTINGS_DATE_BOAT_CONSTRAINED);
-
-					// startDate...
-					if (startCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(1, new java.sql.Date(startDate.getTime()));
-					} else {
-						ps.setDate(1, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 1, 1).getTimeInMillis()));
-					}
-					if (endCal.get(Calendar.YEAR) == y.intValue()) {
-						ps.setDate(2, new java.sql.Date(endDate.getTime()));
-					} else {
-						ps.setDate(2, new java.sql.Date(new GregorianCalendar(y
-								.intValue(), 12, 31).getTimeInMillis()));
-					}
-					ps.setInt(3, boat.getId());
-					ResultSet res = ps.executeQuery();
-					// Process each Outing into an object.
-					// Note that for fields which can be null, the data is
-					// checked.
-					while (res.next()) {
-						long out_id = res.getLong("id");
-						log.verbose("Processing outing with id=" + out_id);
-						MemberInfo[] seats = new MemberInfo[8];
-						for (int i = 0; i < 8; i++) {
-							int member_id = res.getInt("rower" + (i + 1));
-							if (member_id != 0) {
-								seats[i] = getMember(member_id);
-							}
-						}
-						Date day = res.getDate("day");
-						MemberInfo cox = null;
-						int coxID = res.getInt("cox");
-						if (coxID != 0) {
-							cox = getMember(coxID);
-						}
-						Date timeOut = new Date(res.getLong("time_out"));
-						Date timeIn = null;
-						long timeInL = res.getLong("time_in");
-						if (timeInL != 0) {
-							timeIn = new Date(timeInL);
-						}
-						String comment = res.getString("comment");
-						String destination = res.getString("destination");
-						int distance = res.getInt("distance");
-						array.add(new OutingInfo(out_id, day, seats, cox,
-								timeOut, timeIn, comment, destination, boat,
-								distance));
-
-					}
-					// end
-					res.close();
-				}
-			} catch (SQLException e) {
-				log.errorException(e);
-				throw new DatabaseError(rb.getString("commandError"), e);
+		/**
+		 * Get all boats by id, to look up the boats in memory.
+		 */
+		private HashMap<Integer, BoatInfo> getBoatMap() throws DatabaseError {
+			HashMap<Integer, BoatInfo> boats = new HashMap<Integer, BoatInfo>();
+			for (BoatInfo b : getBoats()) {
+				boats.put(b.getId(), b);
 			}
-			log.exit("OutingManager.getOutings(Date startDate, Date endDate)");
-			return array.toArray(new OutingInfo[0]);
+			return boats;
 		}
 
 		public long addOuting(Date date, int[] rowers, int cox, Date timeOut,
@@ -1952,6 +2078,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			}
 			Calendar cal = new GregorianCalendar();
 			cal.setTime(date);
+			checkNotArchived(cal.get(Calendar.YEAR));
 			try {
 				PreparedStatement ps = getOutingStatementSet(
 						cal.get(GregorianCalendar.YEAR)).getPreparedStatement(
@@ -2004,7 +2131,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 				} else {
 					ps.setNull(16, java.sql.Types.INTEGER);
 				}
-				ps.execute();
+				execute(OutingStatementType.ADD_OUTING, ps);
 				log.exit("OutingManager.addOuting(...)");
 				return created.getTime();
 			} catch (SQLException e) {
@@ -2020,6 +2147,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			log.info("Adding outing");
 			Calendar cal = new GregorianCalendar();
 			cal.setTime(new Date(day));
+			checkNotArchived(cal.get(Calendar.YEAR));
 			// Return null if we don't yet have a table for this year, meaning
 			// there are no outings for that year.
 			int[] years = getYears();
@@ -2098,7 +2226,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 				} else {
 					ps.setNull(15, java.sql.Types.INTEGER);
 				}
-				ps.execute();
+				execute(OutingStatementType.MODIFY_OUTING, ps);
 			} catch (SQLException e) {
 				// TODO: implement a getOuting method.
 				log.errorException(e);
@@ -2109,46 +2237,72 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 
 		public MemberStatistic getMemberStatistics(int id) throws DatabaseError {
 			log.entry("OutingManager.getMemberStatistics()");
-			log.info("Getting statistics for " + id);
+			if (log.wouldLog(DebugLevel.L4_INFO)) {
+				log.info("Getting statistics for " + id);
+			}
 			MemberInfo member = getMember(id);
 			Calendar cal = new GregorianCalendar();
 			cal.setTime(new Date());
 			int totalDistanceThisYear = 0, totalDistanceLastYear = 0;
 			int totalOutingsThisYear = 0, totalOutingsLastYear = 0;
-			try {
-				PreparedStatement ps = getOutingStatementSet(
-						cal.get(Calendar.YEAR)).getPreparedStatement(
-						OutingStatementType.GET_OUTINGS);
-				for (int i = 1; i < 10; i++) {
-					ps.setInt(i, id);
+			// Only look at years which have a table, otherwise we would be
+			// creating empty tables as a side effect.
+			boolean hasThisYear = false, hasLastYear = false;
+			for (int year : getYears()) {
+				if (year == cal.get(Calendar.YEAR)) {
+					hasThisYear = true;
+				} else if (year == cal.get(Calendar.YEAR) - 1) {
+					hasLastYear = true;
 				}
-				ResultSet res = ps.executeQuery();
-				log.info("Got ResultSet for that member, now processing.");
+			}
+			try {
+				if (hasThisYear) {
+					PreparedStatement ps = getOutingStatementSet(
+							cal.get(Calendar.YEAR)).getPreparedStatement(
+							OutingStatementType.GET_MEMBER_STATISTICS);
+					for (int i = 1; i < 10; i++) {
+						ps.setInt(i, id);
+					}
+					ResultSet res = executeQuery(
+							OutingStatementType.GET_MEMBER_STATISTICS, ps);
+					log.info("Got ResultSet for that member, now processing.");
 
-				while (res.next()) {
-					totalDistanceThisYear += res.getInt("distance");
-					totalOutingsThisYear++;
+					while (res.next()) {
+						totalDistanceThisYear += res.getInt("distance");
+						totalOutingsThisYear++;
+					}
+					res.close();
 				}
 
 				// For the previous year.
-				ps = getOutingStatementSet(cal.get(Calendar.YEAR) - 1)
-						.getPreparedStatement(OutingStatementType.GET_OUTINGS);
-				for (int i = 1; i < 10; i++) {
-					ps.setInt(i, id);
-				}
-				res.close();
-				res = ps.executeQuery();
-				log.info("Got ResultSet for that member, now processing.");
+				if (hasLastYear) {
+					PreparedStatement ps = getOutingStatementSet(
+							cal.get(Calendar.YEAR) - 1).getPreparedStatement(
+							OutingStatementType.GET_MEMBER_STATISTICS);
+					for (int i = 1; i < 10; i++) {
+						ps.setInt(i, id);
+					}
+					ResultSet res = executeQuery(
+							OutingStatementType.GET_MEMBER_STATISTICS, ps);
+					log.info("Got ResultSet for that member, now processing.");
 
-				while (res.next()) {
-					totalDistanceLastYear += res.getInt("distance");
-					totalOutingsLastYear++;
+					while (res.next()) {
+						totalDistanceLastYear += res.getInt("distance");
+						totalOutingsLastYear++;
+					}
+					res.close();
 				}
-				res.close();
 			} catch (SQLException e) {
 				log.errorException(e);
 				throw new DatabaseError(rb.getString("commandError"), e);
 			}
+			// Only past years are archived.
+			SeasonArchive archive = getArchive(cal.get(Calendar.YEAR) - 1);
+			if (archive != null) {
+				int[] totals = archive.getMemberTotals(id);
+				totalOutingsLastYear = totals[0];
+				totalDistanceLastYear = totals[1];
+			}
 			log.exit("OutingManager.getMemberStatistics(int id)");
 			return new MemberStatistic(id, member.getSurname(), member
 					.getForename(), member.getDob(), member.getGroupInfo(),
@@ -2156,6 +2310,65 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 					totalOutingsLastYear, totalDistanceLastYear);
 		}
 
+		/**
+		 * Get the statistics for several members, reading each year's outings
+		 * only once.
+		 * 
+		 * @param members
+		 *            The members.
+		 * @return The statistics, in the same order as the members.
+		 */
+		public MemberStatistic[] getMembersStatistics(MemberInfo[] members)
+				throws DatabaseError {
+			log.entry("OutingManager.getMembersStatistics(MemberInfo[])");
+			int thisYear = new GregorianCalendar().get(Calendar.YEAR);
+			// Outings and distance for each member, by id.
+			HashMap<Integer, int[]> totals = new HashMap<Integer, int[]>();
+			try {
+				for (int year : getYears()) {
+					if (year != thisYear && year != thisYear - 1) {
+						continue;
+					}
+					int offset = year == thisYear ? 0 : 2;
+					ResultSet res = executeQuery(
+							OutingStatementType.GET_ALL_MEMBER_STATISTICS,
+							getOutingStatementSet(year).getPreparedStatement(
+									OutingStatementType.GET_ALL_MEMBER_STATISTICS));
+					while (res.next()) {
+						int[] t = totals.get(res.getInt("member"));
+						if (t == null) {
+							t = new int[4];
+							totals.put(res.getInt("member"), t);
+						}
+						t[offset] = res.getInt("outings");
+						t[offset + 1] = res.getInt("distance");
+					}
+					res.close();
+				}
+			} catch (SQLException e) {
+				log.errorException(e);
+				throw new DatabaseError(rb.getString("commandError"), e);
+			}
+			// Only past years are archived.
+			SeasonArchive archive = getArchive(thisYear - 1);
+			if (archive != null) {
+				archive.addAllMemberTotals(totals, 2, 4);
+			}
+			MemberStatistic[] stats = new MemberStatistic[members.length];
+			for (int i = 0; i < members.length; i++) {
+				MemberInfo m = members[i];
+				int[] t = totals.get(m.getId());
+				if (t == null) {
+					t = new int[4];
+				}
+				stats[i] = new MemberStatistic(m.getId(), m.getSurname(), m
+						.getForename(), m.getDob(), m.getGroupInfo(), t[0],
+						t[1], t[2], t[3]);
+			}
+			log.exit("OutingManager.getMembersStatistics(MemberInfo[])");
+			return stats;
+		}
+
 		/**
 		 * Get the OutingStatementSet for a particular year. Automatically loads
 		 * the set if required.
@@ -2164,13 +2377,26 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		 *            The year for which you want the set.
 		 * @return The OutingStatementSet.
 		 */
-		private OutingStatementSet getOutingStatementSet(int year)
+		private synchronized OutingStatementSet getOutingStatementSet(int year)
 				throws SQLException {
-			int y = new Integer(year);
-			if (statementCache.contains(y)) {
-				return statementCache.get(y);
-			} else {
-				return new OutingStatementSet(y, statementCache);
+			OutingStatementSet set = statementCache.get(year);
+			if (set == null) {
+				set = new OutingStatementSet(year, statementCache);
+				statementCache.put(year, set);
+			}
+			return set;
+		}
+
+		/**
+		 * Close the statements of a year, e.g. before its table is dropped.
+		 * 
+		 * @param year
+		 *            The year.
+		 */
+		private synchronized void closeYear(int year) {
+			OutingStatementSet set = statementCache.remove(year);
+			if (set != null) {
+				set.close();
 			}
 		}
 
@@ -2181,6 +2407,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		public void run() {
 			// We want this to run indefinitely.
 			while (true) {
+				provisionNextYear();
 				// Wait for 15 minutes
 				try {
 					Thread.sleep(900000l);
@@ -2196,9 +2423,10 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 				while (e.hasMoreElements()) {
 					OutingStatementSet os = e.nextElement();
 					// If the set is older than 20 mins and not for the current
-					// year then delete it.
+					// or the next year then delete it.
 					if ((os.getLastUsed() + 1200000 < now)
-							&& !os.getYear().equals(year)) {
+							&& !os.getYear().equals(year)
+							&& !os.getYear().equals(year + 1)) {
 						statementCache.remove(os.getYear());
 						os.close();
 					}
@@ -2206,6 +2434,52 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			}
 		}
 
+		/**
+		 * If the year ends within provision_days (simpleDB.conf), create next
+		 * year's table and index and prepare its statements, so that the
+		 * first outing of the year doesn't wait for them. The set is then kept
+		 * in the cache.
+		 */
+		private void provisionNextYear() {
+			if (headless) {
+				return;
+			}
+			long days;
+			try {
+				days = parseConfLong("provision_days", 14);
+			} catch (NumberFormatException e) {
+				log.warn("Invalid provision_days: "
+						+ getConfProperty("provision_days"));
+				return;
+			}
+			Calendar now = new GregorianCalendar();
+			int next = now.get(Calendar.YEAR) + 1;
+			long left = new GregorianCalendar(next, Calendar.JANUARY, 1)
+					.getTimeInMillis()
+					- now.getTimeInMillis();
+			if (left > days * 86400000L || statementCache.containsKey(next)) {
+				return;
+			}
+			try {
+				long start = System.currentTimeMillis();
+				boolean existed = hasOutingsTable(next);
+				getOutingStatementSet(next);
+				log.info((existed ? "Prepared the existing outings table for "
+						: "Created the outings table for ")
+						+ next
+						+ " in "
+						+ (System.currentTimeMillis() - start) + " ms.");
+			} catch (SQLException e) {
+				log.warn("Couldn't create the outings table for " + next
+						+ ", it will be created with the first outing.");
+				log.errorException(e);
+			} catch (DatabaseError e) {
+				log.warn("Couldn't create the outings table for " + next
+						+ ", it will be created with the first outing.");
+				log.errorException(e);
+			}
+		}
+
 		/**
 		 * Replace a member in all Outings tables.
 		 * 
@@ -2218,11 +2492,20 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		 */
 		public void replaceMember(MemberInfo member, MemberInfo replacement)
 				throws DatabaseError {
+			boolean changed = false;
 			try {
 				for (int year : getYears()) {
 					getOutingStatementSet(year).replaceMember(member,
 							replacement);
 				}
+				for (int year : getArchivedYears()) {
+					SeasonArchive archive = getArchive(year);
+					changed |= replaceArchive(archive, archive.replaceMember(
+							member.getId(), replacement.getId()));
+				}
+				if (changed) {
+					backUpArchives();
+				}
 			} catch (SQLException e) {
 				log
 						.error("Problem when trying to replace a member: getting outingStatementSet failed.");
@@ -2243,10 +2526,19 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		 */
 		public void replaceBoat(BoatInfo boat, BoatInfo replacement)
 				throws DatabaseError {
+			boolean changed = false;
 			try {
 				for (int year : getYears()) {
 					getOutingStatementSet(year).replaceBoat(boat, replacement);
 				}
+				for (int year : getArchivedYears()) {
+					SeasonArchive archive = getArchive(year);
+					changed |= replaceArchive(archive, archive.replaceBoat(
+							boat.getId(), replacement.getId()));
+				}
+				if (changed) {
+					backUpArchives();
+				}
 			} catch (SQLException e) {
 				log
 						.error("Problem when trying to replace a boat: getting outingStatementSet failed.");
@@ -2258,19 +2550,24 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 
 	/**
 	 * Get a list of all the years that an outings table has been created for in
-	 * the database.
+	 * the database. Archived years are left out, even if their table is still
+	 * there.
 	 * 
 	 * @return An array of the years.
 	 * @throws SQLException
 	 *             If there are problems reading the database.
 	 */
-	private int[] getYears() throws DatabaseError {
+	int[] getYears() throws DatabaseError {
 		try {
 			ResultSet r = con.getMetaData().getTables(null, null,
 					"OUTINGS_____", null);
 			ArrayList<Integer> a = new ArrayList<Integer>();
 			while (r.next()) {
-				a.add(new Integer(r.getString("TABLE_NAME").substring(8)));
+				int year = Integer.parseInt(r.getString("TABLE_NAME")
+						.substring(8));
+				if (!isArchived(year)) {
+					a.add(year);
+				}
 			}
 			r.close();
 			int[] years = new int[a.size()];
@@ -2285,12 +2582,461 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		}
 	}
 
+	/**
+	 * Check whether the outings table of a year exists.
+	 * 
+	 * @param year
+	 *            The year.
+	 * @return Whether there is a table.
+	 */
+	private boolean hasOutingsTable(int year) throws DatabaseError {
+		for (int y : getYears()) {
+			if (y == year) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/* -------------------- Archived seasons ----------------- */
+
+	/**
+	 * Move the outings of a past season from its table into a read-only
+	 * archive file, which is compact and quick to scan. The outings can still
+	 * be read as before, and members and boats can still be replaced in them,
+	 * but outings can no longer be added to the season, changed or removed.
+	 * 
+	 * @param year
+	 *            The year of the season, which must be over.
+	 * @return The number of outings archived.
+	 * @throws DatabaseError
+	 *             If there is a problem reading the table or writing the
+	 *             archive. The table is only dropped once the archive has
+	 *             been written and read back. A full backup is made
+	 *             afterwards, see {@link #backUpArchives()}.
+	 */
+	public synchronized int archiveSeason(int year) throws DatabaseError {
+		log.entry("archiveSeason(" + year + ")");
+		if (year >= new GregorianCalendar().get(Calendar.YEAR)) {
+			throw new IllegalArgumentException("Only seasons which are over"
+					+ " can be archived.");
+		}
+		if (!hasOutingsTable(year)) {
+			throw new IllegalArgumentException("There is no table of outings"
+					+ " for " + year + ".");
+		}
+		long start = System.currentTimeMillis();
+		File file = getArchiveFile(year);
+		try {
+			SeasonArchive.Builder builder = new SeasonArchive.Builder(year);
+			Statement s = con.createStatement();
+			ResultSet rs = s.executeQuery("SELECT * FROM outings_" + year
+					+ " ORDER BY day, time_out");
+			int[] crew = new int[SeasonArchive.SEATS];
+			while (rs.next()) {
+				for (int i = 0; i < 8; i++) {
+					crew[i] = rs.getInt("rower" + (i + 1));
+				}
+				crew[8] = rs.getInt("cox");
+				builder.add(rs.getLong("id"), rs.getDate("day"), crew, rs
+						.getLong("time_out"), rs.getLong("time_in"), rs
+						.getString("comment"), rs.getString("destination"),
+						rs.getInt("boat"), rs.getInt("distance"));
+			}
+			rs.close();
+			SeasonArchive archive = builder.build();
+			if (!ARCHIVE_DIR.isDirectory() && !ARCHIVE_DIR.mkdirs()) {
+				throw new IOException("Couldn't create " + ARCHIVE_DIR);
+			}
+			archive.write(file);
+			// Make sure the file can be read before the table is gone.
+			SeasonArchive written = SeasonArchive.read(file);
+			if (written.size() != archive.size()) {
+				throw new IOException(file + " doesn't contain all outings");
+			}
+			outingManager.closeYear(year);
+			s.execute("DROP TABLE outings_" + year);
+			s.close();
+			archives.put(year, written);
+			int[] years = Arrays.copyOf(archivedYears,
+					archivedYears.length + 1);
+			years[years.length - 1] = year;
+			Arrays.sort(years);
+			archivedYears = years;
+			log.info("Archived " + archive.size() + " outings of " + year
+					+ " into " + file.length() + " bytes in "
+					+ (System.currentTimeMillis() - start) + " ms.");
+			backUpArchives();
+			log.exit("archiveSeason(" + year + ")");
+			return archive.size();
+		} catch (SQLException e) {
+			log.error("Error archiving " + year + ".");
+			log.errorException(e);
+			file.delete();
+			throw new DatabaseError(rb.getString("commandError"), e);
+		} catch (IOException e) {
+			log.error("Error archiving " + year + ".");
+			log.errorException(e);
+			file.delete();
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+	}
+
+	/**
+	 * Get the years whose outings have been archived.
+	 * 
+	 * @return The years, in order.
+	 */
+	public int[] getArchivedYears() {
+		return archivedYears.clone();
+	}
+
+	/**
+	 * Get the archive of a season, reading it when first needed.
+	 * 
+	 * @param year
+	 *            The year of the season.
+	 * @return The archive, null if the season hasn't been archived.
+	 * @throws DatabaseError
+	 *             If the archive can't be read.
+	 */
+	SeasonArchive getArchive(int year) throws DatabaseError {
+		SeasonArchive archive = archives.get(year);
+		if (archive == null && isArchived(year)) {
+			try {
+				archive = SeasonArchive.read(getArchiveFile(year));
+			} catch (IOException e) {
+				log.error("Error reading the archive of " + year + ".");
+				log.errorException(e);
+				throw new DatabaseError(rb.getString("commandError"), e);
+			}
+			SeasonArchive existing = archives.putIfAbsent(year, archive);
+			if (existing != null) {
+				archive = existing;
+			}
+		}
+		return archive;
+	}
+
+	/**
+	 * Store a changed copy of an archive, e.g. after replacing a member.
+	 * 
+	 * @param archive
+	 *            The archive.
+	 * @param replacement
+	 *            The changed copy. Nothing is done if it is the archive
+	 *            itself.
+	 * @return Whether the archive was changed.
+	 */
+	private boolean replaceArchive(SeasonArchive archive,
+			SeasonArchive replacement) throws DatabaseError {
+		if (replacement == archive) {
+			return false;
+		}
+		try {
+			replacement.write(getArchiveFile(archive.getYear()));
+		} catch (IOException e) {
+			log.error("Error changing the archive of " + archive.getYear()
+					+ ".");
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+		archives.put(archive.getYear(), replacement);
+		return true;
+	}
+
+	/**
+	 * Make a full backup after an archive was written or changed. The
+	 * archives aren't in derby's logs, so a backup from before can't be
+	 * rolled forward past the change: the season's table would be dropped,
+	 * or the archive would keep the replaced members and boats. Nothing is
+	 * done if there is no backup to roll forward, and a failure is only
+	 * logged, the change itself having succeeded. The backup is made in the
+	 * background, so that neither the user interface nor the database is
+	 * held up while it is copied; only a headless batch job, which may exit
+	 * right afterwards, waits for it.
+	 */
+	private void backUpArchives() {
+		if (!backups.hasBackup()) {
+			return;
+		}
+		if (!headless) {
+			backups.requestBackup();
+			return;
+		}
+		try {
+			backups.backup();
+		} catch (SQLException e) {
+			log.error("Couldn't back up after changing the archives, the"
+					+ " older backups can't be rolled forward past it.");
+			log.errorException(e);
+		} catch (IOException e) {
+			log.error("Couldn't back up after changing the archives, the"
+					+ " older backups can't be rolled forward past it.");
+			log.errorException(e);
+		}
+	}
+
+	/**
+	 * Check whether a season has been archived.
+	 */
+	private boolean isArchived(int year) {
+		for (int y : archivedYears) {
+			if (y == year) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Make sure that the outings of a season may be changed.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If the season has been archived.
+	 */
+	private void checkNotArchived(int year) {
+		if (isArchived(year)) {
+			throw new IllegalArgumentException("The outings of " + year
+					+ " have been archived and can't be changed.");
+		}
+	}
+
+	/**
+	 * Find the archived seasons. A year which has both an archive and a table
+	 * is left over from archiving being interrupted before the table was
+	 * dropped, or from a restore. The archive, which was read back when it was
+	 * written, is used. An empty table is dropped, any other is left alone
+	 * and reported, to be checked and dropped by hand.
+	 */
+	private void findArchivedYears() throws DatabaseError {
+		ArrayList<Integer> years = new ArrayList<Integer>();
+		File[] files = ARCHIVE_DIR.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				String name = f.getName();
+				if (!name.matches("outings_\\d{4}\\.col")) {
+					continue;
+				}
+				int year = Integer.parseInt(name.substring(8, 12));
+				if (hasOutingsTable(year)) {
+					dropLeftOverTable(year, f);
+				}
+				years.add(year);
+			}
+		}
+		Collections.sort(years);
+		int[] a = new int[years.size()];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = years.get(i);
+		}
+		archivedYears = a;
+	}
+
+	/**
+	 * Drop the table of an archived year if it is empty, otherwise report
+	 * that it is ignored.
+	 */
+	private void dropLeftOverTable(int year, File archive)
+			throws DatabaseError {
+		try {
+			Statement s = con.createStatement();
+			try {
+				ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM outings_"
+						+ year);
+				rs.next();
+				int rows = rs.getInt(1);
+				rs.close();
+				if (rows == 0) {
+					log.warn("Dropping the empty table of " + year
+							+ ", whose outings are in " + archive + ".");
+					s.execute("DROP TABLE outings_" + year);
+				} else {
+					log.error("The outings of " + year + " are both in "
+							+ archive + " and in a table with " + rows
+							+ " outings. The archive is used, drop outings_"
+							+ year + " once it has been checked.");
+				}
+			} finally {
+				s.close();
+			}
+		} catch (SQLException e) {
+			log.error("Error checking the table of " + year + ".");
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+	}
+
+	/**
+	 * Get the file of the archive of a season.
+	 */
+	private static File getArchiveFile(int year) {
+		return new File(ARCHIVE_DIR, "outings_" + year + ".col");
+	}
+
 	/* -------------------- OutingStatementSet (INTERNAL) ----------------- */
 
 	private enum OutingStatementType {
-		GET_OUTINGS, GET_OUTINGS_DATE_CONSTRAINED, GET_OUTINGS_DATE_MEMBER_BOAT_CONSTRAINED, GET_OUTINGS_DATE_MEMBER_CONSTRAINED, GET_OUTINGS_DATE_BOAT_CONSTRAINED, ADD_OUTING, MODIFY_OUTING, GET_MEMBER_STATISTICS
+		GET_OUTINGS, GET_OUTINGS_DATE_CONSTRAINED, GET_OUTINGS_DATE_MEMBER_BOAT_CONSTRAINED, GET_OUTINGS_DATE_MEMBER_CONSTRAINED, GET_OUTINGS_DATE_BOAT_CONSTRAINED, ADD_OUTING, MODIFY_OUTING, GET_MEMBER_STATISTICS, GET_ALL_MEMBER_STATISTICS
 	};
 
+	/** The timers for each type of outing statement. */
+	private static final EnumMap<OutingStatementType, Timer> statementTimers = new EnumMap<OutingStatementType, Timer>(
+			OutingStatementType.class);
+
+	static {
+		for (OutingStatementType t : OutingStatementType.values()) {
+			statementTimers.put(t, Metrics.getTimer("OutingStatement", t
+					.name()));
+		}
+	}
+
+	/** The condition matching outings with a given member in any seat. */
+	private static final String MEMBER_CONDITION = " AND (rower1 = ?"
+			+ " OR rower2 = ? OR rower3 = ? OR rower4 = ? OR rower5 = ?"
+			+ " OR rower6 = ? OR rower7 = ? OR rower8 = ? OR cox = ?)";
+
+	/**
+	 * Get the sql of one of the GET_OUTINGS_DATE_*_CONSTRAINED statements.
+	 * The parameters are the first and last day, then the boat and the member
+	 * (9 times), if the type is constrained by them.
+	 * 
+	 * @param typ
+	 *            The type of statement.
+	 * @param year
+	 *            The year of the table queried.
+	 * @return The sql.
+	 */
+	private static String getRangeQuery(OutingStatementType typ, int year) {
+		StringBuilder sql = new StringBuilder("SELECT * FROM outings_");
+		sql.append(year).append(" WHERE day >= ? AND day <= ?");
+		if (typ == OutingStatementType.GET_OUTINGS_DATE_BOAT_CONSTRAINED
+				|| typ == OutingStatementType.GET_OUTINGS_DATE_MEMBER_BOAT_CONSTRAINED) {
+			sql.append(" AND boat = ?");
+		}
+		if (typ == OutingStatementType.GET_OUTINGS_DATE_MEMBER_CONSTRAINED
+				|| typ == OutingStatementType.GET_OUTINGS_DATE_MEMBER_BOAT_CONSTRAINED) {
+			sql.append(MEMBER_CONDITION);
+		}
+		return sql.append(" ORDER BY day, time_out").toString();
+	}
+
+	/**
+	 * Set the parameters of a statement from {@link #getRangeQuery}, for the
+	 * part of a range of days in one year.
+	 * 
+	 * @param ps
+	 *            The statement.
+	 * @param year
+	 *            The year of the table queried.
+	 * @param start
+	 *            The first day of the whole range.
+	 * @param end
+	 *            The last day of the whole range.
+	 * @param member
+	 *            The member, or null if not constrained by member.
+	 * @param boat
+	 *            The boat, or null if not constrained by boat.
+	 */
+	private static void bindRange(PreparedStatement ps, int year,
+			Calendar start, Calendar end, MemberInfo member, BoatInfo boat)
+			throws SQLException {
+		if (start.get(Calendar.YEAR) == year) {
+			ps.setDate(1, new java.sql.Date(start.getTimeInMillis()));
+		} else {
+			ps.setDate(1, new java.sql.Date(new GregorianCalendar(year,
+					Calendar.JANUARY, 1).getTimeInMillis()));
+		}
+		if (end.get(Calendar.YEAR) == year) {
+			ps.setDate(2, new java.sql.Date(end.getTimeInMillis()));
+		} else {
+			ps.setDate(2, new java.sql.Date(new GregorianCalendar(year,
+					Calendar.DECEMBER, 31).getTimeInMillis()));
+		}
+		int i = 3;
+		if (boat != null) {
+			ps.setInt(i++, boat.getId());
+		}
+		if (member != null) {
+			for (int j = 0; j < 9; j++) {
+				ps.setInt(i++, member.getId());
+			}
+		}
+	}
+
+	/**
+	 * Read outings from a result set, and close it.
+	 * 
+	 * @param res
+	 *            The result of a query on an outings table.
+	 * @param members
+	 *            All members, by id.
+	 * @param boats
+	 *            All boats, by id.
+	 * @param outings
+	 *            The list the outings are added to.
+	 */
+	private static void readOutings(ResultSet res,
+			HashMap<Integer, MemberInfo> members,
+			HashMap<Integer, BoatInfo> boats, List<OutingInfo> outings)
+			throws SQLException {
+		// Note that for fields which can be null, the data is checked.
+		while (res.next()) {
+			long out_id = res.getLong("id");
+			if (log.wouldLog(DebugLevel.L6_VERBOSE)) {
+				log.verbose("Processing outing with id=" + out_id);
+			}
+			MemberInfo[] seats = new MemberInfo[8];
+			for (int i = 0; i < 8; i++) {
+				seats[i] = members.get(res.getInt("rower" + (i + 1)));
+			}
+			Date timeIn = null;
+			long timeInL = res.getLong("time_in");
+			if (timeInL != 0) {
+				timeIn = new Date(timeInL);
+			}
+			outings.add(new OutingInfo(out_id, res.getDate("day"), seats,
+					members.get(res.getInt("cox")), new Date(res
+							.getLong("time_out")), timeIn, res
+							.getString("comment"), res.getString("destination"),
+					boats.get(res.getInt("boat")), res.getInt("distance")));
+		}
+		res.close();
+	}
+
+	/**
+	 * Run a query from an OutingStatementSet, recording the time it took.
+	 */
+	private static ResultSet executeQuery(OutingStatementType typ,
+			PreparedStatement ps) throws SQLException {
+		Maintenance.recordActivity();
+		boolean error = true;
+		long start = System.nanoTime();
+		try {
+			ResultSet res = ps.executeQuery();
+			error = false;
+			return res;
+		} finally {
+			statementTimers.get(typ).record(System.nanoTime() - start, error);
+		}
+	}
+
+	/**
+	 * Run an update from an OutingStatementSet, recording the time it took.
+	 */
+	private static void execute(OutingStatementType typ, PreparedStatement ps)
+			throws SQLException {
+		Maintenance.recordActivity();
+		boolean error = true;
+		long start = System.nanoTime();
+		try {
+			ps.execute();
+			error = false;
+		} finally {
+			statementTimers.get(typ).record(System.nanoTime() - start, error);
+		}
+	}
+
 	private class OutingStatementSet {
 
 		/** The last time that this set was used. */
@@ -2308,6 +3054,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		private PreparedStatement psAddOuting;
 		private PreparedStatement psModifyOuting;
 		private PreparedStatement psGetMemberStatistics;
+		private PreparedStatement psGetAllMemberStatistics;
 
 		/**
 		 * Set up an outingstatementset for a given year.
@@ -2322,20 +3069,26 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 				throws SQLException {
 			log.entry("OutingStatementSet(Integer, HashTable)");
 			this.year = year;
-			try {
-				log.info("Trying to create a new table for year " + year + ".");
-				con.createStatement().execute(
-						MessageFormat.format(Util.loadScript("createOutings"),
-								year.toString()));
-				log.info("New Outings table for year " + year + " created.");
-
-			} catch (SQLException e) {
-				// Just ignore. Not worrying. This means the table exists.
-				log
-						.info("Outings table for this year already exists. THE FOLLOWING ERROR MESSAGE CAN BE IGNORED!");
-				log.dbe(org.grlea.log.DebugLevel.L6_VERBOSE, e);
-			} catch (IOException e) {
-				// TODO : think here.
+			// Only try to create the table if it is missing, creating an
+			// existing one fails slowly.
+			if (!hasOutingsTable(year)) {
+				try {
+					log.info("Trying to create a new table for year " + year + ".");
+					con.createStatement().execute(
+							MessageFormat.format(Util.loadScript("createOutings"),
+									year.toString()));
+					Migrations.createOutingsIndex(con, year);
+					log.info("New Outings table for year " + year + " created.");
+
+				} catch (SQLException e) {
+					// Just ignore. Not worrying. This means the table was created
+					// at the same time by someone else.
+					log
+							.info("Outings table for this year already exists. THE FOLLOWING ERROR MESSAGE CAN BE IGNORED!");
+					log.dbe(DebugLevel.L6_VERBOSE, e);
+				} catch (IOException e) {
+					// TODO : think here.
+				}
 			}
 			log.info("creating psGetOutings");
 
@@ -2344,26 +3097,20 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 							.format(
 									"SELECT * FROM outings_{0} WHERE day = ? ORDER BY day, time_out",
 									year.toString()));
-			psGetOutingsDateConstrained = con
-					.prepareStatement(MessageFormat
-							.format(
-									"SELECT * FROM outings_{0} WHERE day >= ?AND day <= ? ORDER BY day, time_out",
-									year.toString()));
+			psGetOutingsDateConstrained = con.prepareStatement(getRangeQuery(
+					OutingStatementType.GET_OUTINGS_DATE_CONSTRAINED, year));
 			psGetOutingsDateBoatConstrained = con
-					.prepareStatement(MessageFormat
-							.format(
-									"SELECT * FROM outings_{0} WHERE day >= ?AND day <= ? AND boat = ? ORDER BY day, time_out",
-									year.toString()));
+					.prepareStatement(getRangeQuery(
+							OutingStatementType.GET_OUTINGS_DATE_BOAT_CONSTRAINED,
+							year));
 			psGetOutingsDateMemberConstrained = con
-					.prepareStatement(MessageFormat
-							.format(
-									"SELECT * FROM outings_{0} WHERE day >= ?AND day <= ? AND (rower1 = ? OR rower2 = ? OR rower3 = ? OR rower4 = ? OR rower5 = ? OR rower6 = ? OR rower7 = ? OR rower8 = ? OR cox = ?) ORDER BY day, time_out",
-									year.toString()));
+					.prepareStatement(getRangeQuery(
+							OutingStatementType.GET_OUTINGS_DATE_MEMBER_CONSTRAINED,
+							year));
 			psGetOutingsDateMemberBoatConstrained = con
-					.prepareStatement(MessageFormat
-							.format(
-									"SELECT * FROM outings_{0} WHERE day >= ?AND day <= ? AND boat = ? AND (rower1 = ? OR rower2 = ? OR rower3 = ? OR rower4 = ? OR rower5 = ? OR rower6 = ? OR rower7 = ? OR rower8 = ? OR cox = ?) ORDER BY day, time_out",
-									year.toString()));
+					.prepareStatement(getRangeQuery(
+							OutingStatementType.GET_OUTINGS_DATE_MEMBER_BOAT_CONSTRAINED,
+							year));
 			// TODO : check whether valid sql
 			psAddOuting = con
 					.prepareStatement(
@@ -2391,6 +3138,20 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 							+ "OR rower2 = ? OR rower3 = ? OR rower4 = ? "
 							+ "OR rower5 = ? OR rower6 = ? OR rower7 = ? "
 							+ "OR rower8 = ? OR cox = ?", year.toString()));
+			// One row per seat taken, counted per member.
+			StringBuilder seats = new StringBuilder();
+			for (String seat : new String[] { "rower1", "rower2", "rower3",
+					"rower4", "rower5", "rower6", "rower7", "rower8", "cox" }) {
+				if (seats.length() > 0) {
+					seats.append(" UNION ALL ");
+				}
+				seats.append("SELECT " + seat + " AS member, distance FROM"
+						+ " outings_" + year);
+			}
+			psGetAllMemberStatistics = con.prepareStatement("SELECT member,"
+					+ " COUNT(*) AS outings, SUM(distance) AS distance FROM ("
+					+ seats + ") AS seats WHERE member IS NOT NULL"
+					+ " GROUP BY member");
 			// We want the last used time set.
 			updateTime();
 			// TODO: implement.
@@ -2416,6 +3177,8 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 				return psModifyOuting;
 			} else if (typ == OutingStatementType.GET_MEMBER_STATISTICS) {
 				return psGetMemberStatistics;
+			} else if (typ == OutingStatementType.GET_ALL_MEMBER_STATISTICS) {
+				return psGetAllMemberStatistics;
 			}
 			throw new IllegalArgumentException(
 					"No such outing statement type exists.");
@@ -2542,9 +3305,10 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			psModifyAdmin.setString(4, comment);
 			psModifyAdmin.setString(5, admin.getUsername());
 			psModifyAdmin.execute();
+			clearAdminCache();
 		} catch (java.sql.SQLIntegrityConstraintViolationException e) {
 			log.error("Admin " + username + " already exists.");
-			log.dbe(org.grlea.log.DebugLevel.L6_VERBOSE, e);
+			log.dbe(DebugLevel.L6_VERBOSE, e);
 			throw new InvalidDataException(
 					"Admin with this username already exists.", e);
 		} catch (SQLException e) {
@@ -2602,6 +3366,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			}
 			psRemoveMember.setLong(1, member.getId());
 			psRemoveMember.execute();
+			clearMemberSorter();
 		} catch (SQLException e) {
 			log.error("Error removing member " + member.getName() + " .");
 			log.errorException(e);
@@ -2636,6 +3401,7 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 			psSetAdminPassword.setString(3, admin.getUsername());
 			psSetAdminPassword.execute();
 			psSetAdminPassword.clearParameters();
+			clearAdminCache();
 		} catch (SQLException e) {
 			log.error("Error setting a new password for admin "
 					+ admin.getUsername() + " .");
@@ -2661,12 +3427,30 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		}
 		try {
 
+			if (psRemoveAllPermissions == null) {
+				psRemoveAllPermissions = con
+						.prepareStatement("DELETE FROM admins_permissions"
+								+ " WHERE username = ?");
+			}
 			if (psRemoveAdmin == null) {
 				psRemoveAdmin = con.prepareStatement("DELETE FROM admins "
 						+ "WHERE username = ? ");
 			}
-			psRemoveAdmin.setString(1, username);
-			psRemoveAdmin.execute();
+			// The permissions reference the admin, so remove them first.
+			con.setAutoCommit(false);
+			try {
+				psRemoveAllPermissions.setString(1, username);
+				psRemoveAllPermissions.execute();
+				psRemoveAdmin.setString(1, username);
+				psRemoveAdmin.execute();
+				con.commit();
+			} catch (SQLException e) {
+				con.rollback();
+				throw e;
+			} finally {
+				con.setAutoCommit(true);
+				clearAdminCache();
+			}
 		} catch (SQLException e) {
 			log.error("Error removing admin " + username + " .");
 			log.errorException(e);
@@ -2675,6 +3459,214 @@ public class Database implements org.ahunt.simpleRowLog.interfaces.Database {
 		log.exit("removeAdmin(" + username + ")");
 	}
 
+	/**
+	 * Make a copy of the database in the given directory while it is running.
+	 * The copy is placed in a subdirectory named after the database.
+	 * 
+	 * @param dir
+	 *            The directory in which the backup is to be placed.
+	 * @throws DatabaseError
+	 *             If the backup couldn't be made.
+	 */
+	public void backup(File dir) throws DatabaseError {
+		log.entry("backup(" + dir + ")");
+		try {
+			CallableStatement cs = con
+					.prepareCall("CALL SYSCS_UTIL.SYSCS_BACKUP_DATABASE(?)");
+			cs.setString(1, dir.getAbsolutePath());
+			cs.execute();
+			cs.close();
+		} catch (SQLException e) {
+			log.error("Error backing up the database to " + dir + ".");
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+		log.exit("backup(" + dir + ")");
+	}
+
+	/**
+	 * Make a full backup of the database and the configuration now, in the
+	 * backup directory set in simpleDB.conf. The database can be used
+	 * meanwhile, and the transaction logs are archived from then on.
+	 * 
+	 * @return The report of the backup.
+	 * @throws DatabaseError
+	 *             If the backup couldn't be made.
+	 */
+	public BackupReport runBackup() throws DatabaseError {
+		try {
+			return backups.backup();
+		} catch (SQLException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		} catch (IOException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+	}
+
+	/**
+	 * Get the reports of the full backups made since the database was
+	 * opened.
+	 * 
+	 * @return The reports, newest first.
+	 */
+	public BackupReport[] getBackupReports() {
+		return backups.getReports();
+	}
+
+	/**
+	 * Check the consistency of all tables and their indexes.
+	 * 
+	 * @return A description of each problem found. Empty if all tables are
+	 *         consistent.
+	 * @throws DatabaseError
+	 *             If the list of tables can't be read.
+	 */
+	public String[] checkTables() throws DatabaseError {
+		log.entry("checkTables()");
+		ArrayList<String> tables = new ArrayList<String>();
+		ArrayList<String> problems = new ArrayList<String>();
+		try {
+			ResultSet rs = con.getMetaData().getTables(null, "APP", null,
+					new String[] { "TABLE" });
+			while (rs.next()) {
+				tables.add(rs.getString("TABLE_NAME"));
+			}
+			rs.close();
+			PreparedStatement ps = con.prepareStatement("VALUES "
+					+ "SYSCS_UTIL.SYSCS_CHECK_TABLE('APP', ?)");
+			for (String table : tables) {
+				try {
+					ps.setString(1, table);
+					rs = ps.executeQuery();
+					if (!rs.next() || rs.getInt(1) != 1) {
+						problems.add(table);
+					}
+					rs.close();
+				} catch (SQLException e) {
+					// Inconsistencies are reported as exceptions.
+					log.error("Table " + table + " is inconsistent.");
+					log.errorException(e);
+					problems.add(table + ": " + e.getMessage());
+				}
+			}
+			ps.close();
+		} catch (SQLException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+		log.exit("checkTables()");
+		return problems.toArray(new String[problems.size()]);
+	}
+
+	/**
+	 * Count the outings stored for each year.
+	 *
+	 * @return A map of year to number of outings, ordered by year.
+	 * @throws DatabaseError
+	 *             If there is a problem reading from the database.
+	 */
+	public SortedMap<Integer, Integer> countOutings() throws DatabaseError {
+		log.entry("countOutings()");
+		SortedMap<Integer, Integer> counts = new TreeMap<Integer, Integer>();
+		try {
+			Statement s = con.createStatement();
+			for (int year : getYears()) {
+				ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM outings_"
+						+ year);
+				rs.next();
+				counts.put(year, rs.getInt(1));
+				rs.close();
+			}
+			s.close();
+			for (int year : getArchivedYears()) {
+				counts.put(year, getArchive(year).size());
+			}
+		} catch (SQLException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+		log.exit("countOutings()");
+		return counts;
+	}
+
+	/**
+	 * Shut down the database engine cleanly. Do not attempt to use the
+	 * database after this.
+	 */
+	public void shutdown() {
+		log.entry("shutdown()");
+		setQueryThreads(0);
+		maintenance.stop();
+		backups.stop();
+		try {
+			con.close();
+			DriverManager.getConnection("jdbc:derby:;shutdown=true");
+		} catch (SQLException e) {
+			// Derby always reports a successful shutdown with an exception.
+			log.dbe(DebugLevel.L6_VERBOSE, e);
+		}
+		QueryLog.close();
+		db = null;
+		log.exit("shutdown()");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public MaintenanceReport[] getMaintenanceReports() {
+		return maintenance.getReports();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public MaintenanceReport runMaintenance() throws DatabaseError {
+		try {
+			return maintenance.run(true);
+		} catch (SQLException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+	}
+
+	/**
+	 * Update the statistics derby's optimiser uses for every table, without
+	 * compressing the tables.
+	 * 
+	 * @return The report.
+	 * @throws DatabaseError
+	 *             If there is a problem updating the statistics.
+	 */
+	public MaintenanceReport updateStatistics() throws DatabaseError {
+		try {
+			return maintenance.run(true, false);
+		} catch (SQLException e) {
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+	}
+
+	/**
+	 * Set how many years may be queried at once when getting the outings of
+	 * several years. Each uses its own connection.
+	 * 
+	 * @param threads
+	 *            The maximum number of years queried at once. 0 or 1 queries
+	 *            one year after the other.
+	 */
+	public void setQueryThreads(int threads) {
+		YearQueryPool old = yearQueryPool;
+		yearQueryPool = threads > 1 ? new YearQueryPool(connectionURL, threads)
+				: null;
+		if (old != null) {
+			old.close();
+		}
+	}
+
 	/**
 	 * Completely delete the database, i.e. remove the files used by the
 	 * database. Do not attempt to use the database after this, the results are
@@ -0,0 +1,533 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Archived seasons are exported too.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.MessageFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.ResourceBundle;
+
+import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.DatabaseError;
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.ProgressListener;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Exports outings, members and boats to CSV or JSON Lines files. Outings are
+ * streamed directly from the outings tables to the output, one row at a time,
+ * so that the memory used stays the same regardless of how many seasons are
+ * exported. Member and boat names are resolved using maps loaded once before
+ * the export starts. No gui classes are used, so this can be run headless.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class Exporter {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(Exporter.class);
+
+	/**
+	 * The output formats available.
+	 */
+	public enum Format {
+		/** Comma separated values, with a header line. */
+		CSV,
+		/** One JSON object per line. */
+		JSON
+	};
+
+	/** How many rows are fetched from the database at a time. */
+	private static final int FETCH_SIZE = 500;
+
+	/** How often (in rows) the progress listener is informed. */
+	private static final int PROGRESS_INTERVAL = 1000;
+
+	/** The column names for outings. */
+	private static final String[] OUTING_COLUMNS = { "id", "day", "time_out",
+			"time_in", "boat_id", "boat", "cox_id", "cox", "rower1_id",
+			"rower1", "rower2_id", "rower2", "rower3_id", "rower3",
+			"rower4_id", "rower4", "rower5_id", "rower5", "rower6_id",
+			"rower6", "rower7_id", "rower7", "rower8_id", "rower8", "distance",
+			"destination", "comment" };
+
+	/** The column names for members. */
+	private static final String[] MEMBER_COLUMNS = { "id", "surname",
+			"forename", "dob", "group_id", "group" };
+
+	/** The column names for boats. */
+	private static final String[] BOAT_COLUMNS = { "id", "name", "type",
+			"inHouse" };
+
+	/** The database being exported. */
+	private Database db;
+
+	/** Resource bundle for databases texts. */
+	private ResourceBundle rb = ResourceBundle.getBundle("db");
+
+	/** Format for days. */
+	private SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+	/** Format for the times out and in. */
+	private SimpleDateFormat timeFormat = new SimpleDateFormat(
+			"yyyy-MM-dd HH:mm");
+
+	/**
+	 * Create an exporter working on a specific database.
+	 *
+	 * @param db
+	 *            The database to be exported.
+	 */
+	public Exporter(Database db) {
+		this.db = db;
+	}
+
+	/**
+	 * Export all outings between two days into a file. The file is written in
+	 * UTF-8.
+	 *
+	 * @param startDate
+	 *            The first day to be exported.
+	 * @param endDate
+	 *            The last day to be exported.
+	 * @param format
+	 *            The output format.
+	 * @param file
+	 *            The file to write to. Is overwritten if it exists.
+	 * @param listener
+	 *            Informed of the progress. May be null.
+	 * @return The number of outings exported.
+	 * @throws IOException
+	 *             If the file can't be written.
+	 * @throws DatabaseError
+	 *             If there is a problem reading the database.
+	 */
+	public long exportOutings(Date startDate, Date endDate, Format format,
+			File file, ProgressListener listener) throws IOException,
+			DatabaseError {
+		Writer out = openFile(file);
+		try {
+			return exportOutings(startDate, endDate, format, out, listener);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Export all outings between two days. The writer is flushed, but not
+	 * closed, once done.
+	 *
+	 * @param startDate
+	 *            The first day to be exported.
+	 * @param endDate
+	 *            The last day to be exported.
+	 * @param format
+	 *            The output format.
+	 * @param out
+	 *            Where the outings are to be written to.
+	 * @param listener
+	 *            Informed of the progress. May be null.
+	 * @return The number of outings exported.
+	 * @throws IOException
+	 *             If the output can't be written.
+	 * @throws DatabaseError
+	 *             If there is a problem reading the database.
+	 */
+	public long exportOutings(Date startDate, Date endDate, Format format,
+			Writer out, ProgressListener listener) throws IOException,
+			DatabaseError {
+		log.entry("exportOutings(...)");
+		Calendar startCal = new GregorianCalendar();
+		startCal.setTime(startDate);
+		Calendar endCal = new GregorianCalendar();
+		endCal.setTime(endDate);
+		int startYear = startCal.get(Calendar.YEAR);
+		int endYear = endCal.get(Calendar.YEAR);
+
+		// Only look at the years for which there is a table or an archive.
+		int[] tableYears = db.getYears();
+		int[] archivedYears = db.getArchivedYears();
+		int[] dbYears = new int[tableYears.length + archivedYears.length];
+		System.arraycopy(tableYears, 0, dbYears, 0, tableYears.length);
+		System.arraycopy(archivedYears, 0, dbYears, tableYears.length,
+				archivedYears.length);
+		Arrays.sort(dbYears);
+
+		// Names are looked up from memory rather than per row.
+		HashMap<Integer, String> memberNames = new HashMap<Integer, String>();
+		for (MemberInfo m : db.getMembers()) {
+			memberNames.put(m.getId(), m.getName());
+		}
+		HashMap<Integer, String> boatNames = new HashMap<Integer, String>();
+		for (BoatInfo b : db.getBoats()) {
+			boatNames.put(b.getId(), b.getName());
+		}
+
+		if (format == Format.CSV) {
+			writeCSVLine(out, OUTING_COLUMNS);
+		}
+
+		String[] values = new String[OUTING_COLUMNS.length];
+		long done = 0;
+		long total = -1;
+		try {
+			if (listener != null) {
+				total = 0;
+				for (int year : dbYears) {
+					if (year >= startYear && year <= endYear) {
+						total += countOutings(year, startDate, endDate);
+					}
+				}
+				listener.progressUpdate("outings", 0, total);
+			}
+			for (int year : dbYears) {
+				if (year < startYear || year > endYear) {
+					continue;
+				}
+				SeasonArchive archive = db.getArchive(year);
+				if (archive != null) {
+					int end = archive.indexOf(endDate, true);
+					for (int i = archive.indexOf(startDate, false); i < end;
+							i++) {
+						fillOuting(archive, i, values, memberNames, boatNames);
+						writeOuting(out, format, values);
+						done++;
+						if (listener != null && done % PROGRESS_INTERVAL == 0) {
+							listener.progressUpdate("outings", done, total);
+						}
+					}
+					continue;
+				}
+				PreparedStatement ps = db.getConnection().prepareStatement(
+						MessageFormat.format("SELECT * FROM outings_{0} WHERE"
+								+ " day >= ? AND day <= ? ORDER BY day,"
+								+ " time_out", Integer.toString(year)),
+						ResultSet.TYPE_FORWARD_ONLY,
+						ResultSet.CONCUR_READ_ONLY);
+				try {
+					ps.setFetchSize(FETCH_SIZE);
+					ps.setDate(1, new java.sql.Date(startDate.getTime()));
+					ps.setDate(2, new java.sql.Date(endDate.getTime()));
+					ResultSet rs = ps.executeQuery();
+					while (rs.next()) {
+						fillOuting(rs, values, memberNames, boatNames);
+						writeOuting(out, format, values);
+						done++;
+						if (listener != null && done % PROGRESS_INTERVAL == 0) {
+							listener.progressUpdate("outings", done, total);
+						}
+					}
+					rs.close();
+				} finally {
+					ps.close();
+				}
+			}
+		} catch (SQLException e) {
+			log.error("Error exporting outings.");
+			log.errorException(e);
+			throw new DatabaseError(rb.getString("commandError"), e);
+		}
+		out.flush();
+		if (listener != null) {
+			listener.progressUpdate("outings", done, total);
+		}
+		log.exit("exportOutings(...)");
+		return done;
+	}
+
+	/**
+	 * Export all the members.
+	 *
+	 * @param format
+	 *            The output format.
+	 * @param out
+	 *            Where the members are written to. Is flushed, but not closed.
+	 * @return The number of members exported.
+	 * @throws IOException
+	 *             If the output can't be written.
+	 * @throws DatabaseError
+	 *             If there is a problem reading the database.
+	 */
+	public int exportMembers(Format format, Writer out) throws IOException,
+			DatabaseError {
+		if (format == Format.CSV) {
+			writeCSVLine(out, MEMBER_COLUMNS);
+		}
+		MemberInfo[] members = db.getMembers();
+		String[] values = new String[MEMBER_COLUMNS.length];
+		for (MemberInfo m : members) {
+			values[0] = Integer.toString(m.getId());
+			values[1] = m.getSurname();
+			values[2] = m.getForename();
+			values[3] = dayFormat.format(m.getDob());
+			values[4] = Integer.toString(m.getGroupInfo().getId());
+			values[5] = m.getGroupInfo().getName();
+			if (format == Format.CSV) {
+				writeCSVLine(out, values);
+			} else {
+				writeJSONLine(out, MEMBER_COLUMNS, values);
+			}
+		}
+		out.flush();
+		return members.length;
+	}
+
+	/**
+	 * Export all the boats.
+	 *
+	 * @param format
+	 *            The output format.
+	 * @param out
+	 *            Where the boats are written to. Is flushed, but not closed.
+	 * @return The number of boats exported.
+	 * @throws IOException
+	 *             If the output can't be written.
+	 * @throws DatabaseError
+	 *             If there is a problem reading the database.
+	 */
+	public int exportBoats(Format format, Writer out) throws IOException,
+			DatabaseError {
+		if (format == Format.CSV) {
+			writeCSVLine(out, BOAT_COLUMNS);
+		}
+		BoatInfo[] boats = db.getBoats();
+		String[] values = new String[BOAT_COLUMNS.length];
+		for (BoatInfo b : boats) {
+			values[0] = Integer.toString(b.getId());
+			values[1] = b.getName();
+			values[2] = b.getType();
+			values[3] = Boolean.toString(b.inHouse());
+			if (format == Format.CSV) {
+				writeCSVLine(out, values);
+			} else {
+				writeJSONLine(out, BOAT_COLUMNS, values);
+			}
+		}
+		out.flush();
+		return boats.length;
+	}
+
+	/**
+	 * Open a file for writing in UTF-8.
+	 *
+	 * @param file
+	 *            The file.
+	 * @return A buffered writer for the file.
+	 * @throws IOException
+	 *             If the file can't be opened.
+	 */
+	public static Writer openFile(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(
+				file), "UTF-8"));
+	}
+
+	/**
+	 * Count the outings in a year's table between two days.
+	 */
+	private long countOutings(int year, Date startDate, Date endDate)
+			throws SQLException {
+		SeasonArchive archive = db.getArchive(year);
+		if (archive != null) {
+			return archive.indexOf(endDate, true)
+					- archive.indexOf(startDate, false);
+		}
+		PreparedStatement ps = db.getConnection().prepareStatement(
+				MessageFormat.format("SELECT COUNT(*) FROM outings_{0} WHERE"
+						+ " day >= ? AND day <= ?", Integer.toString(year)));
+		try {
+			ps.setDate(1, new java.sql.Date(startDate.getTime()));
+			ps.setDate(2, new java.sql.Date(endDate.getTime()));
+			ResultSet rs = ps.executeQuery();
+			long count = rs.next() ? rs.getLong(1) : 0;
+			rs.close();
+			return count;
+		} finally {
+			ps.close();
+		}
+	}
+
+	/**
+	 * Read the current row of an outings result set into an array of values,
+	 * in the order of {@link #OUTING_COLUMNS}. Empty fields are null.
+	 */
+	private void fillOuting(ResultSet rs, String[] values,
+			HashMap<Integer, String> memberNames,
+			HashMap<Integer, String> boatNames) throws SQLException {
+		values[0] = Long.toString(rs.getLong("id"));
+		values[1] = dayFormat.format(rs.getDate("day"));
+		values[2] = timeFormat.format(new Date(rs.getLong("time_out")));
+		long timeIn = rs.getLong("time_in");
+		values[3] = timeIn != 0 ? timeFormat.format(new Date(timeIn)) : null;
+		int boat = rs.getInt("boat");
+		values[4] = Integer.toString(boat);
+		values[5] = boatNames.get(boat);
+		int cox = rs.getInt("cox");
+		values[6] = cox != 0 ? Integer.toString(cox) : null;
+		values[7] = cox != 0 ? memberNames.get(cox) : null;
+		for (int i = 0; i < 8; i++) {
+			int rower = rs.getInt("rower" + (i + 1));
+			values[8 + 2 * i] = rower != 0 ? Integer.toString(rower) : null;
+			values[9 + 2 * i] = rower != 0 ? memberNames.get(rower) : null;
+		}
+		int distance = rs.getInt("distance");
+		values[24] = distance != 0 ? Integer.toString(distance) : null;
+		values[25] = rs.getString("destination");
+		values[26] = rs.getString("comment");
+	}
+
+	/**
+	 * Read an outing of an archived season into an array of values, as
+	 * {@link #fillOuting(ResultSet, String[], HashMap, HashMap)}.
+	 */
+	private void fillOuting(SeasonArchive archive, int i, String[] values,
+			HashMap<Integer, String> memberNames,
+			HashMap<Integer, String> boatNames) {
+		values[0] = Long.toString(archive.getId(i));
+		values[1] = dayFormat.format(archive.getDay(i));
+		values[2] = timeFormat.format(new Date(archive.getTimeOut(i)));
+		long timeIn = archive.getTimeIn(i);
+		values[3] = timeIn != 0 ? timeFormat.format(new Date(timeIn)) : null;
+		int boat = archive.getBoat(i);
+		values[4] = Integer.toString(boat);
+		values[5] = boatNames.get(boat);
+		for (int seat = 0; seat < SeasonArchive.SEATS; seat++) {
+			int member = archive.getMember(i, seat);
+			// The cox comes before the rowers.
+			int column = seat == 8 ? 6 : 8 + 2 * seat;
+			values[column] = member != 0 ? Integer.toString(member) : null;
+			values[column + 1] = member != 0 ? memberNames.get(member) : null;
+		}
+		int distance = archive.getDistance(i);
+		values[24] = distance != 0 ? Integer.toString(distance) : null;
+		values[25] = archive.getDestination(i);
+		values[26] = archive.getComment(i);
+	}
+
+	/**
+	 * Write an outing in the given format.
+	 */
+	private static void writeOuting(Writer out, Format format,
+			String[] values) throws IOException {
+		if (format == Format.CSV) {
+			writeCSVLine(out, values);
+		} else {
+			writeJSONLine(out, OUTING_COLUMNS, values);
+		}
+	}
+
+	/**
+	 * Write one line of comma separated values. Values containing commas,
+	 * quotes or line breaks are quoted, null values are left empty.
+	 */
+	static void writeCSVLine(Writer out, String[] values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				out.write(',');
+			}
+			String v = values[i];
+			if (v == null) {
+				continue;
+			}
+			if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0
+					|| v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0) {
+				out.write('"');
+				out.write(v.replace("\"", "\"\""));
+				out.write('"');
+			} else {
+				out.write(v);
+			}
+		}
+		out.write('\n');
+	}
+
+	/**
+	 * Write one JSON object on a single line. Null values are written as JSON
+	 * null.
+	 */
+	static void writeJSONLine(Writer out, String[] keys, String[] values)
+			throws IOException {
+		out.write('{');
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0) {
+				out.write(',');
+			}
+			writeJSONString(out, keys[i]);
+			out.write(':');
+			if (values[i] == null) {
+				out.write("null");
+			} else {
+				writeJSONString(out, values[i]);
+			}
+		}
+		out.write("}\n");
+	}
+
+	/**
+	 * Write a quoted and escaped JSON string.
+	 */
+	private static void writeJSONString(Writer out, String s)
+			throws IOException {
+		out.write('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':
+				out.write("\\\"");
+				break;
+			case '\\':
+				out.write("\\\\");
+				break;
+			case '\n':
+				out.write("\\n");
+				break;
+			case '\r':
+				out.write("\\r");
+				break;
+			case '\t':
+				out.write("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					out.write(String.format("\\u%04x", (int) c));
+				} else {
+					out.write(c);
+				}
+			}
+		}
+		out.write('"');
+	}
+}
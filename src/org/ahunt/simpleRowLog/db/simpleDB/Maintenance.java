@@ -0,0 +1,402 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	The statistics can be updated without compressing.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.LinkedList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.ahunt.simpleRowLog.common.MaintenanceReport;
+import org.grlea.log.DebugLevel;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Maintains derby's storage, which never reclaims the space of deleted rows or
+ * updates the statistics used by the optimiser by itself. For every table the
+ * statistics are updated (SYSCS_UPDATE_STATISTICS) and the table is compressed
+ * in place (SYSCS_INPLACE_COMPRESS_TABLE), recording the sizes and the plan
+ * of the outing tables' main query before and after.
+ * <p>
+ * Maintenance runs every <code>maintenance.interval</code> hours (set in
+ * simpleDB.conf), but only once there has been no outing activity for
+ * <code>maintenance.idle</code> minutes. If outings are used while it is
+ * running it stops after the current table.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class Maintenance {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(Maintenance.class);
+
+	/** The number of reports kept. */
+	private static final int REPORTS_KEPT = 10;
+
+	/** The last time an outing was read or written. */
+	private static volatile long lastActivity = System.currentTimeMillis();
+
+	/** The url used to open the connection. */
+	private final String connectionURL;
+
+	/** The time between runs, in milliseconds. 0 if not scheduled. */
+	private final long interval;
+
+	/** The time without activity needed before running, in milliseconds. */
+	private final long idle;
+
+	/** Whether the tables are compressed. */
+	private final boolean compress;
+
+	/** Stores the time of the last run. */
+	private final File lastRunFile;
+
+	/** The time of the last run. */
+	private long lastRun;
+
+	/** The last reports, newest first. */
+	private final LinkedList<MaintenanceReport> reports = new LinkedList<MaintenanceReport>();
+
+	/** Runs the scheduled maintenance, null if not started. */
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Set up the maintenance.
+	 *
+	 * @param connectionURL
+	 *            The url used to open the connection.
+	 * @param intervalHours
+	 *            The time between runs, 0 to only run on demand.
+	 * @param idleMinutes
+	 *            The time without outing activity needed before running.
+	 * @param compress
+	 *            Whether the tables are compressed, or only their statistics
+	 *            updated.
+	 * @param lastRunFile
+	 *            The file storing the time of the last run.
+	 */
+	Maintenance(String connectionURL, long intervalHours, long idleMinutes,
+			boolean compress, File lastRunFile) {
+		this.connectionURL = connectionURL;
+		this.interval = TimeUnit.HOURS.toMillis(intervalHours);
+		this.idle = TimeUnit.MINUTES.toMillis(idleMinutes);
+		this.compress = compress;
+		this.lastRunFile = lastRunFile;
+		try {
+			BufferedReader in = new BufferedReader(new FileReader(lastRunFile));
+			try {
+				lastRun = Long.parseLong(in.readLine().trim());
+			} finally {
+				in.close();
+			}
+		} catch (Exception e) {
+			// Never run, or the file is unreadable: run when next idle.
+			lastRun = 0;
+		}
+	}
+
+	/**
+	 * Note that outings have been used, so that maintenance waits.
+	 */
+	static void recordActivity() {
+		lastActivity = System.currentTimeMillis();
+	}
+
+	/**
+	 * Start checking once a minute whether maintenance is due.
+	 */
+	synchronized void start() {
+		if (interval <= 0 || scheduler != null) {
+			return;
+		}
+		scheduler = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "simple rowLog maintenance");
+						t.setDaemon(true);
+						t.setPriority(Thread.MIN_PRIORITY);
+						return t;
+					}
+				});
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				long now = System.currentTimeMillis();
+				if (now - lastRun < interval || now - lastActivity < idle) {
+					return;
+				}
+				try {
+					Maintenance.this.run(false);
+				} catch (SQLException e) {
+					log.error("Scheduled maintenance failed.");
+					log.errorException(e);
+				}
+			}
+		}, 1, 1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * Stop the scheduled maintenance. A run in progress is stopped after the
+	 * current table.
+	 */
+	synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * Get the last reports.
+	 *
+	 * @return The reports, newest first.
+	 */
+	MaintenanceReport[] getReports() {
+		synchronized (reports) {
+			return reports.toArray(new MaintenanceReport[reports.size()]);
+		}
+	}
+
+	/**
+	 * Maintain all tables.
+	 *
+	 * @param force
+	 *            Whether to continue even if outings are used meanwhile.
+	 * @return The report.
+	 */
+	MaintenanceReport run(boolean force) throws SQLException {
+		return run(force, compress);
+	}
+
+	/**
+	 * Maintain all tables.
+	 *
+	 * @param force
+	 *            Whether to continue even if outings are used meanwhile.
+	 * @param compress
+	 *            Whether the tables are compressed, or only their statistics
+	 *            updated.
+	 * @return The report.
+	 */
+	synchronized MaintenanceReport run(boolean force, boolean compress)
+			throws SQLException {
+		log.entry("run(" + force + ")");
+		Date start = new Date();
+		long activityBefore = lastActivity;
+		boolean interrupted = false;
+		ArrayList<MaintenanceReport.TableReport> tables = new ArrayList<MaintenanceReport.TableReport>();
+		Connection con = DriverManager.getConnection(connectionURL);
+		try {
+			for (String table : getTables(con)) {
+				if (!force
+						&& (lastActivity != activityBefore || Thread
+								.currentThread().isInterrupted())) {
+					interrupted = true;
+					break;
+				}
+				long sizeBefore = getSize(con, table);
+				String planBefore = getPlan(con, table);
+				CallableStatement cs = con
+						.prepareCall("CALL SYSCS_UTIL.SYSCS_UPDATE_STATISTICS(?, ?, NULL)");
+				cs.setString(1, "APP");
+				cs.setString(2, table);
+				cs.execute();
+				cs.close();
+				if (compress) {
+					cs = con.prepareCall("CALL SYSCS_UTIL."
+							+ "SYSCS_INPLACE_COMPRESS_TABLE(?, ?, 1, 1, 1)");
+					cs.setString(1, "APP");
+					cs.setString(2, table);
+					cs.execute();
+					cs.close();
+				}
+				MaintenanceReport.TableReport t = new MaintenanceReport.TableReport(
+						table, sizeBefore, getSize(con, table), planBefore,
+						getPlan(con, table));
+				if (log.wouldLog(DebugLevel.L4_INFO)) {
+					log.info("Maintained " + table + ": " + t.getSizeBefore()
+							+ " -> " + t.getSizeAfter() + " bytes"
+							+ (t.isPlanChanged() ? ", plan changed to "
+									+ t.getPlanAfter() : ""));
+				}
+				tables.add(t);
+			}
+		} finally {
+			con.close();
+		}
+		MaintenanceReport report = new MaintenanceReport(start, new Date(),
+				tables.toArray(new MaintenanceReport.TableReport[tables
+						.size()]), interrupted);
+		synchronized (reports) {
+			reports.addFirst(report);
+			if (reports.size() > REPORTS_KEPT) {
+				reports.removeLast();
+			}
+		}
+		if (!interrupted) {
+			storeLastRun(start.getTime());
+		}
+		log.info("Maintenance " + (interrupted ? "interrupted" : "finished")
+				+ ", " + report.getSpaceReclaimed() + " bytes reclaimed.");
+		log.exit("run(" + force + ")");
+		return report;
+	}
+
+	/**
+	 * Remember when maintenance last ran, so that restarting the logbook
+	 * doesn't restart the schedule.
+	 */
+	private void storeLastRun(long time) {
+		lastRun = time;
+		try {
+			FileWriter out = new FileWriter(lastRunFile);
+			try {
+				out.write(Long.toString(time));
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			log.warn("Couldn't store the time of the last maintenance.");
+			log.dbe(DebugLevel.L5_DEBUG, e);
+		}
+	}
+
+	/**
+	 * Get the names of all our tables.
+	 */
+	private static ArrayList<String> getTables(Connection con)
+			throws SQLException {
+		ArrayList<String> tables = new ArrayList<String>();
+		Statement s = con.createStatement();
+		ResultSet rs = s.executeQuery("SELECT t.tablename FROM sys.systables t"
+				+ " JOIN sys.sysschemas s ON t.schemaid = s.schemaid"
+				+ " WHERE s.schemaname = 'APP' AND t.tabletype = 'T'"
+				+ " ORDER BY t.tablename");
+		while (rs.next()) {
+			tables.add(rs.getString(1));
+		}
+		rs.close();
+		s.close();
+		return tables;
+	}
+
+	/**
+	 * Get the space used by a table and its indexes, including free pages.
+	 */
+	private static long getSize(Connection con, String table)
+			throws SQLException {
+		// The table function only accepts constants.
+		Statement s = con.createStatement();
+		ResultSet rs = s.executeQuery("SELECT SUM((numallocatedpages"
+				+ " + numfreepages) * pagesize) FROM TABLE"
+				+ " (SYSCS_DIAG.SPACE_TABLE('APP', '" + table.replace("'", "''")
+				+ "')) AS t");
+		long size = rs.next() ? rs.getLong(1) : 0;
+		rs.close();
+		s.close();
+		return size;
+	}
+
+	/**
+	 * Get a summary of the plan (the scans used) of the main query on an
+	 * outings table, i.e. getting a day's outings.
+	 *
+	 * @return The summary, null if the table isn't an outings table.
+	 */
+	private static String getPlan(Connection con, String table)
+			throws SQLException {
+		if (!table.startsWith("OUTINGS_")) {
+			return null;
+		}
+		Statement s = con.createStatement();
+		s.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+		String plan;
+		try {
+			PreparedStatement ps = con.prepareStatement("SELECT * FROM "
+					+ table + " WHERE day = ? ORDER BY day, time_out");
+			int year = Integer.parseInt(table.substring("OUTINGS_".length()));
+			ps.setDate(1, new java.sql.Date(new GregorianCalendar(year,
+					GregorianCalendar.JUNE, 1).getTimeInMillis()));
+			ResultSet rs = ps.executeQuery();
+			while (rs.next()) {
+				// The statistics are only complete once all rows are read.
+			}
+			rs.close();
+			ps.close();
+			rs = s.executeQuery("VALUES SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()");
+			plan = rs.next() ? summarisePlan(rs.getString(1)) : null;
+			rs.close();
+		} catch (NumberFormatException e) {
+			plan = null;
+		} finally {
+			s.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(0)");
+			s.close();
+		}
+		return plan;
+	}
+
+	/**
+	 * Reduce runtime statistics to the scans used, e.g. "Index Scan ResultSet
+	 * for OUTINGS_2026 using index ...".
+	 */
+	static String summarisePlan(String statistics) {
+		if (statistics == null) {
+			return null;
+		}
+		StringBuilder summary = new StringBuilder();
+		BufferedReader in = new BufferedReader(new StringReader(statistics));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.contains("Scan ResultSet for")) {
+					int at = line.indexOf(" at ");
+					if (summary.length() > 0) {
+						summary.append("; ");
+					}
+					summary.append(at > 0 ? line.substring(0, at) : line);
+				}
+			}
+		} catch (IOException e) {
+			// Can't happen when reading a string.
+		}
+		return summary.toString();
+	}
+}
@@ -0,0 +1,291 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+
+import org.ahunt.simpleRowLog.common.ProgressListener;
+import org.grlea.log.DebugLevel;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Brings the schema of existing databases up to date. The version of the
+ * schema is stored in the <code>schema_version</code> table, with one row for
+ * each migration applied. At startup every migration newer than the stored
+ * version is applied in order, each in its own transaction.
+ * <p>
+ * Migrations must be idempotent, i.e. they may find their changes already
+ * (partly) made, e.g. by the setup scripts of a new database or by an earlier
+ * attempt. To add a migration append it to {@link #MIGRATIONS}, and also
+ * change the setup scripts if new databases need the change too.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class Migrations {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(Migrations.class);
+
+	/** The units of progress reported for each migration. */
+	private static final long STEPS = 1000;
+
+	/** SQLState of derby when creating an object which already exists. */
+	private static final String ALREADY_EXISTS = "X0Y32";
+
+	/**
+	 * A change to the schema.
+	 */
+	static abstract class Migration {
+
+		/** The version of the schema after this migration. */
+		private final int version;
+
+		/** What the migration does. */
+		private final String description;
+
+		Migration(int version, String description) {
+			this.version = version;
+			this.description = description;
+		}
+
+		int getVersion() {
+			return version;
+		}
+
+		String getDescription() {
+			return description;
+		}
+
+		/**
+		 * Apply the migration. Called within a transaction, which is
+		 * committed by the caller.
+		 *
+		 * @param con
+		 *            The connection.
+		 * @param listener
+		 *            Receives the progress of the migration.
+		 */
+		abstract void apply(Connection con, ProgressListener listener)
+				throws SQLException, IOException;
+	}
+
+	/** All migrations, oldest first. */
+	static final Migration[] MIGRATIONS = {
+	/*
+	 * The tables created by the setup scripts. Databases from before the
+	 * schema was versioned are at this version.
+	 */
+	new Migration(1, "Initial schema") {
+		void apply(Connection con, ProgressListener listener) {
+			// Created by the setup scripts.
+		}
+	},
+	/*
+	 * Almost all outing queries are by day, ordered by day and time out.
+	 */
+	new Migration(2, "Index outings by day and time out") {
+		void apply(Connection con, ProgressListener listener)
+				throws SQLException, IOException {
+			ArrayList<Integer> years = getOutingYears(con);
+			for (int i = 0; i < years.size(); i++) {
+				listener.progressUpdate(getDescription(), i, years.size());
+				createOutingsIndex(con, years.get(i));
+			}
+		}
+	} };
+
+	/** The connection used. */
+	private final Connection con;
+
+	/** Receives the progress of the migrations. */
+	private final ProgressListener listener;
+
+	/**
+	 * Create the migrator.
+	 *
+	 * @param con
+	 *            The connection.
+	 * @param listener
+	 *            Receives the progress. Called with the description of each
+	 *            migration and the number of migrations done, and by the
+	 *            migrations themselves.
+	 */
+	Migrations(Connection con, ProgressListener listener) {
+		this.con = con;
+		this.listener = listener;
+	}
+
+	/**
+	 * Get the version of the newest migration.
+	 *
+	 * @return The version the schema is migrated to.
+	 */
+	static int getLatestVersion() {
+		return MIGRATIONS[MIGRATIONS.length - 1].getVersion();
+	}
+
+	/**
+	 * Apply all migrations which haven't been applied yet.
+	 *
+	 * @return The number of migrations applied.
+	 */
+	int migrate() throws SQLException, IOException {
+		log.entry("migrate()");
+		int current = getVersion();
+		if (current > getLatestVersion()) {
+			log.warn("The database has schema version " + current
+					+ ", which is newer than this version of simple rowLog ("
+					+ getLatestVersion() + ").");
+		}
+		ArrayList<Migration> pending = new ArrayList<Migration>();
+		for (Migration m : MIGRATIONS) {
+			if (m.getVersion() > current) {
+				pending.add(m);
+			}
+		}
+		boolean autoCommit = con.getAutoCommit();
+		try {
+			con.setAutoCommit(false);
+			for (int i = 0; i < pending.size(); i++) {
+				final Migration m = pending.get(i);
+				final long done = i * STEPS;
+				final long total = pending.size() * STEPS;
+				listener.progressUpdate(m.getDescription(), done, total);
+				long start = System.currentTimeMillis();
+				boolean committed = false;
+				try {
+					// Report the migration's own progress as part of the
+					// total.
+					m.apply(con, new ProgressListener() {
+						public void progressUpdate(String task, long d, long t) {
+							listener.progressUpdate(m.getDescription(), done
+									+ (t > 0 ? d * STEPS / t : 0), total);
+						}
+					});
+					long millis = System.currentTimeMillis() - start;
+					PreparedStatement ps = con
+							.prepareStatement("INSERT INTO schema_version"
+									+ " (version, description, applied, millis)"
+									+ " VALUES (?, ?, ?, ?)");
+					ps.setInt(1, m.getVersion());
+					ps.setString(2, m.getDescription());
+					ps.setTimestamp(3, new Timestamp(start));
+					ps.setLong(4, millis);
+					ps.execute();
+					ps.close();
+					con.commit();
+					committed = true;
+					log.info("Migrated to schema version " + m.getVersion()
+							+ " (" + m.getDescription() + ") in " + millis
+							+ " ms.");
+				} finally {
+					if (!committed) {
+						log.error("Migration to schema version "
+								+ m.getVersion() + " failed.");
+						con.rollback();
+					}
+				}
+			}
+			listener.progressUpdate("", 1, 1);
+		} finally {
+			con.setAutoCommit(autoCommit);
+		}
+		log.exit("migrate()");
+		return pending.size();
+	}
+
+	/**
+	 * Get the current version of the schema, creating the version table if
+	 * necessary.
+	 */
+	private int getVersion() throws SQLException, IOException {
+		Statement s = con.createStatement();
+		try {
+			s.execute(Util.loadScript("setupSchemaVersion"));
+		} catch (SQLException e) {
+			if (!ALREADY_EXISTS.equals(e.getSQLState())) {
+				throw e;
+			}
+		}
+		ResultSet rs = s.executeQuery("SELECT MAX(version) FROM schema_version");
+		int version = rs.next() ? rs.getInt(1) : 0;
+		rs.close();
+		s.close();
+		return version;
+	}
+
+	/**
+	 * Create the index by day and time out of a year's outings, unless it
+	 * exists already.
+	 *
+	 * @param con
+	 *            The connection.
+	 * @param year
+	 *            The year of the table.
+	 */
+	static void createOutingsIndex(Connection con, int year)
+			throws SQLException, IOException {
+		Statement s = con.createStatement();
+		try {
+			s.execute(MessageFormat.format(Util.loadScript("createOutingsIndex"),
+					Integer.toString(year)));
+		} catch (SQLException e) {
+			if (!ALREADY_EXISTS.equals(e.getSQLState())) {
+				throw e;
+			}
+			log.dbe(DebugLevel.L6_VERBOSE, e);
+		} finally {
+			s.close();
+		}
+	}
+
+	/**
+	 * Get the years which have an outings table.
+	 */
+	private static ArrayList<Integer> getOutingYears(Connection con)
+			throws SQLException {
+		ArrayList<Integer> years = new ArrayList<Integer>();
+		Statement s = con.createStatement();
+		ResultSet rs = s.executeQuery("SELECT tablename FROM sys.systables"
+				+ " WHERE tablename LIKE 'OUTINGS\\_%' ESCAPE '\\'");
+		while (rs.next()) {
+			try {
+				years.add(Integer.parseInt(rs.getString(1).substring(
+						"OUTINGS_".length())));
+			} catch (NumberFormatException e) {
+				// Not an outings table.
+			}
+		}
+		rs.close();
+		s.close();
+		return years;
+	}
+}
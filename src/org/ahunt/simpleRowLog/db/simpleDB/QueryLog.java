@@ -0,0 +1,452 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Failed statements, e.g. lock timeouts, are logged too, and
+ *				the rows fetched by slow queries are counted.
+ *	19/10/2026:	Uses the typed configuration getters.
+ *	19/10/2026:	Only statements are timed; the log file is opened once and
+ *				closed on shutdown.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+import org.ahunt.simpleRowLog.conf.Configuration;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Logs slow statements. The connection returned by
+ * {@link #wrap(Connection)} times every execution of its statements, and
+ * writes those taking longer than <code>slow_query.threshold</code>
+ * milliseconds (set in simpleDB.conf) to a rolling log, together with the
+ * bound parameters and the number of rows changed or fetched. Statements
+ * which fail are logged with their SQLState, so that e.g. waiting for a lock
+ * until derby gives up (40XL1) shows up. Only the execution is timed, not
+ * fetching the rows of a query; the rows are only counted for the slow
+ * queries, whose entry is written once their results have been read or
+ * closed, so that reading the others isn't slowed down. The log is off
+ * unless a threshold is set, since the statements are wrapped by
+ * reflection.
+ * <p>
+ * If <code>slow_query.plan</code> is set the query plans of the slow
+ * statements are logged too. Rather than using
+ * <code>derby.language.logQueryPlan</code>, which writes the plan of every
+ * statement to derby.log, runtime statistics are enabled on the connection
+ * and only fetched for the offenders.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class QueryLog {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(QueryLog.class);
+
+	/** The log the slow statements are written to. */
+	private static final Logger out = Logger.getLogger(QueryLog.class
+			.getName());
+
+	/** Writes the log, shared by all connections. Null until needed. */
+	private static FileHandler handler;
+
+	/** The connection being wrapped. */
+	private final Connection con;
+
+	/** Statements taking longer than this are logged. */
+	private final long thresholdNanos;
+
+	/** Whether query plans are captured. */
+	private final boolean capturePlans;
+
+	/**
+	 * Counts executions, so that we know whether the runtime statistics still
+	 * belong to a statement.
+	 */
+	private final AtomicLong executions = new AtomicLong();
+
+	private QueryLog(Connection con, Configuration conf) throws IOException,
+			SQLException {
+		this.con = con;
+		thresholdNanos = conf.getLong("slow_query.threshold", -1) * 1000000;
+		capturePlans = conf.getBoolean("slow_query.plan", false);
+		openLog(conf);
+		if (capturePlans) {
+			Statement s = con.createStatement();
+			s.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+			s.close();
+		}
+	}
+
+	/**
+	 * Open the log file, unless it is open already.
+	 */
+	private static synchronized void openLog(Configuration conf)
+			throws IOException {
+		if (handler != null) {
+			return;
+		}
+		handler = new FileHandler(conf.getProperty("slow_query.file"), conf
+				.getInt("slow_query.file_limit", 1048576), conf.getInt(
+				"slow_query.file_count", 5), true);
+		handler.setFormatter(new SimpleFormatter());
+		out.setUseParentHandlers(false);
+		out.addHandler(handler);
+	}
+
+	/**
+	 * Close the log file, e.g. when the database is shut down. It is opened
+	 * again if a connection is wrapped later.
+	 */
+	static synchronized void close() {
+		if (handler != null) {
+			out.removeHandler(handler);
+			handler.close();
+			handler = null;
+		}
+	}
+
+	/**
+	 * Wrap a connection so that slow statements are logged. If no threshold
+	 * is set, it is negative, or the log can't be set up, the connection is
+	 * returned unchanged.
+	 *
+	 * @param con
+	 *            The connection to be wrapped.
+	 * @return The wrapped connection.
+	 */
+	static Connection wrap(Connection con) {
+		try {
+			Configuration conf = Configuration.getConf("simpleDB");
+			if (conf.getLong("slow_query.threshold", -1) < 0) {
+				return con;
+			}
+			return (Connection) Proxy.newProxyInstance(QueryLog.class
+					.getClassLoader(), new Class<?>[] { Connection.class },
+					new QueryLog(con, conf).new ConnectionHandler());
+		} catch (FileNotFoundException e) {
+			log.warn("No simpleDB configuration, slow query log disabled.");
+		} catch (Exception e) {
+			log.error("Couldn't set up the slow query log.");
+			log.errorException(e);
+		}
+		return con;
+	}
+
+	/**
+	 * Call a method, unwrapping the exception thrown by reflection.
+	 */
+	private static Object call(Object target, Method method, Object[] args)
+			throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Write a statement to the log if it was slow.
+	 */
+	private void finished(Execution e) {
+		if (e.nanos < thresholdNanos) {
+			return;
+		}
+		StringBuilder s = new StringBuilder();
+		s.append(String.format("%.1f ms", e.nanos / 1e6));
+		if (e.error != null) {
+			s.append(", failed (").append(e.error).append(")");
+		} else if (e.rows >= 0) {
+			s.append(", ").append(e.rows).append(" rows");
+		}
+		s.append(": ").append(e.sql);
+		if (!e.parameters.isEmpty()) {
+			s.append(" ").append(e.parameters);
+		}
+		if (capturePlans && e.error == null) {
+			s.append("\n").append(getPlan(e));
+		}
+		out.log(Level.WARNING, s.toString());
+	}
+
+	/**
+	 * Get the runtime statistics of an execution, if nothing else has been
+	 * executed since.
+	 */
+	private String getPlan(Execution e) {
+		if (e.sequence != executions.get()) {
+			return "(plan unavailable: other statements executed since)";
+		}
+		try {
+			Statement s = con.createStatement();
+			try {
+				ResultSet rs = s.executeQuery("VALUES "
+						+ "SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()");
+				String plan = rs.next() ? rs.getString(1) : null;
+				rs.close();
+				return plan;
+			} finally {
+				s.close();
+			}
+		} catch (SQLException ex) {
+			log.dbe(org.grlea.log.DebugLevel.L5_DEBUG, ex);
+			return "(plan unavailable: " + ex.getMessage() + ")";
+		}
+	}
+
+	/**
+	 * A single execution of a statement.
+	 */
+	private class Execution {
+
+		private final String sql;
+
+		private final String parameters;
+
+		private final long sequence = executions.incrementAndGet();
+
+		/** Time spent executing. */
+		private long nanos;
+
+		/** The number of rows changed or fetched, -1 if unknown. */
+		private long rows = -1;
+
+		/** The SQLState or exception if the execution failed, else null. */
+		private String error;
+
+		/**
+		 * Note why the execution failed.
+		 */
+		void failed(Throwable t) {
+			error = t instanceof SQLException ? ((SQLException) t)
+					.getSQLState() : t.getClass().getName();
+		}
+
+		Execution(String sql, String parameters) {
+			this.sql = sql;
+			this.parameters = parameters;
+		}
+	}
+
+	/**
+	 * Wraps statements created by the connection.
+	 */
+	private class ConnectionHandler implements InvocationHandler {
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args)
+				throws Throwable {
+			Object result = call(con, method, args);
+			String name = method.getName();
+			if (result instanceof Statement
+					&& (name.equals("createStatement")
+							|| name.equals("prepareStatement") || name
+							.equals("prepareCall"))) {
+				Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+						: result instanceof PreparedStatement ? PreparedStatement.class
+								: Statement.class;
+				String sql = args != null && args.length > 0
+						&& args[0] instanceof String ? (String) args[0] : null;
+				return Proxy.newProxyInstance(QueryLog.class.getClassLoader(),
+						new Class<?>[] { type }, new StatementHandler(
+								(Statement) result, sql));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Times the executions of a statement and collects its parameters.
+	 */
+	private class StatementHandler implements InvocationHandler {
+
+		private final Statement statement;
+
+		/** The sql of a prepared statement, null for plain statements. */
+		private final String sql;
+
+		/** The parameters currently bound. */
+		private final TreeMap<Integer, Object> parameters = new TreeMap<Integer, Object>();
+
+		/** The number of batched commands. */
+		private int batches;
+
+		/**
+		 * A slow query whose rows are being counted, logged once its results
+		 * have been read or closed. Null if there is none.
+		 */
+		private Execution pending;
+
+		StatementHandler(Statement statement, String sql) {
+			this.statement = statement;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args)
+				throws Throwable {
+			String name = method.getName();
+			if (name.startsWith("set") && args != null && args.length >= 2
+					&& args[0] instanceof Integer) {
+				parameters.put((Integer) args[0], name.equals("setNull") ? null
+						: args[1]);
+				return call(statement, method, args);
+			} else if (name.equals("clearParameters")) {
+				parameters.clear();
+			} else if (name.equals("addBatch")) {
+				batches++;
+			} else if (name.equals("clearBatch")) {
+				batches = 0;
+			} else if (name.startsWith("execute")) {
+				// Executing again closes the results of the last query.
+				finishPending();
+				return execute(method, args);
+			} else if (name.equals("getResultSet") && pending != null) {
+				ResultSet rs = (ResultSet) call(statement, method, args);
+				return rs != null ? count(rs, pending) : null;
+			} else if (name.equals("close")) {
+				finishPending();
+			}
+			return call(statement, method, args);
+		}
+
+		/**
+		 * Log the slow query whose rows were being counted, if any.
+		 */
+		private void finishPending() {
+			if (pending != null) {
+				Execution e = pending;
+				pending = null;
+				finished(e);
+			}
+		}
+
+		/**
+		 * Wrap the results of a slow query, so that its rows are counted.
+		 */
+		private ResultSet count(ResultSet rs, Execution e) {
+			e.rows = 0;
+			return (ResultSet) Proxy.newProxyInstance(QueryLog.class
+					.getClassLoader(), new Class<?>[] { ResultSet.class },
+					new ResultSetHandler(rs, e));
+		}
+
+		private Object execute(Method method, Object[] args) throws Throwable {
+			String text = args != null && args.length > 0
+					&& args[0] instanceof String ? (String) args[0] : sql;
+			if (batches > 0) {
+				text = batches + " x " + text;
+				batches = 0;
+			}
+			Execution e = new Execution(text, parameters.isEmpty() ? ""
+					: parameters.toString());
+			long start = System.nanoTime();
+			Object result;
+			try {
+				result = call(statement, method, args);
+			} catch (Throwable t) {
+				e.nanos = System.nanoTime() - start;
+				e.failed(t);
+				finished(e);
+				throw t;
+			}
+			e.nanos = System.nanoTime() - start;
+			if (e.nanos >= thresholdNanos) {
+				if (result instanceof ResultSet) {
+					pending = e;
+					return count((ResultSet) result, e);
+				} else if (Boolean.TRUE.equals(result)) {
+					// The results are fetched with getResultSet.
+					pending = e;
+					return result;
+				}
+			}
+			if (result instanceof int[]) {
+				e.rows = 0;
+				for (int i : (int[]) result) {
+					e.rows += Math.max(i, 0);
+				}
+			} else if (result instanceof Integer) {
+				e.rows = (Integer) result;
+			} else if (Boolean.FALSE.equals(result)) {
+				e.rows = statement.getUpdateCount();
+			}
+			finished(e);
+			return result;
+		}
+
+		/**
+		 * Counts the rows fetched from the results of a slow query.
+		 */
+		private class ResultSetHandler implements InvocationHandler {
+
+			private final ResultSet rs;
+
+			private final Execution execution;
+
+			ResultSetHandler(ResultSet rs, Execution execution) {
+				this.rs = rs;
+				this.execution = execution;
+			}
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+					throws Throwable {
+				String name = method.getName();
+				Object result;
+				try {
+					result = call(rs, method, args);
+				} catch (Throwable t) {
+					if (pending == execution) {
+						execution.failed(t);
+						finishPending();
+					}
+					throw t;
+				}
+				if (name.equals("next")) {
+					if (Boolean.TRUE.equals(result)) {
+						execution.rows++;
+					} else if (pending == execution) {
+						finishPending();
+					}
+				} else if (name.equals("close") && pending == execution) {
+					finishPending();
+				}
+				return result;
+			}
+		}
+	}
+}
@@ -0,0 +1,469 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Gaps in the logs are refused, backups without checksums are
+ *				reported as unverified.
+ *	19/10/2026:	The archived seasons are restored.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import org.ahunt.simpleRowLog.common.ProgressListener;
+import org.ahunt.simpleRowLog.common.RestoreReport;
+import org.grlea.log.DebugLevel;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Restores the backups made by {@link BackupManager}, without needing the
+ * logbook or its database, e.g. to rehearse recovering on a spare machine.
+ * <p>
+ * The newest full backup started before the chosen time is checked against
+ * the checksums in its manifest, and rolled forward with the archived logs
+ * written up to that time (rollForwardRecoveryFrom). Derby can only apply
+ * whole log files, so the restored database contains the changes up to the
+ * last log file finished before the chosen time, which is given in the
+ * report; changes in the log file that was being written at that time are
+ * lost. The restored tables are then checked with SYSCS_CHECK_TABLE, and their
+ * rows counted and summed up, so that they can be compared with another
+ * database. Derby only lets one program use a database, so a database to
+ * compare with must not be in use, i.e. the logbook has to be stopped first.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class Restorer {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(Restorer.class);
+
+	/** The derby driver. */
+	private static final String DRIVER = "org.apache.derby.jdbc.EmbeddedDriver";
+
+	/** The name of the database, as in the backups. */
+	private static final String DB_NAME = "srl";
+
+	/** The encoding of the values in the checksums of the rows. */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/** Stands for null in the checksum of a row. */
+	private static final byte[] NULL = { 0 };
+
+	/** The backup directory. */
+	private final File dir;
+
+	/**
+	 * Create a restorer for the backups in a directory.
+	 *
+	 * @param dir
+	 *            The backup directory, i.e. simpleDB.conf[backup.dir].
+	 */
+	public Restorer(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * Find the backup to restore for a time.
+	 *
+	 * @param target
+	 *            The time to restore.
+	 * @return The directory of the newest complete backup started at or
+	 *         before the time, null if there is none.
+	 */
+	public File findBackup(Date target) {
+		File found = null;
+		for (File backup : BackupManager.getBackups(dir)) {
+			if (!BackupManager.getTime(backup).after(target)) {
+				found = backup;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Find the archived logs needed to roll a backup forward to a time, i.e.
+	 * the consecutive log files from the one being written during the backup
+	 * onwards which were last written at or before the time.
+	 *
+	 * @param backup
+	 *            The directory of the backup.
+	 * @param target
+	 *            The time to restore.
+	 * @return The log files, in the order they were written, empty if none
+	 *         was finished before the time.
+	 * @throws IOException
+	 *             If a log written before the time is missing, so that the
+	 *             database can't be rolled forward to the time.
+	 */
+	File[] findLogs(File backup, Date target) throws IOException {
+		int first = -1;
+		File[] own = new File(backup, DB_NAME + "/log").listFiles();
+		if (own != null) {
+			for (File f : own) {
+				first = Math.max(first, getLogNumber(f));
+			}
+		}
+		File[] archived = new File(dir, BackupManager.LOGS).listFiles();
+		if (first < 0 || archived == null) {
+			return new File[0];
+		}
+		Arrays.sort(archived, new Comparator<File>() {
+			public int compare(File a, File b) {
+				return getLogNumber(a) - getLogNumber(b);
+			}
+		});
+		ArrayList<File> logs = new ArrayList<File>();
+		int next = first;
+		for (File f : archived) {
+			int number = getLogNumber(f);
+			if (number < first) {
+				continue;
+			}
+			if (f.lastModified() > target.getTime()) {
+				break;
+			}
+			// Applying the logs after a missing one would silently lose the
+			// changes in it.
+			if (number != next) {
+				throw new IOException("The archived log log" + next
+						+ ".dat is missing, the backup " + backup.getName()
+						+ " can't be rolled forward past it");
+			}
+			logs.add(f);
+			next++;
+		}
+		return logs.toArray(new File[logs.size()]);
+	}
+
+	/**
+	 * Restore the database and the configuration as they were at a time.
+	 *
+	 * @param target
+	 *            The time to restore.
+	 * @param into
+	 *            The directory to restore into. The database is placed in
+	 *            the subdirectory srl, the archived seasons in archive and
+	 *            the configuration in conf, none of which may exist yet.
+	 * @param compareWith
+	 *            The directory of a database whose tables should be the
+	 *            same as the restored ones, null to not compare. It must not
+	 *            be in use, e.g. by the logbook.
+	 * @param progress
+	 *            Receives the progress.
+	 * @return The report, listing any problems found when verifying.
+	 * @throws IOException
+	 *             If there is no backup for the time, the backup is damaged,
+	 *             a log is missing, or the files can't be copied.
+	 * @throws SQLException
+	 *             If derby couldn't restore the backup.
+	 */
+	public RestoreReport restore(Date target, File into, File compareWith,
+			ProgressListener progress) throws IOException, SQLException {
+		log.entry("restore(" + target + ", " + into + ")");
+		Date start = new Date();
+		File backup = findBackup(target);
+		if (backup == null) {
+			throw new IOException("No backup in " + dir + " from before "
+					+ target);
+		}
+		File database = new File(into, DB_NAME);
+		File conf = new File(into, BackupManager.CONF);
+		File archive = new File(into, BackupManager.ARCHIVE);
+		if (database.exists() || conf.exists() || archive.exists()) {
+			throw new IOException(database + ", " + conf + " or " + archive
+					+ " already exists");
+		}
+
+		progress.progressUpdate("Checking " + backup.getName(), 0, -1);
+		boolean checksummed = checkBackup(backup);
+
+		// Derby copies the backup but keeps the logs it finds in the
+		// database's log directory, so the archived logs are placed there.
+		File[] logs = findLogs(backup, target);
+		Date restoredTo = null;
+		String url = "jdbc:derby:" + database.getAbsolutePath();
+		String backupPath = new File(backup, DB_NAME).getAbsolutePath();
+		if (logs.length > 0) {
+			File logDir = new File(database, "log");
+			if (!logDir.mkdirs()) {
+				throw new IOException("Couldn't create " + logDir);
+			}
+			for (File f : new File(backupPath, "log").listFiles()) {
+				BackupManager.copy(f, new File(logDir, f.getName()));
+			}
+			for (File f : logs) {
+				BackupManager.copy(f, new File(logDir, f.getName()));
+			}
+			restoredTo = new Date(logs[logs.length - 1].lastModified());
+			url += ";rollForwardRecoveryFrom=" + backupPath;
+		} else {
+			url += ";restoreFrom=" + backupPath;
+		}
+		progress.progressUpdate("Restoring " + backup.getName(), 0, -1);
+		try {
+			Class.forName(DRIVER);
+		} catch (ClassNotFoundException e) {
+			throw new SQLException("No derby driver: " + e.getMessage());
+		}
+		ArrayList<String> problems = new ArrayList<String>();
+		if (!checksummed) {
+			problems.add("The backup has no checksums, its files are"
+					+ " unverified");
+		}
+		Map<String, RestoreReport.TableReport> tables;
+		Connection con;
+		try {
+			con = DriverManager.getConnection(url);
+		} catch (SQLException e) {
+			BackupManager.delete(database);
+			throw e;
+		}
+		try {
+			tables = verifyTables(con, true, progress);
+		} finally {
+			con.close();
+			shutdown(database);
+		}
+		for (RestoreReport.TableReport t : tables.values()) {
+			if (!t.isConsistent()) {
+				problems.add(t.getTable() + " is inconsistent");
+			}
+		}
+		if (compareWith != null) {
+			compare(tables, compareWith, problems, progress);
+		}
+
+		BackupManager.copyFiles(new File(backup, BackupManager.CONF), conf);
+		BackupManager.copyFiles(new File(backup, BackupManager.ARCHIVE),
+				archive);
+
+		RestoreReport report = new RestoreReport(backup, BackupManager
+				.getTime(backup), restoredTo, logs.length, start, new Date(),
+				tables.values().toArray(
+						new RestoreReport.TableReport[tables.size()]),
+				problems.toArray(new String[problems.size()]));
+		log.info("Restored " + backup + " with " + logs.length + " logs in "
+				+ report.getDuration() + " ms, "
+				+ (report.isVerified() ? "verified." : problems.size()
+						+ " problems."));
+		log.exit("restore(" + target + ", " + into + ")");
+		return report;
+	}
+
+	/**
+	 * Check the files of a backup against the checksums in its manifest.
+	 *
+	 * @return Whether the manifest had any checksums, which those written
+	 *         before the checksums were added don't.
+	 * @throws IOException
+	 *             If a file is damaged or missing.
+	 */
+	private static boolean checkBackup(File backup) throws IOException {
+		Properties manifest = new Properties();
+		InputStream in = new FileInputStream(new File(backup,
+				BackupManager.MANIFEST));
+		try {
+			manifest.load(in);
+		} finally {
+			in.close();
+		}
+		boolean checksummed = false;
+		for (String name : manifest.stringPropertyNames()) {
+			if (!name.startsWith("crc.")) {
+				continue;
+			}
+			checksummed = true;
+			String path = name.substring("crc.".length());
+			File f = new File(backup, path);
+			if (!f.isFile()) {
+				throw new IOException("The backup " + backup
+						+ " is damaged: " + path + " is missing");
+			}
+			if (BackupManager.getChecksum(f) != Long.parseLong(manifest
+					.getProperty(name))) {
+				throw new IOException("The backup " + backup
+						+ " is damaged: " + path + " has changed");
+			}
+		}
+		return checksummed;
+	}
+
+	/**
+	 * Compare the restored tables with those of another database, which must
+	 * not be in use.
+	 */
+	private static void compare(Map<String, RestoreReport.TableReport> tables,
+			File database, ArrayList<String> problems,
+			ProgressListener progress) throws SQLException {
+		Map<String, RestoreReport.TableReport> other;
+		Connection con;
+		try {
+			con = DriverManager.getConnection("jdbc:derby:"
+					+ database.getAbsolutePath() + ";create=false");
+		} catch (SQLException e) {
+			// Most likely the logbook is still running and holds the lock.
+			log.errorException(e);
+			problems.add("Couldn't open " + database + " to compare (stop"
+					+ " the logbook first): " + e.getMessage());
+			return;
+		}
+		try {
+			other = verifyTables(con, false, progress);
+		} finally {
+			con.close();
+			shutdown(database);
+		}
+		for (RestoreReport.TableReport t : tables.values()) {
+			RestoreReport.TableReport o = other.remove(t.getTable());
+			if (o == null) {
+				problems.add(t.getTable() + " doesn't exist in " + database);
+			} else if (o.getRows() != t.getRows()
+					|| o.getChecksum() != t.getChecksum()) {
+				problems.add(String.format("%s has %d rows (checksum %x),"
+						+ " %d rows (checksum %x) in %s", t.getTable(), t
+						.getRows(), t.getChecksum(), o.getRows(), o
+						.getChecksum(), database));
+			}
+		}
+		for (String table : other.keySet()) {
+			problems.add(table + " only exists in " + database);
+		}
+	}
+
+	/**
+	 * Count and sum up the rows of all tables, and optionally check their
+	 * consistency.
+	 *
+	 * @return The tables by name, ordered by name.
+	 */
+	private static Map<String, RestoreReport.TableReport> verifyTables(
+			Connection con, boolean check, ProgressListener progress)
+			throws SQLException {
+		ArrayList<String> names = new ArrayList<String>();
+		ResultSet rs = con.getMetaData().getTables(null, "APP", null,
+				new String[] { "TABLE" });
+		while (rs.next()) {
+			names.add(rs.getString("TABLE_NAME"));
+		}
+		rs.close();
+		Collections.sort(names);
+		LinkedHashMap<String, RestoreReport.TableReport> tables = new LinkedHashMap<String, RestoreReport.TableReport>();
+		PreparedStatement ps = con.prepareStatement("VALUES "
+				+ "SYSCS_UTIL.SYSCS_CHECK_TABLE('APP', ?)");
+		Statement s = con.createStatement();
+		try {
+			for (String table : names) {
+				progress.progressUpdate("Verifying " + table, tables.size(),
+						names.size());
+				boolean consistent = true;
+				if (check) {
+					try {
+						ps.setString(1, table);
+						rs = ps.executeQuery();
+						consistent = rs.next() && rs.getInt(1) == 1;
+						rs.close();
+					} catch (SQLException e) {
+						// Inconsistencies are reported as exceptions.
+						log.error("Table " + table + " is inconsistent.");
+						log.errorException(e);
+						consistent = false;
+					}
+				}
+				long rows = 0;
+				long checksum = 0;
+				CRC32 crc = new CRC32();
+				rs = s.executeQuery("SELECT * FROM \"" + table + "\"");
+				int columns = rs.getMetaData().getColumnCount();
+				while (rs.next()) {
+					crc.reset();
+					for (int i = 1; i <= columns; i++) {
+						String value = rs.getString(i);
+						crc.update(value != null ? ("\t" + value)
+								.getBytes(UTF8) : NULL);
+					}
+					// Summed, so that the order of the rows doesn't matter.
+					checksum += crc.getValue();
+					rows++;
+				}
+				rs.close();
+				if (log.wouldLog(DebugLevel.L5_DEBUG)) {
+					log.debug(table + ": " + rows + " rows, checksum "
+							+ Long.toHexString(checksum));
+				}
+				tables.put(table, new RestoreReport.TableReport(table,
+						consistent, rows, checksum));
+			}
+		} finally {
+			s.close();
+			ps.close();
+		}
+		return tables;
+	}
+
+	/**
+	 * Shut a database down, so that it can be used by others.
+	 */
+	private static void shutdown(File database) {
+		try {
+			DriverManager.getConnection("jdbc:derby:"
+					+ database.getAbsolutePath() + ";shutdown=true");
+		} catch (SQLException e) {
+			// Derby always reports a successful shutdown with an exception.
+			log.dbe(DebugLevel.L6_VERBOSE, e);
+		}
+	}
+
+	/**
+	 * Get the number of a derby log file.
+	 *
+	 * @return The number, -1 if it isn't named like a log file.
+	 */
+	static int getLogNumber(File f) {
+		String name = f.getName();
+		if (!name.matches("log\\d+\\.dat")) {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(name.substring(3, name.length() - 4));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
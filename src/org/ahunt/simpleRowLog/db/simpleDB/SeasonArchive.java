@@ -0,0 +1,848 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.OutingInfo;
+
+/**
+ * The outings of a closed season, archived from the season's table into a
+ * compact read-only file. The file is column oriented: the members, boats and
+ * texts (destinations and comments) are each stored once in a dictionary and
+ * referred to by their index, and the ids, days and times are stored as the
+ * difference to the previous outing, all as variable length numbers. A
+ * CRC-32 at the end of the file detects damage.
+ * <p>
+ * The whole season is decoded into arrays when read, so scanning it (e.g. for
+ * statistics) doesn't touch the disk or create any objects. Outings are
+ * ordered by day and time out, as in the tables. Archives are never changed,
+ * but replacing a member or boat (when one is removed) only needs a copy with
+ * a different dictionary.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class SeasonArchive {
+
+	/** Identifies archive files ("SRLA"). */
+	private static final int MAGIC = 0x53524c41;
+
+	/** The version of the file format. */
+	private static final int VERSION = 1;
+
+	/** The number of seats: rowers 1 to 8, then the cox. */
+	static final int SEATS = 9;
+
+	/** The year of the season. */
+	private final int year;
+
+	/** The number of outings. */
+	private final int size;
+
+	/** The ids of the members referred to by the crews. */
+	private final int[] members;
+
+	/** The ids of the boats referred to by the outings. */
+	private final int[] boatIds;
+
+	/** The destinations and comments referred to by the outings. */
+	private final String[] texts;
+
+	/** The ids of the outings. */
+	private final long[] ids;
+
+	/** The days of the outings, as day of the year. */
+	private final int[] days;
+
+	/** The times out. */
+	private final long[] timesOut;
+
+	/** The times in, 0 if not known. */
+	private final long[] timesIn;
+
+	/**
+	 * The crews, SEATS entries per outing: the index into members plus 1, 0
+	 * for an empty seat.
+	 */
+	private final int[] crews;
+
+	/** The boats, as index into boatIds. */
+	private final int[] boats;
+
+	/** The distances, 0 if not known. */
+	private final int[] distances;
+
+	/** The destinations, as index into texts plus 1, 0 if none. */
+	private final int[] destinations;
+
+	/** The comments, as index into texts plus 1, 0 if none. */
+	private final int[] comments;
+
+	/** The start of each day, by day of the year. */
+	private final long[] dayStarts;
+
+	private SeasonArchive(int year, int size, int[] members, int[] boatIds,
+			String[] texts, long[] ids, int[] days, long[] timesOut,
+			long[] timesIn, int[] crews, int[] boats, int[] distances,
+			int[] destinations, int[] comments) {
+		this.year = year;
+		this.size = size;
+		this.members = members;
+		this.boatIds = boatIds;
+		this.texts = texts;
+		this.ids = ids;
+		this.days = days;
+		this.timesOut = timesOut;
+		this.timesIn = timesIn;
+		this.crews = crews;
+		this.boats = boats;
+		this.distances = distances;
+		this.destinations = destinations;
+		this.comments = comments;
+		dayStarts = new long[368];
+		Calendar cal = new GregorianCalendar(year, Calendar.JANUARY, 1);
+		for (int d = 1; d < dayStarts.length; d++) {
+			dayStarts[d] = cal.getTimeInMillis();
+			cal.add(Calendar.DAY_OF_YEAR, 1);
+		}
+	}
+
+	/**
+	 * Get the year of the season.
+	 *
+	 * @return The year.
+	 */
+	int getYear() {
+		return year;
+	}
+
+	/**
+	 * Get the number of outings.
+	 *
+	 * @return The number of outings.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Get the index of the first outing on or after a day.
+	 *
+	 * @param day
+	 *            The day.
+	 * @param after
+	 *            Whether to skip the outings of the day itself, i.e. get the
+	 *            index after the last outing of the day.
+	 * @return The index, size() if there are no outings that late.
+	 */
+	int indexOf(Date day, boolean after) {
+		Calendar cal = new GregorianCalendar();
+		cal.setTime(day);
+		if (cal.get(Calendar.YEAR) < year) {
+			return 0;
+		} else if (cal.get(Calendar.YEAR) > year) {
+			return size;
+		}
+		int d = cal.get(Calendar.DAY_OF_YEAR) + (after ? 1 : 0);
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (days[mid] < d) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get the outings between two indexes, optionally only those with a
+	 * member and/or boat.
+	 *
+	 * @param from
+	 *            The index of the first outing.
+	 * @param to
+	 *            The index after the last outing.
+	 * @param member
+	 *            The id of the member, 0 for any.
+	 * @param boat
+	 *            The id of the boat, 0 for any.
+	 * @param memberMap
+	 *            All members, by id.
+	 * @param boatMap
+	 *            All boats, by id.
+	 * @param outings
+	 *            The list the outings are added to, in order.
+	 */
+	void getOutings(int from, int to, int member, int boat,
+			Map<Integer, MemberInfo> memberMap,
+			Map<Integer, BoatInfo> boatMap, List<OutingInfo> outings) {
+		boolean[] memberMatches = null;
+		if (member != 0) {
+			memberMatches = new boolean[members.length + 1];
+			for (int m = 0; m < members.length; m++) {
+				memberMatches[m + 1] = members[m] == member;
+			}
+		}
+		for (int i = from; i < to; i++) {
+			if (boat != 0 && boatIds[boats[i]] != boat) {
+				continue;
+			}
+			if (memberMatches != null) {
+				boolean found = false;
+				for (int s = i * SEATS; s < (i + 1) * SEATS && !found; s++) {
+					found = memberMatches[crews[s]];
+				}
+				if (!found) {
+					continue;
+				}
+			}
+			MemberInfo[] seats = new MemberInfo[8];
+			for (int s = 0; s < 8; s++) {
+				seats[s] = memberMap.get(getMember(i, s));
+			}
+			outings.add(new OutingInfo(ids[i], getDay(i), seats, memberMap
+					.get(getMember(i, 8)), new Date(timesOut[i]),
+					timesIn[i] != 0 ? new Date(timesIn[i]) : null,
+					getComment(i), getDestination(i), boatMap
+							.get(boatIds[boats[i]]), distances[i]));
+		}
+	}
+
+	/**
+	 * Get the number of outings and the distance of a member, counting each
+	 * outing once.
+	 *
+	 * @param member
+	 *            The id of the member.
+	 * @return The number of outings and the distance.
+	 */
+	int[] getMemberTotals(int member) {
+		boolean[] matches = new boolean[members.length + 1];
+		for (int m = 0; m < members.length; m++) {
+			matches[m + 1] = members[m] == member;
+		}
+		int[] totals = new int[2];
+		for (int i = 0; i < size; i++) {
+			for (int s = i * SEATS; s < (i + 1) * SEATS; s++) {
+				if (matches[crews[s]]) {
+					totals[0]++;
+					totals[1] += distances[i];
+					break;
+				}
+			}
+		}
+		return totals;
+	}
+
+	/**
+	 * Add the number of outings and the distance of every member to a map, as
+	 * the statistics of a year's table do: counting every seat taken.
+	 *
+	 * @param totals
+	 *            The totals by member id. Missing members are added with
+	 *            arrays of the given length.
+	 * @param offset
+	 *            Where in the arrays the number of outings is added, the
+	 *            distance is added at offset + 1.
+	 * @param length
+	 *            The length of the arrays added.
+	 */
+	void addAllMemberTotals(HashMap<Integer, int[]> totals, int offset,
+			int length) {
+		int[] outings = new int[members.length + 1];
+		int[] distance = new int[members.length + 1];
+		for (int i = 0; i < size; i++) {
+			for (int s = i * SEATS; s < (i + 1) * SEATS; s++) {
+				outings[crews[s]]++;
+				distance[crews[s]] += distances[i];
+			}
+		}
+		for (int m = 0; m < members.length; m++) {
+			if (outings[m + 1] == 0) {
+				continue;
+			}
+			int[] t = totals.get(members[m]);
+			if (t == null) {
+				t = new int[length];
+				totals.put(members[m], t);
+			}
+			t[offset] += outings[m + 1];
+			t[offset + 1] += distance[m + 1];
+		}
+	}
+
+	/**
+	 * Get the id of an outing.
+	 */
+	long getId(int i) {
+		return ids[i];
+	}
+
+	/**
+	 * Get the day of an outing.
+	 */
+	Date getDay(int i) {
+		return new java.sql.Date(dayStarts[days[i]]);
+	}
+
+	/**
+	 * Get the time out of an outing.
+	 */
+	long getTimeOut(int i) {
+		return timesOut[i];
+	}
+
+	/**
+	 * Get the time in of an outing, 0 if not known.
+	 */
+	long getTimeIn(int i) {
+		return timesIn[i];
+	}
+
+	/**
+	 * Get the id of the member in a seat of an outing.
+	 *
+	 * @param seat
+	 *            0 to 7 for the rowers, 8 for the cox.
+	 * @return The id, 0 if the seat is empty.
+	 */
+	int getMember(int i, int seat) {
+		int m = crews[i * SEATS + seat];
+		return m != 0 ? members[m - 1] : 0;
+	}
+
+	/**
+	 * Get the id of the boat of an outing.
+	 */
+	int getBoat(int i) {
+		return boatIds[boats[i]];
+	}
+
+	/**
+	 * Get the distance of an outing, 0 if not known.
+	 */
+	int getDistance(int i) {
+		return distances[i];
+	}
+
+	/**
+	 * Get the destination of an outing, null if none.
+	 */
+	String getDestination(int i) {
+		return destinations[i] != 0 ? texts[destinations[i] - 1] : null;
+	}
+
+	/**
+	 * Get the comment of an outing, null if none.
+	 */
+	String getComment(int i) {
+		return comments[i] != 0 ? texts[comments[i] - 1] : null;
+	}
+
+	/**
+	 * Get a copy of the archive in which a member has been replaced by
+	 * another.
+	 *
+	 * @return The copy, or this archive if the member took no part.
+	 */
+	SeasonArchive replaceMember(int member, int replacement) {
+		int[] replaced = replace(members, member, replacement);
+		return replaced == members ? this : new SeasonArchive(year, size,
+				replaced, boatIds, texts, ids, days, timesOut, timesIn, crews,
+				boats, distances, destinations, comments);
+	}
+
+	/**
+	 * Get a copy of the archive in which a boat has been replaced by another.
+	 *
+	 * @return The copy, or this archive if the boat wasn't used.
+	 */
+	SeasonArchive replaceBoat(int boat, int replacement) {
+		int[] replaced = replace(boatIds, boat, replacement);
+		return replaced == boatIds ? this : new SeasonArchive(year, size,
+				members, replaced, texts, ids, days, timesOut, timesIn, crews,
+				boats, distances, destinations, comments);
+	}
+
+	/**
+	 * Replace an id in a dictionary.
+	 *
+	 * @return A changed copy, or the dictionary if it doesn't contain the id.
+	 */
+	private static int[] replace(int[] dictionary, int id, int replacement) {
+		int[] replaced = dictionary;
+		for (int i = 0; i < dictionary.length; i++) {
+			if (dictionary[i] == id) {
+				if (replaced == dictionary) {
+					replaced = dictionary.clone();
+				}
+				replaced[i] = replacement;
+			}
+		}
+		return replaced;
+	}
+
+	/**
+	 * Write the archive to a file. The file is only replaced once it has been
+	 * written completely.
+	 *
+	 * @param file
+	 *            The file.
+	 */
+	void write(File file) throws IOException {
+		File tmp = new File(file.getPath() + ".tmp");
+		CRC32 crc = new CRC32();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new CheckedOutputStream(new FileOutputStream(tmp), crc)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(year);
+			out.writeInt(size);
+			out.writeInt(members.length);
+			for (int m : members) {
+				out.writeInt(m);
+			}
+			out.writeInt(boatIds.length);
+			for (int b : boatIds) {
+				out.writeInt(b);
+			}
+			out.writeInt(texts.length);
+			for (String t : texts) {
+				out.writeUTF(t);
+			}
+
+			Column c = new Column();
+			long last = 0;
+			for (int i = 0; i < size; i++) {
+				c.writeSigned(ids[i] - last);
+				last = ids[i];
+			}
+			c.finish(out);
+			int lastDay = 0;
+			for (int i = 0; i < size; i++) {
+				c.writeNumber(days[i] - lastDay);
+				lastDay = days[i];
+			}
+			c.finish(out);
+			last = 0;
+			for (int i = 0; i < size; i++) {
+				c.writeSigned(timesOut[i] - last);
+				last = timesOut[i];
+			}
+			c.finish(out);
+			// Relative to the time out, 0 if not known.
+			for (int i = 0; i < size; i++) {
+				c.writeNumber(timesIn[i] != 0 ? zigZag(timesIn[i]
+						- timesOut[i]) + 1 : 0);
+			}
+			c.finish(out);
+			for (int s : crews) {
+				c.writeNumber(s);
+			}
+			c.finish(out);
+			for (int b : boats) {
+				c.writeNumber(b);
+			}
+			c.finish(out);
+			for (int d : distances) {
+				c.writeSigned(d);
+			}
+			c.finish(out);
+			for (int d : destinations) {
+				c.writeNumber(d);
+			}
+			c.finish(out);
+			for (int d : comments) {
+				c.writeNumber(d);
+			}
+			c.finish(out);
+			out.flush();
+			out.writeLong(crc.getValue());
+		} finally {
+			out.close();
+		}
+		if (!tmp.renameTo(file)) {
+			// Windows can't rename onto an existing file.
+			if (!file.delete() || !tmp.renameTo(file)) {
+				throw new IOException("Couldn't rename " + tmp + " to " + file);
+			}
+		}
+	}
+
+	/**
+	 * Read an archive.
+	 *
+	 * @param file
+	 *            The file.
+	 * @return The archive.
+	 * @throws IOException
+	 *             If the file can't be read or is damaged.
+	 */
+	static SeasonArchive read(File file) throws IOException {
+		byte[] data = new byte[(int) file.length()];
+		DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			in.readFully(data);
+		} finally {
+			in.close();
+		}
+		if (data.length < 24) {
+			throw new IOException(file + " is damaged");
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length - 8);
+		in = new DataInputStream(new ByteArrayInputStream(data));
+		in.skipBytes(data.length - 8);
+		if (in.readLong() != crc.getValue()) {
+			throw new IOException(file + " is damaged");
+		}
+
+		in = new DataInputStream(new ByteArrayInputStream(data, 0,
+				data.length - 8));
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException(file + " isn't an archive of this version");
+		}
+		int year = in.readInt();
+		int size = in.readInt();
+		int[] members = new int[in.readInt()];
+		for (int i = 0; i < members.length; i++) {
+			members[i] = in.readInt();
+		}
+		int[] boatIds = new int[in.readInt()];
+		for (int i = 0; i < boatIds.length; i++) {
+			boatIds[i] = in.readInt();
+		}
+		String[] texts = new String[in.readInt()];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = in.readUTF();
+		}
+
+		Reader r = new Reader(in);
+		long[] ids = new long[size];
+		long last = 0;
+		for (int i = 0; i < size; i++) {
+			ids[i] = last += r.readSigned();
+		}
+		r = new Reader(in);
+		int[] days = new int[size];
+		int lastDay = 0;
+		for (int i = 0; i < size; i++) {
+			days[i] = lastDay += (int) r.read();
+		}
+		r = new Reader(in);
+		long[] timesOut = new long[size];
+		last = 0;
+		for (int i = 0; i < size; i++) {
+			timesOut[i] = last += r.readSigned();
+		}
+		r = new Reader(in);
+		long[] timesIn = new long[size];
+		for (int i = 0; i < size; i++) {
+			long v = r.read();
+			timesIn[i] = v != 0 ? timesOut[i] + unZigZag(v - 1) : 0;
+		}
+		r = new Reader(in);
+		int[] crews = new int[size * SEATS];
+		for (int i = 0; i < crews.length; i++) {
+			crews[i] = (int) r.read();
+		}
+		r = new Reader(in);
+		int[] boats = new int[size];
+		for (int i = 0; i < size; i++) {
+			boats[i] = (int) r.read();
+		}
+		r = new Reader(in);
+		int[] distances = new int[size];
+		for (int i = 0; i < size; i++) {
+			distances[i] = (int) r.readSigned();
+		}
+		r = new Reader(in);
+		int[] destinations = new int[size];
+		for (int i = 0; i < size; i++) {
+			destinations[i] = (int) r.read();
+		}
+		r = new Reader(in);
+		int[] comments = new int[size];
+		for (int i = 0; i < size; i++) {
+			comments[i] = (int) r.read();
+		}
+		return new SeasonArchive(year, size, members, boatIds, texts, ids,
+				days, timesOut, timesIn, crews, boats, distances,
+				destinations, comments);
+	}
+
+	private static long zigZag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+
+	private static long unZigZag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	/**
+	 * Collects the outings of a season, which may be added in any order.
+	 */
+	static class Builder {
+
+		private final int year;
+
+		private final LinkedHashMap<Integer, Integer> members = new LinkedHashMap<Integer, Integer>();
+
+		private final LinkedHashMap<Integer, Integer> boats = new LinkedHashMap<Integer, Integer>();
+
+		private final LinkedHashMap<String, Integer> texts = new LinkedHashMap<String, Integer>();
+
+		private final ArrayList<Row> rows = new ArrayList<Row>();
+
+		/**
+		 * Start collecting a season.
+		 *
+		 * @param year
+		 *            The year of the season.
+		 */
+		Builder(int year) {
+			this.year = year;
+		}
+
+		/**
+		 * Add an outing.
+		 *
+		 * @param id
+		 *            The id.
+		 * @param day
+		 *            The day, which must be in the year of the season.
+		 * @param crew
+		 *            The ids of the rowers 1 to 8 and the cox, 0 for empty
+		 *            seats.
+		 * @param timeOut
+		 *            The time out.
+		 * @param timeIn
+		 *            The time in, 0 if not known.
+		 * @param comment
+		 *            The comment, or null.
+		 * @param destination
+		 *            The destination, or null.
+		 * @param boat
+		 *            The id of the boat.
+		 * @param distance
+		 *            The distance, 0 if not known.
+		 */
+		void add(long id, Date day, int[] crew, long timeOut, long timeIn,
+				String comment, String destination, int boat, int distance) {
+			Calendar cal = new GregorianCalendar();
+			cal.setTime(day);
+			if (cal.get(Calendar.YEAR) != year) {
+				throw new IllegalArgumentException("The outing " + id
+						+ " isn't in " + year);
+			}
+			Row row = new Row();
+			row.id = id;
+			row.day = cal.get(Calendar.DAY_OF_YEAR);
+			row.crew = new int[SEATS];
+			for (int s = 0; s < SEATS && s < crew.length; s++) {
+				row.crew[s] = crew[s] != 0 ? index(members, crew[s]) + 1 : 0;
+			}
+			row.timeOut = timeOut;
+			row.timeIn = timeIn;
+			row.comment = comment != null ? index(texts, comment) + 1 : 0;
+			row.destination = destination != null ? index(texts,
+					destination) + 1 : 0;
+			row.boat = index(boats, boat);
+			row.distance = distance;
+			rows.add(row);
+		}
+
+		private static <K> int index(Map<K, Integer> dictionary, K key) {
+			Integer i = dictionary.get(key);
+			if (i == null) {
+				i = dictionary.size();
+				dictionary.put(key, i);
+			}
+			return i;
+		}
+
+		/**
+		 * Get the archive of the outings added.
+		 *
+		 * @return The archive.
+		 */
+		SeasonArchive build() {
+			Collections.sort(rows);
+			int size = rows.size();
+			long[] ids = new long[size];
+			int[] days = new int[size];
+			long[] timesOut = new long[size];
+			long[] timesIn = new long[size];
+			int[] crews = new int[size * SEATS];
+			int[] boatIndexes = new int[size];
+			int[] distances = new int[size];
+			int[] destinations = new int[size];
+			int[] comments = new int[size];
+			for (int i = 0; i < size; i++) {
+				Row row = rows.get(i);
+				ids[i] = row.id;
+				days[i] = row.day;
+				timesOut[i] = row.timeOut;
+				timesIn[i] = row.timeIn;
+				System.arraycopy(row.crew, 0, crews, i * SEATS, SEATS);
+				boatIndexes[i] = row.boat;
+				distances[i] = row.distance;
+				destinations[i] = row.destination;
+				comments[i] = row.comment;
+			}
+			return new SeasonArchive(year, size, toArray(members),
+					toArray(boats), texts.keySet().toArray(
+							new String[texts.size()]), ids, days, timesOut,
+					timesIn, crews, boatIndexes, distances, destinations,
+					comments);
+		}
+
+		private static int[] toArray(Map<Integer, Integer> dictionary) {
+			int[] a = new int[dictionary.size()];
+			int i = 0;
+			for (int key : dictionary.keySet()) {
+				a[i++] = key;
+			}
+			return a;
+		}
+	}
+
+	/**
+	 * An outing being collected, ordered by day and time out.
+	 */
+	private static class Row implements Comparable<Row> {
+
+		private long id;
+
+		private int day;
+
+		private int[] crew;
+
+		private long timeOut;
+
+		private long timeIn;
+
+		private int comment;
+
+		private int destination;
+
+		private int boat;
+
+		private int distance;
+
+		public int compareTo(Row o) {
+			if (day != o.day) {
+				return day < o.day ? -1 : 1;
+			}
+			return timeOut < o.timeOut ? -1 : (timeOut > o.timeOut ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Encodes a column as variable length numbers: 7 bits per byte, the high
+	 * bit set on all but the last byte.
+	 */
+	private static class Column extends ByteArrayOutputStream {
+
+		void writeNumber(long v) {
+			while ((v & ~0x7fL) != 0) {
+				write((int) (v & 0x7f) | 0x80);
+				v >>>= 7;
+			}
+			write((int) v);
+		}
+
+		void writeSigned(long v) {
+			writeNumber(zigZag(v));
+		}
+
+		/**
+		 * Write the column with its length, and start the next one.
+		 */
+		void finish(DataOutputStream out) throws IOException {
+			out.writeInt(size());
+			super.writeTo(out);
+			reset();
+		}
+	}
+
+	/**
+	 * Decodes a column written by {@link Column}.
+	 */
+	private static class Reader {
+
+		private final byte[] data;
+
+		private int pos;
+
+		Reader(DataInputStream in) throws IOException {
+			data = new byte[in.readInt()];
+			in.readFully(data);
+		}
+
+		long read() throws IOException {
+			long v = 0;
+			int shift = 0;
+			while (true) {
+				if (pos == data.length) {
+					throw new IOException("Column ends early");
+				}
+				byte b = data[pos++];
+				v |= (long) (b & 0x7f) << shift;
+				if (b >= 0) {
+					return v;
+				}
+				shift += 7;
+			}
+		}
+
+		long readSigned() throws IOException {
+			return unZigZag(read());
+		}
+	}
+}
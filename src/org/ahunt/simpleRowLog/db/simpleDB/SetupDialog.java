@@ -17,6 +17,8 @@
  *
  *
  *	Changelog:
+ *	19/10/2026: Can be used for any database; only a simpleDB database is
+ *				deleted when cancelled.
  *	21/01/2011: Created.
  */
 package org.ahunt.simpleRowLog.db.simpleDB;
@@ -45,7 +47,8 @@ import org.ahunt.simpleRowLog.common.InvalidDataException;
 /**
  * This is the dialog shown to the user when setting up the database, asking for
  * default data. Currently this is only the name and password for the default
- * admin.
+ * admin. Used by any database which is set up without an admin; if
+ * cancelled, a simpleDB database is deleted again.
  * 
  * @author Andrzej J.R. Hunt
  * 
@@ -56,7 +59,8 @@ public class SetupDialog extends JDialog {
 	private ResourceBundle locAdmin = ResourceBundle.getBundle("admin");
 	private ResourceBundle locCommon = ResourceBundle.getBundle("common");
 
-	public SetupDialog(final Database db) {
+	public SetupDialog(
+			final org.ahunt.simpleRowLog.interfaces.Database db) {
 		super();
 		this.setModal(true);
 		this.setTitle(loc.getString("setup.dialog_title"));
@@ -138,7 +142,9 @@ public class SetupDialog extends JDialog {
 			@Override
 			public void actionPerformed(ActionEvent e) {
 				setVisible(false);
-				db.delete();
+				if (db instanceof Database) {
+					((Database) db).delete();
+				}
 				System.exit(0);
 			}
 		});
@@ -175,7 +181,9 @@ public class SetupDialog extends JDialog {
 		this.setModal(true);
 		this.addWindowListener(new WindowAdapter() {
 			public void windowClosing(WindowEvent e) {
-				db.delete();
+				if (db instanceof Database) {
+					((Database) db).delete();
+				}
 				System.exit(0);
 			}
 		});
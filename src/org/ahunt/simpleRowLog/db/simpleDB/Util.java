@@ -1,6 +1,6 @@
 /*
  *    This file is part of simple rowLog: the open rowing logbook.
- *    Copyright (C) 2009  Andrzej JR Hunt
+ *    Copyright (C) 2009, 2026  Andrzej JR Hunt
  *    
  *    simple rowLog is free software: you can redistribute it and/or modify
  *    it under the terms of the GNU General Public License as published by
@@ -17,40 +17,97 @@
  *
  *
  *	Changelog:
+ *	19/10/2026:	Scripts are loaded once, from the classpath.
  *	23/08/2009:	Changelog added.
  */
 package org.ahunt.simpleRowLog.db.simpleDB;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.grlea.log.SimpleLogger;
 
 /**
  * @author Andrzej Hunt
  *
  */
 public class Util {
-	
+
+	private static final SimpleLogger log = new SimpleLogger(Util.class);
+
 	private static String scriptLocation = "scripts/simpleDB/";
 
+	/** The names of all scripts. */
+	private static final String[] SCRIPTS = { "createOutings",
+			"createOutingsIndex", "setupAdmins", "setupAdminsPermissions",
+			"setupAdminsTrigger1", "setupAdminsTrigger2", "setupBoats",
+			"setupGroups", "setupGroupTrigger1", "setupGroupTrigger2",
+			"setupMembers", "setupSchemaVersion" };
+
+	/** The scripts, by name, without comments. */
+	private static final Map<String, String> scripts;
+
+	static {
+		HashMap<String, String> loaded = new HashMap<String, String>();
+		for (String name : SCRIPTS) {
+			try {
+				loaded.put(name, readScript(name));
+			} catch (IOException e) {
+				log.error("Couldn't load script " + name + ".");
+				log.errorException(e);
+			}
+		}
+		scripts = Collections.unmodifiableMap(loaded);
+	}
+
 	/**
-	 *  Load the specified sql script for running on the database.
-	 * @param name The name of the script. The filename to be loaded is
-	 * constructed from this by prepending location and appending the suffix.
+	 *  Get the specified sql script for running on the database. The
+	 *  scripts are read once, from the classpath (i.e. the jar), or if they
+	 *  aren't there from the scripts directory.
+	 * @param name The name of the script, i.e. the filename without location
+	 * and suffix.
 	 * @return The script.
+	 * @throws IOException If there is no such script, or it couldn't be read.
 	 */
-	
 	public static String loadScript(String name) throws IOException {
+		String script = scripts.get(name);
+		if (script == null) {
+			throw new FileNotFoundException("No script " + name);
+		}
+		return script;
+	}
+
+	/**
+	 * Read a script, leaving out commented lines.
+	 */
+	private static String readScript(String name) throws IOException {
 		String location = scriptLocation + name + ".sql";
-		BufferedReader in = new BufferedReader(new FileReader(location));
-		String line;
-		StringBuffer buff = new StringBuffer();
-		while ((line = in.readLine()) != null) {
-			// Only append if not a commented line.
-			if ((line.length() > 0) && !line.substring(0,1).equals("#")) {
-				buff.append(line + " ");
+		InputStream stream = Util.class.getClassLoader().getResourceAsStream(
+				location);
+		if (stream == null) {
+			stream = new FileInputStream(location);
+		}
+		BufferedReader in = new BufferedReader(new InputStreamReader(stream,
+				"UTF-8"));
+		try {
+			String line;
+			StringBuilder buff = new StringBuilder();
+			while ((line = in.readLine()) != null) {
+				// Only append if not a commented line.
+				if (line.length() > 0 && line.charAt(0) != '#') {
+					buff.append(line).append(' ');
+				}
 			}
+			return buff.toString();
+		} finally {
+			in.close();
 		}
-		return buff.toString();
 	}
 }
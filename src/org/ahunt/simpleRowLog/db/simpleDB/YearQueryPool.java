@@ -0,0 +1,218 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	The workers' statements are written to the slow query log.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.grlea.log.DebugLevel;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Runs queries on several year tables at once. Each query runs on a thread of
+ * a bounded pool, using a connection of its own (a derby connection can only
+ * run one statement at a time), so a query over several seasons takes about
+ * as long as one over the slowest season.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class YearQueryPool {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(
+			YearQueryPool.class);
+
+	/**
+	 * A query on one connection.
+	 *
+	 * @param <T>
+	 *            The result of the query.
+	 */
+	interface YearQuery<T> {
+
+		/**
+		 * Run the query.
+		 *
+		 * @param worker
+		 *            The connection to use.
+		 * @return The result.
+		 */
+		T run(Worker worker) throws SQLException;
+	}
+
+	/**
+	 * A connection used by the pool, with its prepared statements.
+	 */
+	static class Worker {
+
+		private final Connection con;
+
+		private final HashMap<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+
+		private Worker(Connection con) {
+			this.con = con;
+		}
+
+		/**
+		 * Get a prepared statement, preparing it on first use.
+		 *
+		 * @param sql
+		 *            The sql of the statement.
+		 * @return The statement.
+		 */
+		PreparedStatement prepare(String sql) throws SQLException {
+			PreparedStatement ps = statements.get(sql);
+			if (ps == null) {
+				ps = con.prepareStatement(sql);
+				statements.put(sql, ps);
+			}
+			return ps;
+		}
+
+		private void close() {
+			try {
+				con.close();
+			} catch (SQLException e) {
+				log.dbe(DebugLevel.L6_VERBOSE, e);
+			}
+		}
+	}
+
+	/** The url used for the connections. */
+	private final String connectionURL;
+
+	/** The threads running the queries. */
+	private final ExecutorService executor;
+
+	/** Connections which aren't in use. */
+	private final ConcurrentLinkedQueue<Worker> idle = new ConcurrentLinkedQueue<Worker>();
+
+	/** The number of threads. */
+	private final int threads;
+
+	/**
+	 * Create a pool.
+	 *
+	 * @param connectionURL
+	 *            The url used to open the connections.
+	 * @param threads
+	 *            The maximum number of queries run at once.
+	 */
+	YearQueryPool(String connectionURL, int threads) {
+		this.connectionURL = connectionURL;
+		this.threads = threads;
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int count;
+
+			public synchronized Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "simple rowLog query " + ++count);
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Get the maximum number of queries run at once.
+	 *
+	 * @return The number of threads.
+	 */
+	int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Run queries, waiting for all of them to finish.
+	 *
+	 * @param queries
+	 *            The queries.
+	 * @return The results, in the same order as the queries.
+	 * @throws SQLException
+	 *             If any of the queries failed.
+	 */
+	<T> List<T> runAll(List<YearQuery<T>> queries) throws SQLException {
+		ArrayList<Future<T>> futures = new ArrayList<Future<T>>();
+		for (final YearQuery<T> q : queries) {
+			futures.add(executor.submit(new Callable<T>() {
+				public T call() throws SQLException {
+					Worker w = idle.poll();
+					if (w == null) {
+						w = new Worker(QueryLog.wrap(DriverManager
+								.getConnection(connectionURL)));
+					}
+					try {
+						return q.run(w);
+					} finally {
+						idle.add(w);
+					}
+				}
+			}));
+		}
+		ArrayList<T> results = new ArrayList<T>();
+		try {
+			for (Future<T> f : futures) {
+				results.add(f.get());
+			}
+		} catch (InterruptedException e) {
+			for (Future<T> f : futures) {
+				f.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while querying.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new SQLException(e.getCause().toString());
+		}
+		return results;
+	}
+
+	/**
+	 * Stop the threads and close the connections.
+	 */
+	void close() {
+		executor.shutdownNow();
+		Worker w;
+		while ((w = idle.poll()) != null) {
+			w.close();
+		}
+	}
+}
@@ -17,6 +17,7 @@
  *
  *
  *	Changelog
+ *  19/10/2026: Names are formatted by NameFormatter.
  *  27/04/2010: Changed the nameentry listener to also listen to mouse events
  *  			since FocusListener only deals with Keyboard events.
  *	06/03/2010: Renamed from MemberDialog to AddMemberDialog since only the
@@ -56,6 +57,7 @@ import javax.swing.event.DocumentListener;
 
 import org.ahunt.simpleRowLog.common.InvalidDataException;
 import org.ahunt.simpleRowLog.common.ErrorHandler;
+import org.ahunt.simpleRowLog.common.NameFormatter;
 import org.ahunt.simpleRowLog.common.Util;
 import org.ahunt.simpleRowLog.conf.Configuration;
 import org.ahunt.simpleRowLog.interfaces.Database;
@@ -266,14 +268,9 @@ public class AddMemberDialog extends JDialog {
 											loc
 													.getString("addMember.memberAlreadyExists"),
 											"<i>"
-													+ MessageFormat
-															.format(
-																	conf
-																			.getProperty("srl.name_format"),
-																	surnameEntry
-																			.getText(),
-																	forenameEntry
-																			.getText())
+													+ NameFormatter.getInstance().format(
+															surnameEntry.getText(),
+															forenameEntry.getText())
 													+ "</i>",
 											"<i>"
 													+ new SimpleDateFormat(
@@ -17,6 +17,7 @@
  *
  *
  *	Changelog:
+ *  19/10/2026: Uses the typed configuration getters.
  *  28/06/2010: Did major work on implementing.
  *  11/03/2010: Created,
  */
@@ -207,11 +208,18 @@ public class AdminAuthenticationDialog extends JDialog {
 		}
 	}
 
+	/**
+	 * Get how long logins are refused once no attempts are left, in ms.
+	 */
+	private static int getTimeout() {
+		return conf.getInt("timeout", 300000);
+	}
+
 	/**
 	 * Reset the number of attempts left to the maximum number.
 	 */
 	private static void resetAttempts() {
-		attemptsLeft = Integer.parseInt(conf.getProperty("max_login_attempts"));
+		attemptsLeft = conf.getInt("max_login_attempts", 3);
 	}
 
 	/**
@@ -230,8 +238,7 @@ public class AdminAuthenticationDialog extends JDialog {
 		if (attemptsLeft == 0 && timeout != null && timeout.isRunning()) {
 			// Tell the user
 			JOptionPane.showMessageDialog(null, MessageFormat.format(rb
-					.getString("admin.timeout"), Integer.parseInt(conf
-					.getProperty("timeout")) / 1000), rb
+					.getString("admin.timeout"), getTimeout() / 1000), rb
 					.getString("admin.timeout.title"),
 					JOptionPane.WARNING_MESSAGE);
 			return null;
@@ -249,8 +256,7 @@ public class AdminAuthenticationDialog extends JDialog {
 		@Override
 		public void actionPerformed(ActionEvent arg0) {
 			if (arg0.getSource() == cancelButton) {
-				timeout = new Timer(Integer.parseInt(conf
-						.getProperty("timeout")), null);
+				timeout = new Timer(getTimeout(), null);
 				timeout.setRepeats(false);
 				timeout.start();
 
@@ -274,13 +280,12 @@ public class AdminAuthenticationDialog extends JDialog {
 			passwordEntry.setText("");
 			if (attemptsLeft == 0) {
 				setVisible(false);
-				timeout = new Timer(Integer.parseInt(conf
-						.getProperty("timeout")), null);
+				timeout = new Timer(getTimeout(), null);
 				timeout.setRepeats(false);
 				// Tell the user
 				JOptionPane.showMessageDialog(null, MessageFormat.format(rb
-						.getString("admin.no_attempts_left"), Integer
-						.parseInt(conf.getProperty("timeout")) / 1000), rb
+						.getString("admin.no_attempts_left"),
+						getTimeout() / 1000), rb
 						.getString("admin.no_attempts_left.title"),
 						JOptionPane.WARNING_MESSAGE);
 				// Then count the time.
@@ -17,6 +17,7 @@
  *
  *
  *	Changelog:
+ *	19/10/2026: The date format follows changes of the configuration.
  *	08/03/2010: Created.
  */
 
@@ -34,6 +35,7 @@ import javax.swing.GroupLayout;
 import javax.swing.JButton;
 import javax.swing.JPanel;
 import javax.swing.LayoutStyle;
+import javax.swing.SwingUtilities;
 import javax.swing.JSpinner.DateEditor;
 import javax.swing.border.LineBorder;
 import javax.swing.event.ChangeEvent;
@@ -41,6 +43,7 @@ import javax.swing.event.ChangeListener;
 
 import org.ahunt.simpleRowLog.common.ErrorHandler;
 import org.ahunt.simpleRowLog.conf.Configuration;
+import org.ahunt.simpleRowLog.conf.ConfigurationListener;
 
 import com.toedter.calendar.JSpinnerDateEditor;
 
@@ -95,6 +98,19 @@ public class DaySelectionPanel extends JPanel implements ActionListener {
 		l.setVerticalGroup(l.createSequentialGroup().addComponent(dateChooser)
 				.addComponent(todayButton));
 		dateChooser.setDateFormatString(conf.getProperty("srl.date_format"));
+		conf.addListener(new ConfigurationListener() {
+			public void propertyChanged(Configuration c, String key,
+					String value) {
+				if (key == null || key.equals("srl.date_format")) {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							dateChooser.setDateFormatString(conf
+									.getProperty("srl.date_format"));
+						}
+					});
+				}
+			}
+		});
 		updateLocalisation();
 		LineBorder b = new LineBorder(Color.BLACK);
 		setBorder(b);
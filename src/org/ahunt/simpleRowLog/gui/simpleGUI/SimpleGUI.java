@@ -17,6 +17,11 @@
  *
  *
  *	Changelog:
+ *	19/10/2026:	Uses the typed configuration getters.
+ *	19/10/2026:	The time format follows changes of the configuration.
+ *	19/10/2026:	The about and add member dialogs are created when first used.
+ *	19/10/2026:	The crews are drawn by CrewRenderer instead of as html, and
+ *				the formatted rows are kept until the outings change.
  *	23/08/2009:	Changelog added.
  */
 
@@ -37,7 +42,6 @@ import java.awt.event.WindowListener;
 import java.io.FileNotFoundException;
 import java.text.SimpleDateFormat;
 import java.util.ResourceBundle;
-import java.util.Date;
 
 import javax.swing.GroupLayout;
 import javax.swing.JButton;
@@ -52,6 +56,7 @@ import javax.swing.KeyStroke;
 import javax.swing.LayoutStyle;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.WindowConstants;
 import javax.swing.GroupLayout.Alignment;
 import javax.swing.event.ChangeEvent;
@@ -61,11 +66,14 @@ import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 
 import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.CrewRenderer;
 import org.ahunt.simpleRowLog.common.ErrorHandler;
 import org.ahunt.simpleRowLog.common.GroupInfo;
 import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.NameFormatter;
 import org.ahunt.simpleRowLog.common.OutingInfo;
 import org.ahunt.simpleRowLog.conf.Configuration;
+import org.ahunt.simpleRowLog.conf.ConfigurationListener;
 import org.ahunt.simpleRowLog.admin.AdminDialog;
 import org.ahunt.simpleRowLog.admin.AdminInfo;
 import org.ahunt.simpleRowLog.interfaces.Database;
@@ -84,6 +92,9 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 
 	private Configuration conf;
 
+	// The format of the times in the outing table, from the configuration.
+	private SimpleDateFormat timeFormat;
+
 	// File Menu
 	private JMenu menuFile = new JMenu();
 
@@ -120,7 +131,8 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 	private JLabel windowFooter = new JLabel();
 
 	private OutingDialog outingDialog;
-	private AboutDialog aboutDialog = new AboutDialog();
+	// Created when first used, to start faster.
+	private AboutDialog aboutDialog;
 	private AddMemberDialog addMemberDialog;
 
 	// The database
@@ -146,8 +158,19 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 		setupMenus();
 		updateLanguages();
 		reloadConfig();
+		conf.addListener(new ConfigurationListener() {
+			public void propertyChanged(Configuration c, String key,
+					String value) {
+				if (key == null || key.equals("time_format_outings")) {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							reloadTimeFormat();
+						}
+					});
+				}
+			}
+		});
 		outingDialog = new OutingDialog(db);
-		addMemberDialog = new AddMemberDialog(db);
 
 		newOutingButton.addActionListener(new ButtonListener());
 		editOutingButton.addActionListener(new ButtonListener());
@@ -177,6 +200,7 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 		TableColumn col = outingTable.getColumnModel().getColumn(vColIndex);
 		int width = 200;
 		col.setPreferredWidth(width);
+		col.setCellRenderer(new CrewRenderer());
 		outingTable.getColumnModel().getColumn(0).setPreferredWidth(50);
 
 		outingTablePane = new JScrollPane(outingTable);
@@ -249,9 +273,22 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 	 * 
 	 */
 	private void reloadConfig() {
-		if (conf.getProperty("fullscreen").equals("true")) {
+		if (conf.getBoolean("fullscreen", false)) {
 			setFullScreen(true);
 		}
+		reloadTimeFormat();
+	}
+
+	/**
+	 * Compile the time format of the outing table, and show the outings with
+	 * it.
+	 */
+	private void reloadTimeFormat() {
+		timeFormat = new SimpleDateFormat(conf
+				.getProperty("time_format_outings"));
+		if (outingTableManager != null) {
+			outingTableManager.fireTableDataChanged();
+		}
 	}
 
 	/**
@@ -372,6 +409,12 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 		 */
 		private OutingInfo[] outings;
 
+		/** The formatted values of the rows, null where not yet needed. */
+		private Row[] rows;
+
+		/** The NameFormatter generation the rows were formatted in. */
+		private int nameGeneration;
+
 		private String columnNamePrepend = "<html><font size=+1>";
 		private String columnNameAppend = "</font></html>";
 		private String[] columnNames = { rb.getString("outing.boat"),
@@ -385,6 +428,28 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 			updateOutings();
 		}
 
+		/**
+		 * The formatted values of an outing shown in the table.
+		 */
+		private class Row {
+
+			private final String boat;
+
+			private final String[] crew;
+
+			private final String out;
+
+			private final String in;
+
+			private Row(OutingInfo outing) {
+				boat = outing.getBoat().getName();
+				crew = CrewRenderer.getNames(outing);
+				out = timeFormat.format(outing.getOut());
+				in = outing.getIn() != null ? timeFormat
+						.format(outing.getIn()) : null;
+			}
+		}
+
 		public int getColumnCount() {
 			return 7;
 		}
@@ -417,51 +482,19 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 		}
 
 		public Object getValueAt(int row, int col) {
+			Row r = getRow(row);
 			if (col == 0) {
-				return outings[row].getBoat().getName();
-				// if (row == 0) {return "Anna";} else {return "Bob";}
+				return r.boat;
 			} else if (col == 1) {
-				// Build the table showing rower names.
-				StringBuffer buff = new StringBuffer();
-				// TODO: check whether alignment is correct.
-				buff.append("<html><table align=top>");
-				MemberInfo[] rowers = outings[row].getRowers();
-				// Go through four rows.
-				for (short i = 0; i < 4; i++) {
-					// Get rower 1 - 4 if existant.
-					if (i < rowers.length && rowers[i] != null) {
-						buff.append("<tr><td>");
-						buff.append(rowers[i].getName());
-						buff.append("</td>");
-						// Get rower 5-8 if existant. (1 and 5 in same row.)
-						if (i < rowers.length + 4 && rowers[i + 4] != null) {
-							buff.append("<td>");
-							buff.append(rowers[i + 4].getName());
-							buff.append("</td>");
-						}
-						buff.append("</tr>");
-					}
-				}
-				if (outings[row].getCox() != null) {
-					buff.append("<tr><td><i>" + outings[row].getCox().getName()
-							+ "</i></td</tr");
-				}
-				buff.append("</table></html>");
-				return buff.toString();
+				return r.crew;
 			} else if (col == 2) { // Time out
-				SimpleDateFormat df = new SimpleDateFormat(conf
-						.getProperty("time_format_outings"));
-				return df.format(outings[row].getOut());
+				return r.out;
 			} else if (col == 3) { // Time in
-				if (outings[row].getIn() != null) {
-					SimpleDateFormat df = new SimpleDateFormat(conf
-							.getProperty("time_format_outings"));
-					return df.format(outings[row].getIn());
-				}
+				return r.in;
 			} else if (col == 4) {
-				return outings[row].getDestination();
-			} else if (col == 5) {
 				return outings[row].getComment();
+			} else if (col == 5) {
+				return outings[row].getDestination();
 			} else if (col == 6) {
 				// TODO: get Distance units.
 				int d = outings[row].getDistance();
@@ -476,6 +509,32 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 			return null;
 		}
 
+		/**
+		 * Get the formatted values of a row, formatting them if they haven't
+		 * been yet. They are kept until the outings are reloaded, the
+		 * configuration changes or the name format changes.
+		 */
+		private Row getRow(int row) {
+			int generation = NameFormatter.getInstance().getGeneration();
+			if (nameGeneration != generation) {
+				rows = new Row[outings.length];
+				nameGeneration = generation;
+			}
+			if (rows[row] == null) {
+				rows[row] = new Row(outings[row]);
+			}
+			return rows[row];
+		}
+
+		/**
+		 * {@inheritDoc} Also discards the formatted rows.
+		 */
+		@Override
+		public void fireTableDataChanged() {
+			rows = new Row[outings.length];
+			super.fireTableDataChanged();
+		}
+
 		/**
 		 * Updates the displayed outings using the database.
 		 * 
@@ -529,11 +588,17 @@ public class SimpleGUI extends JFrame implements ChangeListener {
 		@Override
 		public void actionPerformed(ActionEvent arg0) {
 			if (arg0.getSource() == menuHelpAbout) {
+				if (aboutDialog == null) {
+					aboutDialog = new AboutDialog();
+				}
 				aboutDialog.setVisible(true);
 			} else if (arg0.getSource() == menuFileNewMember) {
+				if (addMemberDialog == null) {
+					addMemberDialog = new AddMemberDialog(db);
+				}
 				int i = addMemberDialog.addMember();
 			} else if (arg0.getSource() == menuFileExit) {
-				if (conf.getProperty("authenticate_for_exit").equals("true")) {
+				if (conf.getBoolean("authenticate_for_exit", true)) {
 					AdminInfo ai = AdminAuthenticationDialog.doLogin(db);
 					if (ai != null
 							&& (ai.isRoot() || ai.getPermissionList()
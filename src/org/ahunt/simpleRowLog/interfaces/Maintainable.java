@@ -0,0 +1,54 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.interfaces;
+
+import org.ahunt.simpleRowLog.common.DatabaseError;
+import org.ahunt.simpleRowLog.common.MaintenanceReport;
+
+/**
+ * Implemented by databases whose storage needs regular maintenance (e.g.
+ * reclaiming the space of deleted rows). The maintenance normally runs by
+ * itself while the logbook isn't used; this allows the admin interface to show
+ * the results and to run it on demand.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public interface Maintainable {
+
+	/**
+	 * Get the reports of the last runs of the maintenance.
+	 *
+	 * @return The reports, newest first. Empty if maintenance hasn't run
+	 *         since the database was opened.
+	 */
+	public MaintenanceReport[] getMaintenanceReports();
+
+	/**
+	 * Run the maintenance now, even if the logbook is being used.
+	 *
+	 * @return The report of the run.
+	 * @throws DatabaseError
+	 *             If there is a problem accessing the database.
+	 */
+	public MaintenanceReport runMaintenance() throws DatabaseError;
+}
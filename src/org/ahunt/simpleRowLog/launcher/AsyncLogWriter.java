@@ -0,0 +1,224 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Whole lines are queued, so that parts of messages aren't
+ *				dropped.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.launcher;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.grlea.log.SimpleLog;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Writes the log on a background thread, so that logging doesn't wait for the
+ * disk. Text is collected until a line ends or the writer is flushed, and
+ * only then queued, so that a record in the queue is one or more whole lines.
+ * The queue is bounded: if the writer can't keep up, records are dropped and
+ * a note of how many were lost is written to the log instead.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class AsyncLogWriter extends Writer implements Runnable {
+
+	private static final SimpleLogger log = new SimpleLogger(
+			AsyncLogWriter.class);
+
+	/** The writer doing the actual writing. */
+	private final Writer out;
+
+	/** The records waiting to be written. */
+	private final BlockingQueue<String> queue;
+
+	/** The text of the line being written, not yet queued. */
+	private final StringBuilder line = new StringBuilder();
+
+	/** Records which didn't fit in the queue. */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/** Set once closed. */
+	private volatile boolean closed;
+
+	/** The thread doing the writing. */
+	private final Thread thread;
+
+	/**
+	 * Create the writer and start its thread.
+	 *
+	 * @param out
+	 *            The writer to write to.
+	 * @param capacity
+	 *            The maximum number of records waiting.
+	 */
+	public AsyncLogWriter(Writer out, int capacity) {
+		this.out = out;
+		queue = new ArrayBlockingQueue<String>(capacity);
+		thread = new Thread(this, "simple rowLog log writer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Make the default SimpleLog write through an AsyncLogWriter. The queue is
+	 * flushed when the VM exits.
+	 *
+	 * @param capacity
+	 *            The maximum number of records waiting.
+	 */
+	public static void install(int capacity) {
+		SimpleLog simpleLog = SimpleLog.defaultInstance();
+		PrintWriter current = simpleLog.getWriter();
+		if (current == null) {
+			return;
+		}
+		final AsyncLogWriter writer = new AsyncLogWriter(current, capacity);
+		try {
+			simpleLog.setWriter(new PrintWriter(writer, true));
+		} catch (IllegalStateException e) {
+			// E.g. if the log is being rolled over by simple-log itself.
+			log.info("Asynchronous logging unavailable, logging directly.");
+			writer.closed = true;
+			return;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			public void run() {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					// Nowhere left to report this.
+				}
+			}
+		});
+		log.info("Asynchronous logging installed.");
+	}
+
+	/**
+	 * Get the number of records dropped because the queue was full.
+	 *
+	 * @return The number of dropped records.
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * {@inheritDoc} The complete lines written so far are queued.
+	 */
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		if (closed || len == 0) {
+			return;
+		}
+		synchronized (lock) {
+			int end = off + len;
+			while (end > off && cbuf[end - 1] != '\n') {
+				end--;
+			}
+			if (end == off) { // No line ends here.
+				line.append(cbuf, off, len);
+				return;
+			}
+			line.append(cbuf, off, end - off);
+			enqueue();
+			line.append(cbuf, end, off + len - end);
+		}
+	}
+
+	/**
+	 * {@inheritDoc} The text written so far is handed to the background
+	 * thread, which flushes after emptying the queue.
+	 */
+	@Override
+	public void flush() {
+		synchronized (lock) {
+			if (!closed && line.length() > 0) {
+				enqueue();
+			}
+		}
+	}
+
+	/**
+	 * Queue the collected text as one record and start the next.
+	 */
+	private void enqueue() {
+		if (!queue.offer(line.toString())) {
+			dropped.incrementAndGet();
+		}
+		line.setLength(0);
+	}
+
+	/**
+	 * Write everything still queued and close the underlying writer.
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		closed = true;
+		thread.interrupt();
+		try {
+			thread.join(5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		out.close();
+	}
+
+	/**
+	 * Write the queue until closed.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (!closed || !queue.isEmpty()) {
+				String s;
+				try {
+					s = queue.poll(1, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					s = queue.poll();
+				}
+				if (s == null) {
+					continue;
+				}
+				out.write(s);
+				// Write as much as possible before flushing.
+				while ((s = queue.poll()) != null) {
+					out.write(s);
+				}
+				long lost = dropped.getAndSet(0);
+				if (lost > 0) {
+					out.write("[" + lost + " log records dropped]\n");
+				}
+				out.flush();
+			}
+		} catch (IOException e) {
+			// Can't log the failure of the log, so give up quietly.
+			closed = true;
+		}
+	}
+
+}
@@ -0,0 +1,565 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	restore --compare needs the logbook to be stopped.
+ *	19/10/2026:	import takes several files, translating the ids between
+ *				them; stats updates the optimiser's statistics.
+ *	19/10/2026:	Added archive.
+ *	19/10/2026:	Added restore.
+ *	19/10/2026:	backup without a directory makes a full backup into the
+ *				backup directory.
+ *	19/10/2026:	generate can create whole seasons; benchmark can generate
+ *				its data.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.launcher;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.ahunt.simpleRowLog.common.DatabaseError;
+import org.ahunt.simpleRowLog.common.MaintenanceReport;
+import org.ahunt.simpleRowLog.common.ProgressListener;
+import org.ahunt.simpleRowLog.common.RestoreReport;
+import org.ahunt.simpleRowLog.conf.Configuration;
+import org.ahunt.simpleRowLog.db.simpleDB.Database;
+import org.ahunt.simpleRowLog.db.simpleDB.Exporter;
+import org.ahunt.simpleRowLog.db.simpleDB.Restorer;
+import org.ahunt.simpleRowLog.tools.DataGenerator;
+import org.ahunt.simpleRowLog.tools.Importer;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Runs batch operations on the database without starting the gui, e.g. for
+ * cron jobs or scripts. Exits with 0 on success, 1 if the operation failed and
+ * 2 if the command line is invalid.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class CommandLine {
+
+	private static final SimpleLogger log = new SimpleLogger(
+			CommandLine.class);
+
+	/** Exit code: success. */
+	public static final int EXIT_OK = 0;
+
+	/** Exit code: the operation failed. */
+	public static final int EXIT_FAILED = 1;
+
+	/** Exit code: invalid command line. */
+	public static final int EXIT_USAGE = 2;
+
+	/** The available commands. */
+	private static final String[] COMMANDS = { "export", "import", "stats",
+			"backup", "restore", "check", "archive", "generate",
+			"benchmark" };
+
+	/** The command. */
+	private String command;
+
+	/** Arguments which aren't options. */
+	private ArrayList<String> arguments = new ArrayList<String>();
+
+	/** Options, i.e. "--name value", stored without the leading dashes. */
+	private HashMap<String, String> options = new HashMap<String, String>();
+
+	/**
+	 * Check whether a command line argument is a command.
+	 *
+	 * @param arg
+	 *            The argument.
+	 * @return Whether it is one of the known commands.
+	 */
+	public static boolean isCommand(String arg) {
+		for (String c : COMMANDS) {
+			if (c.equals(arg)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Parse the command line.
+	 *
+	 * @param args
+	 *            The command line, starting with the command.
+	 * @throws IllegalArgumentException
+	 *             If an option has no value.
+	 */
+	CommandLine(String[] args) {
+		command = args[0];
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].startsWith("--")) {
+				if (i + 1 == args.length) {
+					throw new IllegalArgumentException("Missing value for "
+							+ args[i]);
+				}
+				options.put(args[i].substring(2), args[++i]);
+			} else {
+				arguments.add(args[i]);
+			}
+		}
+	}
+
+	/**
+	 * Run a command, and exit with the appropriate exit code.
+	 *
+	 * @param args
+	 *            The command line, starting with the command.
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int result;
+		try {
+			result = new CommandLine(args).run();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			printUsage();
+			result = EXIT_USAGE;
+		}
+		System.exit(result);
+	}
+
+	/**
+	 * Run the command.
+	 *
+	 * @return The exit code.
+	 * @throws IllegalArgumentException
+	 *             If the command line is invalid.
+	 */
+	int run() {
+		log.entry("run(" + command + ")");
+		// Check the arguments before starting the database.
+		if (command.equals("export")) {
+			requireArguments(2);
+		} else if (command.equals("import")) {
+			if (arguments.isEmpty()) {
+				requireArguments(1);
+			}
+		} else if (command.equals("restore") || command.equals("archive")) {
+			requireArguments(1);
+		} else if (command.equals("backup")) {
+			if (arguments.size() > 1) {
+				requireArguments(1);
+			}
+		} else {
+			requireArguments(0);
+		}
+		try {
+			Launch.installAsyncLog(Configuration.getConf("main"));
+		} catch (FileNotFoundException e) {
+			log.warn("No main configuration found.");
+		}
+		// Restoring doesn't need (or create) the logbook's database.
+		if (command.equals("restore")) {
+			int result = restore();
+			log.exit("run(" + command + ")");
+			return result;
+		}
+		Database.setHeadless(true);
+		Database db = Database.getInstance();
+		int result = EXIT_OK;
+		try {
+			if (command.equals("export")) {
+				export(db);
+			} else if (command.equals("import")) {
+				// One importer, so that outings use the ids of the members
+				// and boats imported before them.
+				Importer importer = new Importer(db);
+				for (String file : arguments) {
+					int rows = importer.importFile(new File(file),
+							new ConsoleProgress());
+					System.out.println(file + ": imported " + rows
+							+ " rows, skipped " + importer.getSkipped() + ".");
+				}
+			} else if (command.equals("stats")) {
+				stats(db);
+			} else if (command.equals("backup")) {
+				if (arguments.isEmpty()) {
+					System.out.println("Backed up to " + db.runBackup());
+				} else {
+					db.backup(new File(arguments.get(0)));
+					System.out.println("Backed up to " + arguments.get(0));
+				}
+			} else if (command.equals("check")) {
+				String[] problems = db.checkTables();
+				for (String p : problems) {
+					System.out.println("Inconsistent: " + p);
+				}
+				if (problems.length > 0) {
+					result = EXIT_FAILED;
+				} else {
+					System.out.println("All tables are consistent.");
+				}
+			} else if (command.equals("archive")) {
+				int year = (int) parseLong("the year", arguments.get(0));
+				try {
+					System.out.println("Archived " + db.archiveSeason(year)
+							+ " outings of " + year + ".");
+				} catch (IllegalArgumentException e) {
+					System.err.println(e.getMessage());
+					result = EXIT_FAILED;
+				}
+			} else if (command.equals("generate")) {
+				long outings;
+				if (options.containsKey("first-year")
+						|| options.containsKey("last-year")) {
+					outings = generateSeasons(db);
+				} else {
+					outings = new DataGenerator(db, getLong("seed", 1))
+							.generate((int) getLong("members", 100),
+									(int) getLong("boats", 20), (int) getLong(
+											"per-day", 10), getDate("from",
+											yearStart()), getDate("to",
+											new Date()), new ConsoleProgress());
+				}
+				System.out.println("Generated " + outings + " outings.");
+			} else if (command.equals("benchmark")) {
+				if (options.containsKey("seed")) {
+					if (db.countOutings().isEmpty()) {
+						System.out.println("Generated " + generateSeasons(db)
+								+ " outings (seed " + getLong("seed", 1)
+								+ ").");
+					} else {
+						System.err.println("The database isn't empty, "
+								+ "benchmarking the existing outings.");
+					}
+				}
+				benchmark(db);
+			}
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			log.errorException(e);
+			result = EXIT_FAILED;
+		} catch (DatabaseError e) {
+			System.err.println(e.getMessage());
+			log.errorException(e);
+			result = EXIT_FAILED;
+		} finally {
+			db.shutdown();
+		}
+		log.exit("run(" + command + ")");
+		return result;
+	}
+
+	/**
+	 * Export outings, members or boats.
+	 */
+	private void export(Database db) throws IOException, DatabaseError {
+		String what = arguments.get(0);
+		Exporter.Format format;
+		try {
+			format = Exporter.Format.valueOf(getOption("format", "csv")
+					.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown format: "
+					+ getOption("format", null));
+		}
+		File file = new File(arguments.get(1));
+		Exporter exporter = new Exporter(db);
+		long rows;
+		if (what.equals("outings")) {
+			rows = exporter.exportOutings(getDate("from", yearStart()),
+					getDate("to", new Date()), format, file,
+					new ConsoleProgress());
+		} else if (what.equals("members") || what.equals("boats")) {
+			Writer out = Exporter.openFile(file);
+			try {
+				rows = what.equals("members") ? exporter.exportMembers(format,
+						out) : exporter.exportBoats(format, out);
+			} finally {
+				out.close();
+			}
+		} else {
+			throw new IllegalArgumentException("Can't export " + what);
+		}
+		System.out.println("Exported " + rows + " rows to " + file);
+	}
+
+	/**
+	 * Restore a backup into the directory given, and verify it. A database
+	 * given with --compare can only be opened while the logbook isn't
+	 * running, derby allowing only one program to use it.
+	 *
+	 * @return The exit code, failure if the restored database has problems.
+	 */
+	private int restore() {
+		Date target = getTime("to", new Date());
+		String backups = getOption("backups", null);
+		if (backups == null) {
+			try {
+				backups = Configuration.getConf("simpleDB").getProperty(
+						"backup.dir");
+			} catch (FileNotFoundException e) {
+				log.warn("No simpleDB configuration found.");
+			}
+			if (backups == null || backups.trim().length() == 0) {
+				backups = "backups";
+			}
+		}
+		String compare = getOption("compare", null);
+		RestoreReport report;
+		try {
+			report = new Restorer(new File(backups.trim())).restore(target,
+					new File(arguments.get(0)), compare != null ? new File(
+							compare) : null, new ConsoleProgress());
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			log.errorException(e);
+			return EXIT_FAILED;
+		} catch (SQLException e) {
+			System.err.println(e.getMessage());
+			log.errorException(e);
+			return EXIT_FAILED;
+		}
+		System.out.println(String.format("Restored %s (started %tF %<tT)"
+				+ " with %d logs%s.", report.getBackup().getName(), report
+				.getBackupTime(), report.getLogs(),
+				report.getRestoredTo() != null ? String.format(
+						", up to %tF %<tT", report.getRestoredTo()) : ""));
+		for (RestoreReport.TableReport t : report.getTables()) {
+			System.out.println(String.format("  %-24s %10d rows  %16x%s", t
+					.getTable(), t.getRows(), t.getChecksum(), t
+					.isConsistent() ? "" : "  INCONSISTENT"));
+		}
+		for (String p : report.getProblems()) {
+			System.out.println("Problem: " + p);
+		}
+		System.out.println("Took " + report.getDuration() + " ms.");
+		return report.isVerified() ? EXIT_OK : EXIT_FAILED;
+	}
+
+	/**
+	 * Update the statistics used by derby's optimiser, and print some
+	 * statistics about the database.
+	 */
+	private void stats(Database db) throws DatabaseError {
+		MaintenanceReport report = db.updateStatistics();
+		for (MaintenanceReport.TableReport t : report.getTables()) {
+			if (t.isPlanChanged()) {
+				System.out.println("New plan for " + t.getTable() + ": "
+						+ t.getPlanAfter());
+			}
+		}
+		System.out.println("Updated the statistics of "
+				+ report.getTables().length + " tables.");
+		System.out.println("Members: " + db.getMembers().length);
+		System.out.println("Groups:  " + db.getGroups().length);
+		System.out.println("Boats:   " + db.getBoats().length);
+		int[] archived = db.getArchivedYears();
+		for (Map.Entry<Integer, Integer> e : db.countOutings().entrySet()) {
+			boolean isArchived = Arrays.binarySearch(archived, e.getKey()) >= 0;
+			System.out.println("Outings " + e.getKey() + ": " + e.getValue()
+					+ (isArchived ? " (archived)" : ""));
+		}
+	}
+
+	/**
+	 * Generate the standard club for the seed, size and seasons set by the
+	 * options, as used for benchmarks.
+	 *
+	 * @return The number of outings generated.
+	 */
+	private long generateSeasons(Database db) throws DatabaseError {
+		int year = new GregorianCalendar().get(Calendar.YEAR);
+		int first = (int) getLong("first-year", year - 2);
+		int last = (int) getLong("last-year", year);
+		if (first > last) {
+			throw new IllegalArgumentException("--first-year is after "
+					+ "--last-year");
+		}
+		return new DataGenerator(db, getLong("seed", 1)).generateSeasons(
+				(int) getLong("members", 200), first, last,
+				new ConsoleProgress());
+	}
+
+	/**
+	 * Time getting the outings of several years, querying the years one after
+	 * the other and then at the same time.
+	 */
+	private void benchmark(Database db) throws DatabaseError {
+		SortedMap<Integer, Integer> years = db.countOutings();
+		Date from = getDate("from", years.isEmpty() ? yearStart()
+				: new GregorianCalendar(years.firstKey(), Calendar.JANUARY, 1)
+						.getTime());
+		Date to = getDate("to", new Date());
+		int runs = (int) getLong("runs", 5);
+		int threads = (int) getLong("threads", Runtime.getRuntime()
+				.availableProcessors());
+		if (runs < 1 || threads < 1) {
+			throw new IllegalArgumentException("--runs and --threads must be"
+					+ " at least 1");
+		}
+		System.out.println(String.format(
+				"Outings from %tF to %tF, best of %d runs:", from, to, runs));
+		long sequential = timeOutings(db, from, to, runs, 1);
+		long parallel = timeOutings(db, from, to, runs, threads);
+		System.out.println(String.format("  sequential:     %8.1f ms",
+				sequential / 1e6));
+		System.out.println(String.format("  %2d threads:     %8.1f ms",
+				threads, parallel / 1e6));
+		System.out.println(String.format("  speed-up:       %8.2f",
+				(double) sequential / parallel));
+	}
+
+	/**
+	 * Get the best time taken to get the outings between two days.
+	 */
+	private static long timeOutings(Database db, Date from, Date to,
+			int runs, int threads) throws DatabaseError {
+		db.setQueryThreads(threads);
+		// The first run prepares the statements and fills the caches.
+		int outings = db.getOutings(from, to).length;
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+			db.getOutings(from, to);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		log.info("Got " + outings + " outings with " + threads + " threads.");
+		return best;
+	}
+
+	private void requireArguments(int count) {
+		if (arguments.size() != count) {
+			throw new IllegalArgumentException("Wrong number of arguments for "
+					+ command);
+		}
+	}
+
+	private String getOption(String name, String def) {
+		String value = options.get(name);
+		return value != null ? value : def;
+	}
+
+	private long getLong(String name, long def) {
+		String value = options.get(name);
+		return value != null ? parseLong("--" + name, value) : def;
+	}
+
+	private static long parseLong(String name, String value) {
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number for " + name
+					+ ": " + value);
+		}
+	}
+
+	private Date getDate(String name, Date def) {
+		String value = options.get(name);
+		if (value == null) {
+			return def;
+		}
+		try {
+			return Importer.parseDay(value);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException("Invalid date for --" + name
+					+ " (use yyyy-MM-dd): " + value);
+		}
+	}
+
+	private Date getTime(String name, Date def) {
+		String value = options.get(name);
+		if (value == null) {
+			return def;
+		}
+		for (String pattern : new String[] { "yyyy-MM-dd HH:mm:ss",
+				"yyyy-MM-dd HH:mm", "yyyy-MM-dd" }) {
+			SimpleDateFormat format = new SimpleDateFormat(pattern);
+			format.setLenient(false);
+			try {
+				return format.parse(value);
+			} catch (ParseException e) {
+				// Try the next pattern.
+			}
+		}
+		throw new IllegalArgumentException("Invalid time for --" + name
+				+ " (use yyyy-MM-dd HH:mm[:ss]): " + value);
+	}
+
+	/**
+	 * Get the first day of the current year.
+	 */
+	private static Date yearStart() {
+		return new GregorianCalendar(new GregorianCalendar()
+				.get(Calendar.YEAR), Calendar.JANUARY, 1).getTime();
+	}
+
+	/**
+	 * Print the usage of the command line mode.
+	 */
+	static void printUsage() {
+		System.out.println("Usage: simplerowlog [DATADIRECTORY] COMMAND ...\n"
+				+ "Commands:\n"
+				+ "  export outings|members|boats FILE [--format csv|json]"
+				+ " [--from yyyy-MM-dd] [--to yyyy-MM-dd]\n"
+				+ "  import FILE... (boats and members before outings)\n"
+				+ "  stats\n" + "  backup [DIRECTORY]\n"
+				+ "  restore DIRECTORY [--to 'yyyy-MM-dd HH:mm[:ss]']"
+				+ " [--backups DIRECTORY] [--compare DATABASE]"
+				+ " (compare with the logbook stopped)\n"
+				+ "  check\n"
+				+ "  archive YEAR\n"
+				+ "  generate [--seed N] [--members N] [--boats N]"
+				+ " [--per-day N] [--from yyyy-MM-dd] [--to yyyy-MM-dd]\n"
+				+ "  generate [--seed N] [--members N] --first-year YYYY"
+				+ " [--last-year YYYY]\n"
+				+ "  benchmark [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--runs N]"
+				+ " [--threads N]\n"
+				+ "            [--seed N [--members N] [--first-year YYYY]"
+				+ " [--last-year YYYY]]\n"
+				+ "Exit codes: 0 success, 1 failure, 2 invalid command line.");
+	}
+
+	/**
+	 * Prints progress to stderr, so that stdout can still be used by
+	 * scripts.
+	 */
+	private static class ConsoleProgress implements ProgressListener {
+
+		private long lastPrinted;
+
+		public void progressUpdate(String task, long done, long total) {
+			long now = System.currentTimeMillis();
+			if (now - lastPrinted < 1000 && done != total) {
+				return;
+			}
+			lastPrinted = now;
+			System.err.println(task + ": " + done
+					+ (total >= 0 ? "/" + total : ""));
+		}
+	}
+}
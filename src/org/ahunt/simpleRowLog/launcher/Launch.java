@@ -17,6 +17,17 @@
  *
  *
  *	Changelog:
+ *  19/10/2026: Uses the typed configuration getters.
+ *  19/10/2026: The configuration files are watched; the look and feel can be
+ *  			changed while running.
+ *  19/10/2026: The database warm-up is shown on the splash screen.
+ *  19/10/2026: The database starts while swing is set up; startup times are
+ *  			logged.
+ *  19/10/2026: Added the logDB backend.
+ *  19/10/2026: The database backend can be chosen in main.conf.
+ *  19/10/2026: Schema migrations are shown on the splash screen.
+ *  19/10/2026: Added the command line mode, database instrumentation,
+ *  			asynchronous logging.
  *  24/01/2010: Added splash info, other changes.
  *	23/08/2009:	Changelog added.
  */
@@ -28,13 +39,25 @@ import java.io.FileNotFoundException;
 
 import java.text.MessageFormat;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import java.awt.Window;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 
 import org.ahunt.simpleRowLog.Info;
+import org.ahunt.simpleRowLog.common.ProgressListener;
 import org.ahunt.simpleRowLog.conf.Configuration;
+import org.ahunt.simpleRowLog.conf.ConfigurationListener;
 import org.ahunt.simpleRowLog.db.simpleDB.Database;
+import org.ahunt.simpleRowLog.db.simpleDB.SetupDialog;
 import org.ahunt.simpleRowLog.gui.simpleGUI.SimpleGUI;
+import org.ahunt.simpleRowLog.metrics.InstrumentedDatabase;
 import org.grlea.log.SimpleLogger;
 
 /**
@@ -47,11 +70,17 @@ public class Launch {
 
 	private static final SimpleLogger log = new SimpleLogger(Launch.class);
 
+	/**
+	 * The resource bundles the gui needs, loaded while the database starts.
+	 */
+	private static final String[] PRELOADED_BUNDLES = { "gui", "common" };
+
 	/**
 	 * Start the simple rowLog program.
 	 * 
 	 * @param args
-	 *            The commandline arguments. Currently args[0] is dir.
+	 *            The commandline arguments. Currently args[0] is dir,
+	 *            optionally followed by a command to run without the gui.
 	 */
 	public static void main(String[] args) {
 		log.entry("main");
@@ -60,12 +89,21 @@ public class Launch {
 		String in;
 		// Get the language data.
 		ResourceBundle rb = ResourceBundle.getBundle("startup");
+		// The command line mode, if a command was given.
+		String[] command = null;
 		try {
 			in = args[0];
 			if (in.equals("-h")) {
 				printUsage();
 				System.exit(0);
 			}
+			if (CommandLine.isCommand(in)) {
+				command = args;
+				in = "./";
+			} else if (args.length > 1 && CommandLine.isCommand(args[1])) {
+				command = new String[args.length - 1];
+				System.arraycopy(args, 1, command, 0, command.length);
+			}
 		} catch (Exception e) {
 			in = "./";
 		}
@@ -77,16 +115,62 @@ public class Launch {
 			log.error("Invalid data directory.");
 			System.exit(1);
 		}
+		if (command != null) {
+			CommandLine.main(command);
+		}
 		// Tell the user things are happening + copyright
 		System.out.println(rb.getString("welcome") + "\n"
 				+ rb.getString("starting") + "\n[simple rowLog "
 				+ Info.getVersion() + " (" + Info.getBuildType() + ")]\n"
 				+ Info.getCopyright(true) + "\n" + Info.getLicence());
 		// Load the configuration.
-		Configuration conf;
+		final StartupProfiler profiler = new StartupProfiler();
+		Configuration conf = null;
 		SplashManager sm = new SplashManager(10);
+		profiler.begin("configuration");
 		try {
 			conf = Configuration.getConf("main");
+			installAsyncLog(conf);
+		} catch (FileNotFoundException e) {
+			JOptionPane
+					.showMessageDialog(
+							null,
+							rb
+									.getString("Configuration not found. simple rowLog cannot start. Please ensure that you have an undamaged installation before restarting."),
+							rb.getString("Fatal error!"),
+							JOptionPane.ERROR_MESSAGE);
+			System.exit(0);
+		}
+		profiler.end("configuration");
+		// Derby takes longest to start, so it is started in the background
+		// while swing is set up. Any schema migrations take it up to 40%, the
+		// warm-up to 50%.
+		final SplashManager splash = sm;
+		Database.setStartupListener(new ProgressListener() {
+			public void progressUpdate(String task, long done, long total) {
+				if (total > 0) {
+					splash.setProgress(("warmup".equals(task) ? 40 : 30)
+							+ (int) (10 * done / total));
+				}
+			}
+		});
+		final CountDownLatch lafSet = new CountDownLatch(1);
+		FutureTask<org.ahunt.simpleRowLog.interfaces.Database> dbStartup = new FutureTask<org.ahunt.simpleRowLog.interfaces.Database>(
+				new Callable<org.ahunt.simpleRowLog.interfaces.Database>() {
+					public org.ahunt.simpleRowLog.interfaces.Database call()
+							throws Exception {
+						profiler.begin("database");
+						try {
+							return openDatabase(lafSet);
+						} finally {
+							profiler.end("database");
+						}
+					}
+				});
+		new Thread(dbStartup, "Database startup").start();
+
+		profiler.begin("look and feel");
+		try {
 			// Set Desired L&F
 			String desiredLaf = conf.getProperty("gui.toolkit");
 			javax.swing.UIManager
@@ -99,35 +183,158 @@ public class Launch {
 					.getLookAndFeel().getID()));
 			log.info(javax.swing.UIManager.getLookAndFeel().getID()
 					+ " set as toolkit.");
-		} catch (FileNotFoundException e) {
-			JOptionPane
-					.showMessageDialog(
-							null,
-							rb
-									.getString("Configuration not found. simple rowLog cannot start. Please ensure that you have an undamaged installation before restarting."),
-							rb.getString("Fatal error!"),
-							JOptionPane.ERROR_MESSAGE);
-			System.exit(0);
 		} catch (Exception e) {
 			System.out.println(rb.getString("preferred_toolkit_unavailable"));
 			log.info("Preferred toolit unavailable, default used.");
+		} finally {
+			lafSet.countDown();
 		}
+		profiler.end("look and feel");
 		sm.setProgress(30); // Splash: 30%
-		Database db = Database.getInstance();
+		profiler.begin("resource bundles");
+		for (String bundle : PRELOADED_BUNDLES) {
+			ResourceBundle.getBundle(bundle);
+		}
+		profiler.end("resource bundles");
+
+		profiler.begin("waiting for database");
+		org.ahunt.simpleRowLog.interfaces.Database db;
+		try {
+			db = dbStartup.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			// Fail as if the database had been started here.
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+		profiler.end("waiting for database");
+		if (conf.getBoolean("db.instrument", true)) {
+			db = InstrumentedDatabase.wrap(db);
+		}
 		sm.setProgress(50);
+		profiler.begin("gui");
 		SimpleGUI gui = new SimpleGUI(db);
+		profiler.end("gui");
 		sm.setProgress(70);
+		profiler.begin("show");
 		gui.setVisible(true);
-		// sm.setProgress(50);
-		//
-		// try{Thread.sleep(500);}catch(Exception e){}
-		// sm.setProgress(80);
-		// try{Thread.sleep(500);}catch(Exception e){}
-		// sm.setProgress(90);
-		// try{Thread.sleep(500);}catch(Exception e){}
-		// sm.setProgress(100);
-		// try{Thread.sleep(500);}catch(Exception e){}
+		profiler.end("show");
+		profiler.log();
+
+		// Pick up changes of the configuration while running.
+		conf.addListener(new ConfigurationListener() {
+			public void propertyChanged(Configuration c, String key,
+					String value) {
+				if (key == null || key.equals("gui.toolkit")) {
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() {
+							changeLookAndFeel();
+						}
+					});
+				}
+			}
+		});
+		int interval = conf.getInt("conf.watch_interval", 5);
+		if (interval > 0) {
+			Configuration.startWatching(interval * 1000L);
+		}
+	}
+
+	/**
+	 * Set the look and feel of main.conf[gui.toolkit] if it isn't in use, and
+	 * update all windows to use it. Must be called in the event dispatch
+	 * thread.
+	 */
+	private static void changeLookAndFeel() {
+		try {
+			String laf = Configuration.getConf("main").getProperty(
+					"gui.toolkit");
+			if (laf == null || laf.equals("")) {
+				laf = UIManager.getSystemLookAndFeelClassName();
+			}
+			if (UIManager.getLookAndFeel() != null
+					&& UIManager.getLookAndFeel().getClass().getName().equals(
+							laf)) {
+				return;
+			}
+			UIManager.setLookAndFeel(laf);
+			for (Window w : Window.getWindows()) {
+				SwingUtilities.updateComponentTreeUI(w);
+			}
+			log.info(UIManager.getLookAndFeel().getID() + " set as toolkit.");
+		} catch (Exception e) {
+			log.warn("Couldn't change the toolkit: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Open the database set by <code>db.backend</code>: either simpleDB (the
+	 * default), memoryDB, which keeps everything in memory, and is only
+	 * saved if <code>db.snapshot</code> names a file, or logDB, which logs
+	 * the outings to season files in <code>./logdb</code>.
+	 * <p>
+	 * This runs while the look and feel is being set, so it waits for that
+	 * before showing the first run setup dialog.
+	 * 
+	 * @param lafSet
+	 *            Released once the look and feel has been set.
+	 * @return The database.
+	 */
+	private static org.ahunt.simpleRowLog.interfaces.Database openDatabase(
+			CountDownLatch lafSet) throws InterruptedException {
+		String backend = null;
+		String snapshot = null;
+		try {
+			Configuration conf = Configuration.getConf("main");
+			backend = conf.getProperty("db.backend");
+			snapshot = conf.getProperty("db.snapshot");
+		} catch (FileNotFoundException e) {
+			// Already reported.
+		}
+		final org.ahunt.simpleRowLog.db.memoryDB.Database db;
+		if ("logDB".equals(backend)) {
+			log.info("Using the log database.");
+			db = new org.ahunt.simpleRowLog.db.logDB.Database(new File("logdb"));
+		} else if ("memoryDB".equals(backend)) {
+			log.info("Using the in-memory database.");
+			db = new org.ahunt.simpleRowLog.db.memoryDB.Database(
+					snapshot != null && snapshot.trim().length() > 0 ? new File(
+							snapshot.trim()) : null);
+		} else {
+			// A new database shows the setup dialog.
+			if (!new File("database/srl").exists()) {
+				lafSet.await();
+			}
+			return Database.getInstance();
+		}
+		if (db.getAdmins().length == 0) {
+			lafSet.await();
+			new SetupDialog(db);
+		}
+		// Save the snapshot and close the files when exiting.
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			public void run() {
+				db.shutdown();
+			}
+		});
+		return db;
+	}
 
+	/**
+	 * Write the log from a background thread if <code>log.async_queue</code>
+	 * is set to a positive queue size.
+	 * 
+	 * @param conf
+	 *            The main configuration.
+	 */
+	static void installAsyncLog(Configuration conf) {
+		int queue = conf.getInt("log.async_queue", 0);
+		if (queue > 0) {
+			AsyncLogWriter.install(queue);
+		}
 	}
 
 	/**
@@ -166,8 +373,9 @@ public class Launch {
 	 * 
 	 */
 	private static void printUsage() {
-		// System.out.println("Usage:\n\tsimplerowlog DATADIRECTORY");
-		System.out.println("Simply run simplerowlog to use.");
+		System.out.println("Simply run simplerowlog to use, or run a command"
+				+ " without starting the gui:\n");
+		CommandLine.printUsage();
 
 	}
 
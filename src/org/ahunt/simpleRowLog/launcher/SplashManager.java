@@ -17,6 +17,8 @@
  *.
  *
  *	Changelog:
+ *  19/10/2026: setProgress can be called from several threads, and never
+ *  			decreases the progress shown.
  *  21/01/2011: Bugfix: on setProgress, we first check whether the splash screen
  *              is still visible, to prevent exceptions if it's been closed.
  *	24/01/2010:	Created
@@ -88,6 +90,9 @@ public class SplashManager {
 	 */
 	private BufferedImage progressbarOff;
 
+	/** The progress shown. */
+	private int shown = -1;
+
 	/**
 	 * Start the Splash manager. This takes care of the splash screen display.
 	 * 
@@ -132,9 +137,13 @@ public class SplashManager {
 	 *            The current progress in percent. Must be between 0 and 100
 	 *            inclusive.
 	 */
-	public void setProgress(int progress) {
+	public synchronized void setProgress(int progress) {
 		if (noSplash || !splash.isVisible())
 			return; // If disabled we do nothing.
+		if (progress <= shown) {
+			return;
+		}
+		shown = progress;
 		// Draw the on part (left)
 		g.drawImage(progressbarOn, topLeftX, topLeftY, width * progress / 100,
 				height, null);
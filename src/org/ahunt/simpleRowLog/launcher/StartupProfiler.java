@@ -0,0 +1,115 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.launcher;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Times the phases of the startup, which may run in different threads, and
+ * writes a breakdown to the log once the gui is shown.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+class StartupProfiler {
+
+	private static final SimpleLogger log = new SimpleLogger(
+			StartupProfiler.class);
+
+	/** When the profiler was created, in ns. */
+	private final long start = System.nanoTime();
+
+	/** The phases, in the order they were started. */
+	private final LinkedHashMap<String, Phase> phases = new LinkedHashMap<String, Phase>();
+
+	/**
+	 * Note the start of a phase.
+	 *
+	 * @param name
+	 *            The name of the phase.
+	 */
+	synchronized void begin(String name) {
+		phases.put(name, new Phase(System.nanoTime(), Thread.currentThread()
+				.getName()));
+	}
+
+	/**
+	 * Note the end of a phase.
+	 *
+	 * @param name
+	 *            The name of the phase.
+	 */
+	synchronized void end(String name) {
+		Phase p = phases.get(name);
+		if (p != null) {
+			p.end = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Get the breakdown: for each phase when it started, how long it took,
+	 * and in which thread it ran.
+	 *
+	 * @return The breakdown, one line per phase.
+	 */
+	synchronized String getReport() {
+		StringBuilder b = new StringBuilder();
+		long last = start;
+		for (Map.Entry<String, Phase> e : phases.entrySet()) {
+			Phase p = e.getValue();
+			long end = p.end != 0 ? p.end : System.nanoTime();
+			last = Math.max(last, end);
+			b.append(String.format("%-22s at %6d ms: %6d ms (%s)%s%n", e
+					.getKey(), (p.start - start) / 1000000,
+					(end - p.start) / 1000000, p.thread, p.end != 0 ? ""
+							: ", not finished"));
+		}
+		b.append(String.format("%-22s %6d ms", "Total", (last - start)
+				/ 1000000));
+		return b.toString();
+	}
+
+	/**
+	 * Write the breakdown to the log.
+	 */
+	void log() {
+		log.info("Startup times:\n" + getReport());
+	}
+
+	private static class Phase {
+
+		private final long start;
+
+		private final String thread;
+
+		/** When it ended, 0 while still running. */
+		private long end;
+
+		private Phase(long start, String thread) {
+			this.start = start;
+			this.thread = thread;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ahunt.simpleRowLog.interfaces.Database;
+
+/**
+ * Wraps a {@link Database} so that every call is timed by a {@link Timer} of
+ * type "Database". Overloaded methods get separate timers, named after the
+ * method and its parameter types, e.g. "getOutings(Date,Date)". The wrapper
+ * implements every interface the wrapped database does.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class InstrumentedDatabase implements InvocationHandler {
+
+	/** The type under which the timers are registered. */
+	public static final String TYPE = "Database";
+
+	/** The database doing the actual work. */
+	private final Object target;
+
+	/** The timer for each method, to avoid building names on every call. */
+	private final ConcurrentHashMap<Method, Timer> timers = new ConcurrentHashMap<Method, Timer>();
+
+	private InstrumentedDatabase(Object target) {
+		this.target = target;
+	}
+
+	/**
+	 * Wrap a database.
+	 *
+	 * @param db
+	 *            The database to be instrumented.
+	 * @return The instrumented database.
+	 */
+	public static Database wrap(Database db) {
+		LinkedHashSet<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+		for (Class<?> c = db.getClass(); c != null; c = c.getSuperclass()) {
+			for (Class<?> i : c.getInterfaces()) {
+				interfaces.add(i);
+			}
+		}
+		return (Database) Proxy.newProxyInstance(db.getClass()
+				.getClassLoader(), interfaces.toArray(new Class<?>[interfaces
+				.size()]), new InstrumentedDatabase(db));
+	}
+
+	/**
+	 * Get the database wrapped by {@link #wrap(Database)}.
+	 *
+	 * @param db
+	 *            A database, instrumented or not.
+	 * @return The wrapped database, or <code>db</code> if it isn't
+	 *         instrumented.
+	 */
+	public static Database unwrap(Database db) {
+		if (Proxy.isProxyClass(db.getClass())) {
+			InvocationHandler h = Proxy.getInvocationHandler(db);
+			if (h instanceof InstrumentedDatabase) {
+				return (Database) ((InstrumentedDatabase) h).target;
+			}
+		}
+		return db;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+			throws Throwable {
+		if (method.getDeclaringClass() == Object.class) {
+			return method.invoke(target, args);
+		}
+		Timer timer = timers.get(method);
+		if (timer == null) {
+			timer = Metrics.getTimer(TYPE, getName(method));
+			timers.put(method, timer);
+		}
+		boolean error = true;
+		long start = System.nanoTime();
+		try {
+			Object result = method.invoke(target, args);
+			error = false;
+			return result;
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		} finally {
+			timer.record(System.nanoTime() - start, error);
+		}
+	}
+
+	/**
+	 * Get the name of a method including its parameter types.
+	 */
+	private static String getName(Method method) {
+		ArrayList<String> params = new ArrayList<String>();
+		for (Class<?> c : method.getParameterTypes()) {
+			params.add(c.getSimpleName());
+		}
+		String p = params.toString();
+		return method.getName() + "(" + p.substring(1, p.length() - 1).replace(
+				" ", "") + ")";
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.grlea.log.SimpleLogger;
+
+/**
+ * The registry of all {@link Timer}s. Each timer is also registered with the
+ * platform MBean server as
+ * <code>org.ahunt.simpleRowLog:type=TYPE,name=NAME</code>, so that it can be
+ * inspected with jconsole or similar.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class Metrics {
+
+	private static final SimpleLogger log = new SimpleLogger(Metrics.class);
+
+	/** The JMX domain used for all simple rowLog MBeans. */
+	public static final String DOMAIN = "org.ahunt.simpleRowLog";
+
+	/** The timers, keyed by "type/name". */
+	private static final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+	private Metrics() {
+	}
+
+	/**
+	 * Get a timer, creating and registering it if necessary.
+	 *
+	 * @param type
+	 *            The group of timers this belongs to, e.g. "Database".
+	 * @param name
+	 *            The name of the operation.
+	 * @return The timer.
+	 */
+	public static Timer getTimer(String type, String name) {
+		String key = type + "/" + name;
+		Timer t = timers.get(key);
+		if (t == null) {
+			Timer created = new Timer(key);
+			t = timers.putIfAbsent(key, created);
+			if (t == null) {
+				t = created;
+				register(type, name, created);
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * Get all timers which have been created, sorted by name.
+	 *
+	 * @return The timers.
+	 */
+	public static Timer[] getTimers() {
+		ArrayList<Timer> list = new ArrayList<Timer>(timers.values());
+		Collections.sort(list, new Comparator<Timer>() {
+			public int compare(Timer a, Timer b) {
+				return a.getName().compareTo(b.getName());
+			}
+		});
+		return list.toArray(new Timer[list.size()]);
+	}
+
+	/**
+	 * Reset all timers.
+	 */
+	public static void resetAll() {
+		for (Timer t : timers.values()) {
+			t.reset();
+		}
+	}
+
+	/**
+	 * Register a timer with the platform MBean server. Failure only means the
+	 * timer isn't visible over JMX, so it is only logged.
+	 */
+	private static void register(String type, String name, Timer t) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(
+					t,
+					new ObjectName(DOMAIN + ":type=" + ObjectName.quote(type)
+							+ ",name=" + ObjectName.quote(name)));
+		} catch (JMException e) {
+			log.warn("Couldn't register timer " + t.getName() + " with JMX.");
+			log.dbe(org.grlea.log.DebugLevel.L5_DEBUG, e);
+		}
+	}
+}
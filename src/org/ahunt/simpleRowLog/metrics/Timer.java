@@ -0,0 +1,177 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts calls of an operation, their errors and how long they took. Timers
+ * are thread safe and cheap enough to be updated on every call; obtain them
+ * from {@link Metrics#getTimer(String, String)}.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class Timer implements TimerMBean {
+
+	/** Upper bounds of the histogram buckets in milliseconds. */
+	private static final long[] BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200,
+			500, 1000, 2000, 5000 };
+
+	private final String name;
+
+	private final AtomicLong count = new AtomicLong();
+
+	private final AtomicLong errors = new AtomicLong();
+
+	private final AtomicLong totalNanos = new AtomicLong();
+
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/** One more bucket than bounds, for everything slower. */
+	private final AtomicLongArray histogram = new AtomicLongArray(
+			BOUNDS.length + 1);
+
+	/**
+	 * Create a timer.
+	 *
+	 * @param name
+	 *            The name of the operation.
+	 */
+	Timer(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Record a call.
+	 *
+	 * @param nanos
+	 *            How long the call took, as measured by
+	 *            {@link System#nanoTime()}.
+	 * @param error
+	 *            Whether the call failed.
+	 */
+	public void record(long nanos, boolean error) {
+		count.incrementAndGet();
+		if (error) {
+			errors.incrementAndGet();
+		}
+		totalNanos.addAndGet(nanos);
+		long max;
+		while (nanos > (max = maxNanos.get())) {
+			if (maxNanos.compareAndSet(max, nanos)) {
+				break;
+			}
+		}
+		long millis = nanos / 1000000;
+		int bucket = 0;
+		while (bucket < BOUNDS.length && millis >= BOUNDS[bucket]) {
+			bucket++;
+		}
+		histogram.incrementAndGet(bucket);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getErrors() {
+		return errors.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getTotalMillis() {
+		return totalNanos.get() / 1e6;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getMeanMillis() {
+		long c = count.get();
+		return c == 0 ? 0 : totalNanos.get() / 1e6 / c;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getMaxMillis() {
+		return maxNanos.get() / 1e6;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long[] getHistogram() {
+		long[] h = new long[histogram.length()];
+		for (int i = 0; i < h.length; i++) {
+			h[i] = histogram.get(i);
+		}
+		return h;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long[] getHistogramBounds() {
+		return BOUNDS.clone();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset() {
+		count.set(0);
+		errors.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+		for (int i = 0; i < histogram.length(); i++) {
+			histogram.set(i, 0);
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.metrics;
+
+/**
+ * The JMX management interface of a {@link Timer}.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public interface TimerMBean {
+
+	/**
+	 * Get the name of the operation being timed.
+	 *
+	 * @return The name.
+	 */
+	public String getName();
+
+	/**
+	 * Get the number of calls.
+	 *
+	 * @return The number of calls, including failed ones.
+	 */
+	public long getCount();
+
+	/**
+	 * Get the number of calls which threw an exception.
+	 *
+	 * @return The number of errors.
+	 */
+	public long getErrors();
+
+	/**
+	 * Get the total time spent in all calls.
+	 *
+	 * @return The total time in milliseconds.
+	 */
+	public double getTotalMillis();
+
+	/**
+	 * Get the average time of a call.
+	 *
+	 * @return The mean time in milliseconds, 0 if there were no calls.
+	 */
+	public double getMeanMillis();
+
+	/**
+	 * Get the time of the slowest call.
+	 *
+	 * @return The maximum time in milliseconds.
+	 */
+	public double getMaxMillis();
+
+	/**
+	 * Get the latency histogram. Element i is the number of calls which took
+	 * less than <code>getHistogramBounds()[i]</code> milliseconds (and at
+	 * least the previous bound), the last element counts all slower calls.
+	 *
+	 * @return The histogram.
+	 */
+	public long[] getHistogram();
+
+	/**
+	 * Get the upper bounds of the histogram buckets.
+	 *
+	 * @return The bounds in milliseconds.
+	 */
+	public long[] getHistogramBounds();
+
+	/**
+	 * Reset all counters to 0.
+	 */
+	public void reset();
+
+}
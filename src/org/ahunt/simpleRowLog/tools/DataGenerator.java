@@ -0,0 +1,330 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	The month weights average 1, so that the requested rate is
+ *				met.
+ *	19/10/2026:	Added groups, seasonal peaks and generateSeasons().
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.tools;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+
+import org.ahunt.simpleRowLog.common.DatabaseError;
+import org.ahunt.simpleRowLog.common.GroupInfo;
+import org.ahunt.simpleRowLog.common.InvalidDataException;
+import org.ahunt.simpleRowLog.common.ProgressListener;
+import org.ahunt.simpleRowLog.interfaces.Database;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Fills a database with random (but reproducible) members, boats and outings,
+ * for testing and benchmarking. The same seed and parameters always produce
+ * the same data when filling an empty database, so that timings taken on
+ * different machines or releases can be compared. Outings follow the season:
+ * there are far more in summer and at weekends than on winter weekdays.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class DataGenerator {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(
+			DataGenerator.class);
+
+	private static final String[] SURNAMES = { "Smith", "Jones", "Taylor",
+			"Brown", "Williams", "Wilson", "Johnson", "Davies", "Robinson",
+			"Wright", "Thompson", "Evans", "Walker", "White", "Roberts",
+			"Green", "Hall", "Wood", "Jackson", "Clarke" };
+
+	private static final String[] FORENAMES = { "Anna", "Ben", "Clara",
+			"David", "Emma", "Felix", "Grace", "Henry", "Isla", "Jack",
+			"Kate", "Leo", "Maria", "Noah", "Olivia", "Paul", "Rosa", "Sam",
+			"Tom", "Zoe" };
+
+	private static final String[] BOAT_TYPES = { "1x", "2x", "2-", "4x",
+			"4+", "8+" };
+
+	/** Number of rowers for each of the entries in BOAT_TYPES. */
+	private static final int[] BOAT_SEATS = { 1, 2, 2, 4, 4, 8 };
+
+	/** Whether the boat types in BOAT_TYPES have a cox. */
+	private static final boolean[] BOAT_COXED = { false, false, false, false,
+			true, true };
+
+	private static final String[] DESTINATIONS = { "Lock", "Bridge", "Weir",
+			"Island", null };
+
+	/** The groups created, with the first year of birth of their members. */
+	private static final String[] GROUPS = { "Masters", "Seniors", "Juniors" };
+
+	private static final int[] GROUP_BORN_FROM = { 0, 1975, 1995 };
+
+	private static final Color[] GROUP_COLOURS = { new Color(255, 230, 200),
+			new Color(220, 235, 255), new Color(220, 255, 220) };
+
+	/**
+	 * Relative number of outings in each month, scaled below to average 1
+	 * over the year.
+	 */
+	private static final double[] MONTH_WEIGHTS = { 0.3, 0.35, 0.65, 0.95,
+			1.25, 1.45, 1.6, 1.5, 1.2, 0.85, 0.5, 0.4 };
+
+	static {
+		double sum = 0;
+		for (double w : MONTH_WEIGHTS) {
+			sum += w;
+		}
+		for (int i = 0; i < MONTH_WEIGHTS.length; i++) {
+			MONTH_WEIGHTS[i] *= MONTH_WEIGHTS.length / sum;
+		}
+	}
+
+	/** How many more outings there are on saturdays and sundays. */
+	private static final double WEEKEND_WEIGHT = 1.8;
+
+	/** Members per boat in a club generated by generateSeasons(). */
+	private static final int MEMBERS_PER_BOAT = 8;
+
+	/** Members per average daily outing in generateSeasons(). */
+	private static final int MEMBERS_PER_OUTING = 15;
+
+	/** The database to fill. */
+	private Database db;
+
+	/** The random number generator, seeded for reproducible data. */
+	private Random random;
+
+	/**
+	 * Create a generator.
+	 *
+	 * @param db
+	 *            The database to fill.
+	 * @param seed
+	 *            The seed. The same seed produces the same data.
+	 */
+	public DataGenerator(Database db, long seed) {
+		this.db = db;
+		random = new Random(seed);
+	}
+
+	/**
+	 * Generate a club with the given number of members, with proportionate
+	 * numbers of boats and outings, and its outings for whole seasons.
+	 *
+	 * @param members
+	 *            The number of members to create.
+	 * @param firstYear
+	 *            The first season.
+	 * @param lastYear
+	 *            The last season.
+	 * @param listener
+	 *            Informed of progress. May be null.
+	 * @return The number of outings created.
+	 * @throws DatabaseError
+	 *             If there is a problem writing to the database.
+	 */
+	public long generateSeasons(int members, int firstYear, int lastYear,
+			ProgressListener listener) throws DatabaseError {
+		return generate(members, Math.max(1, members / MEMBERS_PER_BOAT),
+				Math.max(1, members / MEMBERS_PER_OUTING),
+				new GregorianCalendar(firstYear, Calendar.JANUARY, 1)
+						.getTime(), new GregorianCalendar(lastYear,
+						Calendar.DECEMBER, 31).getTime(), listener);
+	}
+
+	/**
+	 * Generate the data.
+	 *
+	 * @param members
+	 *            The number of members to create.
+	 * @param boats
+	 *            The number of boats to create.
+	 * @param outingsPerDay
+	 *            The average number of outings on each day over the year.
+	 * @param start
+	 *            The first day for which outings are created.
+	 * @param end
+	 *            The last day for which outings are created.
+	 * @param listener
+	 *            Informed of progress. May be null.
+	 * @return The number of outings created.
+	 * @throws DatabaseError
+	 *             If there is a problem writing to the database.
+	 */
+	public long generate(int members, int boats, int outingsPerDay,
+			Date start, Date end, ProgressListener listener)
+			throws DatabaseError {
+		log.entry("generate()");
+		int[] memberIds = generateMembers(members);
+		int[] boatIds = new int[boats];
+		int[] boatTypes = new int[boats];
+		for (int i = 0; i < boats; i++) {
+			boatTypes[i] = random.nextInt(BOAT_TYPES.length);
+			try {
+				boatIds[i] = db.addBoat("Boat " + (i + 1),
+						BOAT_TYPES[boatTypes[i]], random.nextInt(10) > 0);
+			} catch (InvalidDataException e) {
+				// Already exists from a previous run, so just leave it out.
+				boatIds[i] = 0;
+			}
+		}
+		if (memberIds.length == 0 || boats == 0) {
+			return 0;
+		}
+
+		Calendar day = new GregorianCalendar();
+		day.setTime(start);
+		long days = (end.getTime() - start.getTime()) / 86400000L + 1;
+		long count = 0;
+		for (long d = 0; d < days; d++) {
+			double weight = MONTH_WEIGHTS[day.get(Calendar.MONTH)];
+			int weekday = day.get(Calendar.DAY_OF_WEEK);
+			if (weekday == Calendar.SATURDAY || weekday == Calendar.SUNDAY) {
+				// Scaled so that the average over the week stays the same.
+				weight *= WEEKEND_WEIGHT * 7 / (5 + 2 * WEEKEND_WEIGHT);
+			} else {
+				weight *= 7 / (5 + 2 * WEEKEND_WEIGHT);
+			}
+			int outings = random.nextInt((int) Math.round(2 * outingsPerDay
+					* weight) + 1);
+			for (int o = 0; o < outings; o++) {
+				int b = random.nextInt(boats);
+				if (boatIds[b] == 0) {
+					continue;
+				}
+				int seats = BOAT_SEATS[boatTypes[b]];
+				int[] crew = pickCrew(memberIds, seats
+						+ (BOAT_COXED[boatTypes[b]] ? 1 : 0));
+				int[] rowers = new int[8];
+				System.arraycopy(crew, 0, rowers, 0, Math.min(seats,
+						crew.length));
+				int cox = crew.length > seats ? crew[seats] : 0;
+				Calendar out = (Calendar) day.clone();
+				out.set(Calendar.HOUR_OF_DAY, 6 + random.nextInt(12));
+				out.set(Calendar.MINUTE, random.nextInt(60));
+				Calendar in = (Calendar) out.clone();
+				in.add(Calendar.MINUTE, 30 + random.nextInt(120));
+				db.addOuting(day.getTime(), rowers, cox, out.getTime(), in
+						.getTime(), null, DESTINATIONS[random
+						.nextInt(DESTINATIONS.length)], boatIds[b], 4 + random
+						.nextInt(20));
+				count++;
+			}
+			if (listener != null) {
+				listener.progressUpdate("outings", d + 1, days);
+			}
+			day.add(Calendar.DAY_OF_MONTH, 1);
+		}
+		log.info("Generated " + count + " outings.");
+		log.exit("generate()");
+		return count;
+	}
+
+	/**
+	 * Pick the crew of an outing: different members, as far as there are
+	 * enough.
+	 *
+	 * @param memberIds
+	 *            The ids of all members.
+	 * @param size
+	 *            The number of places, including the cox.
+	 * @return The ids of the crew.
+	 */
+	private int[] pickCrew(int[] memberIds, int size) {
+		int[] crew = new int[Math.min(size, memberIds.length)];
+		for (int i = 0; i < crew.length; i++) {
+			boolean taken;
+			do {
+				crew[i] = memberIds[random.nextInt(memberIds.length)];
+				taken = false;
+				for (int j = 0; j < i; j++) {
+					taken |= crew[j] == crew[i];
+				}
+			} while (taken);
+		}
+		return crew;
+	}
+
+	/**
+	 * Get the groups for the members, creating them if necessary.
+	 *
+	 * @return The ids of the groups, in the order of GROUPS.
+	 */
+	private int[] generateGroups() throws DatabaseError {
+		int[] ids = new int[GROUPS.length];
+		for (int i = 0; i < GROUPS.length; i++) {
+			for (GroupInfo g : db.getGroups()) {
+				if (g.getName().equals(GROUPS[i])) {
+					ids[i] = g.getId();
+				}
+			}
+			if (ids[i] == 0) {
+				try {
+					ids[i] = db.addGroup(GROUPS[i], null, GROUP_COLOURS[i],
+							false);
+				} catch (InvalidDataException e) {
+					// Can't happen, the names were checked above.
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Create the members.
+	 *
+	 * @param members
+	 *            The number of members.
+	 * @return The ids of the created members.
+	 */
+	private int[] generateMembers(int members) throws DatabaseError {
+		int[] groups = generateGroups();
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		for (int i = 0; i < members; i++) {
+			Calendar dob = new GregorianCalendar(1940 + random.nextInt(70),
+					random.nextInt(12), 1 + random.nextInt(28));
+			int group = 0;
+			for (int g = 0; g < GROUPS.length; g++) {
+				if (dob.get(Calendar.YEAR) >= GROUP_BORN_FROM[g]) {
+					group = groups[g];
+				}
+			}
+			try {
+				ids.add(db.addMember(SURNAMES[random.nextInt(SURNAMES.length)],
+						FORENAMES[random.nextInt(FORENAMES.length)] + " " + i,
+						dob.getTime(), group));
+			} catch (InvalidDataException e) {
+				// Duplicate, ignore.
+			}
+		}
+		int[] result = new int[ids.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = ids.get(i);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,414 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Member, boat and group ids are translated into those of the
+ *				database imported into.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.tools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+
+import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.DatabaseError;
+import org.ahunt.simpleRowLog.common.GroupInfo;
+import org.ahunt.simpleRowLog.common.InvalidDataException;
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.ProgressListener;
+import org.ahunt.simpleRowLog.interfaces.Database;
+import org.grlea.log.DebugLevel;
+import org.grlea.log.SimpleLogger;
+
+/**
+ * Imports the CSV files written by the simpleDB
+ * {@link org.ahunt.simpleRowLog.db.simpleDB.Exporter}. The type of the file
+ * (outings, members or boats) is determined from its header line. Rows which
+ * can't be imported, e.g. members which already exist or outings referring to
+ * unknown boats, are skipped and counted.
+ * <p>
+ * The ids in the files are those of the exported database, and new members
+ * and boats get new ids here. The importer therefore remembers which id each
+ * imported (or already existing) member and boat has now, and translates the
+ * ids of outings through these: the members and boats must be imported with
+ * the same importer before the outings using them. Groups are found by name.
+ *
+ * @author Andrzej JR Hunt
+ *
+ */
+public class Importer {
+
+	/** Logging mechanism. */
+	private static final SimpleLogger log = new SimpleLogger(Importer.class);
+
+	/** How often (in rows) the progress listener is informed. */
+	private static final int PROGRESS_INTERVAL = 1000;
+
+	/** The database being imported into. */
+	private Database db;
+
+	/** Format for days. */
+	private SimpleDateFormat dayFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+	/** Format for the times out and in. */
+	private SimpleDateFormat timeFormat = new SimpleDateFormat(
+			"yyyy-MM-dd HH:mm");
+
+	/** Number of rows imported by the last import. */
+	private int imported;
+
+	/** Number of rows skipped by the last import. */
+	private int skipped;
+
+	/** The ids of the imported members, by their id in the files. */
+	private HashMap<Integer, Integer> memberIds = new HashMap<Integer, Integer>();
+
+	/** The ids of the imported boats, by their id in the files. */
+	private HashMap<Integer, Integer> boatIds = new HashMap<Integer, Integer>();
+
+	/**
+	 * Create an importer working on a specific database.
+	 *
+	 * @param db
+	 *            The database into which data is to be imported.
+	 */
+	public Importer(Database db) {
+		this.db = db;
+	}
+
+	/**
+	 * Import a CSV file. Members and boats must be imported before the
+	 * outings referring to them.
+	 *
+	 * @param file
+	 *            The file to be imported, in UTF-8.
+	 * @param listener
+	 *            Informed of progress. May be null.
+	 * @return The number of rows imported.
+	 * @throws IOException
+	 *             If the file can't be read, or is of an unknown type.
+	 * @throws DatabaseError
+	 *             If there is a problem writing to the database.
+	 */
+	public int importFile(File file, ProgressListener listener)
+			throws IOException, DatabaseError {
+		log.entry("importFile(" + file + ")");
+		imported = 0;
+		skipped = 0;
+		BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), "UTF-8"));
+		try {
+			String[] header = readRecord(in);
+			if (header == null) {
+				return 0;
+			}
+			HashMap<String, Integer> columns = new HashMap<String, Integer>();
+			for (int i = 0; i < header.length; i++) {
+				columns.put(header[i], i);
+			}
+			if (columns.containsKey("time_out")) {
+				importOutings(in, columns, listener);
+			} else if (columns.containsKey("surname")) {
+				importMembers(in, columns, listener);
+			} else if (columns.containsKey("inHouse")) {
+				importBoats(in, columns, listener);
+			} else {
+				throw new IOException("Unknown file type: " + file);
+			}
+		} finally {
+			in.close();
+		}
+		if (listener != null) {
+			listener.progressUpdate(file.getName(), imported, -1);
+		}
+		log.info("Imported " + imported + " rows, skipped " + skipped + ".");
+		log.exit("importFile(" + file + ")");
+		return imported;
+	}
+
+	/**
+	 * Get the number of rows skipped by the last import.
+	 *
+	 * @return The number of rows skipped.
+	 */
+	public int getSkipped() {
+		return skipped;
+	}
+
+	private void importOutings(BufferedReader in,
+			HashMap<String, Integer> columns, ProgressListener listener)
+			throws IOException {
+		String[] record;
+		while ((record = readRecord(in)) != null) {
+			try {
+				int[] rowers = new int[8];
+				for (int i = 0; i < 8; i++) {
+					rowers[i] = translate(memberIds, "member", getInt(record,
+							columns, "rower" + (i + 1) + "_id"));
+				}
+				String timeIn = get(record, columns, "time_in");
+				db.addOuting(dayFormat.parse(get(record, columns, "day")),
+						rowers, translate(memberIds, "member", getInt(record,
+								columns, "cox_id")), timeFormat.parse(get(
+								record, columns, "time_out")),
+						timeIn != null ? timeFormat.parse(timeIn) : null, get(
+								record, columns, "comment"), get(record,
+								columns, "destination"), translate(boatIds,
+								"boat", getInt(record, columns, "boat_id")),
+						getInt(record, columns, "distance"));
+				imported++;
+			} catch (ParseException e) {
+				log.error("Invalid date in outing " + record[0] + ".");
+				skipped++;
+			} catch (IllegalArgumentException e) {
+				// Unknown member or boat.
+				log.error("Skipping outing " + record[0] + ": "
+						+ e.getMessage());
+				skipped++;
+			} catch (DatabaseError e) {
+				// E.g. a constraint violated by this outing.
+				log.error("Skipping outing " + record[0] + ": "
+						+ e.getMessage());
+				log.dbe(DebugLevel.L5_DEBUG, e);
+				skipped++;
+			}
+			reportProgress(listener, "outings");
+		}
+	}
+
+	private void importMembers(BufferedReader in,
+			HashMap<String, Integer> columns, ProgressListener listener)
+			throws IOException {
+		int defaultGroup = db.getDefaultGroup().getId();
+		HashMap<String, Integer> groups = new HashMap<String, Integer>();
+		for (GroupInfo g : db.getGroups()) {
+			groups.put(g.getName(), g.getId());
+		}
+		HashMap<String, Integer> existing = new HashMap<String, Integer>();
+		for (MemberInfo m : db.getMembers()) {
+			existing.put(getMemberKey(m.getSurname(), m.getForename(),
+					dayFormat.format(m.getDob())), m.getId());
+		}
+		String[] record;
+		while ((record = readRecord(in)) != null) {
+			try {
+				Integer group = groups.get(get(record, columns, "group"));
+				String surname = get(record, columns, "surname");
+				String forename = get(record, columns, "forename");
+				if (forename == null) {
+					forename = "";
+				}
+				Date dob = dayFormat.parse(get(record, columns, "dob"));
+				String key = getMemberKey(surname, forename, dayFormat
+						.format(dob));
+				Integer id = existing.get(key);
+				if (id == null) {
+					id = db.addMember(surname, forename, dob,
+							group != null ? group : defaultGroup);
+					existing.put(key, id);
+					imported++;
+				} else {
+					// Already exists.
+					skipped++;
+				}
+				memberIds.put(getInt(record, columns, "id"), id);
+			} catch (ParseException e) {
+				log.error("Invalid date of birth for member " + record[0]);
+				skipped++;
+			} catch (IllegalArgumentException e) {
+				log.error("Skipping member " + record[0] + ": "
+						+ e.getMessage());
+				skipped++;
+			} catch (InvalidDataException e) {
+				// Already exists.
+				skipped++;
+			}
+			reportProgress(listener, "members");
+		}
+	}
+
+	private void importBoats(BufferedReader in,
+			HashMap<String, Integer> columns, ProgressListener listener)
+			throws IOException {
+		HashMap<String, Integer> existing = new HashMap<String, Integer>();
+		for (BoatInfo b : db.getBoats()) {
+			existing.put(b.getName(), b.getId());
+		}
+		String[] record;
+		while ((record = readRecord(in)) != null) {
+			String name = get(record, columns, "name");
+			Integer id = existing.get(name);
+			if (name == null) {
+				skipped++;
+			} else if (id != null) {
+				// Already exists.
+				boatIds.put(getInt(record, columns, "id"), id);
+				skipped++;
+			} else {
+				String type = get(record, columns, "type");
+				try {
+					id = db.addBoat(name, type != null ? type : "", Boolean
+							.parseBoolean(get(record, columns, "inHouse")));
+					existing.put(name, id);
+					boatIds.put(getInt(record, columns, "id"), id);
+					imported++;
+				} catch (InvalidDataException e) {
+					skipped++;
+				}
+			}
+			reportProgress(listener, "boats");
+		}
+	}
+
+	/**
+	 * Get the id a member or boat of the imported files has now. 0 (no
+	 * member) stays 0.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the member or boat hasn't been imported.
+	 */
+	private static int translate(HashMap<Integer, Integer> ids, String what,
+			int id) {
+		if (id == 0) {
+			return 0;
+		}
+		Integer newId = ids.get(id);
+		if (newId == null) {
+			throw new IllegalArgumentException("Unknown " + what + " " + id
+					+ " (import the " + what + "s first)");
+		}
+		return newId;
+	}
+
+	/**
+	 * Get the key identifying a member: the names and the date of birth.
+	 */
+	private static String getMemberKey(String surname, String forename,
+			String dob) {
+		return surname + '\n' + forename + '\n' + dob;
+	}
+
+	private void reportProgress(ProgressListener listener, String task) {
+		if (listener != null && (imported + skipped) % PROGRESS_INTERVAL == 0) {
+			listener.progressUpdate(task, imported + skipped, -1);
+		}
+	}
+
+	/**
+	 * Get a value by column name. Empty values and missing columns are null.
+	 */
+	private static String get(String[] record,
+			HashMap<String, Integer> columns, String column) {
+		Integer i = columns.get(column);
+		if (i == null || i >= record.length || record[i].length() == 0) {
+			return null;
+		}
+		return record[i];
+	}
+
+	/**
+	 * Get an integer value by column name. Empty values are 0.
+	 */
+	private static int getInt(String[] record,
+			HashMap<String, Integer> columns, String column) {
+		String s = get(record, columns, column);
+		return s != null ? Integer.parseInt(s) : 0;
+	}
+
+	/**
+	 * Read a record of comma separated values. Quoted values may contain
+	 * commas, doubled quotes and line breaks.
+	 *
+	 * @param in
+	 *            The reader.
+	 * @return The values, or null at the end of the input.
+	 * @throws IOException
+	 *             If the input can't be read.
+	 */
+	static String[] readRecord(BufferedReader in) throws IOException {
+		String line = in.readLine();
+		if (line == null) {
+			return null;
+		}
+		ArrayList<String> values = new ArrayList<String>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == line.length()) {
+				if (quoted) { // Value continues on the next line.
+					String next = in.readLine();
+					if (next == null) {
+						break;
+					}
+					value.append('\n');
+					line = next;
+					i = 0;
+					continue;
+				}
+				break;
+			}
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c == '"') {
+					if (i < line.length() && line.charAt(i) == '"') {
+						value.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					value.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		values.add(value.toString());
+		return values.toArray(new String[values.size()]);
+	}
+
+	/**
+	 * Parse a day in the format used by the exporter.
+	 *
+	 * @param day
+	 *            The day, as yyyy-MM-dd.
+	 * @return The date.
+	 * @throws ParseException
+	 *             If the day is not valid.
+	 */
+	public static Date parseDay(String day) throws ParseException {
+		SimpleDateFormat f = new SimpleDateFormat("yyyy-MM-dd");
+		f.setLenient(false);
+		return f.parse(day);
+	}
+}
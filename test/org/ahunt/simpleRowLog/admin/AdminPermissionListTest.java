@@ -0,0 +1,97 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.admin;
+
+import java.util.BitSet;
+
+import junit.framework.TestCase;
+
+public class AdminPermissionListTest extends TestCase {
+
+	/** Number of times storePermissions() was called. */
+	private int stores;
+
+	private AdminPermissionList createList(boolean isRoot) {
+		return new AdminPermissionList("user", isRoot, false) {
+			public void storePermissions() {
+				stores++;
+			}
+		};
+	}
+
+	/**
+	 * Test setting, checking and removing permissions.
+	 */
+	public void testPermissions() {
+		AdminPermissionList l = createList(false);
+		l.addPermission("boat_list");
+		l.addPermission("boat_list");
+		assertTrue(l.isPermissionSet("boat_list"));
+		assertTrue(l.isPermissionSet(AdminPermissionList
+				.getPermissionIndex("boat_list")));
+		assertFalse(l.isPermissionSet("member_list"));
+		assertFalse(l.isPermissionSet("no_such_permission"));
+		assertEquals(1, l.getAllPermissions().length);
+		assertTrue(l.removePermission("boat_list"));
+		assertFalse(l.removePermission("boat_list"));
+		assertFalse(l.isPermissionSet("boat_list"));
+		try {
+			l.addPermission("no_such_permission");
+			fail("Unknown permission added.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		assertEquals(0, stores);
+	}
+
+	/**
+	 * Root has every permission.
+	 */
+	public void testRoot() {
+		AdminPermissionList l = createList(true);
+		assertTrue(l.isPermissionSet("admin_list"));
+		assertTrue(l.isPermissionSet(0));
+	}
+
+	/**
+	 * Test that only the changes since the last store are reported.
+	 */
+	public void testDiff() {
+		AdminPermissionList l = createList(false);
+		l.addPermissions(new String[] { "boat_list", "member_list" });
+		l.markStored();
+		l.clearAllPermissions();
+		l.addPermission("member_list");
+		l.addPermission("group_list");
+		BitSet added = l.getAddedPermissions();
+		BitSet removed = l.getRemovedPermissions();
+		assertEquals(1, added.cardinality());
+		assertTrue(added.get(AdminPermissionList
+				.getPermissionIndex("group_list")));
+		assertEquals(1, removed.cardinality());
+		assertTrue(removed.get(AdminPermissionList
+				.getPermissionIndex("boat_list")));
+		l.markStored();
+		assertTrue(l.getAddedPermissions().isEmpty());
+		assertTrue(l.getRemovedPermissions().isEmpty());
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.awt.Color;
+import java.util.Date;
+import java.util.Locale;
+
+import org.ahunt.simpleRowLog.interfaces.Database;
+
+import junit.framework.TestCase;
+
+public class MemberSorterTest extends TestCase {
+
+	private final GroupInfo juniors = new GroupInfo(1, "Juniors", "",
+			Color.BLUE, false);
+
+	private final GroupInfo adults = new GroupInfo(2, "Adults", "",
+			Color.RED, true);
+
+	private MemberInfo[] members = {
+			new MemberInfo(1, "Zimmer", "Anna", new Date(), adults),
+			// Luczak with a stroked L, sorted between L and M in polish.
+			new MemberInfo(2, "\u0141uczak", "Piotr", new Date(), juniors),
+			new MemberInfo(3, "Lewandowski", "Zofia", new Date(), adults),
+			new MemberInfo(4, "Mazur", "\u00c9mile", new Date(), juniors) };
+
+	/**
+	 * Sorting by surname and forename, using the polish rules.
+	 */
+	public void testIndividual() {
+		MemberSorter s = new MemberSorter(members, new Locale("pl", "PL"));
+		assertOrder(new int[] { 3, 2, 4, 1 }, s
+				.getSorted(Database.SORTED_ALPHABETICALLY_SURNAME));
+		assertOrder(new int[] { 1, 4, 2, 3 }, s
+				.getSorted(Database.SORTED_INDIVIDUAL));
+	}
+
+	/**
+	 * Sorting by group first.
+	 */
+	public void testGroup() {
+		MemberSorter s = new MemberSorter(members, new Locale("pl", "PL"));
+		assertOrder(new int[] { 3, 1, 2, 4 }, s
+				.getSorted(Database.SORTED_GROUP
+						| Database.SORTED_ALPHABETICALLY_SURNAME));
+	}
+
+	/**
+	 * The cached order can't be changed through the returned arrays.
+	 */
+	public void testCopies() {
+		MemberSorter s = new MemberSorter(members, Locale.GERMAN);
+		MemberInfo[] first = s.getSorted(Database.SORTED_INDIVIDUAL);
+		first[0] = null;
+		assertNotNull(s.getSorted(Database.SORTED_INDIVIDUAL)[0]);
+	}
+
+	private static void assertOrder(int[] ids, MemberInfo[] sorted) {
+		assertEquals(ids.length, sorted.length);
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(ids[i], sorted[i].getId());
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.common;
+
+import java.awt.Color;
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+public class NameFormatterTest extends TestCase {
+
+	private static final GroupInfo GROUP = new GroupInfo(1, "Group", null,
+			Color.WHITE, true);
+
+	protected void tearDown() throws Exception {
+		NameFormatter.getInstance().invalidate();
+	}
+
+	/**
+	 * Names follow the pattern, also after it has changed.
+	 */
+	public void testPatternChange() {
+		NameFormatter.getInstance().setPattern("{0}, {1}");
+		MemberInfo m = new MemberInfo(3, "Hunt", "Andrzej", new Date(0), GROUP);
+		assertEquals("Hunt, Andrzej", m.getName());
+		NameFormatter.getInstance().setPattern("{1} {0}");
+		assertEquals("Andrzej Hunt", m.getName());
+	}
+
+	/**
+	 * Members without a forename, and invalid patterns.
+	 */
+	public void testFallbacks() {
+		NameFormatter.getInstance().setPattern("{1} {0}");
+		assertEquals("Guest", new MemberInfo(1, "Guest", null, new Date(0),
+				GROUP).getName());
+		NameFormatter.getInstance().setPattern("{0");
+		assertEquals("Hunt,Andrzej", new MemberInfo(3, "Hunt", "Andrzej",
+				new Date(0), GROUP).getName());
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.conf;
+
+import junit.framework.TestCase;
+
+public class ConfigurationTest extends TestCase {
+
+	private Configuration conf;
+
+	protected void setUp() throws Exception {
+		conf = Configuration.getConf("simpleDB");
+		conf.setStoreOnModify(false);
+	}
+
+	protected void tearDown() throws Exception {
+		conf.setProperty("test.value", "");
+		conf.setStoreOnModify(true);
+	}
+
+	/**
+	 * The text and the typed values of a key are cached side by side, and all
+	 * follow a change.
+	 */
+	public void testTypedValues() throws Exception {
+		conf.setProperty("test.value", "42");
+		assertEquals(42, conf.getInt("test.value", 0));
+		assertEquals("42", conf.getProperty("test.value"));
+		assertEquals(42L, conf.getLong("test.value", 0));
+		assertFalse(conf.getBoolean("test.value", true));
+		assertEquals(42, conf.getInt("test.value", 0));
+
+		conf.setProperty("test.value", "true");
+		assertEquals(-1, conf.getInt("test.value", -1));
+		assertTrue(conf.getBoolean("test.value", false));
+		assertEquals("true", conf.getProperty("test.value"));
+	}
+
+	/**
+	 * Missing, empty and invalid values give the default.
+	 */
+	public void testDefaults() throws Exception {
+		assertEquals(7, conf.getInt("test.missing", 7));
+		assertTrue(conf.getBoolean("test.missing", true));
+		conf.setProperty("test.value", " ");
+		assertEquals(7, conf.getInt("test.value", 7));
+		conf.setProperty("test.value", "5000000000");
+		assertEquals(7, conf.getInt("test.value", 7));
+		assertEquals(5000000000L, conf.getLong("test.value", 7));
+	}
+}
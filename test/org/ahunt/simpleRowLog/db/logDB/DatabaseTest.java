@@ -0,0 +1,163 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Added tests of ids and of generated seasons.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.logDB;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import org.ahunt.simpleRowLog.common.OutingInfo;
+import org.ahunt.simpleRowLog.tools.DataGenerator;
+
+import junit.framework.TestCase;
+
+public class DatabaseTest extends TestCase {
+
+	private File dir;
+
+	private Database db;
+
+	private int member;
+
+	private int boat;
+
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("logDB", "");
+		dir.delete();
+		db = new Database(dir);
+		member = db.addMember("Hunt", "Andrzej", new Date(0), db
+				.getDefaultGroup().getId());
+		boat = db.addBoat("Tamesis", "4x", true);
+	}
+
+	protected void tearDown() throws Exception {
+		db.shutdown();
+		for (File f : dir.listFiles()) {
+			f.delete();
+		}
+		dir.delete();
+	}
+
+	private long addOuting(int year, int month, int day, int hour) {
+		Date date = new GregorianCalendar(year, month, day, hour, 0)
+				.getTime();
+		return db.addOuting(date, new int[] { member }, 0, date, null,
+				"comment", null, boat, 5);
+	}
+
+	/**
+	 * Modified and removed outings are read back correctly after reopening,
+	 * and after compaction.
+	 */
+	public void testReopen() throws Exception {
+		Date day = new GregorianCalendar(2010, 4, 2).getTime();
+		long a = addOuting(2010, 4, 2, 8);
+		long b = addOuting(2010, 4, 2, 10);
+		addOuting(2011, 4, 2, 10);
+		OutingInfo o = db.getOutings(day)[0];
+		db.modifyOuting(o, 0, new int[] { member }, 0, o.getOut(), new Date(o
+				.getOut().getTime() + 3600000), "changed", "Weir", boat, 12);
+		db.removeOuting(db.getOutings(day)[1]);
+		db.shutdown();
+
+		db = new Database(dir);
+		OutingInfo[] read = db.getOutings(day);
+		assertEquals(1, read.length);
+		assertEquals(a, read[0].getId());
+		assertEquals("changed", read[0].getComment());
+		assertEquals("Weir", read[0].getDestination());
+		assertEquals(12, read[0].getDistance());
+		assertEquals("Hunt", read[0].getRowers()[0].getSurname());
+		assertTrue(addOuting(2010, 4, 3, 8) > b);
+
+		assertEquals(2, db.compact(true));
+		assertEquals(1, db.getOutings(day).length);
+		assertEquals("changed", db.getOutings(day)[0].getComment());
+	}
+
+	/**
+	 * Whole generated seasons are read back as written, after reopening and
+	 * after compaction.
+	 */
+	public void testGeneratedSeasons() throws Exception {
+		Date from = new GregorianCalendar(2010, 0, 1).getTime();
+		Date to = new GregorianCalendar(2011, 11, 31).getTime();
+		new DataGenerator(db, 5).generateSeasons(80, 2010, 2011, null);
+		String[] written = describe(db.getOutings(from, to));
+		assertTrue(written.length > 1000);
+		OutingInfo[] o = db.getOutings(from, to);
+		for (int i = 0; i < o.length; i += 3) {
+			db.removeOuting(o[i]);
+		}
+		String[] kept = describe(db.getOutings(from, to));
+		db.shutdown();
+
+		db = new Database(dir);
+		assertTrue(Arrays.equals(kept, describe(db.getOutings(from, to))));
+		db.compact(true);
+		assertTrue(Arrays.equals(kept, describe(db.getOutings(from, to))));
+		assertTrue(written.length > kept.length);
+	}
+
+	/**
+	 * Describe outings, in their order, by everything the generator sets.
+	 */
+	private static String[] describe(OutingInfo[] outings) {
+		String[] s = new String[outings.length];
+		for (int i = 0; i < outings.length; i++) {
+			OutingInfo o = outings[i];
+			StringBuilder b = new StringBuilder();
+			b.append(o.getId()).append(' ').append(o.getOut().getTime())
+					.append(' ').append(o.getIn().getTime()).append(' ')
+					.append(o.getBoat().getId()).append(' ').append(
+							o.getDistance()).append(' ').append(
+							o.getDestination());
+			for (int j = 0; j < o.getRowers().length
+					&& o.getRowers()[j] != null; j++) {
+				b.append(' ').append(o.getRowers()[j].getId());
+			}
+			if (o.getCox() != null) {
+				b.append(" cox ").append(o.getCox().getId());
+			}
+			s[i] = b.toString();
+		}
+		return s;
+	}
+
+	/**
+	 * The id of a removed outing isn't handed out again, even once its
+	 * record has been compacted away.
+	 */
+	public void testIdsNotReused() throws Exception {
+		Date day = new GregorianCalendar(2010, 4, 2).getTime();
+		addOuting(2010, 4, 2, 8);
+		long last = addOuting(2010, 4, 2, 10);
+		db.removeOuting(db.getOutings(day)[1]);
+		assertEquals(1, db.compact(true));
+		db.shutdown();
+
+		db = new Database(dir);
+		assertTrue(addOuting(2010, 4, 3, 8) > last);
+	}
+}
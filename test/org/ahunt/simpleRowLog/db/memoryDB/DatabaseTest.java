@@ -0,0 +1,128 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.memoryDB;
+
+import java.io.File;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import org.ahunt.simpleRowLog.common.InvalidDataException;
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.OutingInfo;
+
+import junit.framework.TestCase;
+
+public class DatabaseTest extends TestCase {
+
+	private Database db;
+
+	private int member;
+
+	private int boat;
+
+	protected void setUp() throws Exception {
+		db = new Database();
+		member = db.addMember("Hunt", "Andrzej", new Date(0), db
+				.getDefaultGroup().getId());
+		boat = db.addBoat("Tamesis", "4x", true);
+	}
+
+	private long addOuting(int year, int month, int day, int hour) {
+		Date date = new GregorianCalendar(year, month, day, hour, 0)
+				.getTime();
+		return db.addOuting(date, new int[] { member }, 0, date, null, null,
+				null, boat, 5);
+	}
+
+	/**
+	 * Outings are returned by day and time out, whatever order they were
+	 * added in.
+	 */
+	public void testOutingOrder() {
+		long late = addOuting(2010, 4, 2, 18);
+		long nextDay = addOuting(2010, 4, 3, 7);
+		long early = addOuting(2010, 4, 2, 8);
+		addOuting(2010, 4, 4, 8);
+		OutingInfo[] o = db.getOutings(new GregorianCalendar(2010, 4, 2)
+				.getTime(), new GregorianCalendar(2010, 4, 3, 23, 0).getTime());
+		assertEquals(3, o.length);
+		assertEquals(early, o[0].getId());
+		assertEquals(late, o[1].getId());
+		assertEquals(nextDay, o[2].getId());
+	}
+
+	/**
+	 * The outings of a removed member are moved to the replacement.
+	 */
+	public void testRemoveMember() {
+		addOuting(2010, 4, 2, 8);
+		MemberInfo m = db.getMember(member);
+		MemberInfo deleted = db.getMember(Database.DELETED_MEMBER_ID);
+		db.removeMember(m, deleted);
+		Date day = new GregorianCalendar(2010, 4, 2).getTime();
+		assertEquals(0, db.getOutings(m, day, day).length);
+		assertEquals(1, db.getOutings(deleted, day, day).length);
+		assertNull(db.getMember(member));
+	}
+
+	/**
+	 * Members with the same name and date of birth are refused.
+	 */
+	public void testDuplicateMember() {
+		try {
+			db.addMember("Hunt", "Andrzej", new Date(0), db.getDefaultGroup()
+					.getId());
+			fail("Duplicate member added.");
+		} catch (InvalidDataException e) {
+			// Expected.
+		}
+	}
+
+	/**
+	 * Everything is read back from a snapshot.
+	 */
+	public void testSnapshot() throws Exception {
+		long id = addOuting(2010, 4, 2, 8);
+		db.addAdmin("admin", "secret".toCharArray(), "Admin", true, "");
+		db.getAdmin("admin").getPermissionList().addPermission("member_list");
+		File file = File.createTempFile("memoryDB", ".srlm");
+		try {
+			db.saveSnapshot(file);
+			Database copy = new Database(file);
+			assertEquals(db.getMembers().length, copy.getMembers().length);
+			assertEquals("Tamesis", copy.getBoat(boat).getName());
+			Date day = new GregorianCalendar(2010, 4, 2).getTime();
+			OutingInfo[] o = copy.getOutings(day);
+			assertEquals(1, o.length);
+			assertEquals(id, o[0].getId());
+			assertEquals("Hunt", o[0].getRowers()[0].getSurname());
+			assertTrue(copy.getAdmin("admin").validatePassword(
+					"secret".toCharArray()));
+			assertTrue(copy.getAdmin("admin").getPermissionList()
+					.isPermissionSet("member_list"));
+			// New ids don't clash with those read.
+			assertTrue(copy.addBoat("Isis", "2-", true) > boat);
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.GregorianCalendar;
+
+import junit.framework.TestCase;
+
+public class RestorerTest extends TestCase {
+
+	private File dir;
+
+	private Restorer restorer;
+
+	protected void setUp() throws Exception {
+		dir = File.createTempFile("backups", "");
+		dir.delete();
+		dir.mkdir();
+		restorer = new Restorer(dir);
+	}
+
+	protected void tearDown() throws Exception {
+		BackupManager.delete(dir);
+	}
+
+	private static long time(int day, int hour) {
+		return new GregorianCalendar(2026, 9, day, hour, 0).getTimeInMillis();
+	}
+
+	private File backup(String name, boolean complete, int... logs)
+			throws IOException {
+		File backup = new File(dir, name);
+		File log = new File(backup, "srl/log");
+		log.mkdirs();
+		for (int l : logs) {
+			touch(new File(log, "log" + l + ".dat"), 0);
+		}
+		touch(new File(log, "log.ctrl"), 0);
+		if (complete) {
+			touch(new File(backup, BackupManager.MANIFEST), 0);
+		}
+		return backup;
+	}
+
+	private static void touch(File f, long time) throws IOException {
+		f.getParentFile().mkdirs();
+		new FileWriter(f).close();
+		if (time != 0) {
+			f.setLastModified(time);
+		}
+	}
+
+	/**
+	 * The newest complete backup started before the time is used.
+	 */
+	public void testFindBackup() throws Exception {
+		backup("full-20261017-120000", true, 1);
+		File b = backup("full-20261018-120000", true, 5);
+		backup("full-20261019-120000.part", false, 8);
+		backup("full-20261019-110000", false, 8);
+		backup("other", true, 8);
+		assertNull(restorer.findBackup(new GregorianCalendar(2026, 9, 17, 11,
+				0).getTime()));
+		assertEquals(b, restorer.findBackup(new GregorianCalendar(2026, 9,
+				18, 12, 0).getTime()));
+		assertEquals(b, restorer.findBackup(new GregorianCalendar(2026, 9,
+				20, 0, 0).getTime()));
+	}
+
+	/**
+	 * Only the consecutive logs from the backup's last one onwards, written
+	 * up to the time, are applied.
+	 */
+	public void testFindLogs() throws Exception {
+		File b = backup("full-20261018-120000", true, 4, 5);
+		File logs = new File(dir, BackupManager.LOGS);
+		touch(new File(logs, "log4.dat"), time(18, 11));
+		touch(new File(logs, "log5.dat"), time(18, 13));
+		touch(new File(logs, "log6.dat"), time(18, 15));
+		touch(new File(logs, "log7.dat"), time(18, 17));
+		touch(new File(logs, "log9.dat"), time(18, 19));
+
+		File[] found = restorer.findLogs(b, new GregorianCalendar(2026, 9,
+				18, 16, 0).getTime());
+		assertEquals(2, found.length);
+		assertEquals("log5.dat", found[0].getName());
+		assertEquals("log6.dat", found[1].getName());
+
+		assertEquals(3, restorer.findLogs(b,
+				new GregorianCalendar(2026, 9, 18, 18, 0).getTime()).length);
+		assertEquals(0, restorer.findLogs(b,
+				new GregorianCalendar(2026, 9, 18, 12, 30).getTime()).length);
+
+		// log8 is missing, so the logs can't be applied up to log9.
+		try {
+			restorer.findLogs(b, new GregorianCalendar(2026, 9, 20).getTime());
+			fail("Rolled forward over a missing log");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("log8.dat"));
+		}
+	}
+
+	/**
+	 * The backup's own last log must be among the archived ones, or nothing
+	 * after it can be applied.
+	 */
+	public void testFirstLogMissing() throws Exception {
+		File b = backup("full-20261018-120000", true, 4, 5);
+		File logs = new File(dir, BackupManager.LOGS);
+		touch(new File(logs, "log4.dat"), time(18, 11));
+		touch(new File(logs, "log6.dat"), time(18, 15));
+		try {
+			restorer.findLogs(b, new GregorianCalendar(2026, 9, 18, 16, 0)
+					.getTime());
+			fail("Rolled forward without the backup's log");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("log5.dat"));
+		}
+		// Before log6 was finished the backup is restored as it was made.
+		assertEquals(0, restorer.findLogs(b,
+				new GregorianCalendar(2026, 9, 18, 14, 0).getTime()).length);
+	}
+}
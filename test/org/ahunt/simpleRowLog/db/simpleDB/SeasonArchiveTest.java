@@ -0,0 +1,175 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.db.simpleDB;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+
+import org.ahunt.simpleRowLog.common.BoatInfo;
+import org.ahunt.simpleRowLog.common.GroupInfo;
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.OutingInfo;
+
+import junit.framework.TestCase;
+
+public class SeasonArchiveTest extends TestCase {
+
+	private static final GroupInfo GROUP = new GroupInfo(1, "Club", "",
+			Color.WHITE, true);
+
+	private File file;
+
+	private HashMap<Integer, MemberInfo> members = new HashMap<Integer, MemberInfo>();
+
+	private HashMap<Integer, BoatInfo> boats = new HashMap<Integer, BoatInfo>();
+
+	protected void setUp() throws Exception {
+		file = File.createTempFile("outings_2010", ".col");
+		for (int i = 1; i <= 4; i++) {
+			members.put(i, new MemberInfo(i, "Member" + i, "A", new Date(0),
+					GROUP));
+		}
+		boats.put(7, new BoatInfo(7, "Tamesis", "4x", true));
+		boats.put(8, new BoatInfo(8, "Isis", "1x", true));
+	}
+
+	protected void tearDown() throws Exception {
+		file.delete();
+	}
+
+	private static Date time(int month, int day, int hour) {
+		return new GregorianCalendar(2010, month, day, hour, 0).getTime();
+	}
+
+	private SeasonArchive createArchive() throws Exception {
+		SeasonArchive.Builder b = new SeasonArchive.Builder(2010);
+		// Added out of order, and with the largest ids first.
+		b.add(30, time(5, 2, 0), new int[] { 3, 0, 0, 0, 0, 0, 0, 0, 0 },
+				time(5, 2, 9).getTime(), 0, null, "Weir", 8, 0);
+		b.add(10, time(4, 1, 0), new int[] { 1, 2, 0, 0, 0, 0, 0, 0, 4 },
+				time(4, 1, 8).getTime(), time(4, 1, 10).getTime(),
+				"\u00fcber", "Weir", 7, 12);
+		b.add(20, time(4, 1, 0), new int[] { 2, 0, 0, 0, 0, 0, 0, 0, 0 },
+				time(4, 1, 7).getTime(), time(4, 1, 8).getTime(), null,
+				null, 8, 5);
+		SeasonArchive archive = b.build();
+		archive.write(file);
+		return SeasonArchive.read(file);
+	}
+
+	/**
+	 * Outings are read back as they were added, ordered by day and time out.
+	 */
+	public void testRoundTrip() throws Exception {
+		SeasonArchive archive = createArchive();
+		assertEquals(2010, archive.getYear());
+		assertEquals(3, archive.size());
+		ArrayList<OutingInfo> outings = new ArrayList<OutingInfo>();
+		archive.getOutings(0, archive.size(), 0, 0, members, boats, outings);
+		assertEquals(20, outings.get(0).getId());
+		assertEquals(10, outings.get(1).getId());
+		assertEquals(30, outings.get(2).getId());
+
+		OutingInfo o = outings.get(1);
+		assertEquals(time(4, 1, 0), o.getDay());
+		assertEquals(time(4, 1, 8), o.getOut());
+		assertEquals(time(4, 1, 10), o.getIn());
+		assertEquals(1, o.getRowers()[0].getId());
+		assertEquals(2, o.getRowers()[1].getId());
+		assertNull(o.getRowers()[2]);
+		assertEquals(4, o.getCox().getId());
+		assertEquals("\u00fcber", o.getComment());
+		assertEquals("Weir", o.getDestination());
+		assertEquals(7, o.getBoat().getId());
+		assertEquals(12, o.getDistance());
+		assertNull(outings.get(2).getIn());
+		assertEquals("", outings.get(2).getComment());
+		assertEquals("", outings.get(0).getDestination());
+		assertNull(archive.getComment(2));
+	}
+
+	/**
+	 * Days, members and boats select the right outings, and the totals count
+	 * outings and seats as the tables' statistics do.
+	 */
+	public void testQueries() throws Exception {
+		SeasonArchive archive = createArchive();
+		assertEquals(0, archive.indexOf(time(0, 1, 0), false));
+		assertEquals(2, archive.indexOf(time(4, 1, 0), true));
+		assertEquals(2, archive.indexOf(time(5, 2, 0), false));
+		assertEquals(3, archive.indexOf(new GregorianCalendar(2011, 0, 1)
+				.getTime(), false));
+
+		ArrayList<OutingInfo> outings = new ArrayList<OutingInfo>();
+		archive.getOutings(0, archive.size(), 2, 8, members, boats, outings);
+		assertEquals(1, outings.size());
+		assertEquals(20, outings.get(0).getId());
+
+		int[] totals = archive.getMemberTotals(2);
+		assertEquals(2, totals[0]);
+		assertEquals(17, totals[1]);
+		HashMap<Integer, int[]> all = new HashMap<Integer, int[]>();
+		archive.addAllMemberTotals(all, 2, 4);
+		assertEquals(1, all.get(4)[2]);
+		assertEquals(12, all.get(4)[3]);
+		assertNull(all.get(0));
+	}
+
+	/**
+	 * Replacing a member only changes the copy, and survives writing.
+	 */
+	public void testReplaceMember() throws Exception {
+		SeasonArchive archive = createArchive();
+		assertSame(archive, archive.replaceMember(99, 1));
+		SeasonArchive replaced = archive.replaceMember(2, 1);
+		replaced.write(file);
+		replaced = SeasonArchive.read(file);
+		assertEquals(0, replaced.getMemberTotals(2)[0]);
+		assertEquals(2, replaced.getMemberTotals(1)[0]);
+		assertEquals(2, archive.getMemberTotals(2)[0]);
+	}
+
+	/**
+	 * Damaged files are detected.
+	 */
+	public void testDamaged() throws Exception {
+		createArchive();
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.seek(20);
+		int b = raf.read();
+		// read() moved past the byte.
+		raf.seek(20);
+		raf.write(b ^ 1);
+		raf.close();
+		try {
+			SeasonArchive.read(file);
+			fail("Damaged archive was read");
+		} catch (java.io.IOException e) {
+			// Expected.
+		}
+	}
+}
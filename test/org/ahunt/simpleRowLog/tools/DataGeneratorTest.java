@@ -0,0 +1,99 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Check the number of outings instead of comparing seeds.
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.tools;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.ahunt.simpleRowLog.common.MemberInfo;
+import org.ahunt.simpleRowLog.common.OutingInfo;
+import org.ahunt.simpleRowLog.db.memoryDB.Database;
+
+import junit.framework.TestCase;
+
+public class DataGeneratorTest extends TestCase {
+
+	private static OutingInfo[] generate(long seed) {
+		Database db = new Database();
+		new DataGenerator(db, seed).generateSeasons(120, 2010, 2011, null);
+		return db.getOutings(new GregorianCalendar(2010, 0, 1).getTime(),
+				new GregorianCalendar(2011, 11, 31).getTime());
+	}
+
+	/**
+	 * The same seed gives the same outings.
+	 */
+	public void testReproducible() {
+		OutingInfo[] a = generate(7);
+		OutingInfo[] b = generate(7);
+		assertTrue(a.length > 0);
+		assertEquals(a.length, b.length);
+		for (int i = 0; i < a.length; i++) {
+			assertEquals(a[i].getId(), b[i].getId());
+			assertEquals(a[i].getOut(), b[i].getOut());
+			assertEquals(a[i].getBoat().getId(), b[i].getBoat().getId());
+			assertEquals(a[i].getRowers()[0].getId(), b[i].getRowers()[0]
+					.getId());
+			assertEquals(a[i].getDistance(), b[i].getDistance());
+		}
+	}
+
+	/**
+	 * The club of 120 members averages 120 / 15 = 8 outings a day.
+	 */
+	public void testOutingCount() {
+		int expected = 8 * 730;
+		for (long seed = 1; seed <= 3; seed++) {
+			int outings = generate(seed).length;
+			assertTrue(outings + " outings", outings > expected * 0.9
+					&& outings < expected * 1.1);
+		}
+	}
+
+	/**
+	 * There are more outings in summer, and nobody sits in a boat twice.
+	 */
+	public void testSeasonsAndCrews() {
+		int summer = 0;
+		int winter = 0;
+		Calendar day = new GregorianCalendar();
+		for (OutingInfo o : generate(1)) {
+			day.setTime(o.getDay());
+			int month = day.get(Calendar.MONTH);
+			if (month >= 5 && month <= 7) {
+				summer++;
+			} else if (month <= 1 || month == 11) {
+				winter++;
+			}
+			MemberInfo[] rowers = o.getRowers();
+			for (int i = 0; i < rowers.length && rowers[i] != null; i++) {
+				for (int j = 0; j < i; j++) {
+					assertFalse(rowers[i].getId() == rowers[j].getId());
+				}
+				assertFalse(o.getCox() != null
+						&& rowers[i].getId() == o.getCox().getId());
+			}
+		}
+		assertTrue(summer > 2 * winter);
+	}
+}
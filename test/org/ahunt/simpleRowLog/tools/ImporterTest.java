@@ -0,0 +1,85 @@
+/*
+ *    This file is part of simple rowLog: the open rowing logbook.
+ *    Copyright (C) 2026  Andrzej JR Hunt
+ *
+ *    simple rowLog is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    simple rowLog is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with simple rowLog.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *	Changelog:
+ *	19/10/2026:	Created.
+ */
+package org.ahunt.simpleRowLog.tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import org.ahunt.simpleRowLog.common.OutingInfo;
+import org.ahunt.simpleRowLog.db.memoryDB.Database;
+
+import junit.framework.TestCase;
+
+public class ImporterTest extends TestCase {
+
+	private Database db;
+
+	private int member;
+
+	protected void setUp() throws Exception {
+		db = new Database();
+		member = db.addMember("Hunt", "Andrzej", new GregorianCalendar(1990,
+				0, 1).getTime(), db.getDefaultGroup().getId());
+	}
+
+	private static File write(String contents) throws Exception {
+		File file = File.createTempFile("import", ".csv");
+		file.deleteOnExit();
+		Writer out = new OutputStreamWriter(new FileOutputStream(file),
+				"UTF-8");
+		out.write(contents);
+		out.close();
+		return file;
+	}
+
+	/**
+	 * The outings refer to the members and boats by their ids in this
+	 * database, whether they were imported or already existed.
+	 */
+	public void testIdsTranslated() throws Exception {
+		Importer importer = new Importer(db);
+		assertEquals(1, importer.importFile(write("id,name,type,inHouse\n"
+				+ "40,Tamesis,4x,true\n"), null));
+		assertEquals(1, importer.importFile(write("id,surname,forename,dob,"
+				+ "group_id,group\n" + "50,Hunt,Andrzej,1990-01-01,7,Nobody\n"
+				+ "51,Smith,Anna,1991-02-03,7,Nobody\n"), null));
+		assertEquals(1, importer.getSkipped());
+		assertEquals(1, importer.importFile(write("id,day,time_out,time_in,"
+				+ "boat_id,cox_id,rower1_id,rower2_id,distance\n"
+				+ "1,2010-05-02,2010-05-02 08:00,,40,0,50,51,12\n"
+				+ "2,2010-05-02,2010-05-02 09:00,,40,0,99,,12\n"), null));
+		assertEquals(1, importer.getSkipped());
+
+		OutingInfo[] o = db.getOutings(new GregorianCalendar(2010, 4, 2)
+				.getTime(), new Date());
+		assertEquals(1, o.length);
+		assertEquals(member, o[0].getRowers()[0].getId());
+		assertEquals("Smith", o[0].getRowers()[1].getSurname());
+		assertEquals("Tamesis", o[0].getBoat().getName());
+		assertEquals(db.getDefaultGroup().getId(), o[0].getRowers()[1]
+				.getGroupInfo().getId());
+	}
+}